@@ -1,28 +1,42 @@
+import com.fizzed.blaze.Config;
 import com.fizzed.blaze.Contexts;
 import com.fizzed.jne.ABI;
 import com.fizzed.jne.HardwareArchitecture;
 import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.JavaInstallerHistory;
+import com.fizzed.provisioning.JavaInstallerJsonReader;
+import com.fizzed.provisioning.JavaInstallerJsonWriter;
+import com.fizzed.provisioning.JavaInstallerPipeline;
+import com.fizzed.provisioning.JavaInstallerShardStore;
 import com.fizzed.provisioning.ProvisioningHelper;
 import com.fizzed.provisioning.adoptium.AdoptiumClient;
-import com.fizzed.provisioning.adoptium.AdoptiumJavaRelease;
-import com.fizzed.provisioning.adoptium.AdoptiumJavaReleases;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.http.LatencyHistogram;
 import com.fizzed.provisioning.java.ImageType;
 import com.fizzed.provisioning.java.InstallerType;
 import com.fizzed.provisioning.java.JavaDistro;
 import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerBinaryCatalog;
+import com.fizzed.provisioning.java.JavaInstallerConversion;
+import com.fizzed.provisioning.java.JavaInstallerShard;
+import com.fizzed.provisioning.java.JavaInstallerTarget;
+import com.fizzed.provisioning.java.JavaVersionRange;
+import com.fizzed.provisioning.java.JavaVersionResolver;
 import com.fizzed.provisioning.liberica.LibericaClient;
-import com.fizzed.provisioning.liberica.LibericaJavaRelease;
 import com.fizzed.provisioning.zulu.ZuluClient;
-import com.fizzed.provisioning.zulu.ZuluJavaRelease;
 import org.slf4j.Logger;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.fizzed.blaze.Contexts.withBaseDir;
-import static com.fizzed.crux.util.Maybe.maybe;
 import static java.util.Arrays.asList;
 
 
@@ -53,109 +67,186 @@ public class blaze {
     private final Path projectDir = withBaseDir("../").toAbsolutePath();
     private final Path dataDir = projectDir.resolve("data");
     private final Path linuxDir = projectDir.resolve("linux");
+    private final Config config = Contexts.config();
     private final Logger log = Contexts.logger();
+    private final Path httpCacheDir = Paths.get(config.value("http.cache.dir").orElse(projectDir.resolve("target/http-cache").toString()));
     private final Path javaInstallersFile = dataDir.resolve("java-installers.json");
+    private final Path javaInstallersBinFile = dataDir.resolve("java-installers.bin");
+    private final Path javaInstallerHistoryDir = dataDir.resolve("java-installer-history");
+    private final Path javaInstallerShardsDir = dataDir.resolve("java-installers");
 
     public void update_java_installers() throws Exception {
-        // we will collect all java installers into this array
-        final List<JavaInstaller> allJavaInstallers = new ArrayList<>();
-
-        final ZuluClient zuluClient = new ZuluClient();
+        // every (distro, major version) is fetched concurrently, then merged back in this order
+        final List<JavaInstallerShard> shards = new ArrayList<>();
         for (int javaMajorVersion : asList(25, 21, 17, 11, 8)) {
-            final List<JavaInstaller> javaInstallers = new ArrayList<>();
-            log.info("Fetching zulu releases for jdk version {}...", javaMajorVersion);
-            final List<ZuluJavaRelease> javaReleases = zuluClient.getReleases(javaMajorVersion);
-            for (ZuluJavaRelease javaRelease : javaReleases) {
-                JavaInstaller javaInstaller = zuluClient.toInstaller(javaRelease);
-                // only jdks
-                if (javaInstaller != null && javaInstaller.getImageType() == ImageType.JDK) {
-                    javaInstallers.add(javaInstaller);
-                }
-            }
+            shards.add(new JavaInstallerShard(JavaDistro.ZULU, javaMajorVersion));
+        }
+        for (int javaMajorVersion : asList(25, 21, 17, 11, 8)) {
+            shards.add(new JavaInstallerShard(JavaDistro.LIBERICA, javaMajorVersion));
+        }
+        for (int javaMajorVersion : asList(25, 21, 17, 11)) {
+            shards.add(new JavaInstallerShard(JavaDistro.TEMURIN, javaMajorVersion));
+        }
+        // these publish via github releases, where the unauthenticated rate limit is tiny (set GITHUB_TOKEN to raise it)
+        for (int javaMajorVersion : asList(25, 21, 17, 11, 8)) {
+            shards.add(new JavaInstallerShard(JavaDistro.CORRETTO, javaMajorVersion));
+        }
+        for (int javaMajorVersion : asList(25, 21, 17, 11)) {
+            shards.add(new JavaInstallerShard(JavaDistro.SAPMACHINE, javaMajorVersion));
+        }
+        for (int javaMajorVersion : asList(25, 21, 17, 11, 8)) {
+            shards.add(new JavaInstallerShard(JavaDistro.SEMERU, javaMajorVersion));
+        }
 
-            final List<JavaInstaller> filteredJavaInstallers = filterJavaInstallersToLatestVersion(javaInstallers);
-            allJavaInstallers.addAll(filteredJavaInstallers);
+        // vendor metadata is revalidated against an on-disk cache, so unchanged responses are served from disk, and
+        // slow outliers can be hedged with --http.hedge.percentile (e.g. 95)
+        final String hedgePercentileValue = config.value("http.hedge.percentile").orElse("");
+        final HttpTransport.Builder transportBuilder = HttpTransport.builder()
+            .setCacheDir(this.httpCacheDir)
+            .setHedgePercentile(hedgePercentileValue.isBlank() ? null : Double.valueOf(hedgePercentileValue));
+
+        // vendor responses can be recorded (e.g. --http.record target/fixtures) and later replayed offline by the
+        // HttpReplayDemo of the tests (the replay server is test tooling, so it isn't on blaze's classpath)
+        final String recordDirValue = config.value("http.record").orElse("");
+        if (!recordDirValue.isBlank()) {
+            log.info("Recording vendor responses to {}", recordDirValue);
+            transportBuilder.setRecordDir(Paths.get(recordDirValue));
         }
 
-        final LibericaClient libericaClient = new LibericaClient();
-        for (int javaMajorVersion : asList(25, 21, 17, 11, 8)) {
-            final List<JavaInstaller> javaInstallers = new ArrayList<>();
-            log.info("Fetching liberica releases for jdk version {}...", javaMajorVersion);
-            final List<LibericaJavaRelease> javaReleases = libericaClient.getReleases(javaMajorVersion);
-            for (LibericaJavaRelease javaRelease : javaReleases) {
-                JavaInstaller javaInstaller = libericaClient.toInstaller(javaRelease);
-                // only jdks
-                if (javaInstaller != null && javaInstaller.getImageType() == ImageType.JDK) {
-                    javaInstallers.add(javaInstaller);
-                }
+        final HttpTransport transport = transportBuilder.build();
+
+        final JavaInstallerPipeline pipeline = new JavaInstallerPipeline(transport)
+            .setVirtualThreads(true);
+
+        // only fetch the shards requested (e.g. --shards zulu-21,temurin-17) and/or older than --max.age (e.g. PT12H),
+        // by default every shard is refreshed, while a shard whose vendor fails keeps its previous content
+        final Set<String> requestedShards = new HashSet<>();
+        for (String requestedShard : config.value("shards").orElse("").split(",")) {
+            if (!requestedShard.isBlank()) {
+                requestedShards.add(requestedShard.trim());
             }
+        }
+        final String maxAgeValue = config.value("max.age").orElse("");
+        final Duration maxAge = maxAgeValue.isBlank() ? null : Duration.parse(maxAgeValue);
+        final Instant now = Instant.now();
+
+        final JavaInstallerShardStore shardStore = new JavaInstallerShardStore(this.javaInstallerShardsDir).load();
 
-            final List<JavaInstaller> filteredJavaInstallers = filterJavaInstallersToLatestVersion(javaInstallers);
-            allJavaInstallers.addAll(filteredJavaInstallers);
+        if (Files.exists(this.javaInstallersFile)) {
+            try (Stream<JavaInstaller> javaInstallers = JavaInstallerJsonReader.stream(this.javaInstallersFile)) {
+                shardStore.seed(shards, javaInstallers.collect(Collectors.toList()));
+            }
         }
 
-        final AdoptiumClient adoptiumClient = new AdoptiumClient();
-        for (int javaMajorVersion : asList(25, 21, 17, 11)) {
-            final List<JavaInstaller> javaInstallers = new ArrayList<>();
-            log.info("Fetching temurin releases for jdk version {}...", javaMajorVersion);
-            final List<AdoptiumJavaReleases> javaReleases1 = adoptiumClient.getReleases(javaMajorVersion);
-            for (AdoptiumJavaReleases javaReleases : javaReleases1) {
-                for (AdoptiumJavaRelease javaRelease : javaReleases.getBinaries()) {
-                    JavaInstaller javaInstaller = adoptiumClient.toInstaller(javaRelease);
-                    // only jdks
-                    if (javaInstaller != null && javaInstaller.getImageType() == ImageType.JDK) {
-                        javaInstallers.add(javaInstaller);
-                    }
-                }
+        shardStore.refresh(pipeline, shards, shard -> {
+            if (requestedShards.contains(shard.toString())) {
+                return true;
+            }
+            if (!requestedShards.isEmpty() && maxAge == null) {
+                return false;
             }
+            return shardStore.isStale(shard, maxAge, now);
+        });
+
+        final List<JavaInstaller> allJavaInstallers = shardStore.merge(shards);
 
-            final List<JavaInstaller> filteredJavaInstallers = filterJavaInstallersToLatestVersion(javaInstallers);
-            allJavaInstallers.addAll(filteredJavaInstallers);
+        for (LatencyHistogram latencyHistogram : transport.getLatencyHistograms().values()) {
+            log.info("Latency of {}", latencyHistogram);
         }
 
         // dump out the installers
-        log.trace("{}", ProvisioningHelper.getObjectMapper().writeValueAsString(allJavaInstallers));
+        if (log.isTraceEnabled()) {
+            log.trace("{}", ProvisioningHelper.getObjectMapper().writeValueAsString(allJavaInstallers));
+        }
+
+        // streamed out an installer at a time, pretty printed as its diffs are reviewed
+        if (ProvisioningHelper.writeIfChanged(this.javaInstallersFile, output -> {
+            try (JavaInstallerJsonWriter writer = new JavaInstallerJsonWriter(output, JavaInstallerJsonWriter.Layout.PRETTY_ARRAY)) {
+                writer.writeAll(allJavaInstallers);
+            }
+        })) {
+            log.info("Wrote java-installers to file {}", this.javaInstallersFile);
+        } else {
+            log.info("No changes to java-installers file {}", this.javaInstallersFile);
+        }
+
+        // the same installers, in a binary format that can be memory mapped and queried without parsing it all
+        if (ProvisioningHelper.writeIfChanged(this.javaInstallersBinFile, JavaInstallerBinaryCatalog.encode(allJavaInstallers))) {
+            log.info("Wrote java-installers to file {}", this.javaInstallersBinFile);
+        } else {
+            log.info("No changes to java-installers file {}", this.javaInstallersBinFile);
+        }
 
-        Files.write(this.javaInstallersFile, ProvisioningHelper.getObjectMapper().writeValueAsBytes(allJavaInstallers), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-        log.info("Wrote java-installers to file {}", this.javaInstallersFile);
+        // what was added and removed by this refresh, so the catalog as of any time can be answered later
+        new JavaInstallerHistory(this.javaInstallerHistoryDir).load().record(allJavaInstallers, now);
     }
 
-    private List<JavaInstaller> filterJavaInstallersToLatestVersion(List<JavaInstaller> javaInstallers) {
-        List<JavaInstaller> filteredJavaInstallers = new ArrayList<>();
-
-        // sort the list by the all the fields, with versions descending
-        javaInstallers.sort(JavaInstaller.COMPARATOR);
-
-        // find the first matching installer for the os-arch-abi-image-type combo we are looking for (this will ensure
-        // we have the latest version of each
-        for (OperatingSystem os : OperatingSystem.values()) {
-            for (HardwareArchitecture arch : HardwareArchitecture.values()) {
-                for (ABI abi : ABI.values()) {
-                    for (ImageType imageType : ImageType.values()) {
-                        for (InstallerType installerType : InstallerType.values()) {
-                            for (JavaInstaller javaInstaller : javaInstallers) {
-                                if (os == javaInstaller.getOs() && arch == javaInstaller.getArch() && abi == maybe(javaInstaller.getAbi()).orElse(ABI.DEFAULT) && imageType == javaInstaller.getImageType() && installerType == javaInstaller.getInstallerType()) {
-                                    filteredJavaInstallers.add(javaInstaller);
-                                    break;
-                                }
-                            }
-                        }
-                    }
+    public void convert_java_releases() throws Exception {
+        // converts the full release lists of the vendors with a metadata api in bulk, reporting every release that
+        // couldn't be converted (per vendor) and the conversion throughput of each thread, without failing on any of them
+        final HttpTransport transport = HttpTransport.builder()
+            .setCacheDir(this.httpCacheDir)
+            .build();
+        final ZuluClient zuluClient = new ZuluClient(transport);
+        final LibericaClient libericaClient = new LibericaClient(transport);
+        final AdoptiumClient adoptiumClient = new AdoptiumClient(transport);
+
+        final List<JavaInstallerConversion> conversions = new ArrayList<>();
+        for (int javaMajorVersion : asList(25, 21, 17, 11, 8)) {
+            conversions.add(zuluClient.toInstallers(zuluClient.getReleases(javaMajorVersion)));
+            conversions.add(libericaClient.toInstallers(libericaClient.getReleases(javaMajorVersion)));
+            conversions.add(adoptiumClient.toInstallers(adoptiumClient.getReleases(javaMajorVersion)));
+        }
 
-                }
+        for (JavaInstallerConversion conversion : conversions) {
+            log.info("{}", conversion);
+            for (JavaInstallerConversion.ThreadTiming threadTiming : conversion.getThreadTimings()) {
+                log.info("  {}", threadTiming);
+            }
+            for (Map.Entry<String, List<JavaInstallerConversion.Failure>> failures : conversion.getFailuresByReason().entrySet()) {
+                log.warn("  {} release(s) failed, {} (e.g. {})", failures.getValue().size(), failures.getKey(),
+                    failures.getValue().stream().limit(3).map(f -> f.getName() != null ? f.getName() : f.toString()).collect(Collectors.toList()));
             }
         }
+    }
 
-        Collections.sort(filteredJavaInstallers, JavaInstaller.COMPARATOR);
+    public void resolve_java_installers() throws Exception {
+        // resolves a version range for a target, e.g. --distro temurin --arch x64 --range "21.0.x,>=21.0.5", optionally
+        // as the catalog was at a time (e.g. --as.of 2026-03-01T00:00:00Z) from its history
+        final String asOfValue = config.value("as.of").orElse("");
+        final List<JavaInstaller> allJavaInstallers;
+        if (!asOfValue.isBlank()) {
+            allJavaInstallers = new JavaInstallerHistory(this.javaInstallerHistoryDir).load().asOf(Instant.parse(asOfValue));
+        } else {
+            try (Stream<JavaInstaller> javaInstallers = JavaInstallerJsonReader.stream(this.javaInstallersFile)) {
+                allJavaInstallers = javaInstallers.collect(Collectors.toList());
+            }
+        }
 
-        return filteredJavaInstallers;
+        final JavaInstallerTarget target = new JavaInstallerTarget(
+            JavaDistro.fromName(config.value("distro").orElse("zulu")),
+            null,
+            OperatingSystem.valueOf(config.value("os").orElse("linux").toUpperCase()),
+            HardwareArchitecture.valueOf(config.value("arch").orElse("x64").toUpperCase()),
+            ABI.valueOf(config.value("abi").orElse("default").toUpperCase()),
+            ImageType.valueOf(config.value("image.type").orElse("jdk").toUpperCase()),
+            InstallerType.valueOf(config.value("installer.type").orElse("tar_gz").toUpperCase()));
+        final JavaVersionRange range = JavaVersionRange.parse(config.value("range").orElse("*"));
+
+        final List<JavaInstaller> resolved = new JavaVersionResolver(allJavaInstallers).resolveAll(target, range);
+        log.info("Resolved {} installer(s) of {} in range {}", resolved.size(), target, range);
+        for (JavaInstaller javaInstaller : resolved) {
+            log.info("  {} {}", javaInstaller.getVersion(), javaInstaller.getDownloadUrl());
+        }
     }
 
     public void update_bootstrap_java_sh() throws Exception {
         // load the latest java installer data
         log.info("Loading java-installers from file {}", this.javaInstallersFile);
-        final byte[] javaInstallersData = Files.readAllBytes(this.javaInstallersFile);
-        final List<JavaInstaller> allJavaInstallers = ProvisioningHelper.getObjectMapper().readValue(javaInstallersData, new com.fasterxml.jackson.core.type.TypeReference<>() {});
+        final List<JavaInstaller> allJavaInstallers;
+        try (Stream<JavaInstaller> javaInstallers = JavaInstallerJsonReader.stream(this.javaInstallersFile)) {
+            allJavaInstallers = javaInstallers.collect(Collectors.toList());
+        }
 
         // what we are interested in loading into our linux shell script
         final List<JavaDistro> distros = asList(JavaDistro.ZULU, JavaDistro.LIBERICA, JavaDistro.TEMURIN);
@@ -198,6 +289,17 @@ public class blaze {
             .setDownloadUrl("https://cdn.azul.com/zulu-embedded/bin/zulu11.64.19-ca-jdk11.0.19-linux_aarch32hf.tar.gz"));
 */
 
+        // indexed once, so each target below is a lookup rather than a scan of every installer, and a major version can
+        // be pinned to a range other than its newest (e.g. --java.range.17 "17,!17.0.13")
+        final JavaVersionResolver resolver = new JavaVersionResolver(allJavaInstallers);
+        final Map<Integer, JavaVersionRange> javaVersionRanges = new HashMap<>();
+        for (int javaMajorVersion : javaMajorVersions) {
+            final JavaVersionRange javaVersionRange = JavaVersionRange.major(javaMajorVersion)
+                .and(JavaVersionRange.parse(config.value("java.range." + javaMajorVersion).orElse("*")));
+            javaVersionRanges.put(javaMajorVersion, javaVersionRange);
+            log.info("Resolving java {} by range {}", javaMajorVersion, javaVersionRange);
+        }
+
         final String startComment = "#\n# Automatically generated list of urls (do not edit by hand)\n#\n";
         final String endComment = "#\n# End of automatically generated list of urls\n#\n";
         final StringBuilder shellSnippet = new StringBuilder();
@@ -221,16 +323,7 @@ public class blaze {
                             shellSnippet.append("        if [ \"$JAVA_ARCH\" = \""+arch.toString().toLowerCase()+"\" ]; then\n");
 
                             // find most recent jdk, .tar.gz installer
-                            JavaInstaller javaInstaller = allJavaInstallers.stream()
-                                .filter(v -> distro == v.getDistro())
-                                .filter(v -> javaMajorVersion == v.getVersion().getMajor())
-                                .filter(v -> os == v.getOs())
-                                .filter(v -> arch == v.getArch())
-                                .filter(v -> abi == maybe(v.getAbi()).orElse(ABI.DEFAULT))
-                                .filter(v -> ImageType.JDK == v.getImageType())
-                                .filter(v -> InstallerType.TAR_GZ == v.getInstallerType())
-                                .findFirst()
-                                .orElse(null);
+                            JavaInstaller javaInstaller = resolver.resolve(new JavaInstallerTarget(distro, null, os, arch, abi, ImageType.JDK, InstallerType.TAR_GZ), javaVersionRanges.get(javaMajorVersion));
 
                             if (javaInstaller != null) {
 //                            log.info("Found jdk for {}, {}, {} at url {}", javaVersion, system, arch, javaInstaller.getDownloadUrl());
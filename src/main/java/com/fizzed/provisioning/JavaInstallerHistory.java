@@ -0,0 +1,288 @@
+package com.fizzed.provisioning;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.util.ByteBufferBackedInputStream;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerHistoryEntry;
+import com.fizzed.provisioning.java.JavaInstallerHistorySnapshot;
+import com.fizzed.provisioning.java.JavaVersionResolver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static com.fizzed.provisioning.ProvisioningHelper.writeIfChanged;
+
+/**
+ * The history of the java installer catalog, so what it was at any point in time can be answered without digging
+ * through old revisions of it.  Every refresh that changes the catalog appends an entry to "history.ndjson" of the
+ * installers it added and removed (one entry per line, never rewritten), and every so many entries a full snapshot
+ * of the catalog is written too, listed in a "snapshots.json" manifest.  The catalog as of a time is the nearest
+ * snapshot at or before it plus the entries after the snapshot up to it, read from where the snapshot left off in the
+ * log.  The log alone is the complete history, so snapshots only make replaying it faster.
+ *
+ * A history has a single writer.  A crash mid write can leave part of an entry at the end of the log, which is ignored
+ * (it was never recorded) and dropped by the next record.
+ */
+public class JavaInstallerHistory {
+    static private final Logger log = LoggerFactory.getLogger(JavaInstallerHistory.class);
+
+    static private final TypeReference<List<JavaInstallerHistorySnapshot>> SNAPSHOTS_TYPE = new TypeReference<>() {};
+    static private final ObjectReader ENTRY_READER = ProvisioningHelper.getObjectMapper().readerFor(JavaInstallerHistoryEntry.class);
+
+    private final Path directory;
+    private final Path logFile;
+    private final Path manifestFile;
+    private final List<JavaInstallerHistorySnapshot> snapshots;
+    private int snapshotInterval;
+    private long lastSequence;
+    private Instant lastAt;
+
+    public JavaInstallerHistory(Path directory) {
+        this.directory = directory;
+        this.logFile = directory.resolve("history.ndjson");
+        this.manifestFile = directory.resolve("snapshots.json");
+        this.snapshots = new ArrayList<>();
+        this.snapshotInterval = 50;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public int getSnapshotInterval() {
+        return snapshotInterval;
+    }
+
+    /**
+     * The number of entries between snapshots (default 50), trading the disk used by snapshots for how many entries
+     * a query replays at most.
+     */
+    public JavaInstallerHistory setSnapshotInterval(int snapshotInterval) {
+        if (snapshotInterval < 1) {
+            throw new IllegalArgumentException("Snapshot interval must be >= 1");
+        }
+        this.snapshotInterval = snapshotInterval;
+        return this;
+    }
+
+    public List<JavaInstallerHistorySnapshot> getSnapshots() {
+        return Collections.unmodifiableList(snapshots);
+    }
+
+    /**
+     * The sequence of the last entry (0 if there are none).
+     */
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    public JavaInstallerHistory load() throws IOException {
+        this.snapshots.clear();
+        this.lastSequence = 0;
+        this.lastAt = null;
+
+        if (Files.exists(this.manifestFile)) {
+            this.snapshots.addAll(ProvisioningHelper.getObjectMapper().readValue(Files.readAllBytes(this.manifestFile), SNAPSHOTS_TYPE));
+        }
+
+        // only the entries since the last snapshot need to be read to find the last one
+        final JavaInstallerHistorySnapshot snapshot = this.snapshots.isEmpty() ? null : this.snapshots.get(this.snapshots.size() - 1);
+        if (snapshot != null) {
+            this.lastSequence = snapshot.getSequence();
+            this.lastAt = Instant.parse(snapshot.getAt());
+        }
+        if (Files.exists(this.logFile)) {
+            try (MappingIterator<JavaInstallerHistoryEntry> entries = this.readEntries(snapshot != null ? snapshot.getOffset() : 0L)) {
+                while (entries.hasNext()) {
+                    final JavaInstallerHistoryEntry entry = entries.next();
+                    this.lastSequence = entry.getSequence();
+                    this.lastAt = Instant.parse(entry.getAt());
+                }
+            }
+        }
+
+        return this;
+    }
+
+    /**
+     * Records the catalog as of a time, appending an entry of what changed since the last one (and a snapshot, if one is
+     * due).  Times must not go backwards.
+     *
+     * @return the entry appended, or null if nothing changed
+     */
+    public JavaInstallerHistoryEntry record(Collection<JavaInstaller> javaInstallers, Instant at) throws IOException {
+        if (this.lastAt != null && at.isBefore(this.lastAt)) {
+            throw new IllegalArgumentException("Time " + at + " is before the last entry of the history (" + this.lastAt + ")");
+        }
+
+        final Set<JavaInstaller> previous = this.replay(null);
+        final Set<JavaInstaller> current = new LinkedHashSet<>(javaInstallers);
+
+        final JavaInstallerHistoryEntry entry = new JavaInstallerHistoryEntry()
+            .setSequence(this.lastSequence + 1)
+            .setAt(at.toString());
+        for (JavaInstaller javaInstaller : current) {
+            if (!previous.contains(javaInstaller)) {
+                entry.getAdded().add(javaInstaller);
+            }
+        }
+        for (JavaInstaller javaInstaller : previous) {
+            if (!current.contains(javaInstaller)) {
+                entry.getRemoved().add(javaInstaller);
+            }
+        }
+
+        if (entry.getAdded().isEmpty() && entry.getRemoved().isEmpty()) {
+            return null;
+        }
+
+        // a whole line, so a reader tailing the log only ever skips part of an entry until it's complete
+        final ByteBuffer line = ByteBuffer.wrap((ProvisioningHelper.getObjectMapper().writeValueAsString(entry) + "\n").getBytes(StandardCharsets.UTF_8));
+        Files.createDirectories(this.directory);
+        try (FileChannel channel = FileChannel.open(this.logFile, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            final long end = completeLength(channel);
+            if (end < channel.size()) {
+                log.warn("Dropping a partial entry of {} bytes at the end of {}", channel.size() - end, this.logFile);
+                channel.truncate(end);
+            }
+            channel.position(end);
+            while (line.hasRemaining()) {
+                channel.write(line);
+            }
+        }
+        this.lastSequence = entry.getSequence();
+        this.lastAt = at;
+
+        log.info("Recorded history entry {} at {} ({} added, {} removed)", entry.getSequence(), entry.getAt(),
+            entry.getAdded().size(), entry.getRemoved().size());
+
+        final long lastSnapshotSequence = this.snapshots.isEmpty() ? 0 : this.snapshots.get(this.snapshots.size() - 1).getSequence();
+        if (this.lastSequence - lastSnapshotSequence >= this.snapshotInterval) {
+            // in the same order as replaying the entry would leave it
+            entry.getRemoved().forEach(previous::remove);
+            previous.addAll(entry.getAdded());
+            this.snapshot(previous, entry);
+        }
+
+        return entry;
+    }
+
+    /**
+     * The catalog as of a time, in the order its installers were added, which is empty before the first entry.
+     */
+    public List<JavaInstaller> asOf(Instant at) throws IOException {
+        return new ArrayList<>(this.replay(at));
+    }
+
+    /**
+     * The catalog as of the last entry.
+     */
+    public List<JavaInstaller> getLatest() throws IOException {
+        return new ArrayList<>(this.replay(null));
+    }
+
+    /**
+     * A resolver of the catalog as of a time, e.g. for what a fleet pinned to that day would have installed.
+     */
+    public JavaVersionResolver resolverAsOf(Instant at) throws IOException {
+        return new JavaVersionResolver(this.replay(at));
+    }
+
+    // the catalog as of a time (or the last entry if null), starting from the nearest snapshot before it
+    private Set<JavaInstaller> replay(Instant at) throws IOException {
+        JavaInstallerHistorySnapshot snapshot = null;
+        for (JavaInstallerHistorySnapshot s : this.snapshots) {
+            if (at != null && Instant.parse(s.getAt()).isAfter(at)) {
+                break;
+            }
+            snapshot = s;
+        }
+
+        final Set<JavaInstaller> javaInstallers = new LinkedHashSet<>();
+        if (snapshot != null) {
+            try (JavaInstallerJsonReader reader = JavaInstallerJsonReader.open(this.getSnapshotFile(snapshot.getSequence()))) {
+                reader.forEachRemaining(javaInstallers::add);
+            }
+        }
+
+        if (Files.exists(this.logFile)) {
+            try (MappingIterator<JavaInstallerHistoryEntry> entries = this.readEntries(snapshot != null ? snapshot.getOffset() : 0L)) {
+                while (entries.hasNext()) {
+                    final JavaInstallerHistoryEntry entry = entries.next();
+                    if (at != null && Instant.parse(entry.getAt()).isAfter(at)) {
+                        break;
+                    }
+                    entry.getRemoved().forEach(javaInstallers::remove);
+                    javaInstallers.addAll(entry.getAdded());
+                }
+            }
+        }
+
+        return javaInstallers;
+    }
+
+    private void snapshot(Set<JavaInstaller> javaInstallers, JavaInstallerHistoryEntry entry) throws IOException {
+        try (JavaInstallerJsonWriter writer = JavaInstallerJsonWriter.create(this.getSnapshotFile(entry.getSequence()), JavaInstallerJsonWriter.Layout.NDJSON)) {
+            writer.writeAll(javaInstallers);
+        }
+
+        this.snapshots.add(new JavaInstallerHistorySnapshot()
+            .setSequence(entry.getSequence())
+            .setAt(entry.getAt())
+            .setOffset(Files.size(this.logFile))
+            .setCount(javaInstallers.size()));
+        writeIfChanged(this.manifestFile, ProvisioningHelper.getPrettyObjectWriter().writeValueAsBytes(this.snapshots));
+
+        log.info("Wrote history snapshot {} ({} installers)", entry.getSequence(), javaInstallers.size());
+    }
+
+    private Path getSnapshotFile(long sequence) {
+        return this.directory.resolve("snapshot-" + sequence + ".ndjson");
+    }
+
+    // the complete entries of the log from an offset (of a snapshot), without any partial entry at its end
+    private MappingIterator<JavaInstallerHistoryEntry> readEntries(long offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(this.logFile, StandardOpenOption.READ)) {
+            final long end = completeLength(channel);
+            return ENTRY_READER.readValues(new ByteBufferBackedInputStream(
+                channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.max(0L, end - offset))));
+        }
+    }
+
+    // the length of the log up to and including its last newline, as every entry ends with one
+    static private long completeLength(FileChannel channel) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long end = channel.size();
+        while (end > 0) {
+            final long start = Math.max(0L, end - buffer.capacity());
+            buffer.clear().limit((int)(end - start));
+            while (buffer.hasRemaining() && channel.read(buffer, start + buffer.position()) >= 0) {
+                // until the block is read
+            }
+            for (int i = (int)(end - start) - 1; i >= 0; i--) {
+                if (buffer.get(i) == '\n') {
+                    return start + i + 1;
+                }
+            }
+            end = start;
+        }
+        return 0L;
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.fizzed.provisioning;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fizzed.provisioning.java.JavaInstaller;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads installers one at a time from a stream, so only the installer being read is in memory (plus whatever the
+ * caller keeps).  Both layouts of a {@link JavaInstallerJsonWriter} are read, detected by the first token: a json
+ * array of installers, or installers one after another (e.g. newline-delimited).
+ */
+public class JavaInstallerJsonReader implements Iterator<JavaInstaller>, Closeable {
+
+    static private final ObjectReader READER = ProvisioningHelper.getObjectMapper()
+        .readerFor(JavaInstaller.class);
+
+    private final JsonParser parser;
+    private boolean array;
+    private boolean started;
+    private JsonToken token;
+
+    public JavaInstallerJsonReader(InputStream input) throws IOException {
+        this.parser = ProvisioningHelper.getObjectMapper().getFactory().createParser(input);
+    }
+
+    static public JavaInstallerJsonReader open(Path file) throws IOException {
+        return new JavaInstallerJsonReader(new BufferedInputStream(Files.newInputStream(file)));
+    }
+
+    /**
+     * The installers in the file, which is closed when the stream is.
+     */
+    static public Stream<JavaInstaller> stream(Path file) throws IOException {
+        return open(file).stream();
+    }
+
+    /**
+     * The remaining installers, where closing the stream closes this reader.
+     */
+    public Stream<JavaInstaller> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(() -> {
+                try {
+                    this.close();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            return this.advance() == JsonToken.START_OBJECT;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public JavaInstaller next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        try {
+            final JavaInstaller javaInstaller = READER.readValue(this.parser);
+            this.token = null;
+            return javaInstaller;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.parser.close();
+    }
+
+    // the token the next installer starts with (or anything else if there isn't one), without consuming it
+    private JsonToken advance() throws IOException {
+        if (this.token != null) {
+            return this.token;
+        }
+
+        JsonToken next = this.parser.nextToken();
+        if (!this.started) {
+            this.started = true;
+            if (next == JsonToken.START_ARRAY) {
+                this.array = true;
+                next = this.parser.nextToken();
+            }
+        }
+
+        if (next == null || (this.array && next == JsonToken.END_ARRAY)) {
+            this.token = JsonToken.NOT_AVAILABLE;
+        } else if (next != JsonToken.START_OBJECT) {
+            throw new JsonParseException(this.parser, "Expected an installer object but got " + next);
+        } else {
+            this.token = next;
+        }
+        return this.token;
+    }
+
+}
@@ -0,0 +1,105 @@
+package com.fizzed.provisioning;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fizzed.provisioning.java.JavaInstaller;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes installers one at a time to a stream, so a catalog is never held in memory as a whole document.  Installers
+ * are either written as a json array (compact, or pretty for files humans review) or as newline-delimited json, an
+ * installer per line, which can be appended to, tailed and split without parsing it.  Either can be read back with a
+ * {@link JavaInstallerJsonReader}.
+ */
+public class JavaInstallerJsonWriter implements Closeable {
+
+    public enum Layout {
+        ARRAY,
+        PRETTY_ARRAY,
+        NDJSON
+    }
+
+    // each installer is flushed with the generator's buffer, not on its own
+    static private final ObjectWriter WRITER = ProvisioningHelper.getObjectMapper()
+        .writerFor(JavaInstaller.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+    private final Layout layout;
+    private final JsonGenerator generator;
+    private long count;
+
+    public JavaInstallerJsonWriter(OutputStream output, Layout layout) throws IOException {
+        this.layout = layout;
+        this.generator = ProvisioningHelper.getObjectMapper().getFactory().createGenerator(output);
+        if (layout == Layout.NDJSON) {
+            // lines are ended explicitly, rather than values separated by a space
+            this.generator.setRootValueSeparator(null);
+        } else {
+            if (layout == Layout.PRETTY_ARRAY) {
+                this.generator.setPrettyPrinter(new DefaultPrettyPrinter());
+            }
+            this.generator.writeStartArray();
+        }
+    }
+
+    static public JavaInstallerJsonWriter create(Path file, Layout layout) throws IOException {
+        return new JavaInstallerJsonWriter(new BufferedOutputStream(Files.newOutputStream(file)), layout);
+    }
+
+    /**
+     * Appends installers to a newline-delimited json file, creating it if it doesn't exist.
+     */
+    static public JavaInstallerJsonWriter append(Path file) throws IOException {
+        return new JavaInstallerJsonWriter(new BufferedOutputStream(Files.newOutputStream(file,
+            StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)), Layout.NDJSON);
+    }
+
+    public Layout getLayout() {
+        return layout;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public JavaInstallerJsonWriter write(JavaInstaller javaInstaller) throws IOException {
+        WRITER.writeValue(this.generator, javaInstaller);
+        if (this.layout == Layout.NDJSON) {
+            this.generator.writeRaw('\n');
+        }
+        this.count++;
+        return this;
+    }
+
+    public JavaInstallerJsonWriter writeAll(Iterable<JavaInstaller> javaInstallers) throws IOException {
+        for (JavaInstaller javaInstaller : javaInstallers) {
+            this.write(javaInstaller);
+        }
+        return this;
+    }
+
+    public void flush() throws IOException {
+        this.generator.flush();
+    }
+
+    /**
+     * Ends the array (if not newline-delimited) and closes the underlying stream.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.layout != Layout.NDJSON && !this.generator.isClosed()) {
+            this.generator.writeEndArray();
+        }
+        this.generator.close();
+    }
+
+}
@@ -0,0 +1,197 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerSelector;
+import com.fizzed.provisioning.java.JavaInstallerShard;
+import com.fizzed.provisioning.java.JavaInstallerShardResult;
+import com.fizzed.provisioning.java.JavaReleaseEngine;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches and converts the java installers of many (distro, major version) shards concurrently.  Each shard is fetched,
+ * converted and filtered down to its latest versions on its own thread as soon as its response arrives, then all the
+ * shards are merged in the order they were requested, so the output is deterministic regardless of which vendor answers
+ * first.
+ */
+public class JavaInstallerPipeline {
+    static private final Logger log = LoggerFactory.getLogger(JavaInstallerPipeline.class);
+
+    // the latest installer of each target (a shard is already of a single distro and major)
+    static private final JavaInstallerSelector LATEST = new JavaInstallerSelector();
+
+    private final JavaReleaseEngine engine;
+    private int concurrency;
+    private boolean virtualThreads;
+
+    public JavaInstallerPipeline() {
+        this(HttpTransport.getDefault());
+    }
+
+    public JavaInstallerPipeline(HttpTransport transport) {
+        this(JavaReleaseEngine.load(transport));
+    }
+
+    public JavaInstallerPipeline(JavaReleaseEngine engine) {
+        this.engine = engine;
+        this.concurrency = 8;
+        this.virtualThreads = false;
+    }
+
+    public JavaReleaseEngine getEngine() {
+        return engine;
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public JavaInstallerPipeline setConcurrency(int concurrency) {
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency must be >= 1");
+        }
+        this.concurrency = concurrency;
+        return this;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Uses virtual threads to run the shards if the running JVM supports them (java 21+), otherwise falls back to a
+     * pool of platform threads.  Either way, no more than the concurrency limit of shards run at once.
+     */
+    public JavaInstallerPipeline setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public List<JavaInstaller> fetch(List<JavaInstallerShard> shards) throws IOException, InterruptedException {
+        final List<JavaInstaller> javaInstallers = new ArrayList<>();
+        for (List<JavaInstaller> shardJavaInstallers : this.fetchShards(shards).values()) {
+            javaInstallers.addAll(shardJavaInstallers);
+        }
+        return javaInstallers;
+    }
+
+    public Map<JavaInstallerShard, List<JavaInstaller>> fetchShards(List<JavaInstallerShard> shards) throws IOException, InterruptedException {
+        final Map<JavaInstallerShard, List<JavaInstaller>> results = new LinkedHashMap<>();
+        for (JavaInstallerShardResult result : this.fetchResults(shards)) {
+            if (!result.isSuccess()) {
+                throw rethrow(result.getShard(), result.getError());
+            }
+            results.put(result.getShard(), result.getJavaInstallers());
+        }
+        return results;
+    }
+
+    /**
+     * Fetches every shard, capturing the failure of any one shard in its result rather than failing them all.  The
+     * results are in the order requested, not the order completed.
+     */
+    public List<JavaInstallerShardResult> fetchResults(List<JavaInstallerShard> shards) throws InterruptedException {
+        final ExecutorService executor = this.newExecutor();
+        final Semaphore permits = new Semaphore(this.concurrency);
+        try {
+            final List<Future<List<JavaInstaller>>> futures = new ArrayList<>();
+            for (JavaInstallerShard shard : shards) {
+                futures.add(executor.submit(() -> {
+                    permits.acquire();
+                    try {
+                        return this.fetchShard(shard);
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+
+            final List<JavaInstallerShardResult> results = new ArrayList<>();
+            for (int i = 0; i < shards.size(); i++) {
+                try {
+                    results.add(JavaInstallerShardResult.success(shards.get(i), futures.get(i).get()));
+                } catch (ExecutionException e) {
+                    log.warn("Failed fetching shard {}: {}", shards.get(i), e.getCause().toString());
+                    results.add(JavaInstallerShardResult.failure(shards.get(i), e.getCause()));
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public List<JavaInstaller> fetchShard(JavaInstallerShard shard) throws IOException, InterruptedException {
+        final long start = System.currentTimeMillis();
+        final int javaMajorVersion = shard.getJavaMajorVersion();
+
+        // only the latest jdks are kept, so let the vendor drop everything else before it goes over the wire
+        final JavaReleaseQuery query = new JavaReleaseQuery(javaMajorVersion)
+            .setImageType(ImageType.JDK)
+            .setLatestOnly(true);
+
+        log.info("Fetching {} releases for jdk version {}...", shard.getDistro().getName(), javaMajorVersion);
+
+        final List<JavaInstaller> javaInstallers;
+        try {
+            javaInstallers = new ArrayList<>(this.engine.getInstallers(shard.getDistro(), query).get());
+        } catch (ExecutionException e) {
+            throw rethrow(shard, e.getCause());
+        }
+
+        final List<JavaInstaller> filteredJavaInstallers = LATEST.select(javaInstallers);
+
+        log.info("Fetched {} releases for jdk version {} ({} installers, {} latest) in {} ms", shard.getDistro().getName(),
+            javaMajorVersion, javaInstallers.size(), filteredJavaInstallers.size(), System.currentTimeMillis() - start);
+
+        return filteredJavaInstallers;
+    }
+
+    static private RuntimeException rethrow(JavaInstallerShard shard, Throwable cause) throws IOException, InterruptedException {
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause instanceof InterruptedException) {
+            throw (InterruptedException) cause;
+        } else if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        throw new RuntimeException("Failed fetching shard " + shard, cause);
+    }
+
+    private ExecutorService newExecutor() {
+        if (this.virtualThreads) {
+            try {
+                // only available on java 21+, while we still compile against java 11
+                return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException e) {
+                log.debug("Virtual threads unavailable on java {} (will use platform threads)", System.getProperty("java.version"));
+            }
+        }
+
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadFactory threadFactory = r -> {
+            final Thread thread = new Thread(r, "java-installer-pipeline-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return Executors.newFixedThreadPool(this.concurrency, threadFactory);
+    }
+
+}
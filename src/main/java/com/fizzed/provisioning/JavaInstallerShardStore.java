@@ -0,0 +1,233 @@
+package com.fizzed.provisioning;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerShard;
+import com.fizzed.provisioning.java.JavaInstallerShardResult;
+import com.fizzed.provisioning.java.JavaInstallerShardState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import static com.fizzed.crux.util.Maybe.maybe;
+import static com.fizzed.provisioning.ProvisioningHelper.sha256Hex;
+import static com.fizzed.provisioning.ProvisioningHelper.writeIfChanged;
+
+/**
+ * The java installer catalog, stored as one file per (distro, major version) shard plus a "shards.json" manifest with
+ * the hash and fetch times of each shard.  A refresh only re-fetches the shards asked for, leaves a shard's file
+ * untouched (byte-for-byte) unless its content actually changed, and keeps the previous content of any shard whose
+ * vendor fails.
+ */
+public class JavaInstallerShardStore {
+    static private final Logger log = LoggerFactory.getLogger(JavaInstallerShardStore.class);
+
+    static private final TypeReference<List<JavaInstaller>> JAVA_INSTALLERS_TYPE = new TypeReference<>() {};
+    static private final TypeReference<List<JavaInstallerShardState>> SHARD_STATES_TYPE = new TypeReference<>() {};
+
+    private final Path directory;
+    private final Path manifestFile;
+    private final Map<JavaInstallerShard, JavaInstallerShardState> states;
+
+    public JavaInstallerShardStore(Path directory) {
+        this.directory = directory;
+        this.manifestFile = directory.resolve("shards.json");
+        this.states = new LinkedHashMap<>();
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public JavaInstallerShardStore load() throws IOException {
+        this.states.clear();
+        if (Files.exists(this.manifestFile)) {
+            final List<JavaInstallerShardState> shardStates = ProvisioningHelper.getObjectMapper()
+                .readValue(Files.readAllBytes(this.manifestFile), SHARD_STATES_TYPE);
+            for (JavaInstallerShardState shardState : shardStates) {
+                this.states.put(shardState.getShard(), shardState);
+            }
+        }
+        return this;
+    }
+
+    public void save() throws IOException {
+        // stable order so the manifest only diffs when a shard does
+        final List<JavaInstallerShardState> shardStates = new ArrayList<>(this.states.values());
+        shardStates.sort(Comparator.comparing(JavaInstallerShardState::getDistro)
+            .thenComparing(JavaInstallerShardState::getJavaMajorVersion, Comparator.reverseOrder()));
+
+        writeIfChanged(this.manifestFile, ProvisioningHelper.getPrettyObjectWriter().writeValueAsBytes(shardStates));
+    }
+
+    public JavaInstallerShardState getState(JavaInstallerShard shard) {
+        return this.states.get(shard);
+    }
+
+    public Path getShardFile(JavaInstallerShard shard) {
+        return this.directory.resolve(shard.toString() + ".json");
+    }
+
+    /**
+     * If the shard has never been fetched, or was last fetched longer ago than the max age (a null max age means
+     * everything is stale).
+     */
+    public boolean isStale(JavaInstallerShard shard, Duration maxAge, Instant now) {
+        final JavaInstallerShardState state = this.states.get(shard);
+        if (state == null || state.getFetchedAt() == null || !Files.exists(this.getShardFile(shard))) {
+            return true;
+        }
+        return maxAge == null || !Instant.parse(state.getFetchedAt()).plus(maxAge).isAfter(now);
+    }
+
+    private boolean hasContent(JavaInstallerShard shard) {
+        final JavaInstallerShardState state = this.states.get(shard);
+        return state != null && state.getCount() > 0 && Files.exists(this.getShardFile(shard));
+    }
+
+    public List<JavaInstaller> read(JavaInstallerShard shard) throws IOException {
+        return ProvisioningHelper.getObjectMapper().readValue(Files.readAllBytes(this.getShardFile(shard)), JAVA_INSTALLERS_TYPE);
+    }
+
+    /**
+     * Records a freshly fetched shard, only rewriting its file if its content changed.
+     *
+     * @return true if the content of the shard changed
+     */
+    public boolean write(JavaInstallerShard shard, List<JavaInstaller> javaInstallers, Instant now) throws IOException {
+        final byte[] content = ProvisioningHelper.getPrettyObjectWriter().writeValueAsBytes(javaInstallers);
+        final String hash = sha256Hex(content);
+
+        JavaInstallerShardState state = this.states.get(shard);
+        if (state == null) {
+            state = new JavaInstallerShardState()
+                .setDistro(shard.getDistro())
+                .setJavaMajorVersion(shard.getJavaMajorVersion());
+            this.states.put(shard, state);
+        }
+
+        final boolean changed = writeIfChanged(this.getShardFile(shard), content) || !hash.equals(state.getHash());
+
+        state.setHash(hash);
+        state.setCount(javaInstallers.size());
+        state.setFetchedAt(now.toString());
+        if (changed) {
+            state.setChangedAt(now.toString());
+        }
+
+        return changed;
+    }
+
+    /**
+     * Seeds any shards that have never been stored from an existing (merged) catalog, so a vendor failing on the very
+     * first refresh still has previous content to fall back to.  Seeded shards are stale until fetched.
+     */
+    public void seed(List<JavaInstallerShard> shards, List<JavaInstaller> javaInstallers) throws IOException {
+        for (JavaInstallerShard shard : shards) {
+            if (this.states.containsKey(shard) || Files.exists(this.getShardFile(shard))) {
+                continue;
+            }
+
+            final List<JavaInstaller> shardJavaInstallers = new ArrayList<>();
+            for (JavaInstaller javaInstaller : javaInstallers) {
+                if (javaInstaller.getDistro() == shard.getDistro() && javaInstaller.getVersion() != null
+                        && javaInstaller.getVersion().getMajor() == shard.getJavaMajorVersion()) {
+                    shardJavaInstallers.add(javaInstaller);
+                }
+            }
+
+            if (!shardJavaInstallers.isEmpty()) {
+                final byte[] content = ProvisioningHelper.getPrettyObjectWriter().writeValueAsBytes(shardJavaInstallers);
+                writeIfChanged(this.getShardFile(shard), content);
+                this.states.put(shard, new JavaInstallerShardState()
+                    .setDistro(shard.getDistro())
+                    .setJavaMajorVersion(shard.getJavaMajorVersion())
+                    .setHash(sha256Hex(content))
+                    .setCount(shardJavaInstallers.size()));
+                log.info("Seeded shard {} with {} installers", shard, shardJavaInstallers.size());
+            }
+        }
+    }
+
+    /**
+     * Fetches the shards matching the predicate, writes the ones that succeeded, and keeps the previous content of the
+     * ones that failed (including any that fetched no installers at all, which are returned as failures).  The manifest
+     * is saved afterwards.
+     */
+    public List<JavaInstallerShardResult> refresh(JavaInstallerPipeline pipeline, List<JavaInstallerShard> shards, Predicate<JavaInstallerShard> shouldFetch) throws IOException, InterruptedException {
+        final List<JavaInstallerShard> fetchShards = new ArrayList<>();
+        for (JavaInstallerShard shard : shards) {
+            if (shouldFetch.test(shard)) {
+                fetchShards.add(shard);
+            } else {
+                log.info("Carrying forward shard {} (last fetched {})", shard, maybe(this.states.get(shard)).map(JavaInstallerShardState::getFetchedAt).orNull());
+            }
+        }
+
+        final Instant now = Instant.now();
+        final List<JavaInstallerShardResult> results = new ArrayList<>(pipeline.fetchResults(fetchShards));
+        int changed = 0;
+        int failed = 0;
+
+        for (int i = 0; i < results.size(); i++) {
+            JavaInstallerShardResult result = results.get(i);
+
+            // a vendor that suddenly has nothing (e.g. an api change or a bad deploy on their end) is far more likely
+            // broken than actually empty, so it's treated as a failure rather than wiping out a good shard
+            if (result.isSuccess() && result.getJavaInstallers().isEmpty() && this.hasContent(result.getShard())) {
+                result = JavaInstallerShardResult.failure(result.getShard(),
+                    new IOException("Shard " + result.getShard() + " fetched no installers (previously had "
+                        + this.states.get(result.getShard()).getCount() + ")"));
+                results.set(i, result);
+            }
+
+            if (result.isSuccess()) {
+                if (this.write(result.getShard(), result.getJavaInstallers(), now)) {
+                    log.info("Shard {} changed ({} installers)", result.getShard(), result.getJavaInstallers().size());
+                    changed++;
+                }
+            } else {
+                failed++;
+                if (this.states.containsKey(result.getShard())) {
+                    log.warn("Keeping previous shard {} (last fetched {}) since fetching it failed: {}", result.getShard(),
+                        this.states.get(result.getShard()).getFetchedAt(), result.getError().getMessage());
+                } else {
+                    log.error("Shard {} failed and has no previous content to fall back to", result.getShard());
+                }
+            }
+        }
+
+        this.save();
+
+        log.info("Refreshed {} of {} shards ({} changed, {} failed)", fetchShards.size(), shards.size(), changed, failed);
+
+        return results;
+    }
+
+    /**
+     * Merges the shards in the order given (skipping any that have never been fetched successfully).
+     */
+    public List<JavaInstaller> merge(List<JavaInstallerShard> shards) throws IOException {
+        final List<JavaInstaller> javaInstallers = new ArrayList<>();
+        for (JavaInstallerShard shard : shards) {
+            if (Files.exists(this.getShardFile(shard))) {
+                javaInstallers.addAll(this.read(shard));
+            } else {
+                log.warn("Shard {} is missing (never fetched successfully?)", shard);
+            }
+        }
+        return javaInstallers;
+    }
+
+}
@@ -0,0 +1,249 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.NativeTarget;
+import com.fizzed.jne.OperatingSystem;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Detects the os, arch and abi named in some text (e.g. the file name of an installer) with a single case-insensitive
+ * pass over it.  Every name and alias of the jne enums, plus the tokens some vendors use instead, is compiled once into
+ * an Aho-Corasick automaton, so the cost of a detection is one table lookup per character no matter how many tokens
+ * there are.  Results are cached by text, since the same file names come up over and over.
+ *
+ * When several tokens of a kind are in the text, the winner is the same one a scan of the enums in order would pick:
+ *   - os/arch: the first enum (in declaration order) whose name is in the text, otherwise the last enum with an alias
+ *     in the text, otherwise the first vendor token in the text ("win" or "mac" for the os)
+ *   - abi: the first enum whose name is in the text
+ */
+public class NativeTargetDetector {
+
+    // kinds of token, packed into the high bits of a match (the low bits are its rank within the kind)
+    static private final int OS_NAME = 0;
+    static private final int OS_ALIAS = 1;
+    static private final int OS_VENDOR = 2;
+    static private final int ARCH_NAME = 3;
+    static private final int ARCH_ALIAS = 4;
+    static private final int ARCH_VENDOR = 5;
+    static private final int ABI_NAME = 6;
+    static private final int KINDS = 7;
+    static private final int RANK_BITS = 16;
+    static private final int RANK_MASK = (1 << RANK_BITS) - 1;
+
+    // vendor tokens in priority order (only consulted if no enum name/alias of the kind matched)
+    static private final String[] OS_VENDOR_TOKENS = { "win", "mac" };
+    static private final OperatingSystem[] OS_VENDOR_VALUES = { OperatingSystem.WINDOWS, OperatingSystem.MACOS };
+    static private final String[] ARCH_VENDOR_TOKENS = { "arm32-vfp-hflt", "aarch32hf", "aarch32sf" };
+    static private final HardwareArchitecture[] ARCH_VENDOR_VALUES = { HardwareArchitecture.ARMHF, HardwareArchitecture.ARMHF, HardwareArchitecture.ARMEL };
+
+    // only ascii is in the table, anything else can't be part of a token and restarts the automaton
+    static private final int ALPHABET = 128;
+
+    // after the constants above, which building it needs
+    static private final NativeTargetDetector DEFAULT = new NativeTargetDetector(4096);
+
+    private final int[][] transitions;
+    private final int[][] matches;
+    private final int cacheSize;
+    private final Map<String, NativeTarget> cache;
+
+    public NativeTargetDetector(int cacheSize) {
+        this.cacheSize = cacheSize;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, NativeTarget> eldest) {
+                return this.size() > NativeTargetDetector.this.cacheSize;
+            }
+        };
+
+        final Builder builder = new Builder();
+        for (OperatingSystem os : OperatingSystem.values()) {
+            builder.add(os.name(), OS_NAME, os.ordinal());
+            builder.addAll(os.getAliases(), OS_ALIAS, os.ordinal());
+        }
+        for (HardwareArchitecture arch : HardwareArchitecture.values()) {
+            builder.add(arch.name(), ARCH_NAME, arch.ordinal());
+            builder.addAll(arch.getAliases(), ARCH_ALIAS, arch.ordinal());
+        }
+        for (ABI abi : ABI.values()) {
+            builder.add(abi.name(), ABI_NAME, abi.ordinal());
+        }
+        for (int i = 0; i < OS_VENDOR_TOKENS.length; i++) {
+            builder.add(OS_VENDOR_TOKENS[i], OS_VENDOR, i);
+        }
+        for (int i = 0; i < ARCH_VENDOR_TOKENS.length; i++) {
+            builder.add(ARCH_VENDOR_TOKENS[i], ARCH_VENDOR, i);
+        }
+        builder.build();
+
+        this.transitions = builder.transitions.toArray(new int[0][]);
+        this.matches = builder.matches.toArray(new int[0][]);
+    }
+
+    static public NativeTargetDetector getDefault() {
+        return DEFAULT;
+    }
+
+    public NativeTarget detect(String text) {
+        if (text == null) {
+            return NativeTarget.of(null, null, null);
+        }
+
+        synchronized (this.cache) {
+            final NativeTarget nativeTarget = this.cache.get(text);
+            if (nativeTarget != null) {
+                return nativeTarget;
+            }
+        }
+
+        final NativeTarget nativeTarget = this.scan(text);
+
+        synchronized (this.cache) {
+            this.cache.put(text, nativeTarget);
+        }
+
+        return nativeTarget;
+    }
+
+    NativeTarget scan(String text) {
+        // the best rank seen of each kind (names and vendor tokens: lowest wins, aliases: highest wins)
+        final int[] best = new int[KINDS];
+        Arrays.fill(best, -1);
+
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            final char c = Character.toLowerCase(text.charAt(i));
+            state = c < ALPHABET ? this.transitions[state][c] : 0;
+            for (int match : this.matches[state]) {
+                final int kind = match >>> RANK_BITS;
+                final int rank = match & RANK_MASK;
+                if (best[kind] < 0 || (kind == OS_ALIAS || kind == ARCH_ALIAS ? rank > best[kind] : rank < best[kind])) {
+                    best[kind] = rank;
+                }
+            }
+        }
+
+        final OperatingSystem os;
+        if (best[OS_NAME] >= 0) {
+            os = OperatingSystem.values()[best[OS_NAME]];
+        } else if (best[OS_ALIAS] >= 0) {
+            os = OperatingSystem.values()[best[OS_ALIAS]];
+        } else if (best[OS_VENDOR] >= 0) {
+            os = OS_VENDOR_VALUES[best[OS_VENDOR]];
+        } else {
+            os = null;
+        }
+
+        final HardwareArchitecture arch;
+        if (best[ARCH_NAME] >= 0) {
+            arch = HardwareArchitecture.values()[best[ARCH_NAME]];
+        } else if (best[ARCH_ALIAS] >= 0) {
+            arch = HardwareArchitecture.values()[best[ARCH_ALIAS]];
+        } else if (best[ARCH_VENDOR] >= 0) {
+            arch = ARCH_VENDOR_VALUES[best[ARCH_VENDOR]];
+        } else {
+            arch = null;
+        }
+
+        final ABI abi = best[ABI_NAME] >= 0 ? ABI.values()[best[ABI_NAME]] : null;
+
+        return NativeTarget.of(os, arch, abi);
+    }
+
+    /**
+     * Builds the trie of the tokens, then turns it into a complete transition table (so scanning never has to follow
+     * failure links), with the matches of every state including those of its failure chain.
+     */
+    static private class Builder {
+
+        private final List<int[]> transitions = new ArrayList<>();
+        private final List<int[]> matches = new ArrayList<>();
+
+        Builder() {
+            this.newState();
+        }
+
+        private int newState() {
+            final int[] next = new int[ALPHABET];
+            Arrays.fill(next, -1);
+            this.transitions.add(next);
+            this.matches.add(new int[0]);
+            return this.transitions.size() - 1;
+        }
+
+        void addAll(String[] tokens, int kind, int rank) {
+            if (tokens != null) {
+                for (String token : tokens) {
+                    this.add(token, kind, rank);
+                }
+            }
+        }
+
+        void add(String token, int kind, int rank) {
+            if (token.isEmpty()) {
+                throw new IllegalArgumentException("Tokens cannot be empty");
+            }
+            int state = 0;
+            for (int i = 0; i < token.length(); i++) {
+                final char c = Character.toLowerCase(token.charAt(i));
+                if (c >= ALPHABET) {
+                    throw new IllegalArgumentException("Only ascii tokens are supported (not " + token + ")");
+                }
+                if (this.transitions.get(state)[c] < 0) {
+                    final int next = this.newState();
+                    this.transitions.get(state)[c] = next;
+                }
+                state = this.transitions.get(state)[c];
+            }
+            this.addMatches(state, new int[] { (kind << RANK_BITS) | rank });
+        }
+
+        private void addMatches(int state, int[] more) {
+            final int[] existing = this.matches.get(state);
+            final int[] merged = Arrays.copyOf(existing, existing.length + more.length);
+            System.arraycopy(more, 0, merged, existing.length, more.length);
+            this.matches.set(state, merged);
+        }
+
+        void build() {
+            final int[] failures = new int[this.transitions.size()];
+            final Deque<Integer> queue = new ArrayDeque<>();
+
+            final int[] root = this.transitions.get(0);
+            for (int c = 0; c < ALPHABET; c++) {
+                if (root[c] < 0) {
+                    root[c] = 0;
+                } else {
+                    failures[root[c]] = 0;
+                    queue.add(root[c]);
+                }
+            }
+
+            // breadth first, so the failure state (always shallower) is complete before it's needed
+            while (!queue.isEmpty()) {
+                final int state = queue.poll();
+                final int[] next = this.transitions.get(state);
+                this.addMatches(state, this.matches.get(failures[state]));
+                for (int c = 0; c < ALPHABET; c++) {
+                    final int fallback = this.transitions.get(failures[state])[c];
+                    if (next[c] < 0) {
+                        next[c] = fallback;
+                    } else {
+                        failures[next[c]] = fallback;
+                        queue.add(next[c]);
+                    }
+                }
+            }
+        }
+
+    }
+
+}
@@ -2,19 +2,25 @@ package com.fizzed.provisioning;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
-import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import com.fizzed.crux.jackson.EnumDeserializeStrategy;
 import com.fizzed.crux.jackson.EnumSerializeStrategy;
 import com.fizzed.crux.jackson.EnumStrategyModule;
-import com.fizzed.jne.ABI;
-import com.fizzed.jne.HardwareArchitecture;
 import com.fizzed.jne.NativeTarget;
-import com.fizzed.jne.OperatingSystem;
-import org.apache.commons.lang3.StringUtils;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 
 public class ProvisioningHelper {
 
@@ -23,7 +29,6 @@ public class ProvisioningHelper {
         OBJECT_MAPPER = new ObjectMapper();
         OBJECT_MAPPER.registerModule(new EnumStrategyModule(EnumSerializeStrategy.LOWER_CASE, EnumDeserializeStrategy.IGNORE_CASE));
         OBJECT_MAPPER.registerModule(new ParameterNamesModule());
-        OBJECT_MAPPER.enable(SerializationFeature.INDENT_OUTPUT);
         OBJECT_MAPPER.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
     }
 
@@ -31,71 +36,104 @@ public class ProvisioningHelper {
         return OBJECT_MAPPER;
     }
 
+    /**
+     * The mapper writes compact json, this writes indented json for files humans review (e.g. in diffs).
+     */
+    static public ObjectWriter getPrettyObjectWriter() {
+        return OBJECT_MAPPER.writerWithDefaultPrettyPrinter();
+    }
+
     static public String prettyPrintJson(ObjectMapper objectMapper, String json) throws IOException {
         JsonNode node = objectMapper.readTree(json);
-        return objectMapper.writeValueAsString(node);
+        return objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(node);
     }
 
-    public static NativeTarget detectFromText(String text) {
-        OperatingSystem detectedOs = null;
-        for (OperatingSystem os : OperatingSystem.values()) {
-            if (StringUtils.containsIgnoreCase(text, os.name())) {
-                detectedOs = os;
-                break;
-            }
-            if (os.getAliases() != null) {
-                for (String alias : os.getAliases()) {
-                    if (StringUtils.containsIgnoreCase(text, alias)) {
-                        detectedOs = os;
-                        break;
-                    }
-                }
-            }
-        }
+    static public String sha256Hex(String value) {
+        return sha256Hex(value.getBytes(StandardCharsets.UTF_8));
+    }
 
-        HardwareArchitecture detectedArch = null;
-        for (HardwareArchitecture arch : HardwareArchitecture.values()) {
-            if (StringUtils.containsIgnoreCase(text, arch.name())) {
-                detectedArch = arch;
-                break;
-            }
-            if (arch.getAliases() != null) {
-                for (String alias : arch.getAliases()) {
-                    if (StringUtils.containsIgnoreCase(text, alias)) {
-                        detectedArch = arch;
-                        break;
-                    }
-                }
+    static public String sha256Hex(byte[] bytes) {
+        try {
+            final byte[] digest = MessageDigest.getInstance("SHA-256").digest(bytes);
+            final StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
             }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
         }
+    }
 
-        ABI detectedABI = null;
-        for (ABI abi : ABI.values()) {
-            if (StringUtils.containsIgnoreCase(text, abi.name())) {
-                detectedABI = abi;
-                break;
-            }
+    /**
+     * Atomically replaces the file with the content, but only if its content would actually change (so its timestamp,
+     * and anything watching it, is left alone otherwise).
+     */
+    static public boolean writeIfChanged(Path file, byte[] content) throws IOException {
+        if (Files.exists(file) && Arrays.equals(Files.readAllBytes(file), content)) {
+            return false;
+        }
+        final Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        final Path tempFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tempFile, content);
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
         }
+        return true;
+    }
 
-        if (detectedOs == null) {
-            if (StringUtils.containsIgnoreCase(text, "win")) {
-                detectedOs = OperatingSystem.WINDOWS;
-            } else if (StringUtils.containsIgnoreCase(text, "mac")) {
-                detectedOs = OperatingSystem.MACOS;
+    public interface ContentWriter {
+        void write(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Same as {@link #writeIfChanged(Path, byte[])}, but the content is streamed to a temp file and then compared to the
+     * file, so content of any size never has to be held in memory.
+     */
+    static public boolean writeIfChanged(Path file, ContentWriter contentWriter) throws IOException {
+        final Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        final Path tempFile = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(tempFile))) {
+                contentWriter.write(output);
+            }
+            if (Files.exists(file) && sameContent(file, tempFile)) {
+                return false;
             }
+            Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(tempFile);
         }
+        return true;
+    }
 
-        if (detectedArch == null) {
-            if (StringUtils.containsIgnoreCase(text, "arm32-vfp-hflt")) {
-                detectedArch = HardwareArchitecture.ARMHF;
-            } else if (StringUtils.containsIgnoreCase(text, "aarch32hf")) {
-                detectedArch = HardwareArchitecture.ARMHF;
-            } else if (StringUtils.containsIgnoreCase(text, "aarch32sf")) {
-                detectedArch = HardwareArchitecture.ARMEL;
+    static private boolean sameContent(Path file1, Path file2) throws IOException {
+        if (Files.size(file1) != Files.size(file2)) {
+            return false;
+        }
+        try (InputStream input1 = Files.newInputStream(file1); InputStream input2 = Files.newInputStream(file2)) {
+            final byte[] buffer1 = new byte[65536];
+            final byte[] buffer2 = new byte[65536];
+            int read;
+            while ((read = input1.readNBytes(buffer1, 0, buffer1.length)) > 0) {
+                if (input2.readNBytes(buffer2, 0, read) != read || !Arrays.equals(buffer1, 0, read, buffer2, 0, read)) {
+                    return false;
+                }
             }
+            return input2.read() < 0;
         }
+    }
 
-        return NativeTarget.of(detectedOs, detectedArch, detectedABI);
+    /**
+     * Detects the os, arch and abi named in the text (e.g. the file name of an installer), leaving any it can't find
+     * null.  See NativeTargetDetector for which wins if the text names several.
+     */
+    public static NativeTarget detectFromText(String text) {
+        return NativeTargetDetector.getDefault().detect(text);
     }
 
-}
\ No newline at end of file
+}
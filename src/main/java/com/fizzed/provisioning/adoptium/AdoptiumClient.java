@@ -1,119 +1,242 @@
 package com.fizzed.provisioning.adoptium;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.PropertyNamingStrategies;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.fizzed.jne.ABI;
 import com.fizzed.jne.HardwareArchitecture;
 import com.fizzed.jne.JavaVersion;
-import com.fizzed.jne.NativeTarget;
-import com.fizzed.provisioning.ProvisioningHelper;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.http.HttpTransportResponse;
+import com.fizzed.provisioning.http.UriBuilder;
 import com.fizzed.provisioning.java.ImageType;
-import com.fizzed.provisioning.java.InstallerType;
 import com.fizzed.provisioning.java.JavaDistro;
 import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerConversion;
+import com.fizzed.provisioning.java.JavaInstallerConverter;
+import com.fizzed.provisioning.java.JavaInstallerGrammar;
+import com.fizzed.provisioning.java.JavaInstallerGrammar.Field;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import com.fizzed.provisioning.java.JavaInstallerParseException;
+import com.fizzed.provisioning.java.JavaReleaseProvider;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
-import static com.fizzed.provisioning.ProvisioningHelper.prettyPrintJson;
 import static java.util.Optional.ofNullable;
 
-public class AdoptiumClient {
+public class AdoptiumClient implements JavaReleaseProvider {
     static private final Logger log = LoggerFactory.getLogger(AdoptiumClient.class);
 
-    private final ObjectMapper objectMapper;
+    static public final Predicate<AdoptiumJavaRelease> HOTSPOT_JDK_ONLY = javaRelease ->
+        "hotspot".equals(javaRelease.getJvmImpl()) && "jdk".equalsIgnoreCase(javaRelease.getImageType());
+
+    // e.g. OpenJDK21U-jdk_x64_alpine-linux_hotspot_21.0.8_9.tar.gz, OpenJDK25U-debugimage_aarch64_mac_hotspot_25_36.tar.gz
+    // or OpenJDK8U-jre_x86-32_windows_hotspot_8u462b08.msi (and only hotspot, the openj9 builds moved to semeru)
+    static final JavaInstallerGrammar NAME_GRAMMAR = JavaInstallerGrammar.builder(JavaDistro.TEMURIN)
+        .literal("OpenJDK")
+        .skip("\\d+U-", "major version")
+        .token(Field.IMAGE_TYPE, Map.of("jdk", ImageType.JDK, "jre", ImageType.JRE, "debugimage", ImageType.OTHER,
+            "testimage", ImageType.OTHER, "static-libs", ImageType.OTHER, "static-libs-glibc", ImageType.OTHER,
+            "static-libs-musl", ImageType.OTHER, "jmods", ImageType.OTHER))
+        .literal("_")
+        .token(Field.ARCH, Map.of("x64", HardwareArchitecture.X64, "x86-32", HardwareArchitecture.X32, "aarch64", HardwareArchitecture.ARM64,
+            "arm", HardwareArchitecture.ARMHF, "ppc64le", HardwareArchitecture.PPC64LE, "ppc64", HardwareArchitecture.PPC64,
+            "s390x", HardwareArchitecture.S390X, "riscv64", HardwareArchitecture.RISCV64))
+        .literal("_")
+        .optional("", Field.ABI, Map.of("alpine", ABI.MUSL), "-")
+        .token(Field.OS, Map.of("linux", OperatingSystem.LINUX, "mac", OperatingSystem.MACOS, "windows", OperatingSystem.WINDOWS,
+            "aix", OperatingSystem.AIX, "solaris", OperatingSystem.SOLARIS))
+        .literal("_hotspot_")
+        .capture(Field.JAVA_VERSION, "\\d[\\d.u_b]*")
+        .installerType()
+        .build();
+
+    // e.g. jdk-21.0.1+12_adopt, jdk-25+36 or jdk8u462-b08
+    static private final Pattern SCM_REF_PATTERN = Pattern.compile("(?:jdk-)?(.+?)(?:_adopt)?");
+
+    static private final int MAX_PAGE_SIZE = 20;
+
+    private final HttpTransport transport;
+    private final ObjectReader releasesReader;
 
     public AdoptiumClient() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-        this.objectMapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        this(HttpTransport.getDefault());
+    }
+
+    public AdoptiumClient(HttpTransport transport) {
+        this.transport = transport;
+        this.releasesReader = transport.getObjectMapper().readerFor(AdoptiumJavaReleases.class);
+    }
+
+    @Override
+    public JavaDistro getDistro() {
+        return JavaDistro.TEMURIN;
+    }
+
+    @Override
+    public AdoptiumClient withTransport(HttpTransport transport) {
+        return new AdoptiumClient(transport);
+    }
+
+    @Override
+    public CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query) {
+        return this.transport.supplyAsync(() -> HttpTransport.collectList(this.streamInstallers(query)));
+    }
+
+    @Override
+    public Stream<JavaInstaller> streamInstallers(JavaReleaseQuery query) {
+        return JavaReleaseProvider.matchingInstallers(query,
+            this.streamReleases(query, query.getImageType() == ImageType.JDK ? HOTSPOT_JDK_ONLY : javaRelease -> true)
+                .flatMap(javaReleases -> javaReleases.getBinaries().stream()),
+            this::toInstaller);
     }
 
     public List<AdoptiumJavaReleases> getReleases(int javaMajorVersion) throws IOException, InterruptedException {
-        final HttpClient httpClient = HttpClient.newBuilder().build();
-        final HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create("https://api.adoptium.net/v3/assets/feature_releases/" + javaMajorVersion + "/ga"))
-            .build();
+        return this.getReleases(javaMajorVersion, javaRelease -> true);
+    }
 
-        final String responseJson = httpClient.send(request, HttpResponse.BodyHandlers.ofString())
-            .body();
+    /**
+     * Streams the releases, filtering the binaries of each release as it arrives.  A release whose binaries were all
+     * filtered out is dropped entirely.
+     */
+    public List<AdoptiumJavaReleases> getReleases(int javaMajorVersion, Predicate<? super AdoptiumJavaRelease> filter) throws IOException, InterruptedException {
+        return this.getReleases(new JavaReleaseQuery(javaMajorVersion), filter);
+    }
 
-        log.debug("{}", prettyPrintJson(this.objectMapper, responseJson));
+    public List<AdoptiumJavaReleases> getReleases(JavaReleaseQuery query) throws IOException, InterruptedException {
+        return this.getReleases(query, javaRelease -> true);
+    }
 
-        return this.objectMapper.readValue(responseJson, new TypeReference<>() {});
+    public List<AdoptiumJavaReleases> getReleases(JavaReleaseQuery query, Predicate<? super AdoptiumJavaRelease> filter) throws IOException, InterruptedException {
+        return HttpTransport.collectList(this.streamReleases(query, filter));
     }
 
-    public JavaInstaller toInstaller(AdoptiumJavaRelease javaRelease) {
-        NativeTarget nativeTarget = ProvisioningHelper.detectFromText(javaRelease.getOs() + " " + javaRelease.getArchitecture());
-        if (nativeTarget.getOperatingSystem() == null || nativeTarget.getHardwareArchitecture() == null) {
-            if ("arm".equals(javaRelease.getArchitecture())) {
-                nativeTarget = NativeTarget.of(nativeTarget.getOperatingSystem(), HardwareArchitecture.ARMHF, nativeTarget.getAbi());
-            } else {
-                throw new RuntimeException("Failed to detect os / arch from " + javaRelease.getPkg().getName());
+    /**
+     * Lazily streams the releases, only requesting the next page once the previous one has been consumed.  Releases are
+     * returned newest first, but the newest release doesn't always have every target (e.g. a platform built late), so
+     * latest-only keeps paging until a page has no target (os, arch, image type and heap size) the newer ones didn't.
+     */
+    public Stream<AdoptiumJavaReleases> streamReleases(JavaReleaseQuery query, Predicate<? super AdoptiumJavaRelease> filter) {
+        final int pageSize = ofNullable(query.getPageSize()).orElse(MAX_PAGE_SIZE);
+        final AtomicInteger page = new AtomicInteger(-1);
+        final Set<String> targets = ConcurrentHashMap.newKeySet();
+        final AtomicBoolean pageHadNewTarget = new AtomicBoolean();
+
+        // pages start at 0, and a short page (or a 404) means there are no more
+        return this.transport.<AdoptiumJavaReleases>streamJsonArray(this.releasesReader, (previous, previousRows) -> {
+            if (previous != null && (previousRows < pageSize || (query.isLatestOnly() && !pageHadNewTarget.getAndSet(false)))) {
+                return null;
+            }
+            final HttpTransportResponse response = this.transport.get(this.buildFeatureReleasesUri(query, page.incrementAndGet(), pageSize));
+            if (response.getStatusCode() == 404) {
+                response.close();
+                return null;
+            }
+            return HttpTransport.requireSuccess(response);
+        }).filter(javaReleases -> {
+            final List<AdoptiumJavaRelease> binaries = javaReleases.getBinaries();
+            final boolean removed = binaries != null && binaries.removeIf(javaRelease -> !filter.test(javaRelease));
+            if (binaries != null) {
+                for (AdoptiumJavaRelease javaRelease : binaries) {
+                    if (targets.add(javaRelease.getOs() + "/" + javaRelease.getArchitecture() + "/" + javaRelease.getImageType() + "/" + javaRelease.getHeapSize())) {
+                        pageHadNewTarget.set(true);
+                    }
+                }
             }
+            return !(removed && binaries.isEmpty());
+        });
+    }
+
+    URI buildFeatureReleasesUri(JavaReleaseQuery query, int page, int pageSize) {
+        return new UriBuilder("https://api.adoptium.net/v3/assets/feature_releases/" + query.getJavaMajorVersion() + "/ga")
+            .param("os", toOsParam(query))
+            .param("architecture", toArchParam(query))
+            .param("image_type", query.getImageType() == ImageType.JDK || query.getImageType() == ImageType.JRE ? query.getImageType().name().toLowerCase() : null)
+            .param("jvm_impl", "hotspot")
+            .param("sort_order", "DESC")
+            .param("page", page)
+            .param("page_size", pageSize)
+            .build();
+    }
+
+    static private String toOsParam(JavaReleaseQuery query) {
+        if (query.getOs() == null) {
+            return null;
+        }
+        switch (query.getOs()) {
+            case LINUX:
+                return query.getAbi() == ABI.MUSL ? "alpine-linux" : "linux";
+            case MACOS:
+                return "mac";
+            case WINDOWS:
+                return "windows";
+            case SOLARIS:
+                return "solaris";
+            default:
+                return null;
         }
+    }
 
-        if (javaRelease.getOs().equals("alpine-linux")) {
-            // we detect MUSL here...
-            nativeTarget = NativeTarget.of(nativeTarget.getOperatingSystem(), nativeTarget.getHardwareArchitecture(), ABI.MUSL);
+    static private String toArchParam(JavaReleaseQuery query) {
+        if (query.getArch() == null) {
+            return null;
         }
+        switch (query.getArch()) {
+            case X64:
+                return "x64";
+            case X32:
+                return "x32";
+            case ARM64:
+                return "aarch64";
+            case ARMHF:
+                return "arm";
+            case RISCV64:
+                return "riscv64";
+            default:
+                return null;
+        }
+    }
 
-        JavaInstaller installer = new JavaInstaller();
-        installer.setDistro(JavaDistro.TEMURIN);
-        installer.setName(javaRelease.getPkg().getName());
-        installer.setInstallerType(InstallerType.fromFileName(javaRelease.getPkg().getName()));
-        installer.setOs(nativeTarget.getOperatingSystem());
-        installer.setArch(nativeTarget.getHardwareArchitecture());
-        installer.setAbi(nativeTarget.getAbi());
-        installer.setDownloadUrl(javaRelease.getPkg().getLink());
-
-        // the java version is not included very well by default
-        // scm ref is interesting to try and use
-        // scmRef=jdk-21.0.1+12_adopt
-        String versionString = javaRelease.getScmRef();
-        versionString = versionString.replace("jdk-", "");
-        versionString = versionString.replace("_adopt", "");
-        installer.setVersion(JavaVersion.parse(versionString));
-
-        // image types represent
-        // jvmImpl of "hotspot" are the only ones we want
-        if (!javaRelease.getJvmImpl().equals("hotspot")) {
-            throw new RuntimeException("Unsupported jvmImpl " + javaRelease.getJvmImpl());
+    /**
+     * Converts the binaries of a whole release list at once (in parallel), reporting the binaries that couldn't be
+     * converted rather than failing on the first one.
+     */
+    public JavaInstallerConversion toInstallers(List<? extends AdoptiumJavaReleases> javaReleases) {
+        final List<AdoptiumJavaRelease> binaries = new ArrayList<>();
+        for (AdoptiumJavaReleases javaRelease : javaReleases) {
+            binaries.addAll(javaRelease.getBinaries());
         }
+        return JavaInstallerConverter.getDefault().convert(this.getDistro(), binaries, this::toInstaller);
+    }
 
-        /*Full version of Liberica includes LibericaFX, which is based on OpenJFX and Minimal VM, where suitable.
-        Standard version is best suited for server and desktop deployments that do not require any additional components.
-        Lite version of Liberica works best for cloud deployments and is optimized for size.
-        Liberica JDK with CRaC is the build of Liberica JDK that supports the CRaC API. It allows making and utilizing the snapshots of app. This flavor is not TCK verified.*/
-        switch (ofNullable(javaRelease.getImageType()).map(String::toLowerCase).orElse("")) {
-            case "jdk":
-                installer.setImageType(ImageType.JDK);
-                break;
-            case "jre":
-                installer.setImageType(ImageType.JRE);
-                break;
-            case "debugimage":
-            case "testimage":
-            case "sources":
-            case "staticlibs":              // ??
-            case "sbom":                    // ??
-            case "jmods":                   // ??
-                // these are images we really don't want to bother with
-                installer.setImageType(ImageType.OTHER);
-                break;
-            default:
-                throw new RuntimeException("Unsupported image type " + javaRelease.getImageType());
+    public JavaInstaller toInstaller(AdoptiumJavaRelease javaRelease) throws JavaInstallerParseException {
+        final JavaInstallerName name = NAME_GRAMMAR.parse(javaRelease.getPkg().getName());
+
+        // the java version in the name is mangled (e.g. 8u462b08), while the scm ref has it as is
+        // scmRef=jdk-21.0.1+12_adopt
+        final Matcher scmRefMatcher = SCM_REF_PATTERN.matcher(javaRelease.getScmRef());
+        if (!scmRefMatcher.matches()) {
+            throw new JavaInstallerParseException(JavaDistro.TEMURIN, javaRelease.getScmRef(), 0, "an scm ref like jdk-21.0.1+12_adopt");
         }
 
-        return installer;
+        return name.toInstaller()
+            .setDownloadUrl(javaRelease.getPkg().getLink())
+            .setVersion(JavaVersion.parse(scmRefMatcher.group(1)));
     }
 
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.fizzed.provisioning.adoptium;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
 
 /**
  * {
@@ -13,6 +15,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  * }
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 public class AdoptiumJavaPackage {
 
     private String link;
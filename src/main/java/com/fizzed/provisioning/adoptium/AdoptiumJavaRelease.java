@@ -2,6 +2,8 @@ package com.fizzed.provisioning.adoptium;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
 
 /**
  * {
@@ -25,6 +27,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
  * }
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 public class AdoptiumJavaRelease {
 
     private String architecture;
@@ -0,0 +1,118 @@
+package com.fizzed.provisioning.corretto;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.github.GitHubJavaReleaseProvider;
+import com.fizzed.provisioning.github.GitHubRelease;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerGrammar;
+import com.fizzed.provisioning.java.JavaInstallerGrammar.Field;
+import com.fizzed.provisioning.java.JavaInstallerName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Amazon Corretto publishes a github repo per major version (e.g. corretto/corretto-21), but its releases have no
+ * assets, so the installers are the corretto.aws download links in the body of each release.
+ */
+public class CorrettoClient extends GitHubJavaReleaseProvider {
+
+    // e.g. https://corretto.aws/downloads/resources/21.0.5.11.1/amazon-corretto-21.0.5.11.1-alpine-linux-x64.tar.gz
+    static private final Pattern DOWNLOAD_URL_PATTERN = Pattern.compile(
+        "https://corretto\\.aws/downloads/resources/[0-9.]+/amazon-corretto-[A-Za-z0-9._-]+");
+    static final JavaInstallerGrammar NAME_GRAMMAR = JavaInstallerGrammar.builder(JavaDistro.CORRETTO)
+        .literal("amazon-corretto-")
+        .capture(Field.DISTRO_VERSION, "[0-9.]+")
+        .literal("-")
+        .optional("", Field.ABI, Map.of("alpine", ABI.MUSL), "-")
+        .token(Field.OS, Map.of("linux", OperatingSystem.LINUX, "macosx", OperatingSystem.MACOS, "windows", OperatingSystem.WINDOWS))
+        .literal("-")
+        .token(Field.ARCH, Map.of("x64", HardwareArchitecture.X64, "x86", HardwareArchitecture.X32, "aarch64", HardwareArchitecture.ARM64,
+            "arm64", HardwareArchitecture.ARM64, "arm", HardwareArchitecture.ARMHF))
+        // an installer without an image type in its name is a jdk
+        .optional("-", Field.IMAGE_TYPE, Map.of("jdk", ImageType.JDK, "jre", ImageType.JRE), "")
+        .defaultImageType(ImageType.JDK)
+        .installerType()
+        .build();
+    static private final Pattern VERSION_PATTERN = Pattern.compile("(\\d+)\\.(\\d+)\\.(\\d+)(?:\\.(\\d+))?(?:\\.\\d+)?");
+
+    public CorrettoClient() {
+        this(HttpTransport.getDefault());
+    }
+
+    public CorrettoClient(HttpTransport transport) {
+        super(transport);
+    }
+
+    @Override
+    public JavaDistro getDistro() {
+        return JavaDistro.CORRETTO;
+    }
+
+    @Override
+    public CorrettoClient withTransport(HttpTransport transport) {
+        return new CorrettoClient(transport);
+    }
+
+    @Override
+    protected List<String> getRepos(int javaMajorVersion) {
+        return Collections.singletonList("corretto/corretto-" + javaMajorVersion);
+    }
+
+    @Override
+    protected JavaVersion getVersion(GitHubRelease release, int javaMajorVersion) {
+        // e.g. 21.0.5.11.1 (major.minor.security.build.revision), or 8.432.06.1 (8.security.build.revision)
+        final Matcher matcher = VERSION_PATTERN.matcher(release.getTagName() != null ? release.getTagName() : "");
+        if (!matcher.matches() || Integer.parseInt(matcher.group(1)) != javaMajorVersion) {
+            return null;
+        }
+        if (javaMajorVersion == 8) {
+            return new JavaVersion(null, 8, 0, Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)));
+        }
+        return new JavaVersion(null, javaMajorVersion, Integer.parseInt(matcher.group(2)), Integer.parseInt(matcher.group(3)),
+            matcher.group(4) != null ? Integer.parseInt(matcher.group(4)) : 0);
+    }
+
+    @Override
+    protected List<JavaInstaller> toInstallers(GitHubRelease release, JavaVersion version) {
+        final List<JavaInstaller> javaInstallers = new ArrayList<>();
+        if (release.getBody() == null) {
+            return javaInstallers;
+        }
+
+        // the body lists each link a few times (e.g. installer, checksum and signature tables)
+        final Set<String> downloadUrls = new LinkedHashSet<>();
+        final Matcher urlMatcher = DOWNLOAD_URL_PATTERN.matcher(release.getBody());
+        while (urlMatcher.find()) {
+            downloadUrls.add(urlMatcher.group());
+        }
+
+        for (String downloadUrl : downloadUrls) {
+            final String name = downloadUrl.substring(downloadUrl.lastIndexOf('/') + 1);
+            final JavaInstallerName installerName = NAME_GRAMMAR.tryParse(name);
+            // e.g. the .sig and .pub links
+            if (installerName == null) {
+                continue;
+            }
+
+            javaInstallers.add(installerName.toInstaller()
+                .setDownloadUrl(downloadUrl)
+                .setVersion(version));
+        }
+
+        return javaInstallers;
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.fizzed.provisioning.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+/**
+ * {
+ *   "name" : "sapmachine-jdk-21.0.5_linux-x64_bin.tar.gz",
+ *   "content_type" : "application/gzip",
+ *   "size" : 205620839,
+ *   "browser_download_url" : "https://github.com/SAP/SapMachine/releases/download/sapmachine-21.0.5/sapmachine-jdk-21.0.5_linux-x64_bin.tar.gz"
+ * }
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class GitHubAsset {
+
+    private String name;
+    private String contentType;
+    private Long size;
+    private String browserDownloadUrl;
+
+    public String getName() {
+        return name;
+    }
+
+    public GitHubAsset setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public GitHubAsset setContentType(String contentType) {
+        this.contentType = contentType;
+        return this;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public GitHubAsset setSize(Long size) {
+        this.size = size;
+        return this;
+    }
+
+    public String getBrowserDownloadUrl() {
+        return browserDownloadUrl;
+    }
+
+    public GitHubAsset setBrowserDownloadUrl(String browserDownloadUrl) {
+        this.browserDownloadUrl = browserDownloadUrl;
+        return this;
+    }
+
+}
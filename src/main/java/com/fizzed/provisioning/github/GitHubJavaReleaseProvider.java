@@ -0,0 +1,189 @@
+package com.fizzed.provisioning.github;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaReleaseProvider;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
+import com.fizzed.provisioning.java.PackedJavaVersion;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static com.fizzed.crux.util.Maybe.maybe;
+
+/**
+ * A java release provider for distros that publish their installers as github releases.  The repos of a query are
+ * fetched concurrently, and for a latest-only query, paging of a repo stops as soon as a release older than the newest
+ * one has no target that newer releases don't already have (releases are listed newest first, but the newest doesn't
+ * always have every target, e.g. a platform built late).
+ *
+ * The listing of a repo is shared by queries for a few minutes, so the queries of each major version of a repo with every
+ * major only fetch its pages once.
+ */
+abstract public class GitHubJavaReleaseProvider implements JavaReleaseProvider {
+
+    // long enough for the queries of every major version of a refresh to share the listing of a repo they all live in
+    // (e.g. SAP/SapMachine), short enough that a long-lived provider still sees new releases
+    static private final Duration LISTING_MAX_AGE = Duration.ofMinutes(5);
+
+    protected final GitHubReleasesClient client;
+    private final ConcurrentMap<String, GitHubReleaseListing> listings;
+
+    protected GitHubJavaReleaseProvider(HttpTransport transport) {
+        this.client = new GitHubReleasesClient(transport);
+        this.listings = new ConcurrentHashMap<>();
+    }
+
+    public GitHubReleasesClient getClient() {
+        return client;
+    }
+
+    /**
+     * The repos (as "owner/repo") the releases of a major version are published to.
+     */
+    abstract protected List<String> getRepos(int javaMajorVersion);
+
+    /**
+     * The version of a release, or null if it isn't a release of the major version (e.g. in a repo with every major).
+     */
+    abstract protected JavaVersion getVersion(GitHubRelease release, int javaMajorVersion);
+
+    /**
+     * The installers of a release, skipping anything (checksums, signatures, debug images, etc.) that isn't one.
+     */
+    abstract protected List<JavaInstaller> toInstallers(GitHubRelease release, JavaVersion version);
+
+    @Override
+    public CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query) {
+        final List<CompletableFuture<List<JavaInstaller>>> futures = new ArrayList<>();
+        for (String repo : this.getRepos(query.getJavaMajorVersion())) {
+            futures.add(this.client.getTransport().supplyAsync(() -> this.getInstallers(repo, query)));
+        }
+
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+            .thenApply(v -> {
+                final List<JavaInstaller> javaInstallers = new ArrayList<>();
+                for (CompletableFuture<List<JavaInstaller>> future : futures) {
+                    javaInstallers.addAll(future.join());
+                }
+                return javaInstallers;
+            });
+    }
+
+    private List<JavaInstaller> getInstallers(String repo, JavaReleaseQuery query) throws IOException, InterruptedException {
+        final ReleaseTargets releaseTargets = new ReleaseTargets(query);
+
+        final List<GitHubRelease> releases = this.getListing(repo).getReleases(
+            releasesSoFar -> query.isLatestOnly() && releaseTargets.hasOlderReleaseWithoutNewTargets(releasesSoFar));
+
+        // keyed by target, so that a latest-only query keeps the newest installer of each
+        final Map<String, JavaInstaller> javaInstallers = new LinkedHashMap<>();
+        int index = 0;
+        for (int i = 0; i < releases.size(); i++) {
+            for (JavaInstaller javaInstaller : releaseTargets.getInstallers(releases, i)) {
+                final String key = query.isLatestOnly() ? targetKey(javaInstaller) : Integer.toString(index++);
+                final JavaInstaller existing = javaInstallers.get(key);
+                if (existing == null || javaInstaller.getVersion().compareTo(existing.getVersion()) > 0) {
+                    javaInstallers.put(key, javaInstaller);
+                }
+            }
+        }
+
+        return new ArrayList<>(javaInstallers.values());
+    }
+
+    private GitHubReleaseListing getListing(String repo) {
+        return this.listings.compute(repo, (k, listing) -> {
+            if (listing != null && !listing.isOlderThan(LISTING_MAX_AGE)) {
+                return listing;
+            }
+            final String[] ownerAndRepo = repo.split("/", 2);
+            return this.client.newListing(ownerAndRepo[0], ownerAndRepo[1]);
+        });
+    }
+
+    /**
+     * The installers matching a query of each release of a listing, each converted only once, and the targets they
+     * cover as the listing is paged through, so each page is only looked at once.
+     */
+    private class ReleaseTargets {
+
+        private final JavaReleaseQuery query;
+        private final List<List<JavaInstaller>> installersByRelease;
+        // the targets of the versions before the current one, and of the current one (newest first)
+        private final Set<String> covered;
+        private Set<String> currentTargets;
+        private long currentVersion;
+        private int versions;
+        private boolean done;
+
+        ReleaseTargets(JavaReleaseQuery query) {
+            this.query = query;
+            this.installersByRelease = new ArrayList<>();
+            this.covered = new HashSet<>();
+            this.currentTargets = new HashSet<>();
+        }
+
+        List<JavaInstaller> getInstallers(List<GitHubRelease> releases, int index) {
+            while (this.installersByRelease.size() <= index) {
+                final GitHubRelease release = releases.get(this.installersByRelease.size());
+                final JavaVersion version = release.isGa() ? GitHubJavaReleaseProvider.this.getVersion(release, this.query.getJavaMajorVersion()) : null;
+                final List<JavaInstaller> javaInstallers = new ArrayList<>();
+                if (version != null) {
+                    for (JavaInstaller javaInstaller : GitHubJavaReleaseProvider.this.toInstallers(release, version)) {
+                        if (this.query.matches(javaInstaller)) {
+                            javaInstallers.add(javaInstaller);
+                        }
+                    }
+                }
+                this.installersByRelease.add(javaInstallers);
+            }
+            return this.installersByRelease.get(index);
+        }
+
+        boolean hasOlderReleaseWithoutNewTargets(List<GitHubRelease> releases) {
+            // only the releases of the pages since the last call
+            for (int i = this.installersByRelease.size(); i < releases.size() && !this.done; i++) {
+                final List<JavaInstaller> javaInstallers = this.getInstallers(releases, i);
+                if (javaInstallers.isEmpty()) {
+                    continue;
+                }
+                final long version = PackedJavaVersion.pack(javaInstallers.get(0).getVersion());
+                if (this.versions == 0 || version != this.currentVersion) {
+                    // every release of the previous version has been seen, so it's as covered as it will get
+                    this.done = this.isCurrentCovered();
+                    this.covered.addAll(this.currentTargets);
+                    this.currentTargets = new HashSet<>();
+                    this.currentVersion = version;
+                    this.versions++;
+                }
+                for (JavaInstaller javaInstaller : javaInstallers) {
+                    this.currentTargets.add(targetKey(javaInstaller));
+                }
+            }
+            return this.done || this.isCurrentCovered();
+        }
+
+        private boolean isCurrentCovered() {
+            return this.versions > 1 && this.covered.containsAll(this.currentTargets);
+        }
+
+    }
+
+    static private String targetKey(JavaInstaller javaInstaller) {
+        return javaInstaller.getOs() + "-" + javaInstaller.getArch() + "-" + maybe(javaInstaller.getAbi()).orElse(ABI.DEFAULT)
+            + "-" + javaInstaller.getImageType() + "-" + javaInstaller.getInstallerType();
+    }
+
+}
@@ -0,0 +1,113 @@
+package com.fizzed.provisioning.github;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+
+import java.util.List;
+
+/**
+ * {
+ *   "tag_name" : "21.0.5.11.1",
+ *   "name" : "Amazon Corretto 21.0.5.11.1",
+ *   "draft" : false,
+ *   "prerelease" : false,
+ *   "created_at" : "2024-10-15T17:05:33Z",
+ *   "published_at" : "2024-10-15T20:50:52Z",
+ *   "assets" : [ ... ],
+ *   "body" : "## Corretto version: 21.0.5.11.1 ..."
+ * }
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class GitHubRelease {
+
+    private String tagName;
+    private String name;
+    private Boolean draft;
+    private Boolean prerelease;
+    private String createdAt;
+    private String publishedAt;
+    private List<GitHubAsset> assets;
+    private String body;
+
+    public String getTagName() {
+        return tagName;
+    }
+
+    public GitHubRelease setTagName(String tagName) {
+        this.tagName = tagName;
+        return this;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public GitHubRelease setName(String name) {
+        this.name = name;
+        return this;
+    }
+
+    public Boolean getDraft() {
+        return draft;
+    }
+
+    public GitHubRelease setDraft(Boolean draft) {
+        this.draft = draft;
+        return this;
+    }
+
+    public Boolean getPrerelease() {
+        return prerelease;
+    }
+
+    public GitHubRelease setPrerelease(Boolean prerelease) {
+        this.prerelease = prerelease;
+        return this;
+    }
+
+    public String getCreatedAt() {
+        return createdAt;
+    }
+
+    public GitHubRelease setCreatedAt(String createdAt) {
+        this.createdAt = createdAt;
+        return this;
+    }
+
+    public String getPublishedAt() {
+        return publishedAt;
+    }
+
+    public GitHubRelease setPublishedAt(String publishedAt) {
+        this.publishedAt = publishedAt;
+        return this;
+    }
+
+    public List<GitHubAsset> getAssets() {
+        return assets;
+    }
+
+    public GitHubRelease setAssets(List<GitHubAsset> assets) {
+        this.assets = assets;
+        return this;
+    }
+
+    public String getBody() {
+        return body;
+    }
+
+    public GitHubRelease setBody(String body) {
+        this.body = body;
+        return this;
+    }
+
+    /**
+     * If the release is published and not a pre-release (i.e. general availability).
+     */
+    public boolean isGa() {
+        return !Boolean.TRUE.equals(this.draft) && !Boolean.TRUE.equals(this.prerelease);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.fizzed.provisioning.github;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * The releases of a github repo (newest first), fetched a page at a time and only as deep as any caller has needed so
+ * far.  Callers sharing a listing (e.g. the queries of each major version of a repo with every major) each see the pages
+ * already fetched as if they had fetched them, and only fetch the pages no one has yet.
+ */
+public class GitHubReleaseListing {
+    static private final Logger log = LoggerFactory.getLogger(GitHubReleaseListing.class);
+
+    private final GitHubReleasesClient client;
+    private final String owner;
+    private final String repo;
+    private final long createdNanos;
+    private final List<GitHubRelease> releases;
+    // where each page fetched so far ends in the releases
+    private final List<Integer> pageEnds;
+    private URI next;
+
+    GitHubReleaseListing(GitHubReleasesClient client, String owner, String repo, URI first) {
+        this.client = client;
+        this.owner = owner;
+        this.repo = repo;
+        this.createdNanos = System.nanoTime();
+        this.releases = new ArrayList<>();
+        this.pageEnds = new ArrayList<>();
+        this.next = first;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public String getRepo() {
+        return repo;
+    }
+
+    public boolean isOlderThan(Duration maxAge) {
+        return System.nanoTime() - this.createdNanos > maxAge.toNanos();
+    }
+
+    /**
+     * The pages fetched so far.
+     */
+    public synchronized int getPages() {
+        return this.pageEnds.size();
+    }
+
+    /**
+     * The releases up to the first page where the releases so far satisfy the done predicate (or all of them, if none
+     * does), fetching the next pages only once those already fetched aren't enough.
+     */
+    public synchronized List<GitHubRelease> getReleases(Predicate<List<GitHubRelease>> done) throws IOException, InterruptedException {
+        for (int pageEnd : this.pageEnds) {
+            final List<GitHubRelease> releasesSoFar = this.releases.subList(0, pageEnd);
+            if (done.test(releasesSoFar)) {
+                return new ArrayList<>(releasesSoFar);
+            }
+        }
+
+        final int cachedPages = this.pageEnds.size();
+        while (this.next != null) {
+            this.next = this.client.fetchPage(this.owner, this.repo, this.next, this.releases);
+            this.pageEnds.add(this.releases.size());
+            if (done.test(this.releases)) {
+                break;
+            }
+        }
+
+        log.debug("Listed {} github releases of {}/{} in {} pages ({} already fetched)", this.releases.size(), this.owner, this.repo,
+            this.pageEnds.size(), cachedPages);
+
+        return new ArrayList<>(this.releases);
+    }
+
+}
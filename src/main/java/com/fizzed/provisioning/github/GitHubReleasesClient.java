@@ -0,0 +1,134 @@
+package com.fizzed.provisioning.github;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fizzed.provisioning.http.HttpRateLimitedException;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.http.HttpTransportResponse;
+import com.fizzed.provisioning.http.JsonArrayIterator;
+import com.fizzed.provisioning.http.UriBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Lists the releases of github repos.  The unauthenticated rate limit is only 60 requests/hour, so pages are as large as
+ * github allows, paging stops as soon as the caller has what it needs, and the transport's response cache revalidates
+ * with ETags (github does not count a 304 against the rate limit).  A token in GITHUB_TOKEN raises the limit to
+ * 5000 requests/hour.
+ */
+public class GitHubReleasesClient {
+    static private final Logger log = LoggerFactory.getLogger(GitHubReleasesClient.class);
+
+    static private final int MAX_PAGE_SIZE = 100;
+    static private final Pattern NEXT_LINK_PATTERN = Pattern.compile("<([^>]+)>\\s*;\\s*rel=\"next\"");
+
+    private final HttpTransport transport;
+    private final ObjectReader releaseReader;
+    private String token;
+
+    public GitHubReleasesClient() {
+        this(HttpTransport.getDefault());
+    }
+
+    public GitHubReleasesClient(HttpTransport transport) {
+        this.transport = transport;
+        this.releaseReader = transport.getObjectMapper().readerFor(GitHubRelease.class);
+        this.token = System.getenv("GITHUB_TOKEN");
+    }
+
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public GitHubReleasesClient setToken(String token) {
+        this.token = token;
+        return this;
+    }
+
+    public List<GitHubRelease> getReleases(String owner, String repo) throws IOException, InterruptedException {
+        return this.getReleases(owner, repo, releases -> false);
+    }
+
+    /**
+     * Lists the releases of a repo (newest first), following the "next" links until there are no more pages or the
+     * releases so far satisfy the done predicate.
+     */
+    public List<GitHubRelease> getReleases(String owner, String repo, Predicate<List<GitHubRelease>> done) throws IOException, InterruptedException {
+        return this.newListing(owner, repo).getReleases(done);
+    }
+
+    /**
+     * A listing of the releases of a repo that has fetched nothing yet, to share among callers.
+     */
+    public GitHubReleaseListing newListing(String owner, String repo) {
+        return new GitHubReleaseListing(this, owner, repo, new UriBuilder("https://api.github.com/repos/" + owner + "/" + repo + "/releases")
+            .param("per_page", MAX_PAGE_SIZE)
+            .build());
+    }
+
+    /**
+     * Fetches a page of releases onto the releases so far.
+     *
+     * @return the uri of the next page, or null if it was the last
+     */
+    URI fetchPage(String owner, String repo, URI uri, List<GitHubRelease> releases) throws IOException, InterruptedException {
+        try (HttpTransportResponse response = this.requireSuccess(this.transport.get(uri, this.buildHeaders()));
+             JsonArrayIterator<GitHubRelease> iterator = this.transport.newJsonArrayIterator(response.getBody(), this.releaseReader)) {
+            while (iterator.hasNext()) {
+                releases.add(iterator.next());
+            }
+            log.debug("Fetched {} github releases of {}/{} (rate limit remaining {}, cached {})", releases.size(), owner, repo,
+                response.getHeader("X-RateLimit-Remaining"), response.isCached());
+            return nextLink(response.getHeader("Link"));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private Map<String, String> buildHeaders() {
+        final Map<String, String> headers = new LinkedHashMap<>();
+        headers.put("Accept", "application/vnd.github+json");
+        headers.put("X-GitHub-Api-Version", "2022-11-28");
+        if (this.token != null && !this.token.isBlank()) {
+            headers.put("Authorization", "Bearer " + this.token);
+        }
+        return headers;
+    }
+
+    private HttpTransportResponse requireSuccess(HttpTransportResponse response) throws IOException {
+        // github signals an exhausted (primary) rate limit with a 403 rather than a 429
+        if ((response.getStatusCode() == 403 || response.getStatusCode() == 429) && "0".equals(response.getHeader("X-RateLimit-Remaining"))) {
+            response.close();
+            final String reset = response.getHeader("X-RateLimit-Reset");
+            final Duration retryAfter = reset != null
+                ? Duration.between(Instant.now(), Instant.ofEpochSecond(Long.parseLong(reset))) : null;
+            throw new HttpRateLimitedException(response.getUri(), response.getStatusCode(),
+                retryAfter != null && !retryAfter.isNegative() ? retryAfter : null);
+        }
+        return HttpTransport.requireSuccess(response);
+    }
+
+    static URI nextLink(String linkHeader) {
+        if (linkHeader == null) {
+            return null;
+        }
+        final Matcher matcher = NEXT_LINK_PATTERN.matcher(linkHeader);
+        return matcher.find() ? URI.create(matcher.group(1)) : null;
+    }
+
+}
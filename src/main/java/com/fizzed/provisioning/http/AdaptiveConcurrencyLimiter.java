@@ -0,0 +1,138 @@
+package com.fizzed.provisioning.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Limits the number of requests in flight to one host, adapting the limit AIMD style: it grows by roughly one for
+ * every "limit" healthy responses, and is cut back multiplicatively when the host pushes back (429/503) or its
+ * latency spikes well above its recent average.  Throughput should then settle near the most the host allows.
+ */
+public class AdaptiveConcurrencyLimiter {
+    static private final Logger log = LoggerFactory.getLogger(AdaptiveConcurrencyLimiter.class);
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private double backoffRatio;
+    private double latencyTolerance;
+    private double limit;
+    private int inFlight;
+    private double averageLatencyNanos;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits (initial " + initialLimit + ", min " + minLimit + ", max " + maxLimit + ")");
+        }
+        this.name = name;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.limit = initialLimit;
+        this.backoffRatio = 0.5d;
+        this.latencyTolerance = 2.0d;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized int getLimit() {
+        return (int)this.limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    public double getBackoffRatio() {
+        return backoffRatio;
+    }
+
+    /**
+     * What the limit is multiplied by when the host pushes back (default 0.5).
+     */
+    public AdaptiveConcurrencyLimiter setBackoffRatio(double backoffRatio) {
+        if (backoffRatio <= 0d || backoffRatio >= 1d) {
+            throw new IllegalArgumentException("backoffRatio must be > 0 and < 1");
+        }
+        this.backoffRatio = backoffRatio;
+        return this;
+    }
+
+    public double getLatencyTolerance() {
+        return latencyTolerance;
+    }
+
+    /**
+     * How many times its recent average a response's latency may be before it counts as a spike (default 2.0).
+     */
+    public AdaptiveConcurrencyLimiter setLatencyTolerance(double latencyTolerance) {
+        if (latencyTolerance <= 1d) {
+            throw new IllegalArgumentException("latencyTolerance must be > 1");
+        }
+        this.latencyTolerance = latencyTolerance;
+        return this;
+    }
+
+    public synchronized void acquire() throws InterruptedException {
+        while (this.inFlight >= (int)this.limit) {
+            this.wait();
+        }
+        this.inFlight++;
+    }
+
+    /**
+     * Acquires a permit only if one is available right now.
+     */
+    public synchronized boolean tryAcquire() {
+        if (this.inFlight >= (int)this.limit) {
+            return false;
+        }
+        this.inFlight++;
+        return true;
+    }
+
+    /**
+     * Releases a permit after a response from the host.
+     *
+     * @param latencyNanos how long the host took to respond
+     * @param overloaded if the host pushed back (e.g. 429 or 503)
+     */
+    public synchronized void release(long latencyNanos, boolean overloaded) {
+        this.inFlight--;
+
+        final boolean spike = this.averageLatencyNanos > 0d && latencyNanos > this.averageLatencyNanos * this.latencyTolerance;
+
+        // an ewma of latency, so the baseline follows the host if it gets slower (or faster) for good
+        this.averageLatencyNanos = this.averageLatencyNanos <= 0d ? latencyNanos : this.averageLatencyNanos * 0.9d + latencyNanos * 0.1d;
+
+        final int previousLimit = (int)this.limit;
+        if (overloaded || spike) {
+            this.limit = Math.max(this.minLimit, this.limit * this.backoffRatio);
+        } else if (this.inFlight + 1 >= previousLimit) {
+            // only grow when the limit was actually being used, otherwise it would grow without bound while idle
+            this.limit = Math.min(this.maxLimit, this.limit + 1d / this.limit);
+        }
+
+        if ((int)this.limit != previousLimit) {
+            log.debug("Concurrency limit of {} {} from {} to {}{}", this.name, (int)this.limit > previousLimit ? "increased" : "decreased",
+                previousLimit, (int)this.limit, overloaded ? " (overloaded)" : spike ? " (latency spike)" : "");
+        }
+
+        this.notifyAll();
+    }
+
+    /**
+     * Releases a permit without a response to learn from (e.g. the request failed to connect or was cancelled).
+     */
+    public synchronized void release() {
+        this.inFlight--;
+        this.notifyAll();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return this.name + " (limit " + (int)this.limit + ", in flight " + this.inFlight + ")";
+    }
+
+}
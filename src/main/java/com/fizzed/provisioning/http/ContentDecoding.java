@@ -0,0 +1,116 @@
+package com.fizzed.provisioning.http;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PushbackInputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Streaming decoders for the content encodings we advertise.
+ */
+class ContentDecoding {
+
+    static public final String ACCEPT_ENCODING = "gzip, deflate";
+
+    /**
+     * Decodes the input on its first read, since a decoder reads the header of the encoding as it's created, which the
+     * body of an error response (that a caller closes unread) may not even have.
+     */
+    static public InputStream decode(String contentEncoding, InputStream input) throws IOException {
+        if (contentEncoding == null || contentEncoding.isBlank() || contentEncoding.equalsIgnoreCase("identity")) {
+            return input;
+        }
+        final String encoding = contentEncoding.trim().toLowerCase();
+        switch (encoding) {
+            case "gzip":
+            case "x-gzip":
+            case "deflate":
+                return new LazyDecodingInputStream(encoding, input);
+            default:
+                throw new IOException("Unsupported content encoding " + contentEncoding);
+        }
+    }
+
+    static private InputStream decoder(String encoding, InputStream input) throws IOException {
+        if (encoding.equals("deflate")) {
+            return inflate(input);
+        }
+        return new GZIPInputStream(input, 8192);
+    }
+
+    static private InputStream inflate(InputStream input) throws IOException {
+        // "deflate" is supposed to be zlib-wrapped, but some servers send a raw deflate stream, so sniff the header
+        final PushbackInputStream pushback = new PushbackInputStream(input, 2);
+        final byte[] header = new byte[2];
+        final int n = pushback.readNBytes(header, 0, 2);
+        pushback.unread(header, 0, n);
+
+        final boolean zlibWrapped = n == 2
+            && (header[0] & 0x0F) == 8
+            && (((header[0] & 0xFF) << 8) | (header[1] & 0xFF)) % 31 == 0;
+
+        final Inflater inflater = new Inflater(!zlibWrapped);
+        return new InflaterInputStream(pushback, inflater, 8192) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    inflater.end();
+                }
+            }
+        };
+    }
+
+    static private class LazyDecodingInputStream extends InputStream {
+
+        private final String encoding;
+        private final InputStream input;
+        private InputStream decoded;
+
+        public LazyDecodingInputStream(String encoding, InputStream input) {
+            this.encoding = encoding;
+            this.input = input;
+        }
+
+        private InputStream decoded() throws IOException {
+            if (this.decoded == null) {
+                this.decoded = decoder(this.encoding, this.input);
+            }
+            return this.decoded;
+        }
+
+        @Override
+        public int read() throws IOException {
+            return this.decoded().read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return this.decoded().read(b, off, len);
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            return this.decoded().skip(n);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return this.decoded != null ? this.decoded.available() : 0;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.decoded != null) {
+                this.decoded.close();
+            } else {
+                this.input.close();
+            }
+        }
+
+    }
+
+}
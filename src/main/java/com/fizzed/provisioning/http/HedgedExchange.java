@@ -0,0 +1,142 @@
+package com.fizzed.provisioning.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Sends a request, and if it hasn't started returning by the hedge delay (and the host's limiter has a permit to
+ * spare), sends an identical second request.  The first usable response wins, and the body of the other is closed as
+ * soon as it arrives, which is also when its permit is released (cancelling its future wouldn't abort the request on
+ * java 11, only stop anyone from closing it).  A response is usable unless its status is one the retry policy would
+ * retry.
+ */
+class HedgedExchange {
+    static private final Logger log = LoggerFactory.getLogger(HedgedExchange.class);
+
+    private final HttpTransport transport;
+    private final String host;
+    private final HttpRequest request;
+    private final Duration hedgeDelay;
+    private final CompletableFuture<HttpResponse<InputStream>> winner;
+    private final List<CompletableFuture<HttpResponse<InputStream>>> attempts;
+    private int outstanding;
+    private HttpResponse<InputStream> fallback;
+    private Throwable failure;
+
+    public HedgedExchange(HttpTransport transport, String host, HttpRequest request, Duration hedgeDelay) {
+        this.transport = transport;
+        this.host = host;
+        this.request = request;
+        this.hedgeDelay = hedgeDelay;
+        this.winner = new CompletableFuture<>();
+        this.attempts = new ArrayList<>();
+    }
+
+    public HttpResponse<InputStream> send() throws IOException, InterruptedException {
+        final AdaptiveConcurrencyLimiter limiter = this.transport.getLimiter(this.host);
+        limiter.acquire();
+        this.launch();
+        try {
+            try {
+                return this.winner.get(this.hedgeDelay.toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // slower than it usually is, so hedge (unless the host is already at its limit)
+            }
+
+            if (limiter.tryAcquire()) {
+                log.debug("Hedging {} after {} ms", this.request.uri(), this.hedgeDelay.toMillis());
+                this.transport.onHedge();
+                this.launch();
+            }
+
+            return this.winner.get();
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException)cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            }
+            throw new IOException("Request to " + this.request.uri() + " failed", cause);
+        } finally {
+            // closes the loser whenever it completes (and every attempt, if the caller gave up waiting)
+            final HttpResponse<InputStream> won = this.winner.isDone() && !this.winner.isCompletedExceptionally() ? this.winner.getNow(null) : null;
+            synchronized (this) {
+                for (CompletableFuture<HttpResponse<InputStream>> attempt : this.attempts) {
+                    attempt.thenAccept(response -> {
+                        if (response != won) {
+                            closeQuietly(response);
+                        }
+                    });
+                }
+            }
+        }
+    }
+
+    private void launch() {
+        synchronized (this) {
+            this.outstanding++;
+        }
+        final CompletableFuture<HttpResponse<InputStream>> attempt = this.transport.sendAsync(this.host, this.request);
+        synchronized (this) {
+            this.attempts.add(attempt);
+        }
+        attempt.whenComplete(this::onComplete);
+    }
+
+    private synchronized void onComplete(HttpResponse<InputStream> response, Throwable error) {
+        this.outstanding--;
+
+        // a loser, which send() closes
+        if (this.winner.isDone()) {
+            return;
+        }
+
+        if (response != null && !this.transport.getRetryPolicy().isRetryable(response.statusCode())) {
+            this.winner.complete(response);
+            closeQuietly(this.fallback);
+            this.fallback = null;
+            return;
+        }
+
+        // not usable, but if nothing better comes along it's what the caller gets
+        if (response != null) {
+            closeQuietly(this.fallback);
+            this.fallback = response;
+        } else if (this.failure == null) {
+            this.failure = error;
+        }
+
+        if (this.outstanding == 0) {
+            if (this.fallback != null) {
+                this.winner.complete(this.fallback);
+                this.fallback = null;
+            } else {
+                this.winner.completeExceptionally(this.failure);
+            }
+        }
+    }
+
+    static private void closeQuietly(HttpResponse<InputStream> response) {
+        if (response != null) {
+            try {
+                response.body().close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+}
@@ -0,0 +1,66 @@
+package com.fizzed.provisioning.http;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.nio.file.Path;
+
+/**
+ * The metadata of a cached response, stored next to its body.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HttpCacheEntry {
+
+    private String uri;
+    private String etag;
+    private String lastModified;
+    private Long storedAt;
+    @JsonIgnore
+    private Path bodyFile;
+
+    public String getUri() {
+        return uri;
+    }
+
+    public HttpCacheEntry setUri(String uri) {
+        this.uri = uri;
+        return this;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public HttpCacheEntry setEtag(String etag) {
+        this.etag = etag;
+        return this;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public HttpCacheEntry setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+        return this;
+    }
+
+    public Long getStoredAt() {
+        return storedAt;
+    }
+
+    public HttpCacheEntry setStoredAt(Long storedAt) {
+        this.storedAt = storedAt;
+        return this;
+    }
+
+    public Path getBodyFile() {
+        return bodyFile;
+    }
+
+    public HttpCacheEntry setBodyFile(Path bodyFile) {
+        this.bodyFile = bodyFile;
+        return this;
+    }
+
+}
@@ -0,0 +1,138 @@
+package com.fizzed.provisioning.http;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A recorded request/response pair, stored as a "{sha256}.json" file next to a "{sha256}.body" file with the body
+ * exactly as it came over the wire (i.e. still compressed if it was).
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HttpFixture {
+
+    // bump whenever the format changes in a way older readers can't handle
+    static public final int VERSION = 1;
+
+    private int version;
+    private String recordedAt;
+    private String method;
+    private String uri;
+    private Map<String, List<String>> requestHeaders;
+    private int statusCode;
+    private Map<String, List<String>> responseHeaders;
+    private long latencyMillis;
+    private long durationMillis;
+    private long bodySize;
+    @JsonIgnore
+    private Path bodyFile;
+
+    public int getVersion() {
+        return version;
+    }
+
+    public HttpFixture setVersion(int version) {
+        this.version = version;
+        return this;
+    }
+
+    public String getRecordedAt() {
+        return recordedAt;
+    }
+
+    public HttpFixture setRecordedAt(String recordedAt) {
+        this.recordedAt = recordedAt;
+        return this;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    public HttpFixture setMethod(String method) {
+        this.method = method;
+        return this;
+    }
+
+    public String getUri() {
+        return uri;
+    }
+
+    public HttpFixture setUri(String uri) {
+        this.uri = uri;
+        return this;
+    }
+
+    public Map<String, List<String>> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    public HttpFixture setRequestHeaders(Map<String, List<String>> requestHeaders) {
+        this.requestHeaders = requestHeaders;
+        return this;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpFixture setStatusCode(int statusCode) {
+        this.statusCode = statusCode;
+        return this;
+    }
+
+    public Map<String, List<String>> getResponseHeaders() {
+        return responseHeaders;
+    }
+
+    public HttpFixture setResponseHeaders(Map<String, List<String>> responseHeaders) {
+        this.responseHeaders = responseHeaders;
+        return this;
+    }
+
+    /**
+     * How long until the response started returning.
+     */
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public HttpFixture setLatencyMillis(long latencyMillis) {
+        this.latencyMillis = latencyMillis;
+        return this;
+    }
+
+    /**
+     * How long the body took to read once the response started returning.
+     */
+    public long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public HttpFixture setDurationMillis(long durationMillis) {
+        this.durationMillis = durationMillis;
+        return this;
+    }
+
+    public long getBodySize() {
+        return bodySize;
+    }
+
+    public HttpFixture setBodySize(long bodySize) {
+        this.bodySize = bodySize;
+        return this;
+    }
+
+    public Path getBodyFile() {
+        return bodyFile;
+    }
+
+    public HttpFixture setBodyFile(Path bodyFile) {
+        this.bodyFile = bodyFile;
+        return this;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.fizzed.provisioning.http;
+
+import java.net.URI;
+import java.time.Duration;
+
+/**
+ * Thrown when a server is still rate limiting us (429 Too Many Requests or 503 Service Unavailable) once retries are
+ * exhausted, or when it asks us to wait longer than the retry policy is willing to.
+ */
+public class HttpRateLimitedException extends HttpStatusException {
+
+    private final Duration retryAfter;
+
+    public HttpRateLimitedException(URI uri, int statusCode, Duration retryAfter) {
+        super(uri, statusCode, "Request to " + uri + " was rate limited with status " + statusCode
+            + (retryAfter != null ? " (retry after " + retryAfter.toSeconds() + "s)" : ""));
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * How long the server asked us to wait, via its Retry-After header (null if it didn't say).
+     */
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+}
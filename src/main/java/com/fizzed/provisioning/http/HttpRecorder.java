@@ -0,0 +1,107 @@
+package com.fizzed.provisioning.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.fizzed.provisioning.ProvisioningHelper.sha256Hex;
+
+/**
+ * Records every response the transport receives (headers, timing and the raw wire body) as versioned fixtures in a
+ * directory per host, for the HttpReplayServer of the tests to serve back later.  A fixture is only written once its
+ * body was read to the end.
+ */
+public class HttpRecorder {
+    static private final Logger log = LoggerFactory.getLogger(HttpRecorder.class);
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    public HttpRecorder(Path directory) {
+        this.directory = directory;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        // fixtures are meant to be read (and diffed) by people too
+        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    /**
+     * Wraps a raw (still encoded) response body so that it's recorded as it's read.
+     *
+     * @param uri the uri as requested by the caller (i.e. before any rewriting)
+     * @param latencyNanos how long until the response started returning
+     */
+    public InputStream record(URI uri, HttpRequest request, HttpResponse<?> response, long latencyNanos, InputStream body) throws IOException {
+        final Path hostDir = this.directory.resolve(uri.getHost());
+        Files.createDirectories(hostDir);
+
+        final String key = key(request.method(), uri);
+        final long startedAt = System.nanoTime();
+
+        final HttpFixture fixture = new HttpFixture()
+            .setVersion(HttpFixture.VERSION)
+            .setRecordedAt(Instant.now().toString())
+            .setMethod(request.method())
+            .setUri(uri.toString())
+            .setRequestHeaders(copyOf(request.headers().map()))
+            .setStatusCode(response.statusCode())
+            .setResponseHeaders(copyOf(response.headers().map()))
+            .setLatencyMillis(TimeUnit.NANOSECONDS.toMillis(latencyNanos));
+
+        final Path tempFile = Files.createTempFile(hostDir, key, ".tmp");
+
+        return new TeeInputStream(body, uri.toString(), tempFile, file -> {
+            fixture.setDurationMillis(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt));
+            fixture.setBodySize(Files.size(file));
+
+            Files.move(file, hostDir.resolve(key + ".body"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            final Path tempMetaFile = Files.createTempFile(hostDir, key, ".tmp");
+            Files.write(tempMetaFile, this.objectMapper.writeValueAsBytes(fixture));
+            Files.move(tempMetaFile, hostDir.resolve(key + ".json"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+            log.debug("Recorded {} {} ({} bytes)", fixture.getMethod(), fixture.getUri(), fixture.getBodySize());
+        });
+    }
+
+    static String key(String method, URI uri) {
+        return sha256Hex(method + " " + uri);
+    }
+
+    static private Map<String, List<String>> copyOf(Map<String, List<String>> headers) {
+        // pseudo headers (e.g. ":status" on http/2) are not real headers to replay, and credentials must never end up
+        // in a fixture
+        final Map<String, List<String>> copy = new LinkedHashMap<>();
+        headers.forEach((name, values) -> {
+            if (!name.startsWith(":") && !name.equalsIgnoreCase("Authorization")) {
+                copy.put(name, values);
+            }
+        });
+        return copy;
+    }
+
+}
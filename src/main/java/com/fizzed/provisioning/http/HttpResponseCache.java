@@ -0,0 +1,109 @@
+package com.fizzed.provisioning.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import static com.fizzed.provisioning.ProvisioningHelper.sha256Hex;
+
+/**
+ * A persistent cache of responses keyed by request uri.  Responses that carry an ETag and/or Last-Modified header are
+ * written to disk as they are streamed to the caller, and the next request for the same uri is sent with
+ * If-None-Match / If-Modified-Since so that a 304 can be served from disk.
+ *
+ * Each entry is a "{sha256-of-uri}.body" file plus a "{sha256-of-uri}.json" metadata file.  Both are written to a temp
+ * file first and atomically moved into place, and only once the body was read to the end, so an interrupted or
+ * short-circuited read never leaves a truncated entry behind.
+ */
+public class HttpResponseCache {
+    static private final Logger log = LoggerFactory.getLogger(HttpResponseCache.class);
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+
+    public HttpResponseCache(Path directory) {
+        this.directory = directory;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public HttpCacheEntry get(URI uri) {
+        final String key = key(uri);
+        final Path metaFile = this.directory.resolve(key + ".json");
+        final Path bodyFile = this.directory.resolve(key + ".body");
+        try {
+            final HttpCacheEntry entry = this.objectMapper.readValue(Files.readAllBytes(metaFile), HttpCacheEntry.class);
+            if (!uri.toString().equals(entry.getUri()) || !Files.exists(bodyFile)) {
+                return null;
+            }
+            return entry.setBodyFile(bodyFile);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cache entry {} ({})", metaFile, e.getMessage());
+            return null;
+        }
+    }
+
+    public void addValidators(HttpCacheEntry entry, HttpRequest.Builder requestBuilder) {
+        if (entry.getEtag() != null) {
+            requestBuilder.header("If-None-Match", entry.getEtag());
+        }
+        if (entry.getLastModified() != null) {
+            requestBuilder.header("If-Modified-Since", entry.getLastModified());
+        }
+    }
+
+    public InputStream openBody(HttpCacheEntry entry) throws IOException {
+        return Files.newInputStream(entry.getBodyFile());
+    }
+
+    /**
+     * Wraps a response body so that everything read from it is also written to the cache, with the entry committed
+     * only if the body is read to the end.
+     */
+    public InputStream store(URI uri, String etag, String lastModified, InputStream body) throws IOException {
+        Files.createDirectories(this.directory);
+
+        final HttpCacheEntry entry = new HttpCacheEntry()
+            .setUri(uri.toString())
+            .setEtag(etag)
+            .setLastModified(lastModified);
+
+        final Path tempFile = Files.createTempFile(this.directory, key(uri), ".tmp");
+
+        return new TeeInputStream(body, uri.toString(), tempFile, file -> this.commit(entry, file));
+    }
+
+    private void commit(HttpCacheEntry entry, Path tempBodyFile) throws IOException {
+        final String key = key(URI.create(entry.getUri()));
+        entry.setStoredAt(System.currentTimeMillis());
+
+        Files.move(tempBodyFile, this.directory.resolve(key + ".body"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        final Path tempMetaFile = Files.createTempFile(this.directory, key, ".tmp");
+        Files.write(tempMetaFile, this.objectMapper.writeValueAsBytes(entry));
+        Files.move(tempMetaFile, this.directory.resolve(key + ".json"), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        log.debug("Cached {} (etag={}, last-modified={})", entry.getUri(), entry.getEtag(), entry.getLastModified());
+    }
+
+    static String key(URI uri) {
+        return sha256Hex(uri.toString());
+    }
+
+}
@@ -0,0 +1,32 @@
+package com.fizzed.provisioning.http;
+
+import java.io.IOException;
+import java.net.URI;
+
+/**
+ * Thrown when a server answers with a status code other than 2xx.
+ */
+public class HttpStatusException extends IOException {
+
+    private final URI uri;
+    private final int statusCode;
+
+    public HttpStatusException(URI uri, int statusCode) {
+        this(uri, statusCode, "Request to " + uri + " failed with status " + statusCode);
+    }
+
+    protected HttpStatusException(URI uri, int statusCode, String message) {
+        super(message);
+        this.uri = uri;
+        this.statusCode = statusCode;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+}
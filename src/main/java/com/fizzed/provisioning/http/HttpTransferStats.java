@@ -0,0 +1,54 @@
+package com.fizzed.provisioning.http;
+
+import java.net.URI;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How many bytes of a response came over the wire vs. how many were handed to the caller once decoded.  The counts
+ * grow as the body is read, so they are only final once the response is closed.
+ */
+public class HttpTransferStats {
+
+    private final URI uri;
+    private final String contentEncoding;
+    private final AtomicLong wireBytes;
+    private final AtomicLong decodedBytes;
+
+    public HttpTransferStats(URI uri, String contentEncoding) {
+        this.uri = uri;
+        this.contentEncoding = contentEncoding;
+        this.wireBytes = new AtomicLong();
+        this.decodedBytes = new AtomicLong();
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public long getWireBytes() {
+        return wireBytes.get();
+    }
+
+    public long getDecodedBytes() {
+        return decodedBytes.get();
+    }
+
+    void addWireBytes(long n) {
+        this.wireBytes.addAndGet(n);
+    }
+
+    void addDecodedBytes(long n) {
+        this.decodedBytes.addAndGet(n);
+    }
+
+    @Override
+    public String toString() {
+        return uri + " (" + getWireBytes() + " wire bytes, " + getDecodedBytes() + " decoded bytes, encoding "
+            + (contentEncoding != null ? contentEncoding : "identity") + ")";
+    }
+
+}
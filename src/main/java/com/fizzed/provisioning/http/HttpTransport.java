@@ -0,0 +1,591 @@
+package com.fizzed.provisioning.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * A long-lived, thread-safe transport shared by the vendor clients.  It owns a single HttpClient (so its connection
+ * pool, TLS sessions and selector thread are reused across requests) and a single ObjectMapper that clients derive
+ * their precomputed ObjectReaders from.
+ */
+public class HttpTransport {
+    static private final Logger log = LoggerFactory.getLogger(HttpTransport.class);
+    static private HttpTransport DEFAULT;
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper;
+    private final ExecutorService executor;
+    private final Duration connectTimeout;
+    private final Duration requestTimeout;
+    private final HttpResponseCache cache;
+    private final boolean compression;
+    private final RetryPolicy retryPolicy;
+    private final int initialConcurrency;
+    private final int maxConcurrency;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimiter> limiters;
+    private final Double hedgePercentile;
+    private final int hedgeMinSamples;
+    private final ConcurrentMap<String, LatencyHistogram> latencyHistograms;
+    private final LongAdder hedgedRequests;
+    private final HttpRecorder recorder;
+    private final UnaryOperator<URI> uriRewriter;
+    private final LongAdder wireBytes;
+    private final LongAdder decodedBytes;
+
+    private HttpTransport(Builder builder) {
+        this.connectTimeout = builder.connectTimeout;
+        this.requestTimeout = builder.requestTimeout;
+        this.cache = builder.cache;
+        this.compression = builder.compression;
+        this.retryPolicy = builder.retryPolicy;
+        this.initialConcurrency = builder.initialConcurrency;
+        this.maxConcurrency = builder.maxConcurrency;
+        this.limiters = new ConcurrentHashMap<>();
+        this.hedgePercentile = builder.hedgePercentile;
+        this.hedgeMinSamples = builder.hedgeMinSamples;
+        this.latencyHistograms = new ConcurrentHashMap<>();
+        this.hedgedRequests = new LongAdder();
+        this.recorder = builder.recorder;
+        this.uriRewriter = builder.uriRewriter;
+        this.wireBytes = new LongAdder();
+        this.decodedBytes = new LongAdder();
+        this.executor = builder.executor != null ? builder.executor : newDefaultExecutor();
+        this.objectMapper = new ObjectMapper();
+        // keep-alive is on by default w/ the jdk client, its idle timeout is via "jdk.httpclient.keepalive.timeout"
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(this.connectTimeout)
+            .executor(this.executor)
+            .build();
+    }
+
+    static public synchronized HttpTransport getDefault() {
+        if (DEFAULT == null) {
+            DEFAULT = builder().build();
+        }
+        return DEFAULT;
+    }
+
+    static public Builder builder() {
+        return new Builder();
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
+
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    public Duration getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    public Duration getRequestTimeout() {
+        return requestTimeout;
+    }
+
+    public HttpResponseCache getCache() {
+        return cache;
+    }
+
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * The concurrency limiter of a host, shared by every request to it.
+     */
+    public AdaptiveConcurrencyLimiter getLimiter(String host) {
+        return this.limiters.computeIfAbsent(host, h -> new AdaptiveConcurrencyLimiter(h, this.initialConcurrency, 1, this.maxConcurrency));
+    }
+
+    /**
+     * The latency (time until the response started returning) of recent requests to a host.
+     */
+    public LatencyHistogram getLatencyHistogram(String host) {
+        return this.latencyHistograms.computeIfAbsent(host, LatencyHistogram::new);
+    }
+
+    public Map<String, LatencyHistogram> getLatencyHistograms() {
+        return new TreeMap<>(this.latencyHistograms);
+    }
+
+    public Double getHedgePercentile() {
+        return hedgePercentile;
+    }
+
+    /**
+     * How many requests have been hedged (i.e. sent a second time) so far.
+     */
+    public long getHedgedRequests() {
+        return hedgedRequests.sum();
+    }
+
+    public HttpRecorder getRecorder() {
+        return recorder;
+    }
+
+    public boolean isCompression() {
+        return compression;
+    }
+
+    /**
+     * Total bytes received over the wire (i.e. still compressed) by every request of this transport so far.
+     */
+    public long getWireBytes() {
+        return wireBytes.sum();
+    }
+
+    /**
+     * Total bytes handed to callers (i.e. decompressed) by every request of this transport so far, including bodies
+     * served from the cache.
+     */
+    public long getDecodedBytes() {
+        return decodedBytes.sum();
+    }
+
+    public HttpRequest.Builder newRequest(URI uri) {
+        final HttpRequest.Builder requestBuilder = HttpRequest.newBuilder()
+            .uri(this.uriRewriter != null ? this.uriRewriter.apply(uri) : uri)
+            .timeout(this.requestTimeout)
+            .header("Accept", "application/json");
+        if (this.compression) {
+            // the jdk client does not negotiate or decode compression on its own
+            requestBuilder.header("Accept-Encoding", ContentDecoding.ACCEPT_ENCODING);
+        }
+        return requestBuilder;
+    }
+
+    /**
+     * Sends a GET, waiting for a permit from the host's concurrency limiter first (held until the response is closed or
+     * its body read to the end).  Since GETs are idempotent, failures to get a response and retryable statuses (429,
+     * 502, 503, 504) are retried per the retry policy; anything else (including a non-retryable 4xx) is returned right
+     * away for the caller to check.
+     */
+    public HttpTransportResponse get(URI uri) throws IOException, InterruptedException {
+        return this.get(uri, Collections.emptyMap());
+    }
+
+    /**
+     * Sends a GET with extra headers (replacing any defaults of the same name, e.g. Accept).
+     */
+    public HttpTransportResponse get(URI uri, Map<String, String> headers) throws IOException, InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            final HttpRequest.Builder requestBuilder = this.newRequest(uri)
+                .GET();
+            headers.forEach(requestBuilder::setHeader);
+
+            // while recording, full responses are needed rather than 304s
+            final HttpCacheEntry cacheEntry = this.cache != null && this.recorder == null ? this.cache.get(uri) : null;
+            if (cacheEntry != null) {
+                this.cache.addValidators(cacheEntry, requestBuilder);
+            }
+
+            final long start = System.nanoTime();
+            final HttpResponse<InputStream> response;
+            try {
+                response = this.exchange(uri.getHost(), requestBuilder.build());
+            } catch (IOException e) {
+                final Duration delay = this.retryPolicy.isRetryable(e) ? this.retryPolicy.getDelay(attempt, null) : null;
+                if (delay == null) {
+                    throw e;
+                }
+                log.warn("Request to {} failed ({}), retrying in {} ms (attempt {} of {})", uri, e.toString(), delay.toMillis(),
+                    attempt + 1, this.retryPolicy.getMaxAttempts());
+                Thread.sleep(delay.toMillis());
+                continue;
+            }
+
+            final int statusCode = response.statusCode();
+
+            if (this.retryPolicy.isRetryable(statusCode)) {
+                final Duration retryAfter = RetryPolicy.parseRetryAfter(response.headers().firstValue("Retry-After").orElse(null), Instant.now());
+                final Duration delay = this.retryPolicy.getDelay(attempt, retryAfter);
+                if (delay != null) {
+                    response.body().close();
+                    log.warn("Request to {} answered {}, retrying in {} ms (attempt {} of {})", uri, statusCode, delay.toMillis(),
+                        attempt + 1, this.retryPolicy.getMaxAttempts());
+                    Thread.sleep(delay.toMillis());
+                    continue;
+                }
+            }
+
+            return this.toResponse(uri, cacheEntry, response, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Sends a request (hedged, if enabled and the host has enough latency samples) while holding a permit from the
+     * host's limiter until the body of the response is read to the end or closed, and learns from how long it took.
+     */
+    private HttpResponse<InputStream> exchange(String host, HttpRequest request) throws IOException, InterruptedException {
+        final Duration hedgeDelay = this.getHedgeDelay(host);
+        if (hedgeDelay != null) {
+            return new HedgedExchange(this, host, request, hedgeDelay).send();
+        }
+
+        final AdaptiveConcurrencyLimiter limiter = this.getLimiter(host);
+        limiter.acquire();
+        final long start = System.nanoTime();
+        final HttpResponse<InputStream> response;
+        try {
+            response = this.httpClient.send(request, this.permitBodyHandler(host, start));
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+        this.getLatencyHistogram(host).record(System.nanoTime() - start);
+        return response;
+    }
+
+    /**
+     * Sends a request asynchronously, where the caller has already acquired a permit from the host's limiter (which the
+     * body of the response gives back).
+     */
+    CompletableFuture<HttpResponse<InputStream>> sendAsync(String host, HttpRequest request) {
+        final long start = System.nanoTime();
+        final CompletableFuture<HttpResponse<InputStream>> future = this.httpClient.sendAsync(request, this.permitBodyHandler(host, start));
+        future.whenComplete((response, error) -> {
+            if (response != null) {
+                this.getLatencyHistogram(host).record(System.nanoTime() - start);
+            } else {
+                this.getLimiter(host).release();
+            }
+        });
+        return future;
+    }
+
+    // the permit is only given back once the body is done with, so a slow or large download counts against the host's
+    // limit for as long as it takes (and the limiter learns from the whole of it), while the latency histogram (for
+    // hedging) is of the time until the response started returning
+    private HttpResponse.BodyHandler<InputStream> permitBodyHandler(String host, long start) {
+        return responseInfo -> HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofInputStream(),
+            body -> new PermitInputStream(body, () -> this.getLimiter(host).release(System.nanoTime() - start,
+                responseInfo.statusCode() == 429 || responseInfo.statusCode() == 503)));
+    }
+
+    void onHedge() {
+        this.hedgedRequests.increment();
+    }
+
+    private Duration getHedgeDelay(String host) {
+        if (this.hedgePercentile == null) {
+            return null;
+        }
+        final LatencyHistogram histogram = this.getLatencyHistogram(host);
+        // too few samples and the percentile would be noise
+        if (histogram.getCount() < this.hedgeMinSamples) {
+            return null;
+        }
+        return histogram.getPercentile(this.hedgePercentile);
+    }
+
+    private HttpTransportResponse toResponse(URI uri, HttpCacheEntry cacheEntry, HttpResponse<InputStream> response, long latencyNanos) throws IOException {
+        // a rewritten uri (e.g. to a replay server) is an implementation detail the caller shouldn't see
+        final URI responseUri = this.uriRewriter != null ? uri : response.uri();
+
+        if (cacheEntry != null && response.statusCode() == 304) {
+            response.body().close();
+            log.debug("Not modified, serving {} from cache", uri);
+            // the cache holds the decoded body, so nothing crossed the wire but it all still counts as decoded
+            final HttpTransferStats stats = new HttpTransferStats(responseUri, null);
+            final InputStream body = this.countDecoded(stats, this.cache.openBody(cacheEntry));
+            return new HttpTransportResponse(responseUri, 200, response.headers(), body, true, stats);
+        }
+
+        final String contentEncoding = response.headers().firstValue("Content-Encoding").orElse(null);
+        final HttpTransferStats stats = new HttpTransferStats(responseUri, contentEncoding);
+
+        InputStream body = response.body();
+        if (this.recorder != null) {
+            body = this.recorder.record(uri, response.request(), response, latencyNanos, body);
+        }
+
+        body = new CountingInputStream(body, n -> {
+            stats.addWireBytes(n);
+            this.wireBytes.add(n);
+        });
+        try {
+            // decoded lazily, so an error response (e.g. an empty gzip body) gets to requireSuccess() intact
+            body = this.countDecoded(stats, ContentDecoding.decode(contentEncoding, body));
+        } catch (IOException e) {
+            body.close();
+            throw e;
+        }
+
+        if (this.cache != null && response.statusCode() == 200) {
+            final String etag = response.headers().firstValue("ETag").orElse(null);
+            final String lastModified = response.headers().firstValue("Last-Modified").orElse(null);
+            if (etag != null || lastModified != null) {
+                // store what was decoded, so a cache hit never has to be decompressed again
+                body = this.cache.store(uri, etag, lastModified, body);
+            }
+        }
+
+        return new HttpTransportResponse(responseUri, response.statusCode(), response.headers(), body, false, stats);
+    }
+
+    private InputStream countDecoded(HttpTransferStats stats, InputStream input) {
+        return new CountingInputStream(input, n -> {
+            stats.addDecodedBytes(n);
+            this.decodedBytes.add(n);
+        });
+    }
+
+    /**
+     * Runs blocking work (e.g. a paginated fetch) on the transport's executor, failing the future with whatever it
+     * throws.
+     */
+    public <T> CompletableFuture<T> supplyAsync(Callable<T> callable) {
+        final CompletableFuture<T> future = new CompletableFuture<>();
+        this.executor.execute(() -> {
+            try {
+                future.complete(callable.call());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.completeExceptionally(e);
+            } catch (Exception e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    public <T> T getJson(URI uri, ObjectReader reader) throws IOException, InterruptedException {
+        try (HttpTransportResponse response = this.get(uri)) {
+            requireSuccess(response);
+            return reader.readValue(response.getBody());
+        }
+    }
+
+    /**
+     * Streams a json array response, binding each element as it arrives and only keeping those accepted by the filter.
+     */
+    public <T> List<T> getJsonArray(URI uri, ObjectReader elementReader, Predicate<? super T> filter) throws IOException, InterruptedException {
+        final List<T> elements = new ArrayList<>();
+        try (HttpTransportResponse response = requireSuccess(this.get(uri));
+             JsonArrayIterator<T> iterator = this.newJsonArrayIterator(response.getBody(), elementReader)) {
+            while (iterator.hasNext()) {
+                final T element = iterator.next();
+                if (filter.test(element)) {
+                    elements.add(element);
+                }
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return elements;
+    }
+
+    /**
+     * Lazily streams a json array response: nothing is requested until the first element is pulled, each element is
+     * bound as it comes off the wire, and closing the stream (e.g. via try-with-resources after a short-circuiting
+     * findFirst/anyMatch/limit) closes the response without downloading the rest of it.  Failures are thrown as an
+     * UncheckedIOException once the stream is consumed.
+     */
+    public <T> Stream<T> streamJsonArray(URI uri, ObjectReader elementReader) {
+        return this.streamJsonArray(elementReader, (previous, previousRows) -> previous == null ? requireSuccess(this.get(uri)) : null);
+    }
+
+    /**
+     * Lazily streams the elements of every page of a paginated json array api, only requesting the next page once the
+     * elements of the previous one have all been consumed.
+     */
+    public <T> Stream<T> streamJsonArray(ObjectReader elementReader, JsonArrayPager pager) {
+        final PagedJsonArrayIterator<T> iterator = new PagedJsonArrayIterator<>(this.objectMapper, elementReader, pager);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+            .onClose(iterator::closeQuietly);
+    }
+
+    /**
+     * Consumes (and closes) a stream from streamJsonArray, rethrowing the failure it was wrapped in.
+     */
+    static public <T> List<T> collectList(Stream<T> stream) throws IOException {
+        try (Stream<T> s = stream) {
+            return s.collect(Collectors.toList());
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    public <T> JsonArrayIterator<T> newJsonArrayIterator(InputStream input, ObjectReader elementReader) throws IOException {
+        return new JsonArrayIterator<>(this.objectMapper.getFactory().createParser(input), elementReader);
+    }
+
+    static public HttpTransportResponse requireSuccess(HttpTransportResponse response) throws IOException {
+        if (response.getStatusCode() < 200 || response.getStatusCode() > 299) {
+            response.close();
+            if (response.getStatusCode() == 429 || response.getStatusCode() == 503) {
+                throw new HttpRateLimitedException(response.getUri(), response.getStatusCode(),
+                    RetryPolicy.parseRetryAfter(response.getHeader("Retry-After"), Instant.now()));
+            }
+            throw new HttpStatusException(response.getUri(), response.getStatusCode());
+        }
+        return response;
+    }
+
+    static private ExecutorService newDefaultExecutor() {
+        final AtomicInteger threadCounter = new AtomicInteger();
+        final ThreadFactory threadFactory = r -> {
+            final Thread thread = new Thread(r, "provisioning-http-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        return Executors.newCachedThreadPool(threadFactory);
+    }
+
+    static public class Builder {
+
+        private Duration connectTimeout = Duration.ofSeconds(10);
+        private Duration requestTimeout = Duration.ofSeconds(60);
+        private ExecutorService executor;
+        private HttpResponseCache cache;
+        private boolean compression = true;
+        private RetryPolicy retryPolicy = new RetryPolicy();
+        private int initialConcurrency = 4;
+        private int maxConcurrency = 32;
+        private Double hedgePercentile;
+        private int hedgeMinSamples = 20;
+        private HttpRecorder recorder;
+        private UnaryOperator<URI> uriRewriter;
+
+        public Builder setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = Objects.requireNonNull(connectTimeout, "connectTimeout was null");
+            return this;
+        }
+
+        public Builder setRequestTimeout(Duration requestTimeout) {
+            this.requestTimeout = Objects.requireNonNull(requestTimeout, "requestTimeout was null");
+            return this;
+        }
+
+        public Builder setExecutor(ExecutorService executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder setCache(HttpResponseCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public Builder setCacheDir(Path cacheDir) {
+            return this.setCache(cacheDir != null ? new HttpResponseCache(cacheDir) : null);
+        }
+
+        /**
+         * Whether to ask for gzip/deflate compressed responses (on by default).
+         */
+        public Builder setCompression(boolean compression) {
+            this.compression = compression;
+            return this;
+        }
+
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = Objects.requireNonNull(retryPolicy, "retryPolicy was null");
+            return this;
+        }
+
+        /**
+         * The concurrency each host starts at, and the most it may adapt up to (defaults 4 and 32).
+         */
+        public Builder setConcurrencyLimits(int initialConcurrency, int maxConcurrency) {
+            if (initialConcurrency < 1 || maxConcurrency < initialConcurrency) {
+                throw new IllegalArgumentException("Invalid concurrency limits (initial " + initialConcurrency + ", max " + maxConcurrency + ")");
+            }
+            this.initialConcurrency = initialConcurrency;
+            this.maxConcurrency = maxConcurrency;
+            return this;
+        }
+
+        /**
+         * Hedges a GET that hasn't started returning within this percentile (e.g. 95.0) of its host's recent latency
+         * by sending it again, keeping whichever response comes first.  Null disables hedging (the default).
+         */
+        public Builder setHedgePercentile(Double hedgePercentile) {
+            if (hedgePercentile != null && (hedgePercentile <= 0d || hedgePercentile > 100d)) {
+                throw new IllegalArgumentException("hedgePercentile must be > 0 and <= 100");
+            }
+            this.hedgePercentile = hedgePercentile;
+            return this;
+        }
+
+        /**
+         * How many latency samples a host needs before its requests are hedged (default 20).
+         */
+        public Builder setHedgeMinSamples(int hedgeMinSamples) {
+            this.hedgeMinSamples = hedgeMinSamples;
+            return this;
+        }
+
+        /**
+         * Records every response (e.g. as fixtures for the HttpReplayServer of the tests).  Cache validators are not
+         * sent while recording, so every fixture has a full body.
+         */
+        public Builder setRecorder(HttpRecorder recorder) {
+            this.recorder = recorder;
+            return this;
+        }
+
+        public Builder setRecordDir(Path recordDir) {
+            return this.setRecorder(recordDir != null ? new HttpRecorder(recordDir) : null);
+        }
+
+        /**
+         * Rewrites the uri of every request before it's sent (e.g. to the HttpReplayServer of the tests), while
+         * caching, recording and per-host limits all still use the original uri.
+         */
+        public Builder setUriRewriter(UnaryOperator<URI> uriRewriter) {
+            this.uriRewriter = uriRewriter;
+            return this;
+        }
+
+        public HttpTransport build() {
+            return new HttpTransport(this);
+        }
+
+    }
+
+}
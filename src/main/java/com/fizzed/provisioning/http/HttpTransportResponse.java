@@ -0,0 +1,86 @@
+package com.fizzed.provisioning.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+
+/**
+ * A response whose body has not been read yet.  The body streams straight off the connection, so it must be closed
+ * (even if not fully consumed) to return the connection to the pool.
+ */
+public class HttpTransportResponse implements Closeable {
+    static private final Logger log = LoggerFactory.getLogger(HttpTransportResponse.class);
+
+    private final URI uri;
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final InputStream body;
+    private final boolean cached;
+    private final HttpTransferStats stats;
+
+    public HttpTransportResponse(URI uri, int statusCode, HttpHeaders headers, InputStream body, boolean cached) {
+        this(uri, statusCode, headers, body, cached, null);
+    }
+
+    public HttpTransportResponse(URI uri, int statusCode, HttpHeaders headers, InputStream body, boolean cached, HttpTransferStats stats) {
+        this.uri = uri;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.body = body;
+        this.cached = cached;
+        this.stats = stats;
+    }
+
+    static public HttpTransportResponse of(HttpResponse<InputStream> response) {
+        return new HttpTransportResponse(response.uri(), response.statusCode(), response.headers(), response.body(), false);
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public String getHeader(String name) {
+        return this.headers.firstValue(name).orElse(null);
+    }
+
+    public InputStream getBody() {
+        return body;
+    }
+
+    /**
+     * If the body is being served from the on-disk cache (i.e. the server answered 304 Not Modified).
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    /**
+     * The wire vs. decoded byte counts of the body read so far (null if the transport didn't count them).
+     */
+    public HttpTransferStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.body.close();
+        if (this.stats != null) {
+            log.debug("Transferred {}", this.stats);
+        }
+    }
+
+}
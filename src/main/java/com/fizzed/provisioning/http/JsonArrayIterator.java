@@ -0,0 +1,86 @@
+package com.fizzed.provisioning.http;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Binds the elements of a top-level json array one at a time as the parser reaches them, so only a single element is
+ * ever held in memory.  Closing the iterator closes the parser (and the stream underneath it).
+ */
+public class JsonArrayIterator<T> implements Iterator<T>, Closeable {
+    static private final Logger log = LoggerFactory.getLogger(JsonArrayIterator.class);
+
+    private final JsonParser parser;
+    private final ObjectReader elementReader;
+    private T next;
+    private boolean done;
+
+    public JsonArrayIterator(JsonParser parser, ObjectReader elementReader) throws IOException {
+        this.parser = parser;
+        this.elementReader = elementReader;
+        final JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_ARRAY) {
+            parser.close();
+            throw new IOException("Expected a json array but got " + token + " at " + parser.getCurrentLocation());
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (this.next != null) {
+            return true;
+        }
+        if (this.done) {
+            return false;
+        }
+        try {
+            final JsonToken token = this.parser.nextToken();
+            if (token == null || token == JsonToken.END_ARRAY) {
+                this.done = true;
+                return false;
+            }
+            this.next = this.readElement();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T element = this.next;
+        this.next = null;
+        return element;
+    }
+
+    private T readElement() throws IOException {
+        if (log.isDebugEnabled()) {
+            // only pay for the tree (and its pretty printing) if someone is going to look at it
+            final JsonNode node = this.parser.readValueAsTree();
+            log.debug("{}", node.toPrettyString());
+            return this.elementReader.readValue(node);
+        }
+        return this.elementReader.readValue(this.parser);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.done = true;
+        this.next = null;
+        this.parser.close();
+    }
+
+}
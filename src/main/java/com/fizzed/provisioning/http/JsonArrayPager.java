@@ -0,0 +1,19 @@
+package com.fizzed.provisioning.http;
+
+import java.io.IOException;
+
+/**
+ * Opens the pages of a paginated json array api, one page at a time, as a stream of them is consumed.
+ */
+@FunctionalInterface
+public interface JsonArrayPager {
+
+    /**
+     * Opens the next page (already checked for success), or returns null if there are no more pages.
+     *
+     * @param previous the (closed) response of the previous page, or null when opening the first page
+     * @param previousRows how many elements the previous page had (before any filtering)
+     */
+    HttpTransportResponse next(HttpTransportResponse previous, int previousRows) throws IOException, InterruptedException;
+
+}
@@ -0,0 +1,105 @@
+package com.fizzed.provisioning.http;
+
+import java.time.Duration;
+
+/**
+ * A histogram of response latencies with log-scaled buckets (4 per doubling, so any percentile is within ~19% of the
+ * truth) from 100 us up to ~5 minutes.  Once it holds more than its window of samples, every bucket is halved, so
+ * percentiles follow recent latency rather than all of history.
+ */
+public class LatencyHistogram {
+
+    static private final long BASE_NANOS = 100_000L;
+    static private final int BUCKETS_PER_DOUBLING = 4;
+    static private final int BUCKET_COUNT = 22 * BUCKETS_PER_DOUBLING;
+
+    private final String name;
+    private final int window;
+    private final long[] counts;
+    private long count;
+    private long maxNanos;
+
+    public LatencyHistogram(String name) {
+        this(name, 1000);
+    }
+
+    public LatencyHistogram(String name, int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("window must be >= 2");
+        }
+        this.name = name;
+        this.window = window;
+        this.counts = new long[BUCKET_COUNT];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized void record(long latencyNanos) {
+        this.counts[bucketOf(latencyNanos)]++;
+        this.count++;
+        this.maxNanos = Math.max(this.maxNanos, latencyNanos);
+
+        if (this.count > this.window) {
+            this.count = 0;
+            for (int i = 0; i < BUCKET_COUNT; i++) {
+                this.counts[i] >>= 1;
+                this.count += this.counts[i];
+            }
+        }
+    }
+
+    public void record(Duration latency) {
+        this.record(latency.toNanos());
+    }
+
+    /**
+     * The latency that the given percentile (e.g. 95.0) of recent samples were at or under, or null if there are no
+     * samples yet.
+     */
+    public synchronized Duration getPercentile(double percentile) {
+        if (percentile <= 0d || percentile > 100d) {
+            throw new IllegalArgumentException("percentile must be > 0 and <= 100");
+        }
+        if (this.count == 0) {
+            return null;
+        }
+        final long rank = (long)Math.ceil(this.count * percentile / 100d);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += this.counts[i];
+            if (seen >= rank) {
+                return Duration.ofNanos(Math.min(upperBoundOf(i), this.maxNanos));
+            }
+        }
+        return Duration.ofNanos(this.maxNanos);
+    }
+
+    static private int bucketOf(long latencyNanos) {
+        if (latencyNanos <= BASE_NANOS) {
+            return 0;
+        }
+        final int bucket = (int)Math.ceil(BUCKETS_PER_DOUBLING * (Math.log((double)latencyNanos / BASE_NANOS) / Math.log(2d)));
+        return Math.min(bucket, BUCKET_COUNT - 1);
+    }
+
+    static private long upperBoundOf(int bucket) {
+        return (long)(BASE_NANOS * Math.pow(2d, (double)bucket / BUCKETS_PER_DOUBLING));
+    }
+
+    @Override
+    public String toString() {
+        final Duration p50 = this.getPercentile(50d);
+        if (p50 == null) {
+            return this.name + " (no samples)";
+        }
+        return this.name + " (p50 " + p50.toMillis() + " ms, p90 " + this.getPercentile(90d).toMillis() + " ms, p99 "
+            + this.getPercentile(99d).toMillis() + " ms, " + this.getCount() + " samples)";
+    }
+
+}
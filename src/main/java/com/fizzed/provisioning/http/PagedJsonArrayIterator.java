@@ -0,0 +1,107 @@
+package com.fizzed.provisioning.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates the elements of every page of a json array api, only opening a page once the elements of the previous one
+ * have all been consumed.  Each page's response is closed as soon as its last element is read (or the iterator is
+ * closed), so abandoning the iteration part way through a page releases its connection without downloading the rest.
+ */
+class PagedJsonArrayIterator<T> implements Iterator<T>, Closeable {
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader elementReader;
+    private final JsonArrayPager pager;
+    private HttpTransportResponse response;
+    private JsonArrayIterator<T> iterator;
+    private int rows;
+    private boolean done;
+
+    PagedJsonArrayIterator(ObjectMapper objectMapper, ObjectReader elementReader, JsonArrayPager pager) {
+        this.objectMapper = objectMapper;
+        this.elementReader = elementReader;
+        this.pager = pager;
+    }
+
+    @Override
+    public boolean hasNext() {
+        try {
+            while (!this.done) {
+                if (this.iterator != null && this.iterator.hasNext()) {
+                    return true;
+                }
+                this.nextPage();
+            }
+            return false;
+        } catch (IOException e) {
+            this.closeQuietly();
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            this.closeQuietly();
+            Thread.currentThread().interrupt();
+            throw new UncheckedIOException(new InterruptedIOException("Interrupted fetching " + this.elementReader.getValueType()));
+        } catch (RuntimeException e) {
+            this.closeQuietly();
+            throw e;
+        }
+    }
+
+    @Override
+    public T next() {
+        if (!this.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        this.rows++;
+        return this.iterator.next();
+    }
+
+    private void nextPage() throws IOException, InterruptedException {
+        final HttpTransportResponse previous = this.response;
+        final int previousRows = this.rows;
+        this.closePage();
+
+        this.response = this.pager.next(previous, previousRows);
+        if (this.response == null) {
+            this.done = true;
+            return;
+        }
+        this.iterator = new JsonArrayIterator<>(this.objectMapper.getFactory().createParser(this.response.getBody()), this.elementReader);
+    }
+
+    private void closePage() throws IOException {
+        this.rows = 0;
+        try {
+            if (this.iterator != null) {
+                this.iterator.close();
+            }
+        } finally {
+            this.iterator = null;
+            if (this.response != null) {
+                this.response.close();
+            }
+        }
+    }
+
+    void closeQuietly() {
+        try {
+            this.close();
+        } catch (IOException e) {
+            // nothing more can be read from it anyway
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.done = true;
+        this.closePage();
+    }
+
+}
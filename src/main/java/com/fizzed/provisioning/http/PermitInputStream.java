@@ -0,0 +1,62 @@
+package com.fizzed.provisioning.http;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A response body holding a permit of its host's limiter, given back (once) when the body is read to the end or
+ * closed, whichever comes first.
+ */
+class PermitInputStream extends FilterInputStream {
+
+    private final Runnable release;
+    private final AtomicBoolean released;
+
+    public PermitInputStream(InputStream input, Runnable release) {
+        super(input);
+        this.release = release;
+        this.released = new AtomicBoolean();
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = super.read();
+        if (b < 0) {
+            this.release();
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final int n = super.read(b, off, len);
+        if (n < 0) {
+            this.release();
+        }
+        return n;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            super.close();
+        } finally {
+            this.release();
+        }
+    }
+
+    private void release() {
+        // a closed loser of a hedge may be closed on another thread than the one reading it
+        if (this.released.compareAndSet(false, true)) {
+            this.release.run();
+        }
+    }
+
+}
@@ -0,0 +1,125 @@
+package com.fizzed.provisioning.http;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * When and how long to wait before retrying an idempotent request: exponential backoff with full jitter, unless the
+ * server said how long to wait via Retry-After.
+ */
+public class RetryPolicy {
+
+    private int maxAttempts;
+    private Duration baseDelay;
+    private Duration maxDelay;
+
+    public RetryPolicy() {
+        this.maxAttempts = 4;
+        this.baseDelay = Duration.ofMillis(250);
+        this.maxDelay = Duration.ofSeconds(30);
+    }
+
+    static public RetryPolicy none() {
+        return new RetryPolicy().setMaxAttempts(1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * The most times a request is sent, including the first (default 4).
+     */
+    public RetryPolicy setMaxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts must be >= 1");
+        }
+        this.maxAttempts = maxAttempts;
+        return this;
+    }
+
+    public Duration getBaseDelay() {
+        return baseDelay;
+    }
+
+    public RetryPolicy setBaseDelay(Duration baseDelay) {
+        this.baseDelay = Objects.requireNonNull(baseDelay, "baseDelay was null");
+        return this;
+    }
+
+    public Duration getMaxDelay() {
+        return maxDelay;
+    }
+
+    /**
+     * The longest we'll wait before a retry, including when a server's Retry-After asks for longer (in which case we
+     * fail fast rather than wait).
+     */
+    public RetryPolicy setMaxDelay(Duration maxDelay) {
+        this.maxDelay = Objects.requireNonNull(maxDelay, "maxDelay was null");
+        return this;
+    }
+
+    /**
+     * Statuses that are worth retrying: rate limited, or the server (or a proxy in front of it) is temporarily
+     * unavailable.  Any other 4xx is our fault and fails fast.
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode == 429 || statusCode == 502 || statusCode == 503 || statusCode == 504;
+    }
+
+    /**
+     * Failures to get a response at all (connect refused/reset, timeouts, etc.) are worth retrying.
+     */
+    public boolean isRetryable(IOException e) {
+        return !(e instanceof HttpStatusException);
+    }
+
+    /**
+     * The delay before the given retry (1 for the first retry), or null if it should not be retried.
+     *
+     * @param retryAfter what the server asked for, or null if it didn't
+     */
+    public Duration getDelay(int retry, Duration retryAfter) {
+        if (retry >= this.maxAttempts) {
+            return null;
+        }
+        if (retryAfter != null) {
+            return retryAfter.compareTo(this.maxDelay) <= 0 ? retryAfter : null;
+        }
+        // full jitter: uniformly between 0 and the capped exponential delay, so clients that failed together don't
+        // retry together
+        final long capMillis = Math.min(this.maxDelay.toMillis(), this.baseDelay.toMillis() << Math.min(retry - 1, 20));
+        return Duration.ofMillis(ThreadLocalRandom.current().nextLong(capMillis + 1));
+    }
+
+    /**
+     * Parses a Retry-After header, which is either a number of seconds or an http date.
+     *
+     * @return the duration to wait, or null if missing or unparseable
+     */
+    static public Duration parseRetryAfter(String value, Instant now) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        final String v = value.trim();
+        try {
+            return Duration.ofSeconds(Math.max(0L, Long.parseLong(v)));
+        } catch (NumberFormatException e) {
+            // not seconds, so should be a date
+        }
+        try {
+            final Instant at = ZonedDateTime.parse(v, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+            return at.isAfter(now) ? Duration.between(now, at) : Duration.ZERO;
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.fizzed.provisioning.http;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Copies everything read from a stream to a temp file, and hands the temp file to a commit callback only if the stream
+ * was read to the end.  The temp file is deleted afterwards either way (so the callback should move it).
+ */
+class TeeInputStream extends FilterInputStream {
+    static private final Logger log = LoggerFactory.getLogger(TeeInputStream.class);
+    static private final long MAX_DRAIN_BYTES = 64 * 1024;
+
+    interface Commit {
+        void commit(Path tempFile) throws IOException;
+    }
+
+    private final String name;
+    private final Path tempFile;
+    private final Commit commit;
+    private final OutputStream output;
+    private boolean complete;
+    private boolean closed;
+
+    public TeeInputStream(InputStream input, String name, Path tempFile, Commit commit) throws IOException {
+        super(input);
+        this.name = name;
+        this.tempFile = tempFile;
+        this.commit = commit;
+        this.output = Files.newOutputStream(tempFile);
+    }
+
+    @Override
+    public int read() throws IOException {
+        final int b = super.read();
+        if (b < 0) {
+            this.complete = true;
+        } else {
+            this.output.write(b);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        final int n = super.read(b, off, len);
+        if (n < 0) {
+            this.complete = true;
+        } else {
+            this.output.write(b, off, n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // skipped bytes must still land in the copy
+        final byte[] buffer = new byte[(int)Math.min(n, 8192)];
+        final int read = this.read(buffer, 0, buffer.length);
+        return Math.max(read, 0);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // a response and its body are often both closed, and the copy must only be committed once
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            // parsers usually stop right after the closing token, so look a little further for the end of the body
+            // (but give up quickly if a caller short-circuited a large response)
+            final byte[] buffer = new byte[8192];
+            long drained = 0;
+            while (!this.complete && drained < MAX_DRAIN_BYTES) {
+                final int n = this.read(buffer, 0, buffer.length);
+                drained += Math.max(n, 0);
+            }
+        } catch (IOException e) {
+            this.complete = false;
+        }
+        try {
+            super.close();
+        } finally {
+            this.output.close();
+            try {
+                if (this.complete) {
+                    this.commit.commit(this.tempFile);
+                }
+            } catch (IOException e) {
+                // a failed copy should never fail the request itself
+                log.warn("Unable to store {} ({})", this.name, e.getMessage());
+            } finally {
+                Files.deleteIfExists(this.tempFile);
+            }
+        }
+    }
+
+}
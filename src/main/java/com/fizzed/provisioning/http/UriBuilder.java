@@ -0,0 +1,35 @@
+package com.fizzed.provisioning.http;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Appends query parameters to a base url, skipping any whose value is null.
+ */
+public class UriBuilder {
+
+    private final StringBuilder url;
+    private boolean hasQuery;
+
+    public UriBuilder(String baseUrl) {
+        this.url = new StringBuilder(baseUrl);
+        this.hasQuery = baseUrl.indexOf('?') >= 0;
+    }
+
+    public UriBuilder param(String name, Object value) {
+        if (value != null) {
+            this.url.append(this.hasQuery ? '&' : '?')
+                .append(URLEncoder.encode(name, StandardCharsets.UTF_8))
+                .append('=')
+                .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+            this.hasQuery = true;
+        }
+        return this;
+    }
+
+    public URI build() {
+        return URI.create(this.url.toString());
+    }
+
+}
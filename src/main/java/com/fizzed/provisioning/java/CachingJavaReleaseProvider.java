@@ -0,0 +1,288 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.provisioning.http.HttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Memoizes the installers of another provider per query, for long-running processes that resolve installers on demand.
+ * Entries are evicted least recently used beyond the max size, and expire after the ttl.  Concurrent misses for the
+ * same query share a single load, and an expired entry still within the stale window is served as-is while it's
+ * refreshed in the background.  Failed loads are never cached.
+ */
+public class CachingJavaReleaseProvider implements JavaReleaseProvider {
+    static private final Logger log = LoggerFactory.getLogger(CachingJavaReleaseProvider.class);
+
+    private final JavaReleaseProvider delegate;
+    private final Map<JavaReleaseQuery, CacheEntry> entries;
+    private int maxSize;
+    private Duration ttl;
+    private Duration staleWindow;
+    private LongSupplier ticker;
+    private final LongAdder hits;
+    private final LongAdder staleHits;
+    private final LongAdder misses;
+    private final LongAdder loads;
+    private final LongAdder loadFailures;
+    private final LongAdder loadNanos;
+    private final LongAdder evictions;
+
+    public CachingJavaReleaseProvider(JavaReleaseProvider delegate) {
+        this.delegate = Objects.requireNonNull(delegate, "delegate was null");
+        this.maxSize = 256;
+        this.ttl = Duration.ofMinutes(15);
+        this.staleWindow = Duration.ofHours(1);
+        this.ticker = System::nanoTime;
+        this.hits = new LongAdder();
+        this.staleHits = new LongAdder();
+        this.misses = new LongAdder();
+        this.loads = new LongAdder();
+        this.loadFailures = new LongAdder();
+        this.loadNanos = new LongAdder();
+        this.evictions = new LongAdder();
+        // access ordered, so the eldest entry is the least recently used
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<JavaReleaseQuery, CacheEntry> eldest) {
+                if (this.size() > CachingJavaReleaseProvider.this.maxSize) {
+                    CachingJavaReleaseProvider.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public JavaReleaseProvider getDelegate() {
+        return delegate;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public CachingJavaReleaseProvider setMaxSize(int maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be >= 1");
+        }
+        this.maxSize = maxSize;
+        return this;
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    /**
+     * How long a loaded entry is fresh for (default 15 minutes).
+     */
+    public CachingJavaReleaseProvider setTtl(Duration ttl) {
+        this.ttl = Objects.requireNonNull(ttl, "ttl was null");
+        return this;
+    }
+
+    public Duration getStaleWindow() {
+        return staleWindow;
+    }
+
+    /**
+     * How long past its ttl an entry is still served (while being refreshed in the background) rather than making the
+     * caller wait on a fresh load (default 1 hour, zero to disable).
+     */
+    public CachingJavaReleaseProvider setStaleWindow(Duration staleWindow) {
+        this.staleWindow = Objects.requireNonNull(staleWindow, "staleWindow was null");
+        return this;
+    }
+
+    /**
+     * The source of time in nanoseconds (default System.nanoTime), e.g. for tests.
+     */
+    public CachingJavaReleaseProvider setTicker(LongSupplier ticker) {
+        this.ticker = Objects.requireNonNull(ticker, "ticker was null");
+        return this;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * How many of the hits were served stale (while being refreshed).
+     */
+    public long getStaleHits() {
+        return staleHits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * How many loads (including background refreshes) completed, successfully or not.
+     */
+    public long getLoads() {
+        return loads.sum();
+    }
+
+    public long getLoadFailures() {
+        return loadFailures.sum();
+    }
+
+    /**
+     * The total time spent loading.
+     */
+    public Duration getLoadTime() {
+        return Duration.ofNanos(loadNanos.sum());
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    public synchronized void invalidateAll() {
+        this.entries.clear();
+    }
+
+    @Override
+    public JavaDistro getDistro() {
+        return this.delegate.getDistro();
+    }
+
+    @Override
+    public CachingJavaReleaseProvider withTransport(HttpTransport transport) {
+        return new CachingJavaReleaseProvider(this.delegate.withTransport(transport))
+            .setMaxSize(this.maxSize)
+            .setTtl(this.ttl)
+            .setStaleWindow(this.staleWindow)
+            .setTicker(this.ticker);
+    }
+
+    @Override
+    public CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query) {
+        // queries are mutable, so the entry is keyed on (and loaded with) a copy the caller can't change
+        final JavaReleaseQuery key = query.copy();
+        final CacheEntry entry;
+        synchronized (this) {
+            final CacheEntry existing = this.entries.get(key);
+            final long now = this.ticker.getAsLong();
+
+            if (existing != null && !existing.future.isDone()) {
+                // single flight: join the load already in progress
+                this.hits.increment();
+                return existing.future.copy();
+            }
+
+            if (existing != null && !existing.future.isCompletedExceptionally()) {
+                final long age = now - existing.loadedAt;
+                if (age < this.ttl.toNanos()) {
+                    this.hits.increment();
+                    return existing.future.copy();
+                }
+                if (age < this.ttl.plus(this.staleWindow).toNanos()) {
+                    this.hits.increment();
+                    this.staleHits.increment();
+                    if (!existing.refreshing) {
+                        existing.refreshing = true;
+                        this.refresh(key, existing);
+                    }
+                    return existing.future.copy();
+                }
+            }
+
+            this.misses.increment();
+            entry = new CacheEntry(new CompletableFuture<>());
+            this.entries.put(key, entry);
+        }
+
+        this.load(key).whenComplete((javaInstallers, error) -> {
+            synchronized (this) {
+                if (error != null) {
+                    // never cache a failure, the next caller should try again
+                    this.entries.remove(key, entry);
+                } else {
+                    entry.loadedAt = this.ticker.getAsLong();
+                }
+            }
+            if (error != null) {
+                entry.future.completeExceptionally(error);
+            } else {
+                entry.future.complete(javaInstallers);
+            }
+        });
+
+        return entry.future.copy();
+    }
+
+    private void refresh(JavaReleaseQuery query, CacheEntry stale) {
+        log.debug("Refreshing stale {} installers for {} in the background", this.delegate.getDistro(), query);
+        this.load(query).whenComplete((javaInstallers, error) -> {
+            synchronized (this) {
+                stale.refreshing = false;
+                if (error != null) {
+                    // keep serving the stale entry until it expires for good
+                    log.warn("Unable to refresh {} installers for {} (will keep serving stale): {}", this.delegate.getDistro(), query, error.toString());
+                } else if (this.entries.get(query) == stale) {
+                    final CacheEntry fresh = new CacheEntry(CompletableFuture.completedFuture(javaInstallers));
+                    fresh.loadedAt = this.ticker.getAsLong();
+                    this.entries.put(query, fresh);
+                }
+            }
+        });
+    }
+
+    private CompletableFuture<List<JavaInstaller>> load(JavaReleaseQuery query) {
+        final long start = this.ticker.getAsLong();
+        final CompletableFuture<List<JavaInstaller>> future;
+        try {
+            future = this.delegate.getInstallers(query);
+        } catch (RuntimeException e) {
+            this.loads.increment();
+            this.loadFailures.increment();
+            return CompletableFuture.failedFuture(e);
+        }
+        return future.handle((javaInstallers, error) -> {
+            this.loads.increment();
+            this.loadNanos.add(this.ticker.getAsLong() - start);
+            if (error != null) {
+                this.loadFailures.increment();
+                throw error instanceof RuntimeException ? (RuntimeException) error : new CompletionException(error);
+            }
+            // shared by every caller, so nobody gets to modify it
+            return Collections.unmodifiableList(javaInstallers);
+        });
+    }
+
+    @Override
+    public String toString() {
+        return "caching " + this.delegate.getDistro() + " provider (" + this.size() + " entries, " + this.getHits() + " hits, "
+            + this.getMisses() + " misses, " + this.getLoadTime().toMillis() + " ms loading)";
+    }
+
+    static private class CacheEntry {
+
+        private final CompletableFuture<List<JavaInstaller>> future;
+        private long loadedAt;
+        private boolean refreshing;
+
+        public CacheEntry(CompletableFuture<List<JavaInstaller>> future) {
+            this.future = future;
+        }
+
+    }
+
+}
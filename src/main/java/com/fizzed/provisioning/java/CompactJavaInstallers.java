@@ -0,0 +1,218 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of installers that takes a fraction of the heap of the installers themselves, so large (or many
+ * historical) catalogs can be kept in memory.  Each installer is stored as a few primitives:
+ *   - its distro, os, arch, abi, image type and installer type packed into a long (see {@link PackedJavaTarget})
+ *   - its version components packed into a long
+ *   - its download url as the id of a shared prefix (e.g. https://cdn.azul.com/zulu/bin/) plus the rest of the url in
+ *     one big byte array, with its name being that rest (unless it isn't, which is rare and stored as is)
+ *   - the source of its version as the id of a shared string
+ *
+ * Installers are views, created on every get, so callers that hold onto them (or modify them) don't affect the list.
+ */
+public class CompactJavaInstallers extends AbstractList<JavaInstaller> implements RandomAccess {
+
+    private final long[] targets;
+    private final long[] versions;
+    private final int[] versionSources;
+    private final int[] urlPrefixes;
+    private final int[] urlSuffixOffsets;
+    private final byte[] urlSuffixes;
+    private final String[] strings;
+    // the rare installers whose version can't be packed, or whose name isn't the end of their url
+    private final Map<Integer, JavaVersion> unpackableVersions;
+    private final Map<Integer, String> names;
+
+    private CompactJavaInstallers(Builder builder) {
+        final int size = builder.size;
+        this.targets = Arrays.copyOf(builder.targets, size);
+        this.versions = Arrays.copyOf(builder.versions, size);
+        this.versionSources = Arrays.copyOf(builder.versionSources, size);
+        this.urlPrefixes = Arrays.copyOf(builder.urlPrefixes, size);
+        this.urlSuffixOffsets = Arrays.copyOf(builder.urlSuffixOffsets, size + 1);
+        this.urlSuffixes = builder.urlSuffixes.toByteArray();
+        this.strings = builder.strings.toArray(new String[0]);
+        this.unpackableVersions = new HashMap<>(builder.unpackableVersions);
+        this.names = new HashMap<>(builder.names);
+    }
+
+    static public Builder builder() {
+        return new Builder();
+    }
+
+    static public CompactJavaInstallers of(Collection<JavaInstaller> javaInstallers) {
+        final Builder builder = builder();
+        for (JavaInstaller javaInstaller : javaInstallers) {
+            builder.add(javaInstaller);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public int size() {
+        return this.targets.length;
+    }
+
+    @Override
+    public JavaInstaller get(int index) {
+        final long target = this.targets[index];
+        final String downloadUrl = this.getDownloadUrl(index);
+        final String name = this.names.containsKey(index) ? this.names.get(index) : downloadUrl.substring(this.strings[this.urlPrefixes[index]].length());
+
+        return new JavaInstaller()
+            .setDistro(PackedJavaTarget.distro(target))
+            .setDownloadUrl(downloadUrl)
+            .setName(name)
+            .setVersion(this.getVersion(index))
+            .setImageType(PackedJavaTarget.imageType(target))
+            .setInstallerType(PackedJavaTarget.installerType(target))
+            .setOs(PackedJavaTarget.os(target))
+            .setArch(PackedJavaTarget.arch(target))
+            .setAbi(PackedJavaTarget.abi(target));
+    }
+
+    // the fields most often filtered on can be read without creating the installer
+
+    public JavaDistro getDistro(int index) {
+        return PackedJavaTarget.distro(this.targets[index]);
+    }
+
+    public OperatingSystem getOs(int index) {
+        return PackedJavaTarget.os(this.targets[index]);
+    }
+
+    public HardwareArchitecture getArch(int index) {
+        return PackedJavaTarget.arch(this.targets[index]);
+    }
+
+    public ABI getAbi(int index) {
+        return PackedJavaTarget.abi(this.targets[index]);
+    }
+
+    public ImageType getImageType(int index) {
+        return PackedJavaTarget.imageType(this.targets[index]);
+    }
+
+    public InstallerType getInstallerType(int index) {
+        return PackedJavaTarget.installerType(this.targets[index]);
+    }
+
+    public JavaVersion getVersion(int index) {
+        final long version = this.versions[index];
+        if (version == PackedJavaVersion.NONE) {
+            return null;
+        } else if (version == PackedJavaVersion.UNPACKABLE) {
+            return this.unpackableVersions.get(index);
+        }
+        final int source = this.versionSources[index];
+        return PackedJavaVersion.unpack(version, source >= 0 ? this.strings[source] : null);
+    }
+
+    public String getDownloadUrl(int index) {
+        final int prefix = this.urlPrefixes[index];
+        if (prefix < 0) {
+            return null;
+        }
+        final int from = this.urlSuffixOffsets[index];
+        return this.strings[prefix] + new String(this.urlSuffixes, from, this.urlSuffixOffsets[index + 1] - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The number of distinct url prefixes and version sources, which are only stored once.
+     */
+    public int getStringCount() {
+        return this.strings.length;
+    }
+
+    static public class Builder {
+
+        private int size;
+        private long[] targets = new long[16];
+        private long[] versions = new long[16];
+        private int[] versionSources = new int[16];
+        private int[] urlPrefixes = new int[16];
+        private int[] urlSuffixOffsets = new int[17];
+        private final ByteArrayOutputStream urlSuffixes = new ByteArrayOutputStream();
+        private final List<String> strings = new ArrayList<>();
+        private final Map<String, Integer> stringIds = new HashMap<>();
+        private final Map<Integer, JavaVersion> unpackableVersions = new HashMap<>();
+        private final Map<Integer, String> names = new HashMap<>();
+
+        private Builder() {
+        }
+
+        public Builder add(JavaInstaller javaInstaller) {
+            if (this.size == this.targets.length) {
+                final int capacity = this.size * 2;
+                this.targets = Arrays.copyOf(this.targets, capacity);
+                this.versions = Arrays.copyOf(this.versions, capacity);
+                this.versionSources = Arrays.copyOf(this.versionSources, capacity);
+                this.urlPrefixes = Arrays.copyOf(this.urlPrefixes, capacity);
+                this.urlSuffixOffsets = Arrays.copyOf(this.urlSuffixOffsets, capacity + 1);
+            }
+
+            final int index = this.size++;
+
+            this.targets[index] = PackedJavaTarget.pack(javaInstaller);
+
+            final JavaVersion version = javaInstaller.getVersion();
+            this.versions[index] = PackedJavaVersion.pack(version);
+            this.versionSources[index] = version != null ? this.intern(version.getSource()) : -1;
+            if (this.versions[index] == PackedJavaVersion.UNPACKABLE) {
+                this.unpackableVersions.put(index, version);
+            }
+
+            // the url is split after its last slash, so every installer of a release (or a cdn directory) shares a prefix
+            final String downloadUrl = javaInstaller.getDownloadUrl();
+            String suffix = null;
+            if (downloadUrl != null) {
+                final int slash = downloadUrl.lastIndexOf('/') + 1;
+                suffix = downloadUrl.substring(slash);
+                this.urlPrefixes[index] = this.intern(downloadUrl.substring(0, slash));
+                this.urlSuffixes.writeBytes(suffix.getBytes(StandardCharsets.UTF_8));
+            } else {
+                this.urlPrefixes[index] = -1;
+            }
+            this.urlSuffixOffsets[index + 1] = this.urlSuffixes.size();
+
+            if (javaInstaller.getName() == null || !javaInstaller.getName().equals(suffix)) {
+                this.names.put(index, javaInstaller.getName());
+            }
+
+            return this;
+        }
+
+        public CompactJavaInstallers build() {
+            return new CompactJavaInstallers(this);
+        }
+
+        private int intern(String value) {
+            if (value == null) {
+                return -1;
+            }
+            return this.stringIds.computeIfAbsent(value, v -> {
+                this.strings.add(v);
+                return this.strings.size() - 1;
+            });
+        }
+
+    }
+
+}
@@ -7,7 +7,11 @@ public enum JavaDistro {
     ZULU("zulu"),
     TEMURIN("temurin"),
     LIBERICA("liberica"),
-    NITRO("nitro");
+    NITRO("nitro"),
+    CORRETTO("corretto"),
+    MICROSOFT("microsoft"),
+    SAPMACHINE("sapmachine"),
+    SEMERU("semeru");
 
     private final String name;
 
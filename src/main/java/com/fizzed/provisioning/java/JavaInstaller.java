@@ -1,16 +1,14 @@
 package com.fizzed.provisioning.java;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fizzed.jne.ABI;
 import com.fizzed.jne.HardwareArchitecture;
 import com.fizzed.jne.JavaVersion;
 import com.fizzed.jne.OperatingSystem;
-import org.apache.commons.lang3.ObjectUtils;
 
 import java.util.Comparator;
 import java.util.Objects;
 
-import static com.fizzed.crux.util.Maybe.maybe;
-
 public class JavaInstaller implements Comparable<JavaInstaller> {
 
     private JavaDistro distro;
@@ -22,6 +20,8 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
     private OperatingSystem os;
     private HardwareArchitecture arch;
     private ABI abi;
+    // computed on first comparison, and dropped whenever a field it is of changes
+    private JavaInstallerSortKey sortKey;
 
     public JavaDistro getDistro() {
         return distro;
@@ -29,6 +29,7 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
 
     public JavaInstaller setDistro(JavaDistro distro) {
         this.distro = distro;
+        this.sortKey = null;
         return this;
     }
 
@@ -47,6 +48,7 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
 
     public JavaInstaller setName(String name) {
         this.name = name;
+        this.sortKey = null;
         return this;
     }
 
@@ -56,6 +58,7 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
 
     public JavaInstaller setVersion(JavaVersion version) {
         this.version = version;
+        this.sortKey = null;
         return this;
     }
 
@@ -65,6 +68,7 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
 
     public JavaInstaller setImageType(ImageType imageType) {
         this.imageType = imageType;
+        this.sortKey = null;
         return this;
     }
 
@@ -74,6 +78,7 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
 
     public JavaInstaller setInstallerType(InstallerType installerType) {
         this.installerType = installerType;
+        this.sortKey = null;
         return this;
     }
 
@@ -83,6 +88,7 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
 
     public JavaInstaller setOs(OperatingSystem os) {
         this.os = os;
+        this.sortKey = null;
         return this;
     }
 
@@ -92,6 +98,7 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
 
     public JavaInstaller setArch(HardwareArchitecture arch) {
         this.arch = arch;
+        this.sortKey = null;
         return this;
     }
 
@@ -101,6 +108,7 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
 
     public JavaInstaller setAbi(ABI abi) {
         this.abi = abi;
+        this.sortKey = null;
         return this;
     }
 
@@ -126,42 +134,29 @@ public class JavaInstaller implements Comparable<JavaInstaller> {
         return result;
     }
 
+    /**
+     * The key installers are ordered by (see {@link #COMPARATOR}), computed once and cached until a field it is of
+     * changes.
+     */
+    @JsonIgnore
+    public JavaInstallerSortKey getSortKey() {
+        JavaInstallerSortKey sortKey = this.sortKey;
+        if (sortKey == null) {
+            // immutable, so a race just computes an equal key twice
+            sortKey = JavaInstallerSortKey.of(this);
+            this.sortKey = sortKey;
+        }
+        return sortKey;
+    }
+
     @Override
     public int compareTo(JavaInstaller o2) {
         return COMPARATOR.compare(this, o2);
     }
 
-    static public final Comparator<JavaInstaller> COMPARATOR = (o1, o2) -> {
-        int c = o1.getDistro().compareTo(o2.getDistro());
-        if (c == 0) {
-            // natural ordering of version is higher first
-            c = ObjectUtils.compare(o2.getVersion(), o1.getVersion(), false);
-            if (c == 0) {
-                c = lowerCaseCompareTo(o1.getOs(), o2.getOs());
-                if (c == 0) {
-                    c = lowerCaseCompareTo(o1.getArch(), o2.getArch());
-                    if (c == 0) {
-                        c = ObjectUtils.compare(o1.getAbi(), o2.getAbi(), false);
-                        if (c == 0) {
-                            c = lowerCaseCompareTo(o1.getImageType(), o2.getImageType());
-                            if (c == 0) {
-                                c = lowerCaseCompareTo(o1.getInstallerType(), o2.getInstallerType());
-                                if (c == 0) {
-                                    c = o1.getName().compareTo(o2.getName());
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return c;
-    };
-
-    static private int lowerCaseCompareTo(Object o1, Object o2) {
-        String s1 = maybe(o1).map(Object::toString).map(String::toLowerCase).orNull();
-        String s2 = maybe(o2).map(Object::toString).map(String::toLowerCase).orNull();
-        return ObjectUtils.compare(s1, s2, false);
-    }
+    /**
+     * By distro, then version (newest first), then os, arch, abi, image type and installer type, then name.
+     */
+    static public final Comparator<JavaInstaller> COMPARATOR = (o1, o2) -> o1.getSortKey().compareTo(o2.getSortKey());
 
 }
\ No newline at end of file
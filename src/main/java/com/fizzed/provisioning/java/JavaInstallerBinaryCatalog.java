@@ -0,0 +1,483 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.JavaVersion;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Supplier;
+
+/**
+ * A catalog of installers in a binary format that is read in place (e.g. memory mapped), so opening one costs nothing
+ * more than reading its small header and index directory, however many installers it has.  The format (big-endian) is:
+ *
+ *   header:   magic "JVIC", format version, record count, string count, then the offsets of the sections below
+ *   strings:  the (string count + 1) offsets of each string in the data that follows, then the utf-8 data
+ *   records:  a fixed width record per installer (newest first, see {@link JavaInstallerCatalog#NEWEST_FIRST}) of its
+ *             packed distro/os/arch/abi/image type/installer type, its version components, and the string ids of its
+ *             version source, url prefix (up to the last slash), url suffix and name (if it isn't the url suffix)
+ *   index:    per dimension (distro, major version, os, arch, abi, image type, installer type), per value, the records
+ *             with it (in record order, so newest first)
+ *   names:    per enum of a packed target (distro, os, arch, abi, image type, installer type), the string id of the name
+ *             of each of its ordinals
+ *
+ * Ordinals in the records and index are those of the enums the catalog was encoded with, and are mapped by name to the
+ * enums it's read with, so a catalog reads the same after an enum gains (or reorders) values.  A value unknown to the
+ * enums it's read with is null, and records with one are never found.
+ * Queries are targets, where a null field matches any value (and a null abi of an installer is the default one), same as
+ * {@link JavaInstallerCatalog}.  Only the shortest posting list of the dimensions a query specifies is walked, checking
+ * the rest of the dimensions against each record.
+ */
+public class JavaInstallerBinaryCatalog {
+
+    static private final int MAGIC = 0x4A564943;        // JVIC
+    static private final int FORMAT_VERSION = 2;
+    static private final int HEADER_SIZE = 36;
+    static private final int RECORD_SIZE = 40;
+
+    // record layout
+    static private final int TARGET = 0;
+    static private final int MAJOR = 8;
+    static private final int MINOR = 12;
+    static private final int SECURITY = 16;
+    static private final int BUILD = 20;
+    static private final int VERSION_SOURCE = 24;
+    static private final int URL_PREFIX = 28;
+    static private final int URL_SUFFIX = 32;
+    static private final int NAME = 36;
+
+    // string ids that aren't strings
+    static private final int NULL = -1;
+    static private final int SAME_AS_URL_SUFFIX = -2;
+
+    // the key of a value the catalog has no ordinal for
+    static private final int MISSING = -3;
+
+    // a target is packed (see PackedJavaTarget), with the top byte whether it has a version
+    static private final long HAS_VERSION = 1L << 56;
+
+    // the dimensions of the index, in the order they are written
+    static private final int DISTRO_DIMENSION = 0;
+    static private final int JAVA_MAJOR_VERSION_DIMENSION = 1;
+    static private final int OS_DIMENSION = 2;
+    static private final int ARCH_DIMENSION = 3;
+    static private final int ABI_DIMENSION = 4;
+    static private final int IMAGE_TYPE_DIMENSION = 5;
+    static private final int INSTALLER_TYPE_DIMENSION = 6;
+    static private final int DIMENSIONS = 7;
+
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private final int stringCount;
+    private final int stringOffsetsOffset;
+    private final int stringDataOffset;
+    private final int recordsOffset;
+    // per dimension, the key of each value to the offset of its posting list (a count, then that many record indexes)
+    private final List<Map<Integer, Integer>> postings;
+    // per field of a packed target, the value of each ordinal of the catalog, and the ordinal of the catalog of each value
+    private final Enum<?>[][] values;
+    private final int[][] ordinals;
+    private final boolean hasUnknownValues;
+
+    private JavaInstallerBinaryCatalog(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a binary java installer catalog");
+        }
+        if (buffer.getInt(4) != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported binary java installer catalog version " + buffer.getInt(4)
+                + " (only " + FORMAT_VERSION + ")");
+        }
+        this.recordCount = buffer.getInt(8);
+        this.stringCount = buffer.getInt(12);
+        this.stringOffsetsOffset = buffer.getInt(16);
+        this.stringDataOffset = buffer.getInt(20);
+        this.recordsOffset = buffer.getInt(24);
+
+        // the directory of the index is tiny (a few dozen values), so it's the only thing read up front
+        int offset = buffer.getInt(28);
+        this.postings = new ArrayList<>(DIMENSIONS);
+        for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+            final int valueCount = buffer.getInt(offset);
+            offset += 4;
+            final Map<Integer, Integer> values = new HashMap<>();
+            for (int v = 0; v < valueCount; v++) {
+                values.put(buffer.getInt(offset), offset + 4);
+                offset += 8 + 4 * buffer.getInt(offset + 4);
+            }
+            this.postings.add(values);
+        }
+
+        offset = buffer.getInt(32);
+        this.values = new Enum<?>[PackedJavaTarget.FIELDS][];
+        this.ordinals = new int[PackedJavaTarget.FIELDS][];
+        boolean hasUnknownValues = false;
+        for (int field = 0; field < PackedJavaTarget.FIELDS; field++) {
+            final Map<String, Enum<?>> byName = new HashMap<>();
+            for (Enum<?> value : PackedJavaTarget.VALUES[field]) {
+                byName.put(value.name(), value);
+            }
+            final int count = buffer.getInt(offset);
+            offset += 4;
+            this.values[field] = new Enum<?>[count];
+            this.ordinals[field] = new int[PackedJavaTarget.VALUES[field].length];
+            Arrays.fill(this.ordinals[field], MISSING);
+            for (int ordinal = 0; ordinal < count; ordinal++) {
+                final Enum<?> value = byName.get(this.string(buffer.getInt(offset)));
+                offset += 4;
+                if (value != null) {
+                    this.values[field][ordinal] = value;
+                    this.ordinals[field][value.ordinal()] = ordinal;
+                } else {
+                    hasUnknownValues = true;
+                }
+            }
+        }
+        this.hasUnknownValues = hasUnknownValues;
+    }
+
+    /**
+     * A catalog of the remaining bytes of the buffer.
+     */
+    static public JavaInstallerBinaryCatalog of(ByteBuffer buffer) {
+        return new JavaInstallerBinaryCatalog(buffer.slice());
+    }
+
+    /**
+     * Memory maps the file, so only the pages queries actually touch are ever read.
+     */
+    static public JavaInstallerBinaryCatalog open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            return new JavaInstallerBinaryCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Reads the catalog from a classpath resource (which, e.g. in a jar, can't be mapped).
+     */
+    static public JavaInstallerBinaryCatalog openResource(ClassLoader classLoader, String resource) throws IOException {
+        try (InputStream input = classLoader.getResourceAsStream(resource)) {
+            if (input == null) {
+                throw new IOException("Resource " + resource + " not found");
+            }
+            final byte[] bytes = input.readAllBytes();
+            final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+            buffer.put(bytes).flip();
+            return new JavaInstallerBinaryCatalog(buffer);
+        }
+    }
+
+    /**
+     * A catalog from a classpath resource that is only read the first time it's needed (e.g. one shipped in a library,
+     * so that merely having the library costs nothing).
+     */
+    static public Supplier<JavaInstallerBinaryCatalog> lazyResource(ClassLoader classLoader, String resource) {
+        return new Supplier<>() {
+            private volatile JavaInstallerBinaryCatalog catalog;
+
+            @Override
+            public JavaInstallerBinaryCatalog get() {
+                JavaInstallerBinaryCatalog catalog = this.catalog;
+                if (catalog == null) {
+                    synchronized (this) {
+                        catalog = this.catalog;
+                        if (catalog == null) {
+                            try {
+                                catalog = openResource(classLoader, resource);
+                            } catch (IOException e) {
+                                throw new RuntimeException("Unable to load java installer catalog " + resource, e);
+                            }
+                            this.catalog = catalog;
+                        }
+                    }
+                }
+                return catalog;
+            }
+        };
+    }
+
+    public int size() {
+        return this.recordCount;
+    }
+
+    /**
+     * The installer of a record (newest first), read from the catalog as is.
+     */
+    public JavaInstaller get(int index) {
+        if (index < 0 || index >= this.recordCount) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + this.recordCount);
+        }
+        final int record = this.recordsOffset + index * RECORD_SIZE;
+        final long target = this.buffer.getLong(record + TARGET);
+
+        JavaVersion version = null;
+        if ((target & HAS_VERSION) != 0) {
+            version = new JavaVersion(this.string(this.buffer.getInt(record + VERSION_SOURCE)), this.buffer.getInt(record + MAJOR),
+                this.buffer.getInt(record + MINOR), this.buffer.getInt(record + SECURITY), this.buffer.getInt(record + BUILD));
+        }
+
+        final String urlPrefix = this.string(this.buffer.getInt(record + URL_PREFIX));
+        final String urlSuffix = this.string(this.buffer.getInt(record + URL_SUFFIX));
+        final int name = this.buffer.getInt(record + NAME);
+
+        return new JavaInstaller()
+            .setDistro(this.unpack(target, PackedJavaTarget.DISTRO_FIELD))
+            .setDownloadUrl(urlPrefix != null ? urlPrefix + urlSuffix : null)
+            .setName(name == SAME_AS_URL_SUFFIX ? urlSuffix : this.string(name))
+            .setVersion(version)
+            .setImageType(this.unpack(target, PackedJavaTarget.IMAGE_TYPE_FIELD))
+            .setInstallerType(this.unpack(target, PackedJavaTarget.INSTALLER_TYPE_FIELD))
+            .setOs(this.unpack(target, PackedJavaTarget.OS_FIELD))
+            .setArch(this.unpack(target, PackedJavaTarget.ARCH_FIELD))
+            .setAbi(this.unpack(target, PackedJavaTarget.ABI_FIELD));
+    }
+
+    /**
+     * The installers matching the query, newest first.
+     */
+    public List<JavaInstaller> find(JavaInstallerTarget query) {
+        final List<JavaInstaller> found = new ArrayList<>();
+        this.match(query, found, Integer.MAX_VALUE);
+        return found;
+    }
+
+    /**
+     * The newest installer matching the query, or null if none do.
+     */
+    public JavaInstaller findLatest(JavaInstallerTarget query) {
+        final List<JavaInstaller> found = new ArrayList<>(1);
+        this.match(query, found, 1);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    private void match(JavaInstallerTarget query, List<JavaInstaller> found, int limit) {
+        final int[] keys = this.keysOf(query);
+
+        // the shortest posting list of the dimensions specified (or every record, if none are)
+        int shortest = -1;
+        int shortestCount = this.recordCount;
+        for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+            if (keys[dimension] == NULL) {
+                continue;
+            }
+            final Integer posting = this.postings.get(dimension).get(keys[dimension]);
+            if (posting == null) {
+                return;
+            }
+            final int count = this.buffer.getInt(posting);
+            if (shortest < 0 || count < shortestCount) {
+                shortest = posting;
+                shortestCount = count;
+            }
+        }
+
+        for (int i = 0; i < shortestCount && found.size() < limit; i++) {
+            final int index = shortest < 0 ? i : this.buffer.getInt(shortest + 4 + 4 * i);
+            if (this.matches(index, keys)) {
+                found.add(this.get(index));
+            }
+        }
+    }
+
+    private boolean matches(int index, int[] keys) {
+        final int record = this.recordsOffset + index * RECORD_SIZE;
+        final long target = this.buffer.getLong(record + TARGET);
+        if (this.hasUnknownValues && this.hasUnknownValue(target)) {
+            return false;
+        }
+        final int[] recordKeys = keysOf(target, (target & HAS_VERSION) != 0 ? this.buffer.getInt(record + MAJOR) : NULL,
+            this.ordinals[PackedJavaTarget.ABI_FIELD][ABI.DEFAULT.ordinal()]);
+        for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+            if (keys[dimension] != NULL && keys[dimension] != recordKeys[dimension]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String string(int id) {
+        if (id < 0) {
+            return null;
+        }
+        if (id >= this.stringCount) {
+            throw new IllegalStateException("String " + id + " out of bounds for " + this.stringCount + " strings (corrupt catalog?)");
+        }
+        final int from = this.buffer.getInt(this.stringOffsetsOffset + 4 * id);
+        final int to = this.buffer.getInt(this.stringOffsetsOffset + 4 * (id + 1));
+        final byte[] bytes = new byte[to - from];
+        // a duplicate, since a relative get moves the position (and the catalog is shared across threads)
+        final ByteBuffer data = this.buffer.duplicate();
+        data.position(this.stringDataOffset + from);
+        data.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private int[] keysOf(JavaInstallerTarget query) {
+        final int[] keys = new int[DIMENSIONS];
+        keys[DISTRO_DIMENSION] = this.ordinalOf(PackedJavaTarget.DISTRO_FIELD, query.getDistro());
+        keys[JAVA_MAJOR_VERSION_DIMENSION] = query.getJavaMajorVersion() != null ? query.getJavaMajorVersion() : NULL;
+        keys[OS_DIMENSION] = this.ordinalOf(PackedJavaTarget.OS_FIELD, query.getOs());
+        keys[ARCH_DIMENSION] = this.ordinalOf(PackedJavaTarget.ARCH_FIELD, query.getArch());
+        keys[ABI_DIMENSION] = this.ordinalOf(PackedJavaTarget.ABI_FIELD, query.getAbi());
+        keys[IMAGE_TYPE_DIMENSION] = this.ordinalOf(PackedJavaTarget.IMAGE_TYPE_FIELD, query.getImageType());
+        keys[INSTALLER_TYPE_DIMENSION] = this.ordinalOf(PackedJavaTarget.INSTALLER_TYPE_FIELD, query.getInstallerType());
+        return keys;
+    }
+
+    // the ordinal of the catalog of a value (which a catalog older than its enum may not have)
+    private int ordinalOf(int field, Enum<?> value) {
+        return value != null ? this.ordinals[field][value.ordinal()] : NULL;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <E extends Enum<E>> E unpack(long target, int field) {
+        final int ordinal = PackedJavaTarget.ordinal(target, field);
+        return ordinal >= 0 ? (E)this.values[field][ordinal] : null;
+    }
+
+    private boolean hasUnknownValue(long target) {
+        for (int field = 0; field < PackedJavaTarget.FIELDS; field++) {
+            final int ordinal = PackedJavaTarget.ordinal(target, field);
+            if (ordinal >= 0 && this.values[field][ordinal] == null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static private int[] keysOf(long target, int javaMajorVersion, int defaultAbi) {
+        final int[] keys = new int[DIMENSIONS];
+        keys[DISTRO_DIMENSION] = PackedJavaTarget.ordinal(target, PackedJavaTarget.DISTRO_FIELD);
+        keys[JAVA_MAJOR_VERSION_DIMENSION] = javaMajorVersion;
+        keys[OS_DIMENSION] = PackedJavaTarget.ordinal(target, PackedJavaTarget.OS_FIELD);
+        keys[ARCH_DIMENSION] = PackedJavaTarget.ordinal(target, PackedJavaTarget.ARCH_FIELD);
+        // a null abi is the default one
+        final int abi = PackedJavaTarget.ordinal(target, PackedJavaTarget.ABI_FIELD);
+        keys[ABI_DIMENSION] = abi != NULL ? abi : defaultAbi;
+        keys[IMAGE_TYPE_DIMENSION] = PackedJavaTarget.ordinal(target, PackedJavaTarget.IMAGE_TYPE_FIELD);
+        keys[INSTALLER_TYPE_DIMENSION] = PackedJavaTarget.ordinal(target, PackedJavaTarget.INSTALLER_TYPE_FIELD);
+        return keys;
+    }
+
+    /**
+     * Encodes the installers as a binary catalog.  The same installers always encode to the same bytes.
+     */
+    static public byte[] encode(Collection<JavaInstaller> javaInstallers) {
+        final List<JavaInstaller> sorted = new ArrayList<>(javaInstallers);
+        sorted.sort(JavaInstallerCatalog.NEWEST_FIRST);
+
+        final Map<String, Integer> stringIds = new LinkedHashMap<>();
+        final ByteBuffer records = ByteBuffer.allocate(sorted.size() * RECORD_SIZE);
+        final List<Map<Integer, List<Integer>>> postings = new ArrayList<>(DIMENSIONS);
+        for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+            // sorted by key, so the encoding is deterministic
+            postings.add(new TreeMap<>());
+        }
+
+        for (int index = 0; index < sorted.size(); index++) {
+            final JavaInstaller javaInstaller = sorted.get(index);
+            final JavaVersion version = javaInstaller.getVersion();
+
+            final long target = PackedJavaTarget.pack(javaInstaller) | (version != null ? HAS_VERSION : 0L);
+
+            final String downloadUrl = javaInstaller.getDownloadUrl();
+            final int slash = downloadUrl != null ? downloadUrl.lastIndexOf('/') + 1 : 0;
+            final String urlSuffix = downloadUrl != null ? downloadUrl.substring(slash) : null;
+
+            records.putLong(target);
+            records.putInt(version != null ? version.getMajor() : 0);
+            records.putInt(version != null ? version.getMinor() : 0);
+            records.putInt(version != null ? version.getSecurity() : 0);
+            records.putInt(version != null ? version.getBuild() : 0);
+            records.putInt(version != null ? intern(stringIds, version.getSource()) : NULL);
+            records.putInt(downloadUrl != null ? intern(stringIds, downloadUrl.substring(0, slash)) : NULL);
+            records.putInt(intern(stringIds, urlSuffix));
+            records.putInt(javaInstaller.getName() != null && javaInstaller.getName().equals(urlSuffix)
+                ? SAME_AS_URL_SUFFIX : intern(stringIds, javaInstaller.getName()));
+
+            final int[] keys = keysOf(target, version != null ? version.getMajor() : NULL, ABI.DEFAULT.ordinal());
+            for (int dimension = 0; dimension < DIMENSIONS; dimension++) {
+                if (keys[dimension] != NULL) {
+                    postings.get(dimension).computeIfAbsent(keys[dimension], k -> new ArrayList<>()).add(index);
+                }
+            }
+        }
+
+        final ByteBuffer names = ByteBuffer.allocate(4 * Arrays.stream(PackedJavaTarget.VALUES).mapToInt(values -> 1 + values.length).sum());
+        for (Enum<?>[] values : PackedJavaTarget.VALUES) {
+            names.putInt(values.length);
+            for (Enum<?> value : values) {
+                names.putInt(intern(stringIds, value.name()));
+            }
+        }
+
+        final ByteArrayOutputStream stringData = new ByteArrayOutputStream();
+        final ByteBuffer stringOffsets = ByteBuffer.allocate(4 * (stringIds.size() + 1));
+        stringOffsets.putInt(0);
+        for (String string : stringIds.keySet()) {
+            stringData.writeBytes(string.getBytes(StandardCharsets.UTF_8));
+            stringOffsets.putInt(stringData.size());
+        }
+
+        final ByteArrayOutputStream index = new ByteArrayOutputStream();
+        final ByteBuffer word = ByteBuffer.allocate(4);
+        for (Map<Integer, List<Integer>> values : postings) {
+            index.writeBytes(word.putInt(0, values.size()).array());
+            for (Map.Entry<Integer, List<Integer>> value : values.entrySet()) {
+                index.writeBytes(word.putInt(0, value.getKey()).array());
+                index.writeBytes(word.putInt(0, value.getValue().size()).array());
+                for (int recordIndex : value.getValue()) {
+                    index.writeBytes(word.putInt(0, recordIndex).array());
+                }
+            }
+        }
+
+        final int stringOffsetsOffset = HEADER_SIZE;
+        final int stringDataOffset = stringOffsetsOffset + stringOffsets.capacity();
+        // records are aligned, so their longs are too
+        final int recordsOffset = (stringDataOffset + stringData.size() + 7) & ~7;
+        final int indexOffset = recordsOffset + records.capacity();
+        final int namesOffset = indexOffset + index.size();
+
+        final ByteBuffer catalog = ByteBuffer.allocate(namesOffset + names.capacity());
+        catalog.putInt(MAGIC)
+            .putInt(FORMAT_VERSION)
+            .putInt(sorted.size())
+            .putInt(stringIds.size())
+            .putInt(stringOffsetsOffset)
+            .putInt(stringDataOffset)
+            .putInt(recordsOffset)
+            .putInt(indexOffset)
+            .putInt(namesOffset);
+        catalog.put(stringOffsets.array());
+        catalog.put(stringData.toByteArray());
+        catalog.position(recordsOffset);
+        catalog.put(records.array());
+        catalog.put(index.toByteArray());
+        catalog.put(names.array());
+        return catalog.array();
+    }
+
+    static private int intern(Map<String, Integer> stringIds, String value) {
+        if (value == null) {
+            return NULL;
+        }
+        return stringIds.computeIfAbsent(value, v -> stringIds.size());
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable, indexed catalog of installers to answer "which installers are for X" without scanning them all.  The
+ * installers are sorted newest first, then every dimension (distro, major version, os, arch, abi, image type and
+ * installer type) has a bitset per value of which installers have it, so a query is the intersection of the bitsets of
+ * the dimensions it specifies, and its installers come out already sorted.  A query that specifies every dimension is a
+ * single hash lookup instead.  As most queries for specific targets find nothing, empty answers are remembered.
+ *
+ * Queries are targets, where a null field matches any value (and a null abi of an installer is the default one).  A
+ * {@link JavaVersionResolver} builds on the exact postings to resolve ranges of versions of a target.
+ */
+public class JavaInstallerCatalog {
+
+    /**
+     * Newest first (unknown versions last), then as {@link JavaInstaller#COMPARATOR}.  For installers of a single distro
+     * it's the same order as the comparator.
+     */
+    static public final Comparator<JavaInstaller> NEWEST_FIRST = Comparator
+        .comparing(JavaInstaller::getVersion, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparing(JavaInstaller.COMPARATOR);
+
+    static private final int MAX_CACHED_MISSES = 65536;
+
+    private final List<JavaInstaller> javaInstallers;
+    private final BitSet all;
+    private final Map<JavaDistro, BitSet> distros;
+    private final Map<Integer, BitSet> javaMajorVersions;
+    private final Map<OperatingSystem, BitSet> operatingSystems;
+    private final Map<HardwareArchitecture, BitSet> archs;
+    private final Map<ABI, BitSet> abis;
+    private final Map<ImageType, BitSet> imageTypes;
+    private final Map<InstallerType, BitSet> installerTypes;
+    private final Map<JavaInstallerTarget, List<JavaInstaller>> exact;
+    private final Set<JavaInstallerTarget> misses;
+
+    public JavaInstallerCatalog(Collection<JavaInstaller> javaInstallers) {
+        final List<JavaInstaller> sorted = new ArrayList<>(javaInstallers);
+        sorted.sort(NEWEST_FIRST);
+        this.javaInstallers = Collections.unmodifiableList(sorted);
+        this.all = new BitSet(sorted.size());
+        this.all.set(0, sorted.size());
+        this.distros = new EnumMap<>(JavaDistro.class);
+        this.javaMajorVersions = new HashMap<>();
+        this.operatingSystems = new EnumMap<>(OperatingSystem.class);
+        this.archs = new EnumMap<>(HardwareArchitecture.class);
+        this.abis = new EnumMap<>(ABI.class);
+        this.imageTypes = new EnumMap<>(ImageType.class);
+        this.installerTypes = new EnumMap<>(InstallerType.class);
+        this.exact = new HashMap<>();
+        this.misses = ConcurrentHashMap.newKeySet();
+
+        for (int i = 0; i < sorted.size(); i++) {
+            final JavaInstaller javaInstaller = sorted.get(i);
+            final Integer javaMajorVersion = javaInstaller.getVersion() != null ? javaInstaller.getVersion().getMajor() : null;
+            final ABI abi = javaInstaller.getAbi() != null ? javaInstaller.getAbi() : ABI.DEFAULT;
+
+            post(this.distros, javaInstaller.getDistro(), i);
+            post(this.javaMajorVersions, javaMajorVersion, i);
+            post(this.operatingSystems, javaInstaller.getOs(), i);
+            post(this.archs, javaInstaller.getArch(), i);
+            post(this.abis, abi, i);
+            post(this.imageTypes, javaInstaller.getImageType(), i);
+            post(this.installerTypes, javaInstaller.getInstallerType(), i);
+
+            final JavaInstallerTarget target = new JavaInstallerTarget(javaInstaller.getDistro(), javaMajorVersion,
+                javaInstaller.getOs(), javaInstaller.getArch(), abi, javaInstaller.getImageType(), javaInstaller.getInstallerType());
+            if (isExact(target)) {
+                // in sorted order, so the first is the newest
+                this.exact.computeIfAbsent(target, k -> new ArrayList<>(1)).add(javaInstaller);
+            }
+        }
+    }
+
+    public int size() {
+        return this.javaInstallers.size();
+    }
+
+    /**
+     * Every installer, newest first.
+     */
+    public List<JavaInstaller> getJavaInstallers() {
+        return javaInstallers;
+    }
+
+    // the installers of every target that specifies each dimension, newest first
+    Map<JavaInstallerTarget, List<JavaInstaller>> getExactPostings() {
+        return Collections.unmodifiableMap(this.exact);
+    }
+
+    /**
+     * The installers matching the query, newest first.
+     */
+    public List<JavaInstaller> find(JavaInstallerTarget query) {
+        if (isExact(query)) {
+            final List<JavaInstaller> found = this.exact.get(query);
+            return found != null ? Collections.unmodifiableList(found) : Collections.emptyList();
+        }
+
+        if (this.misses.contains(query)) {
+            return Collections.emptyList();
+        }
+
+        final BitSet matches = this.match(query);
+        if (matches.isEmpty()) {
+            if (this.misses.size() < MAX_CACHED_MISSES) {
+                this.misses.add(query);
+            }
+            return Collections.emptyList();
+        }
+
+        final List<JavaInstaller> found = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            found.add(this.javaInstallers.get(i));
+        }
+        return found;
+    }
+
+    /**
+     * The newest installer matching the query, or null if none do.
+     */
+    public JavaInstaller findLatest(JavaInstallerTarget query) {
+        if (isExact(query)) {
+            final List<JavaInstaller> found = this.exact.get(query);
+            return found != null ? found.get(0) : null;
+        }
+
+        if (this.misses.contains(query)) {
+            return null;
+        }
+
+        final int first = this.match(query).nextSetBit(0);
+        if (first < 0) {
+            if (this.misses.size() < MAX_CACHED_MISSES) {
+                this.misses.add(query);
+            }
+            return null;
+        }
+        return this.javaInstallers.get(first);
+    }
+
+    private BitSet match(JavaInstallerTarget query) {
+        final BitSet matches = (BitSet)this.all.clone();
+        // a dimension the query doesn't specify is skipped, and a value no installer has matches nothing
+        intersect(matches, this.distros, query.getDistro());
+        intersect(matches, this.javaMajorVersions, query.getJavaMajorVersion());
+        intersect(matches, this.operatingSystems, query.getOs());
+        intersect(matches, this.archs, query.getArch());
+        intersect(matches, this.abis, query.getAbi());
+        intersect(matches, this.imageTypes, query.getImageType());
+        intersect(matches, this.installerTypes, query.getInstallerType());
+        return matches;
+    }
+
+    static private boolean isExact(JavaInstallerTarget target) {
+        return target.getDistro() != null && target.getJavaMajorVersion() != null && target.getOs() != null
+            && target.getArch() != null && target.getAbi() != null && target.getImageType() != null && target.getInstallerType() != null;
+    }
+
+    static private <K> void post(Map<K, BitSet> postings, K value, int index) {
+        if (value != null) {
+            postings.computeIfAbsent(value, k -> new BitSet()).set(index);
+        }
+    }
+
+    static private <K> void intersect(BitSet matches, Map<K, BitSet> postings, K value) {
+        if (value == null || matches.isEmpty()) {
+            return;
+        }
+        final BitSet posting = postings.get(value);
+        if (posting == null) {
+            matches.clear();
+        } else {
+            matches.and(posting);
+        }
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.fizzed.provisioning.java;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of converting a vendor's release list to installers: the installers, the releases that couldn't be
+ * converted (and why), and how long each thread spent converting.
+ */
+public class JavaInstallerConversion {
+
+    private final JavaDistro distro;
+    private final int rows;
+    private final List<JavaInstaller> javaInstallers;
+    private final List<Failure> failures;
+    private final List<ThreadTiming> threadTimings;
+    private final long elapsedNanos;
+
+    JavaInstallerConversion(JavaDistro distro, int rows, List<JavaInstaller> javaInstallers, List<Failure> failures,
+                            List<ThreadTiming> threadTimings, long elapsedNanos) {
+        this.distro = distro;
+        this.rows = rows;
+        this.javaInstallers = javaInstallers;
+        this.failures = failures;
+        this.threadTimings = threadTimings;
+        this.threadTimings.sort(Comparator.comparing(ThreadTiming::getThread));
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public JavaDistro getDistro() {
+        return distro;
+    }
+
+    /**
+     * The number of releases converted.
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * The installers, in the order of the releases they are of.
+     */
+    public List<JavaInstaller> getJavaInstallers() {
+        return javaInstallers;
+    }
+
+    public List<Failure> getFailures() {
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return !this.failures.isEmpty();
+    }
+
+    /**
+     * The failures grouped by their reason (see {@link Failure#getReason()}), in the order first seen, so the same
+     * problem across many releases is only reported once (with the releases it affected as examples).
+     */
+    public Map<String, List<Failure>> getFailuresByReason() {
+        final Map<String, List<Failure>> failuresByReason = new LinkedHashMap<>();
+        for (Failure failure : this.failures) {
+            failuresByReason.computeIfAbsent(failure.getReason(), k -> new ArrayList<>()).add(failure);
+        }
+        return failuresByReason;
+    }
+
+    public List<ThreadTiming> getThreadTimings() {
+        return threadTimings;
+    }
+
+    public Duration getElapsed() {
+        return Duration.ofNanos(this.elapsedNanos);
+    }
+
+    public double getRowsPerSecond() {
+        return this.elapsedNanos > 0 ? this.rows * 1_000_000_000d / this.elapsedNanos : 0d;
+    }
+
+    @Override
+    public String toString() {
+        return this.distro + ": converted " + this.javaInstallers.size() + " of " + this.rows + " releases ("
+            + this.failures.size() + " failed) in " + this.getElapsed().toMillis() + " ms on " + this.threadTimings.size()
+            + " threads (" + Math.round(this.getRowsPerSecond()) + " rows/sec)";
+    }
+
+    static public class Failure {
+
+        private final int index;
+        private final Exception error;
+
+        Failure(int index, Exception error) {
+            this.index = index;
+            this.error = error;
+        }
+
+        /**
+         * The index of the release in the list converted.
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        public Exception getError() {
+            return error;
+        }
+
+        public String getMessage() {
+            return this.error.getMessage() != null ? this.error.getMessage() : this.error.getClass().getName();
+        }
+
+        /**
+         * The name of the installer that couldn't be parsed, or null if the failure wasn't a parse error.
+         */
+        public String getName() {
+            return this.error instanceof JavaInstallerParseException ? ((JavaInstallerParseException)this.error).getName() : null;
+        }
+
+        /**
+         * What went wrong without the specifics of the release (unlike the message): what the vendor's grammar expected
+         * for a parse error, otherwise the type of error.
+         */
+        public String getReason() {
+            if (this.error instanceof JavaInstallerParseException) {
+                return "expected " + ((JavaInstallerParseException)this.error).getExpected();
+            }
+            return this.error.getClass().getName();
+        }
+
+        @Override
+        public String toString() {
+            return "#" + this.index + ": " + this.getMessage();
+        }
+
+    }
+
+    static public class ThreadTiming {
+
+        private final String thread;
+        private long rows;
+        private long nanos;
+
+        ThreadTiming(String thread) {
+            this.thread = thread;
+        }
+
+        void add(long rows, long nanos) {
+            this.rows += rows;
+            this.nanos += nanos;
+        }
+
+        public String getThread() {
+            return thread;
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        public Duration getElapsed() {
+            return Duration.ofNanos(this.nanos);
+        }
+
+        public double getRowsPerSecond() {
+            return this.nanos > 0 ? this.rows * 1_000_000_000d / this.nanos : 0d;
+        }
+
+        @Override
+        public String toString() {
+            return this.thread + " (" + this.rows + " rows in " + this.getElapsed().toMillis() + " ms, "
+                + Math.round(this.getRowsPerSecond()) + " rows/sec)";
+        }
+
+    }
+
+}
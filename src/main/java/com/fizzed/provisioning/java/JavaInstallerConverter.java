@@ -0,0 +1,186 @@
+package com.fizzed.provisioning.java;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Converts a whole list of vendor releases to installers at once, splitting the list in halves across a fork-join pool
+ * until the pieces are small enough to convert in a loop.  A release that can't be converted (e.g. an installer name the
+ * vendor's grammar doesn't know) doesn't fail the batch, it's reported as a failure of the conversion instead.  How long
+ * each thread spent converting is recorded too, to see the throughput on large catalogs.
+ *
+ * A converter is immutable (see {@link #builder()}) and everything it records is of a single conversion, so the default
+ * one is safe to share.
+ */
+public class JavaInstallerConverter {
+    static private final Logger log = LoggerFactory.getLogger(JavaInstallerConverter.class);
+
+    static private final JavaInstallerConverter DEFAULT = builder().build();
+
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    private JavaInstallerConverter(Builder builder) {
+        this.pool = builder.pool;
+        this.threshold = builder.threshold;
+    }
+
+    static public JavaInstallerConverter getDefault() {
+        return DEFAULT;
+    }
+
+    static public Builder builder() {
+        return new Builder();
+    }
+
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /**
+     * Converts a vendor release to an installer.
+     */
+    @FunctionalInterface
+    public interface ToInstaller<R> {
+
+        JavaInstaller apply(R release) throws JavaInstallerParseException;
+
+    }
+
+    /**
+     * Converts releases one at a time (e.g. as they stream in), where a release that can't be converted (e.g. a target
+     * jne doesn't know of, or a file that isn't an installer) is skipped rather than failing the rest, and tallied in
+     * the skips (see {@link JavaInstallerSkips#logSummary()}).
+     */
+    static public <R> Function<R, Stream<JavaInstaller>> skipping(ToInstaller<? super R> toInstaller, JavaInstallerSkips skips) {
+        return release -> {
+            try {
+                return Stream.of(toInstaller.apply(release));
+            } catch (JavaInstallerParseException e) {
+                log.debug("Skipping release: {}", e.getMessage());
+                skips.add(e);
+                return Stream.empty();
+            }
+        };
+    }
+
+    public <R> JavaInstallerConversion convert(JavaDistro distro, List<? extends R> releases, ToInstaller<? super R> toInstaller) {
+        // splitting by index needs cheap random access
+        final List<? extends R> rows = releases instanceof RandomAccess ? releases : new ArrayList<>(releases);
+        final JavaInstaller[] javaInstallers = new JavaInstaller[rows.size()];
+        final Exception[] errors = new Exception[rows.size()];
+        final Map<String, JavaInstallerConversion.ThreadTiming> threadTimings = new ConcurrentHashMap<>();
+
+        final long start = System.nanoTime();
+        if (!rows.isEmpty()) {
+            this.pool.invoke(new ConvertAction<>(rows, toInstaller, javaInstallers, errors, threadTimings, 0, rows.size(), this.threshold));
+        }
+        final long elapsedNanos = System.nanoTime() - start;
+
+        // in the order of the releases
+        final List<JavaInstaller> converted = new ArrayList<>(rows.size());
+        final List<JavaInstallerConversion.Failure> failures = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            if (errors[i] != null) {
+                failures.add(new JavaInstallerConversion.Failure(i, errors[i]));
+            } else if (javaInstallers[i] != null) {
+                converted.add(javaInstallers[i]);
+            }
+        }
+
+        return new JavaInstallerConversion(distro, rows.size(), converted, failures, new ArrayList<>(threadTimings.values()), elapsedNanos);
+    }
+
+    static public class Builder {
+
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+        private int threshold = 256;
+
+        public Builder setPool(ForkJoinPool pool) {
+            this.pool = Objects.requireNonNull(pool, "pool was null");
+            return this;
+        }
+
+        /**
+         * The most releases converted in a loop (rather than split further).
+         */
+        public Builder setThreshold(int threshold) {
+            if (threshold < 1) {
+                throw new IllegalArgumentException("Threshold must be >= 1");
+            }
+            this.threshold = threshold;
+            return this;
+        }
+
+        public JavaInstallerConverter build() {
+            return new JavaInstallerConverter(this);
+        }
+
+    }
+
+    static private class ConvertAction<R> extends RecursiveAction {
+
+        private final List<? extends R> rows;
+        private final ToInstaller<? super R> toInstaller;
+        private final JavaInstaller[] javaInstallers;
+        private final Exception[] errors;
+        private final Map<String, JavaInstallerConversion.ThreadTiming> threadTimings;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        ConvertAction(List<? extends R> rows, ToInstaller<? super R> toInstaller, JavaInstaller[] javaInstallers,
+                      Exception[] errors, Map<String, JavaInstallerConversion.ThreadTiming> threadTimings, int from, int to, int threshold) {
+            this.rows = rows;
+            this.toInstaller = toInstaller;
+            this.javaInstallers = javaInstallers;
+            this.errors = errors;
+            this.threadTimings = threadTimings;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from > this.threshold) {
+                final int middle = (this.from + this.to) >>> 1;
+                invokeAll(
+                    new ConvertAction<>(this.rows, this.toInstaller, this.javaInstallers, this.errors, this.threadTimings, this.from, middle, this.threshold),
+                    new ConvertAction<>(this.rows, this.toInstaller, this.javaInstallers, this.errors, this.threadTimings, middle, this.to, this.threshold));
+                return;
+            }
+
+            final long start = System.nanoTime();
+            for (int i = this.from; i < this.to; i++) {
+                try {
+                    this.javaInstallers[i] = this.toInstaller.apply(this.rows.get(i));
+                } catch (JavaInstallerParseException | RuntimeException e) {
+                    this.errors[i] = e;
+                }
+            }
+            final long elapsedNanos = System.nanoTime() - start;
+
+            // only ever updated by the thread it's for
+            this.threadTimings.computeIfAbsent(Thread.currentThread().getName(), JavaInstallerConversion.ThreadTiming::new)
+                .add(this.to - this.from, elapsedNanos);
+        }
+
+    }
+
+}
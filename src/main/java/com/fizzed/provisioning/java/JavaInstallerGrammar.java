@@ -0,0 +1,272 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The naming convention of a vendor's installer files, compiled once into a single (case-insensitive) regex, so that a
+ * name is broken into its distro version, java version, flavor, image type, os, arch, abi and installer type in one
+ * match.  Os, arch, abi and image type are closed sets of tokens, so a name with a target the grammar doesn't know about
+ * fails to parse, rather than being guessed at.  A name that doesn't parse is reported with where it went wrong and
+ * what was expected there.
+ *
+ * A grammar is immutable and thread-safe.
+ */
+public class JavaInstallerGrammar {
+
+    public enum Field {
+        DISTRO_VERSION("distroVersion", "distro version", String.class),
+        JAVA_VERSION("javaVersion", "java version", String.class),
+        FLAVOR("flavor", "flavor", String.class),
+        IMAGE_TYPE("imageType", "image type", ImageType.class),
+        OS("os", "os", OperatingSystem.class),
+        ARCH("arch", "arch", HardwareArchitecture.class),
+        ABI("abi", "abi", com.fizzed.jne.ABI.class),
+        INSTALLER_TYPE("installerType", "installer type", InstallerType.class);
+
+        private final String group;
+        private final String description;
+        private final Class<?> type;
+
+        Field(String group, String description, Class<?> type) {
+            this.group = group;
+            this.description = description;
+            this.type = type;
+        }
+    }
+
+    private final JavaDistro distro;
+    private final Pattern pattern;
+    private final Pattern[] prefixPatterns;
+    private final String[] descriptions;
+    private final Map<Field, Map<String, Object>> tokens;
+    private final ImageType defaultImageType;
+
+    private JavaInstallerGrammar(Builder builder) {
+        this.distro = builder.distro;
+        this.defaultImageType = builder.defaultImageType;
+        this.tokens = builder.tokens;
+        this.descriptions = builder.descriptions.toArray(new String[0]);
+
+        // the prefixes are only matched to explain a failure, but are compiled now so that doesn't cost much either
+        final StringBuilder regex = new StringBuilder();
+        this.prefixPatterns = new Pattern[builder.regexes.size()];
+        for (int i = 0; i < builder.regexes.size(); i++) {
+            this.prefixPatterns[i] = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+            regex.append(builder.regexes.get(i));
+        }
+        this.pattern = Pattern.compile(regex.toString(), Pattern.CASE_INSENSITIVE);
+    }
+
+    static public Builder builder(JavaDistro distro) {
+        return new Builder(distro);
+    }
+
+    public JavaDistro getDistro() {
+        return distro;
+    }
+
+    public Pattern getPattern() {
+        return pattern;
+    }
+
+    public boolean matches(String name) {
+        return name != null && this.pattern.matcher(name).matches();
+    }
+
+    public JavaInstallerName parse(String name) throws JavaInstallerParseException {
+        final JavaInstallerName installerName = this.tryParse(name);
+        if (installerName == null) {
+            throw name != null ? this.explainFailure(name) : new JavaInstallerParseException(this.distro, "", 0, "a name");
+        }
+        return installerName;
+    }
+
+    /**
+     * Parses the name, or returns null if it doesn't follow the grammar (e.g. to skip checksums and signatures listed
+     * alongside installers without paying for an exception).
+     */
+    public JavaInstallerName tryParse(String name) {
+        if (name == null) {
+            return null;
+        }
+
+        final Matcher matcher = this.pattern.matcher(name);
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        final ImageType imageType = this.token(matcher, Field.IMAGE_TYPE);
+        String flavor = this.group(matcher, Field.FLAVOR);
+        if (flavor == null && imageType == ImageType.OTHER) {
+            // e.g. a debugimage, which is its own flavor
+            flavor = this.group(matcher, Field.IMAGE_TYPE);
+        }
+
+        return new JavaInstallerName(
+            this.distro,
+            name,
+            this.group(matcher, Field.DISTRO_VERSION),
+            this.group(matcher, Field.JAVA_VERSION),
+            flavor,
+            // a flavored jdk/jre (e.g. crac, fx, full) is not a plain one
+            flavor != null ? ImageType.OTHER : imageType != null ? imageType : this.defaultImageType,
+            this.token(matcher, Field.OS),
+            this.token(matcher, Field.ARCH),
+            this.token(matcher, Field.ABI),
+            this.token(matcher, Field.INSTALLER_TYPE));
+    }
+
+    private String group(Matcher matcher, Field field) {
+        return this.tokens.containsKey(field) ? matcher.group(field.group) : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T token(Matcher matcher, Field field) {
+        final Map<String, Object> fieldTokens = this.tokens.get(field);
+        final String value = fieldTokens != null ? matcher.group(field.group) : null;
+        return value != null ? (T)fieldTokens.get(value.toLowerCase(Locale.ROOT)) : null;
+    }
+
+    private JavaInstallerParseException explainFailure(String name) {
+        // the longest prefix of the grammar the name does match is where it went wrong
+        final Matcher full = this.pattern.matcher(name);
+        if (full.lookingAt()) {
+            return new JavaInstallerParseException(this.distro, name, full.end(), "the end of the name");
+        }
+        for (int i = this.prefixPatterns.length - 1; i >= 0; i--) {
+            final Matcher matcher = this.prefixPatterns[i].matcher(name);
+            if (matcher.lookingAt()) {
+                return new JavaInstallerParseException(this.distro, name, matcher.end(), this.descriptions[i]);
+            }
+        }
+        return new JavaInstallerParseException(this.distro, name, 0, this.descriptions[0]);
+    }
+
+    static public class Builder {
+
+        private final JavaDistro distro;
+        private final List<String> regexes;
+        private final List<String> descriptions;
+        private final Map<Field, Map<String, Object>> tokens;
+        private ImageType defaultImageType;
+
+        private Builder(JavaDistro distro) {
+            this.distro = distro;
+            this.regexes = new ArrayList<>();
+            this.descriptions = new ArrayList<>();
+            this.tokens = new EnumMap<>(Field.class);
+        }
+
+        public Builder literal(String text) {
+            return this.add(Pattern.quote(text), "'" + text + "'");
+        }
+
+        /**
+         * Something in the name that is of no interest (e.g. a build flavor the vendor marks every name with).
+         */
+        public Builder skip(String regex, String description) {
+            return this.add("(?:" + regex + ")", description);
+        }
+
+        /**
+         * A free-form field (e.g. a version), captured as is.
+         */
+        public Builder capture(Field field, String regex) {
+            return this.add(this.group(field, regex, null), field.description);
+        }
+
+        /**
+         * A field that is one of the tokens (matched case-insensitively).
+         */
+        public Builder token(Field field, Map<String, ?> tokens) {
+            final String alternatives = this.alternatives(field, tokens);
+            return this.add(this.group(field, alternatives, tokens), field.description + " (one of " + String.join(", ", new TreeSet<>(tokens.keySet())) + ")");
+        }
+
+        /**
+         * A free-form field that, along with the text around it, may not be in the name at all.
+         */
+        public Builder optional(String before, Field field, String regex, String after) {
+            return this.add("(?:" + Pattern.quote(before) + this.group(field, regex, null) + Pattern.quote(after) + ")?",
+                "optional " + field.description);
+        }
+
+        /**
+         * A token field that, along with the text around it, may not be in the name at all.
+         */
+        public Builder optional(String before, Field field, Map<String, ?> tokens, String after) {
+            final String alternatives = this.alternatives(field, tokens);
+            return this.add("(?:" + Pattern.quote(before) + this.group(field, alternatives, tokens) + Pattern.quote(after) + ")?",
+                "optional " + field.description + " (one of " + String.join(", ", new TreeSet<>(tokens.keySet())) + ")");
+        }
+
+        /**
+         * The file extension of every installer type (which always ends the name).
+         */
+        public Builder installerType() {
+            final Map<String, InstallerType> installerTypes = new LinkedHashMap<>();
+            for (InstallerType installerType : InstallerType.values()) {
+                installerTypes.put(installerType.getFileExtension(), installerType);
+            }
+            return this.token(Field.INSTALLER_TYPE, installerTypes);
+        }
+
+        /**
+         * The image type of names that don't have one.
+         */
+        public Builder defaultImageType(ImageType defaultImageType) {
+            this.defaultImageType = defaultImageType;
+            return this;
+        }
+
+        public JavaInstallerGrammar build() {
+            return new JavaInstallerGrammar(this);
+        }
+
+        private Builder add(String regex, String description) {
+            this.regexes.add(regex);
+            this.descriptions.add(description);
+            return this;
+        }
+
+        private String group(Field field, String regex, Map<String, ?> tokens) {
+            if (this.tokens.containsKey(field)) {
+                throw new IllegalArgumentException("Field " + field + " is already in the grammar");
+            }
+            final Map<String, Object> lowerCaseTokens = new LinkedHashMap<>();
+            if (tokens != null) {
+                tokens.forEach((token, value) -> lowerCaseTokens.put(token.toLowerCase(Locale.ROOT), value));
+            }
+            this.tokens.put(field, lowerCaseTokens);
+            return "(?<" + field.group + ">" + regex + ")";
+        }
+
+        private String alternatives(Field field, Map<String, ?> tokens) {
+            for (Object value : tokens.values()) {
+                if (!field.type.isInstance(value)) {
+                    throw new IllegalArgumentException("Tokens of " + field + " must be " + field.type.getSimpleName() + " (not " + value + ")");
+                }
+            }
+            // longest first, so e.g. ppc64le isn't matched as ppc64 followed by junk
+            return tokens.keySet().stream()
+                .sorted(Comparator.comparingInt(String::length).reversed())
+                .map(Pattern::quote)
+                .collect(Collectors.joining("|"));
+        }
+
+    }
+
+}
@@ -0,0 +1,53 @@
+package com.fizzed.provisioning.java;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A change to the catalog: the installers added and removed by a refresh, and when.  Entries are numbered in the
+ * order they were recorded, starting at 1.
+ */
+public class JavaInstallerHistoryEntry {
+
+    private long sequence;
+    private String at;
+    private List<JavaInstaller> added = new ArrayList<>();
+    private List<JavaInstaller> removed = new ArrayList<>();
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public JavaInstallerHistoryEntry setSequence(long sequence) {
+        this.sequence = sequence;
+        return this;
+    }
+
+    public String getAt() {
+        return at;
+    }
+
+    public JavaInstallerHistoryEntry setAt(String at) {
+        this.at = at;
+        return this;
+    }
+
+    public List<JavaInstaller> getAdded() {
+        return added;
+    }
+
+    public JavaInstallerHistoryEntry setAdded(List<JavaInstaller> added) {
+        this.added = added;
+        return this;
+    }
+
+    public List<JavaInstaller> getRemoved() {
+        return removed;
+    }
+
+    public JavaInstallerHistoryEntry setRemoved(List<JavaInstaller> removed) {
+        this.removed = removed;
+        return this;
+    }
+
+}
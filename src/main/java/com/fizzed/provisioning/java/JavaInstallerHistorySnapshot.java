@@ -0,0 +1,50 @@
+package com.fizzed.provisioning.java;
+
+/**
+ * A full copy of the catalog as of a history entry (its sequence and time), with the offset in the history log just
+ * past that entry, so replaying from the snapshot starts reading the log there.
+ */
+public class JavaInstallerHistorySnapshot {
+
+    private long sequence;
+    private String at;
+    private long offset;
+    private int count;
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public JavaInstallerHistorySnapshot setSequence(long sequence) {
+        this.sequence = sequence;
+        return this;
+    }
+
+    public String getAt() {
+        return at;
+    }
+
+    public JavaInstallerHistorySnapshot setAt(String at) {
+        this.at = at;
+        return this;
+    }
+
+    public long getOffset() {
+        return offset;
+    }
+
+    public JavaInstallerHistorySnapshot setOffset(long offset) {
+        this.offset = offset;
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public JavaInstallerHistorySnapshot setCount(int count) {
+        this.count = count;
+        return this;
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+
+/**
+ * The parts of an installer file name, as parsed by its vendor's JavaInstallerGrammar.  Any part the vendor does not
+ * put in its names is null.
+ */
+public class JavaInstallerName {
+
+    private final JavaDistro distro;
+    private final String name;
+    private final String distroVersion;
+    private final String javaVersion;
+    private final String flavor;
+    private final ImageType imageType;
+    private final OperatingSystem os;
+    private final HardwareArchitecture arch;
+    private final ABI abi;
+    private final InstallerType installerType;
+
+    JavaInstallerName(JavaDistro distro, String name, String distroVersion, String javaVersion, String flavor,
+                      ImageType imageType, OperatingSystem os, HardwareArchitecture arch, ABI abi, InstallerType installerType) {
+        this.distro = distro;
+        this.name = name;
+        this.distroVersion = distroVersion;
+        this.javaVersion = javaVersion;
+        this.flavor = flavor;
+        this.imageType = imageType;
+        this.os = os;
+        this.arch = arch;
+        this.abi = abi;
+        this.installerType = installerType;
+    }
+
+    public JavaDistro getDistro() {
+        return distro;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The vendor's own version of its build (e.g. 21.44.17 of zulu21.44.17-ca-jdk21.0.8-linux_x64.tar.gz).
+     */
+    public String getDistroVersion() {
+        return distroVersion;
+    }
+
+    /**
+     * The java version exactly as the vendor writes it in the name (e.g. 21.0.8, 8u462+11 or 21.0.8_9).
+     */
+    public String getJavaVersion() {
+        return javaVersion;
+    }
+
+    /**
+     * The vendor's variant of a plain jdk/jre (e.g. crac, fx, full, lite, debugimage), or null for a plain jdk/jre.
+     */
+    public String getFlavor() {
+        return flavor;
+    }
+
+    public ImageType getImageType() {
+        return imageType;
+    }
+
+    public OperatingSystem getOs() {
+        return os;
+    }
+
+    public HardwareArchitecture getArch() {
+        return arch;
+    }
+
+    public ABI getAbi() {
+        return abi;
+    }
+
+    public InstallerType getInstallerType() {
+        return installerType;
+    }
+
+    /**
+     * A new installer with everything the name says about it (but neither a version nor a download url).
+     */
+    public JavaInstaller toInstaller() {
+        return new JavaInstaller()
+            .setDistro(this.distro)
+            .setName(this.name)
+            .setInstallerType(this.installerType)
+            .setOs(this.os)
+            .setArch(this.arch)
+            .setAbi(this.abi)
+            .setImageType(this.imageType);
+    }
+
+    @Override
+    public String toString() {
+        return this.name;
+    }
+
+}
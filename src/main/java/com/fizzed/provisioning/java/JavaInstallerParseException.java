@@ -0,0 +1,42 @@
+package com.fizzed.provisioning.java;
+
+/**
+ * Thrown when the file name of an installer doesn't follow its vendor's naming grammar, with where in the name it went
+ * wrong and what was expected there.
+ */
+public class JavaInstallerParseException extends Exception {
+
+    private final JavaDistro distro;
+    private final String name;
+    private final int index;
+    private final String expected;
+
+    public JavaInstallerParseException(JavaDistro distro, String name, int index, String expected) {
+        super("Unable to parse " + distro.getName() + " installer name " + name + " at index " + index
+            + " (near '" + name.substring(index) + "'): expected " + expected);
+        this.distro = distro;
+        this.name = name;
+        this.index = index;
+        this.expected = expected;
+    }
+
+    public JavaDistro getDistro() {
+        return distro;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The index of the first character of the name that didn't fit the grammar.
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String getExpected() {
+        return expected;
+    }
+
+}
@@ -0,0 +1,137 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selects the latest installers of every target in a single pass: installers are grouped by their target as they are
+ * seen, and each group only keeps the best few (by {@link JavaInstaller#COMPARATOR}, so newest first), so the cost is
+ * linear in the number of installers no matter how many targets there could be.
+ *
+ * Installers without an os, arch, image type or installer type have no target and are never selected, and a missing abi
+ * is the default one.
+ */
+public class JavaInstallerSelector {
+
+    private int limit;
+    private boolean byDistro;
+    private boolean byJavaMajorVersion;
+
+    public JavaInstallerSelector() {
+        this.limit = 1;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * The most installers kept per target (default 1, the latest).
+     */
+    public JavaInstallerSelector setLimit(int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Limit must be >= 1");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public boolean isByDistro() {
+        return byDistro;
+    }
+
+    /**
+     * Whether the distro is part of the target (by default, the latest installer of any distro is selected).
+     */
+    public JavaInstallerSelector setByDistro(boolean byDistro) {
+        this.byDistro = byDistro;
+        return this;
+    }
+
+    public boolean isByJavaMajorVersion() {
+        return byJavaMajorVersion;
+    }
+
+    /**
+     * Whether the major java version is part of the target (by default, the latest installer of any version is
+     * selected).  Installers without a version have no target then.
+     */
+    public JavaInstallerSelector setByJavaMajorVersion(boolean byJavaMajorVersion) {
+        this.byJavaMajorVersion = byJavaMajorVersion;
+        return this;
+    }
+
+    /**
+     * The target of an installer, or null if it doesn't have one.
+     */
+    public JavaInstallerTarget targetOf(JavaInstaller javaInstaller) {
+        if (javaInstaller.getOs() == null || javaInstaller.getArch() == null || javaInstaller.getImageType() == null
+                || javaInstaller.getInstallerType() == null || (this.byJavaMajorVersion && javaInstaller.getVersion() == null)) {
+            return null;
+        }
+        return new JavaInstallerTarget(
+            this.byDistro ? javaInstaller.getDistro() : null,
+            this.byJavaMajorVersion ? javaInstaller.getVersion().getMajor() : null,
+            javaInstaller.getOs(),
+            javaInstaller.getArch(),
+            javaInstaller.getAbi() != null ? javaInstaller.getAbi() : ABI.DEFAULT,
+            javaInstaller.getImageType(),
+            javaInstaller.getInstallerType());
+    }
+
+    /**
+     * The selected installers of every target (best first), in the order each target was first seen.
+     */
+    public Map<JavaInstallerTarget, List<JavaInstaller>> selectByTarget(Collection<JavaInstaller> javaInstallers) {
+        final Map<JavaInstallerTarget, List<JavaInstaller>> selected = new LinkedHashMap<>();
+        for (JavaInstaller javaInstaller : javaInstallers) {
+            final JavaInstallerTarget target = this.targetOf(javaInstaller);
+            if (target != null) {
+                this.offer(selected.computeIfAbsent(target, k -> new ArrayList<>(this.limit)), javaInstaller);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * The latest installer of every target (e.g. to look up many targets one at a time).
+     */
+    public Map<JavaInstallerTarget, JavaInstaller> selectLatestByTarget(Collection<JavaInstaller> javaInstallers) {
+        final Map<JavaInstallerTarget, JavaInstaller> selected = new HashMap<>();
+        this.selectByTarget(javaInstallers).forEach((target, best) -> selected.put(target, best.get(0)));
+        return selected;
+    }
+
+    /**
+     * The selected installers of every target, sorted by {@link JavaInstaller#COMPARATOR}.
+     */
+    public List<JavaInstaller> select(Collection<JavaInstaller> javaInstallers) {
+        final List<JavaInstaller> selected = new ArrayList<>();
+        for (List<JavaInstaller> best : this.selectByTarget(javaInstallers).values()) {
+            selected.addAll(best);
+        }
+        selected.sort(JavaInstaller.COMPARATOR);
+        return selected;
+    }
+
+    private void offer(List<JavaInstaller> best, JavaInstaller javaInstaller) {
+        // the limit is small, so an insertion into the sorted list beats a heap
+        int i = best.size();
+        while (i > 0 && JavaInstaller.COMPARATOR.compare(javaInstaller, best.get(i - 1)) < 0) {
+            i--;
+        }
+        if (i < this.limit) {
+            if (best.size() == this.limit) {
+                best.remove(this.limit - 1);
+            }
+            best.add(i, javaInstaller);
+        }
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.fizzed.provisioning.java;
+
+import java.util.Objects;
+
+/**
+ * A unit of work when building the java installer catalog: all the installers of a single distro for a single major
+ * java version (e.g. zulu 21).
+ */
+public class JavaInstallerShard {
+
+    private final JavaDistro distro;
+    private final int javaMajorVersion;
+
+    public JavaInstallerShard(JavaDistro distro, int javaMajorVersion) {
+        Objects.requireNonNull(distro, "distro was null");
+        this.distro = distro;
+        this.javaMajorVersion = javaMajorVersion;
+    }
+
+    public JavaDistro getDistro() {
+        return distro;
+    }
+
+    public int getJavaMajorVersion() {
+        return javaMajorVersion;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (!(o instanceof JavaInstallerShard)) return false;
+
+        JavaInstallerShard shard = (JavaInstallerShard) o;
+        return javaMajorVersion == shard.javaMajorVersion && distro == shard.distro;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = distro.hashCode();
+        result = 31 * result + javaMajorVersion;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return distro.getName() + "-" + javaMajorVersion;
+    }
+
+}
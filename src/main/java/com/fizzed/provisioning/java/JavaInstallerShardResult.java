@@ -0,0 +1,44 @@
+package com.fizzed.provisioning.java;
+
+import java.util.List;
+
+/**
+ * The outcome of fetching a single shard: either its installers or the error that prevented fetching them.
+ */
+public class JavaInstallerShardResult {
+
+    private final JavaInstallerShard shard;
+    private final List<JavaInstaller> javaInstallers;
+    private final Throwable error;
+
+    private JavaInstallerShardResult(JavaInstallerShard shard, List<JavaInstaller> javaInstallers, Throwable error) {
+        this.shard = shard;
+        this.javaInstallers = javaInstallers;
+        this.error = error;
+    }
+
+    static public JavaInstallerShardResult success(JavaInstallerShard shard, List<JavaInstaller> javaInstallers) {
+        return new JavaInstallerShardResult(shard, javaInstallers, null);
+    }
+
+    static public JavaInstallerShardResult failure(JavaInstallerShard shard, Throwable error) {
+        return new JavaInstallerShardResult(shard, null, error);
+    }
+
+    public JavaInstallerShard getShard() {
+        return shard;
+    }
+
+    public List<JavaInstaller> getJavaInstallers() {
+        return javaInstallers;
+    }
+
+    public Throwable getError() {
+        return error;
+    }
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+}
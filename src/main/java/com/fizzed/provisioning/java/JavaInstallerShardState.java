@@ -0,0 +1,77 @@
+package com.fizzed.provisioning.java;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * What we know about the last time a shard was fetched: a hash of its content, plus when it was last fetched and when
+ * its content last actually changed.
+ */
+public class JavaInstallerShardState {
+
+    private JavaDistro distro;
+    private int javaMajorVersion;
+    private String hash;
+    private int count;
+    private String fetchedAt;
+    private String changedAt;
+
+    @JsonIgnore
+    public JavaInstallerShard getShard() {
+        return new JavaInstallerShard(this.distro, this.javaMajorVersion);
+    }
+
+    public JavaDistro getDistro() {
+        return distro;
+    }
+
+    public JavaInstallerShardState setDistro(JavaDistro distro) {
+        this.distro = distro;
+        return this;
+    }
+
+    public int getJavaMajorVersion() {
+        return javaMajorVersion;
+    }
+
+    public JavaInstallerShardState setJavaMajorVersion(int javaMajorVersion) {
+        this.javaMajorVersion = javaMajorVersion;
+        return this;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public JavaInstallerShardState setHash(String hash) {
+        this.hash = hash;
+        return this;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public JavaInstallerShardState setCount(int count) {
+        this.count = count;
+        return this;
+    }
+
+    public String getFetchedAt() {
+        return fetchedAt;
+    }
+
+    public JavaInstallerShardState setFetchedAt(String fetchedAt) {
+        this.fetchedAt = fetchedAt;
+        return this;
+    }
+
+    public String getChangedAt() {
+        return changedAt;
+    }
+
+    public JavaInstallerShardState setChangedAt(String changedAt) {
+        this.changedAt = changedAt;
+        return this;
+    }
+
+}
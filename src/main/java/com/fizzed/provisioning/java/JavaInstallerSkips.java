@@ -0,0 +1,125 @@
+package com.fizzed.provisioning.java;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A tally of the releases skipped while converting them one at a time (see {@link JavaInstallerConverter#skipping}),
+ * grouped by what the vendor's grammar expected, with a few of the names as examples.  A vendor changing how it names
+ * its installers then shows up as a warning with a count, rather than a catalog that quietly shrinks.
+ */
+public class JavaInstallerSkips {
+    static private final Logger log = LoggerFactory.getLogger(JavaInstallerSkips.class);
+
+    static private final int MAX_EXAMPLES = 3;
+
+    private final Map<JavaDistro, Map<String, Reason>> reasonsByDistro;
+    private int count;
+
+    public JavaInstallerSkips() {
+        this.reasonsByDistro = new LinkedHashMap<>();
+    }
+
+    public synchronized void add(JavaInstallerParseException e) {
+        this.reasonsByDistro.computeIfAbsent(e.getDistro(), k -> new LinkedHashMap<>())
+            .computeIfAbsent(e.getExpected(), Reason::new)
+            .add(e.getName());
+        this.count++;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    /**
+     * The number of releases skipped of each distro.
+     */
+    public synchronized Map<JavaDistro, Integer> getCountsByDistro() {
+        final Map<JavaDistro, Integer> counts = new LinkedHashMap<>();
+        this.reasonsByDistro.forEach((distro, reasons) ->
+            counts.put(distro, reasons.values().stream().mapToInt(Reason::getCount).sum()));
+        return counts;
+    }
+
+    /**
+     * The reasons releases of a distro were skipped, in the order first seen.
+     */
+    public synchronized List<Reason> getReasons(JavaDistro distro) {
+        final Map<String, Reason> reasons = this.reasonsByDistro.get(distro);
+        if (reasons == null) {
+            return Collections.emptyList();
+        }
+        final List<Reason> copies = new ArrayList<>();
+        for (Reason reason : reasons.values()) {
+            copies.add(reason.copy());
+        }
+        return copies;
+    }
+
+    /**
+     * Warns with a summary per distro, if anything was skipped.
+     */
+    public void logSummary() {
+        for (Map.Entry<JavaDistro, Integer> entry : this.getCountsByDistro().entrySet()) {
+            log.warn("Skipped {} {} releases whose names didn't parse: {}", entry.getValue(), entry.getKey().getName(),
+                this.getReasons(entry.getKey()));
+        }
+    }
+
+    static public class Reason {
+
+        private final String expected;
+        private final List<String> examples;
+        private int count;
+
+        Reason(String expected) {
+            this.expected = expected;
+            this.examples = new ArrayList<>();
+        }
+
+        void add(String name) {
+            if (this.examples.size() < MAX_EXAMPLES) {
+                this.examples.add(name);
+            }
+            this.count++;
+        }
+
+        Reason copy() {
+            final Reason copy = new Reason(this.expected);
+            copy.examples.addAll(this.examples);
+            copy.count = this.count;
+            return copy;
+        }
+
+        /**
+         * What the vendor's grammar expected where the names went wrong.
+         */
+        public String getExpected() {
+            return expected;
+        }
+
+        /**
+         * The first few names skipped for this reason.
+         */
+        public List<String> getExamples() {
+            return Collections.unmodifiableList(this.examples);
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        @Override
+        public String toString() {
+            return this.count + " expected " + this.expected + " (e.g. " + String.join(", ", this.examples) + ")";
+        }
+
+    }
+
+}
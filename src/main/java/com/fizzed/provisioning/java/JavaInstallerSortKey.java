@@ -0,0 +1,124 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * The precomputed, immutable key installers are ordered by: distro, then version (newest first, unknown last), then os,
+ * arch, abi, image type and installer type, then name.  Every enum is reduced up front to its rank in the order it
+ * sorts in (os, arch, image type and installer type by lower-cased name, abi by declaration, null first), and the ranks
+ * and version components are packed into longs, so comparing two keys is a few primitive comparisons.
+ */
+public final class JavaInstallerSortKey implements Comparable<JavaInstallerSortKey> {
+
+    static private final int RANK_BITS = 8;
+
+    static private final int[] OS_RANKS = lowerCaseRanks(OperatingSystem.values());
+    static private final int[] ARCH_RANKS = lowerCaseRanks(HardwareArchitecture.values());
+    static private final int[] IMAGE_TYPE_RANKS = lowerCaseRanks(ImageType.values());
+    static private final int[] INSTALLER_TYPE_RANKS = lowerCaseRanks(InstallerType.values());
+
+    private final int distro;
+    private final long packedVersion;
+    private final JavaVersion version;
+    private final long packedTarget;
+    private final String name;
+
+    private JavaInstallerSortKey(int distro, long packedVersion, JavaVersion version, long packedTarget, String name) {
+        this.distro = distro;
+        this.packedVersion = packedVersion;
+        this.version = version;
+        this.packedTarget = packedTarget;
+        this.name = name;
+    }
+
+    static public JavaInstallerSortKey of(JavaInstaller javaInstaller) {
+        final JavaVersion version = javaInstaller.getVersion();
+
+        long packedTarget = rank(OS_RANKS, javaInstaller.getOs());
+        packedTarget = (packedTarget << RANK_BITS) | rank(ARCH_RANKS, javaInstaller.getArch());
+        packedTarget = (packedTarget << RANK_BITS) | (javaInstaller.getAbi() != null ? javaInstaller.getAbi().ordinal() + 1 : 0);
+        packedTarget = (packedTarget << RANK_BITS) | rank(IMAGE_TYPE_RANKS, javaInstaller.getImageType());
+        packedTarget = (packedTarget << RANK_BITS) | rank(INSTALLER_TYPE_RANKS, javaInstaller.getInstallerType());
+
+        return new JavaInstallerSortKey(
+            javaInstaller.getDistro() != null ? javaInstaller.getDistro().ordinal() + 1 : 0,
+            PackedJavaVersion.pack(version),
+            version,
+            packedTarget,
+            javaInstaller.getName());
+    }
+
+    @Override
+    public int compareTo(JavaInstallerSortKey other) {
+        int c = Integer.compare(this.distro, other.distro);
+        if (c == 0) {
+            // newest first
+            c = this.compareVersionTo(other);
+            if (c == 0) {
+                c = Long.compare(this.packedTarget, other.packedTarget);
+                if (c == 0) {
+                    c = compareNullsFirst(this.name, other.name);
+                }
+            }
+        }
+        return c;
+    }
+
+    private int compareVersionTo(JavaInstallerSortKey other) {
+        if (this.packedVersion == PackedJavaVersion.NONE || other.packedVersion == PackedJavaVersion.NONE) {
+            // an unknown version is last
+            return Boolean.compare(this.packedVersion == PackedJavaVersion.NONE, other.packedVersion == PackedJavaVersion.NONE);
+        }
+        if (this.packedVersion >= 0 && other.packedVersion >= 0) {
+            final int c = Long.compare(other.packedVersion, this.packedVersion);
+            if (c != 0) {
+                return c;
+            }
+        }
+        // equal (or too big to pack) components, so whatever else JavaVersion compares decides
+        return other.version.compareTo(this.version);
+    }
+
+    static private int rank(int[] ranks, Enum<?> value) {
+        return value != null ? ranks[value.ordinal()] : 0;
+    }
+
+    /**
+     * The rank (from 1, leaving 0 for null) of each value by ordinal, in the order of their lower-cased names.
+     */
+    static private int[] lowerCaseRanks(Enum<?>[] values) {
+        if (values.length >= (1 << RANK_BITS)) {
+            throw new IllegalStateException("Too many values of " + values.getClass().getComponentType().getName() + " to rank");
+        }
+        final Enum<?>[] sorted = Arrays.copyOf(values, values.length);
+        Arrays.sort(sorted, Comparator.comparing(v -> v.toString().toLowerCase(Locale.ROOT)));
+        final int[] ranks = new int[values.length];
+        int rank = 0;
+        String previous = null;
+        for (Enum<?> value : sorted) {
+            final String lowerCased = value.toString().toLowerCase(Locale.ROOT);
+            // values with the same lower-cased name are equal
+            if (!lowerCased.equals(previous)) {
+                rank++;
+                previous = lowerCased;
+            }
+            ranks[value.ordinal()] = rank;
+        }
+        return ranks;
+    }
+
+    static private int compareNullsFirst(String s1, String s2) {
+        if (s1 == null || s2 == null) {
+            return s1 == s2 ? 0 : s1 == null ? -1 : 1;
+        }
+        return s1.compareTo(s2);
+    }
+
+}
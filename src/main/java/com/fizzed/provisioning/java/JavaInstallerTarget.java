@@ -0,0 +1,99 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+
+import java.util.Objects;
+
+/**
+ * What an installer is for: an os, arch, abi, image type and installer type, plus (optionally, they're null when not
+ * of interest) a distro and major java version.  Installers for the same target are interchangeable, other than their
+ * version.
+ */
+public class JavaInstallerTarget {
+
+    private final JavaDistro distro;
+    private final Integer javaMajorVersion;
+    private final OperatingSystem os;
+    private final HardwareArchitecture arch;
+    private final ABI abi;
+    private final ImageType imageType;
+    private final InstallerType installerType;
+
+    public JavaInstallerTarget(JavaDistro distro, Integer javaMajorVersion, OperatingSystem os, HardwareArchitecture arch,
+                               ABI abi, ImageType imageType, InstallerType installerType) {
+        this.distro = distro;
+        this.javaMajorVersion = javaMajorVersion;
+        this.os = os;
+        this.arch = arch;
+        this.abi = abi;
+        this.imageType = imageType;
+        this.installerType = installerType;
+    }
+
+    public JavaInstallerTarget(OperatingSystem os, HardwareArchitecture arch, ABI abi, ImageType imageType, InstallerType installerType) {
+        this(null, null, os, arch, abi, imageType, installerType);
+    }
+
+    public JavaDistro getDistro() {
+        return distro;
+    }
+
+    public Integer getJavaMajorVersion() {
+        return javaMajorVersion;
+    }
+
+    public OperatingSystem getOs() {
+        return os;
+    }
+
+    public HardwareArchitecture getArch() {
+        return arch;
+    }
+
+    public ABI getAbi() {
+        return abi;
+    }
+
+    public ImageType getImageType() {
+        return imageType;
+    }
+
+    public InstallerType getInstallerType() {
+        return installerType;
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (!(o instanceof JavaInstallerTarget)) return false;
+
+        JavaInstallerTarget target = (JavaInstallerTarget) o;
+        return distro == target.distro && Objects.equals(javaMajorVersion, target.javaMajorVersion) && os == target.os && arch == target.arch && abi == target.abi && imageType == target.imageType && installerType == target.installerType;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hashCode(distro);
+        result = 31 * result + Objects.hashCode(javaMajorVersion);
+        result = 31 * result + Objects.hashCode(os);
+        result = 31 * result + Objects.hashCode(arch);
+        result = 31 * result + Objects.hashCode(abi);
+        result = 31 * result + Objects.hashCode(imageType);
+        result = 31 * result + Objects.hashCode(installerType);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        // a field that's null (e.g. in a query) is any value
+        return toString(this.distro) + "-" + (this.javaMajorVersion != null ? this.javaMajorVersion.toString() : "*") + "-"
+            + toString(this.os) + "-" + toString(this.arch) + "-" + toString(this.abi) + "-" + toString(this.imageType) + "-"
+            + toString(this.installerType);
+    }
+
+    static private String toString(Enum<?> value) {
+        return value != null ? value.toString().toLowerCase() : "*";
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.provisioning.http.HttpTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * Fans a query out across java release providers, one per distro.  Every provider is queried at the same time, so
+ * adding a distro adds no serial latency.
+ */
+public class JavaReleaseEngine {
+    static private final Logger log = LoggerFactory.getLogger(JavaReleaseEngine.class);
+
+    private final Map<JavaDistro, JavaReleaseProvider> providers;
+
+    public JavaReleaseEngine(Collection<? extends JavaReleaseProvider> providers) {
+        this.providers = new EnumMap<>(JavaDistro.class);
+        for (JavaReleaseProvider provider : providers) {
+            final JavaReleaseProvider existing = this.providers.put(provider.getDistro(), provider);
+            if (existing != null) {
+                throw new IllegalArgumentException("Multiple providers for distro " + provider.getDistro()
+                    + " (" + existing.getClass().getName() + " and " + provider.getClass().getName() + ")");
+            }
+        }
+    }
+
+    /**
+     * An engine with every provider registered via ServiceLoader, each sending its requests via the transport.
+     */
+    static public JavaReleaseEngine load(HttpTransport transport) {
+        final List<JavaReleaseProvider> providers = new ArrayList<>();
+        for (JavaReleaseProvider provider : ServiceLoader.load(JavaReleaseProvider.class)) {
+            providers.add(provider.withTransport(transport));
+        }
+        final JavaReleaseEngine engine = new JavaReleaseEngine(providers);
+        log.debug("Loaded java release providers for {}", engine.getDistros());
+        return engine;
+    }
+
+    public Set<JavaDistro> getDistros() {
+        return this.providers.keySet();
+    }
+
+    public Collection<JavaReleaseProvider> getProviders() {
+        return this.providers.values();
+    }
+
+    public JavaReleaseProvider getProvider(JavaDistro distro) {
+        final JavaReleaseProvider provider = this.providers.get(distro);
+        if (provider == null) {
+            throw new IllegalArgumentException("No java release provider for distro " + distro + " (only " + this.providers.keySet() + ")");
+        }
+        return provider;
+    }
+
+    public CompletableFuture<List<JavaInstaller>> getInstallers(JavaDistro distro, JavaReleaseQuery query) {
+        return this.getProvider(distro).getInstallers(query);
+    }
+
+    public Stream<JavaInstaller> streamInstallers(JavaDistro distro, JavaReleaseQuery query) {
+        return this.getProvider(distro).streamInstallers(query);
+    }
+
+    /**
+     * Queries every provider at once, completing when they all have (or exceptionally as soon as any one fails).
+     */
+    public CompletableFuture<Map<JavaDistro, List<JavaInstaller>>> getInstallers(JavaReleaseQuery query) {
+        final Map<JavaDistro, CompletableFuture<List<JavaInstaller>>> futures = new EnumMap<>(JavaDistro.class);
+        for (JavaReleaseProvider provider : this.providers.values()) {
+            futures.put(provider.getDistro(), provider.getInstallers(query));
+        }
+
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture[0]))
+            .thenApply(v -> {
+                final Map<JavaDistro, List<JavaInstaller>> results = new EnumMap<>(JavaDistro.class);
+                futures.forEach((distro, future) -> results.put(distro, future.join()));
+                return results;
+            });
+    }
+
+}
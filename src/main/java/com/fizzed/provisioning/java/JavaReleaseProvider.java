@@ -0,0 +1,56 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.provisioning.http.HttpTransport;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+
+/**
+ * A source of the java installers of one distro, discoverable via ServiceLoader (see
+ * META-INF/services/com.fizzed.provisioning.java.JavaReleaseProvider).  Implementations must have a public no-arg
+ * constructor (using the default transport) for ServiceLoader to instantiate them.
+ */
+public interface JavaReleaseProvider {
+
+    JavaDistro getDistro();
+
+    /**
+     * A provider just like this one, but that sends its requests via the given transport.
+     */
+    JavaReleaseProvider withTransport(HttpTransport transport);
+
+    /**
+     * Fetches the installers matching the query without blocking the caller.  Installers the provider could not make
+     * sense of are skipped, while a failure to fetch fails the future.
+     */
+    CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query);
+
+    /**
+     * Lazily streams the installers matching the query on the calling thread, converting each one as its release comes
+     * off the wire, so a caller that only needs the first match doesn't wait on (or download) the rest.  Close the
+     * stream (e.g. try-with-resources) to release its connection if it isn't consumed to the end.  A failure to fetch
+     * is thrown unchecked as the stream is consumed.
+     *
+     * By default, this waits on getInstallers and streams its result.
+     */
+    default Stream<JavaInstaller> streamInstallers(JavaReleaseQuery query) {
+        return Stream.of(query)
+            .flatMap(q -> this.getInstallers(q).join().stream());
+    }
+
+    /**
+     * For implementations streaming releases: the installers of the releases matching the query, each converted as it
+     * comes (skipping any that can't be, see {@link JavaInstallerConverter#skipping}, with a warning of how many once the
+     * stream is closed) and checked against the query, since no vendor can filter on everything a query can.
+     */
+    static <R> Stream<JavaInstaller> matchingInstallers(JavaReleaseQuery query, Stream<R> releases,
+                                                        JavaInstallerConverter.ToInstaller<? super R> toInstaller) {
+        final JavaInstallerSkips skips = new JavaInstallerSkips();
+        return releases
+            .flatMap(JavaInstallerConverter.skipping(toInstaller, skips))
+            .filter(query::matches)
+            .onClose(skips::logSummary);
+    }
+
+}
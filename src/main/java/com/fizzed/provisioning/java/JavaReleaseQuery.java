@@ -0,0 +1,160 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+
+import java.util.Objects;
+
+import static com.fizzed.crux.util.Maybe.maybe;
+
+/**
+ * What releases to ask a vendor for.  Clients translate as much of the query as they can into the vendor's own query
+ * parameters, so it narrows what comes over the wire, but not every vendor can filter on every field, so installers
+ * should still be checked with {@link #matches(JavaInstaller)}.  Null fields match anything.
+ */
+public class JavaReleaseQuery {
+
+    private final int javaMajorVersion;
+    private OperatingSystem os;
+    private HardwareArchitecture arch;
+    private ABI abi;
+    private ImageType imageType;
+    private InstallerType installerType;
+    private boolean latestOnly;
+    private Integer pageSize;
+
+    public JavaReleaseQuery(int javaMajorVersion) {
+        this.javaMajorVersion = javaMajorVersion;
+    }
+
+    public int getJavaMajorVersion() {
+        return javaMajorVersion;
+    }
+
+    public OperatingSystem getOs() {
+        return os;
+    }
+
+    public JavaReleaseQuery setOs(OperatingSystem os) {
+        this.os = os;
+        return this;
+    }
+
+    public HardwareArchitecture getArch() {
+        return arch;
+    }
+
+    public JavaReleaseQuery setArch(HardwareArchitecture arch) {
+        this.arch = arch;
+        return this;
+    }
+
+    public ABI getAbi() {
+        return abi;
+    }
+
+    public JavaReleaseQuery setAbi(ABI abi) {
+        this.abi = abi;
+        return this;
+    }
+
+    public ImageType getImageType() {
+        return imageType;
+    }
+
+    public JavaReleaseQuery setImageType(ImageType imageType) {
+        this.imageType = imageType;
+        return this;
+    }
+
+    public InstallerType getInstallerType() {
+        return installerType;
+    }
+
+    public JavaReleaseQuery setInstallerType(InstallerType installerType) {
+        this.installerType = installerType;
+        return this;
+    }
+
+    public boolean isLatestOnly() {
+        return latestOnly;
+    }
+
+    public JavaReleaseQuery setLatestOnly(boolean latestOnly) {
+        this.latestOnly = latestOnly;
+        return this;
+    }
+
+    public Integer getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * The number of rows to request per page from vendors that paginate (null uses each vendor's own maximum).
+     */
+    public JavaReleaseQuery setPageSize(Integer pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    /**
+     * A copy of the query, e.g. to key a map on a query that the caller may go on to modify.
+     */
+    public JavaReleaseQuery copy() {
+        return new JavaReleaseQuery(this.javaMajorVersion)
+            .setOs(this.os)
+            .setArch(this.arch)
+            .setAbi(this.abi)
+            .setImageType(this.imageType)
+            .setInstallerType(this.installerType)
+            .setLatestOnly(this.latestOnly)
+            .setPageSize(this.pageSize);
+    }
+
+    public boolean matches(JavaInstaller javaInstaller) {
+        return javaInstaller.getVersion() != null
+            && javaInstaller.getVersion().getMajor() == this.javaMajorVersion
+            && (this.os == null || this.os == javaInstaller.getOs())
+            && (this.arch == null || this.arch == javaInstaller.getArch())
+            && (this.abi == null || this.abi == maybe(javaInstaller.getAbi()).orElse(ABI.DEFAULT))
+            && (this.imageType == null || this.imageType == javaInstaller.getImageType())
+            && (this.installerType == null || this.installerType == javaInstaller.getInstallerType());
+    }
+
+    @Override
+    public final boolean equals(Object o) {
+        if (!(o instanceof JavaReleaseQuery)) return false;
+
+        JavaReleaseQuery query = (JavaReleaseQuery) o;
+        return javaMajorVersion == query.javaMajorVersion && latestOnly == query.latestOnly && os == query.os && arch == query.arch && abi == query.abi && imageType == query.imageType && installerType == query.installerType && Objects.equals(pageSize, query.pageSize);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = javaMajorVersion;
+        result = 31 * result + Objects.hashCode(os);
+        result = 31 * result + Objects.hashCode(arch);
+        result = 31 * result + Objects.hashCode(abi);
+        result = 31 * result + Objects.hashCode(imageType);
+        result = 31 * result + Objects.hashCode(installerType);
+        result = 31 * result + Boolean.hashCode(latestOnly);
+        result = 31 * result + Objects.hashCode(pageSize);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "JavaReleaseQuery{" +
+            "javaMajorVersion=" + javaMajorVersion +
+            ", os=" + os +
+            ", arch=" + arch +
+            ", abi=" + abi +
+            ", imageType=" + imageType +
+            ", installerType=" + installerType +
+            ", latestOnly=" + latestOnly +
+            ", pageSize=" + pageSize +
+            '}';
+    }
+
+}
@@ -0,0 +1,214 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.JavaVersion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A range of java versions, parsed from a compact syntax of comma separated constraints that must all match:
+ *   21           any 21 (same as 21.x or =21)
+ *   21.0.x       any 21.0
+ *   =11.0.25+9   exactly 11.0.25+9
+ *   >=21.0.5     21.0.5 or newer (also >, <= and <)
+ *   !17.0.13     anything but 17.0.13
+ *   *            any version (as is an empty range)
+ *
+ * A version given with fewer components is a prefix of every version that starts with it, so ">21.0.5" is newer than
+ * any build of 21.0.5 and "<=21.0.5" includes all of them.  Internally the range is an (inclusive) interval of packed
+ * versions (see {@link PackedJavaVersion}) minus the intervals excluded, so it can bound a sorted map of them.
+ */
+public class JavaVersionRange {
+
+    static public final JavaVersionRange ANY = new JavaVersionRange("*", 0L, Long.MAX_VALUE, Collections.emptyList());
+
+    private final String source;
+    private final long lower;
+    private final long upper;
+    private final List<long[]> exclusions;
+
+    private JavaVersionRange(String source, long lower, long upper, List<long[]> exclusions) {
+        this.source = source;
+        this.lower = lower;
+        this.upper = upper;
+        this.exclusions = exclusions;
+    }
+
+    static public JavaVersionRange major(int major) {
+        return parse(Integer.toString(major));
+    }
+
+    static public JavaVersionRange parse(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Version range was null");
+        }
+
+        final String source = value.trim();
+        long lower = 0L;
+        long upper = Long.MAX_VALUE;
+        final List<long[]> exclusions = new ArrayList<>();
+
+        for (String part : source.split(",", -1)) {
+            final String constraint = part.trim();
+            if (constraint.isEmpty() && source.contains(",")) {
+                throw new IllegalArgumentException("Version range '" + value + "' has an empty constraint");
+            }
+            if (constraint.isEmpty() || constraint.equals("*")) {
+                continue;
+            }
+
+            final String operator;
+            if (constraint.startsWith(">=") || constraint.startsWith("<=")) {
+                operator = constraint.substring(0, 2);
+            } else if (constraint.startsWith(">") || constraint.startsWith("<") || constraint.startsWith("=") || constraint.startsWith("!")) {
+                operator = constraint.substring(0, 1);
+            } else {
+                operator = "";
+            }
+
+            final long[] prefix = parsePrefix(value, constraint.substring(operator.length()).trim());
+            final long first = prefix[0];
+            final long last = prefix[1];
+
+            switch (operator) {
+                case "":
+                case "=":
+                    lower = Math.max(lower, first);
+                    upper = Math.min(upper, last);
+                    break;
+                case ">=":
+                    lower = Math.max(lower, first);
+                    break;
+                case ">":
+                    lower = Math.max(lower, last + 1);
+                    break;
+                case "<=":
+                    upper = Math.min(upper, last);
+                    break;
+                case "<":
+                    upper = Math.min(upper, first - 1);
+                    break;
+                case "!":
+                    exclusions.add(prefix);
+                    break;
+            }
+        }
+
+        return new JavaVersionRange(source.isEmpty() ? "*" : source, lower, upper, Collections.unmodifiableList(exclusions));
+    }
+
+    // the first and last packed versions starting with the version (e.g. 21.0.x is 21.0.0+0 to 21.0.65535+65535)
+    static private long[] parsePrefix(String value, String version) {
+        if (version.isEmpty()) {
+            throw new IllegalArgumentException("Version range '" + value + "' has a constraint without a version");
+        }
+
+        final int plus = version.indexOf('+');
+        final String[] components = (plus >= 0 ? version.substring(0, plus) : version).split("\\.", -1);
+        if (components.length > 3) {
+            throw new IllegalArgumentException("Version range '" + value + "' has a version '" + version + "' with too many components");
+        }
+
+        final int[] values = new int[4];
+        int count = 0;
+        for (int i = 0; i < components.length; i++) {
+            if (components[i].equals("x") || components[i].equals("*")) {
+                if (i == 0 || i != components.length - 1 || plus >= 0) {
+                    throw new IllegalArgumentException("Version range '" + value + "' has a version '" + version + "' with a wildcard that isn't last");
+                }
+                break;
+            }
+            values[i] = parseComponent(value, version, components[i]);
+            count++;
+        }
+
+        if (plus >= 0) {
+            // a build is always of the full version (e.g. 17+35 is 17.0.0+35)
+            values[3] = parseComponent(value, version, version.substring(plus + 1));
+            count = 4;
+        }
+
+        final long first = PackedJavaVersion.pack(values[0], values[1], values[2], values[3]);
+        if (!PackedJavaVersion.isPacked(first) || values[0] == PackedJavaVersion.major(Long.MAX_VALUE)) {
+            throw new IllegalArgumentException("Version range '" + value + "' has a version '" + version + "' out of range");
+        }
+        // the last is the first with every component not given at its maximum
+        final long last = PackedJavaVersion.pack(values[0],
+            count > 1 ? values[1] : PackedJavaVersion.MAX_COMPONENT,
+            count > 2 ? values[2] : PackedJavaVersion.MAX_COMPONENT,
+            count > 3 ? values[3] : PackedJavaVersion.MAX_COMPONENT);
+        return new long[] { first, last };
+    }
+
+    static private int parseComponent(String value, String version, String component) {
+        try {
+            final int number = Integer.parseInt(component);
+            if (number >= 0) {
+                return number;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to fail below
+        }
+        throw new IllegalArgumentException("Version range '" + value + "' has an invalid version '" + version + "'");
+    }
+
+    /**
+     * Both this range and the other (e.g. a major version and a policy for it).
+     */
+    public JavaVersionRange and(JavaVersionRange other) {
+        final List<long[]> exclusions = new ArrayList<>(this.exclusions);
+        exclusions.addAll(other.exclusions);
+        // any version adds nothing to the other's constraints
+        final String source = this.source.equals("*") ? other.source
+            : other.source.equals("*") ? this.source : this.source + "," + other.source;
+        return new JavaVersionRange(source, Math.max(this.lower, other.lower),
+            Math.min(this.upper, other.upper), Collections.unmodifiableList(exclusions));
+    }
+
+    /**
+     * The lowest packed version in the range (unless excluded).
+     */
+    public long getLower() {
+        return lower;
+    }
+
+    /**
+     * The highest packed version in the range (unless excluded).
+     */
+    public long getUpper() {
+        return upper;
+    }
+
+    public boolean isEmpty() {
+        return this.lower > this.upper;
+    }
+
+    public boolean contains(JavaVersion version) {
+        return version != null && this.contains(PackedJavaVersion.pack(version));
+    }
+
+    public boolean contains(long packed) {
+        return PackedJavaVersion.isPacked(packed) && packed >= this.lower && packed <= this.upper && this.excludedFrom(packed) < 0;
+    }
+
+    /**
+     * The lowest packed version of an exclusion containing the packed version, or -1 if none do, so a search downwards
+     * can skip past the whole exclusion.
+     */
+    public long excludedFrom(long packed) {
+        long from = -1L;
+        for (long[] exclusion : this.exclusions) {
+            if (packed >= exclusion[0] && packed <= exclusion[1] && (from < 0 || exclusion[0] < from)) {
+                from = exclusion[0];
+            }
+        }
+        return from;
+    }
+
+    @Override
+    public String toString() {
+        return this.source;
+    }
+
+}
@@ -0,0 +1,149 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.JavaVersion;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Resolves a version range to installers of a target (a distro, os, arch, abi, image type and installer type), e.g.
+ * "the newest 21.0.x >= 21.0.5 of temurin for linux x64".  It's built on the exact target postings of a
+ * {@link JavaInstallerCatalog}: the postings of every major version of a target are merged into a sorted map keyed by
+ * their packed version, so the newest (or floor, or ceiling) version in a range is a logarithmic lookup, rather than a
+ * scan of every installer and a comparison in every caller.
+ *
+ * Installers without a distro, os, arch, image type, installer type or a (packable) version can't be resolved, and a
+ * missing abi is the default one.  Installers of the same target and version are ordered by
+ * {@link JavaInstaller#COMPARATOR}, and the first is the one resolved.
+ */
+public class JavaVersionResolver {
+
+    private final Map<JavaInstallerTarget, NavigableMap<Long, List<JavaInstaller>>> versions;
+
+    public JavaVersionResolver(Collection<JavaInstaller> javaInstallers) {
+        this(new JavaInstallerCatalog(javaInstallers));
+    }
+
+    public JavaVersionResolver(JavaInstallerCatalog catalog) {
+        this.versions = new HashMap<>();
+
+        for (Map.Entry<JavaInstallerTarget, List<JavaInstaller>> posting : catalog.getExactPostings().entrySet()) {
+            final JavaInstallerTarget target = withoutMajorVersion(posting.getKey());
+            // newest first, so installers of the same version are already in order
+            for (JavaInstaller javaInstaller : posting.getValue()) {
+                final long packed = PackedJavaVersion.pack(javaInstaller.getVersion());
+                if (PackedJavaVersion.isPacked(packed)) {
+                    this.versions.computeIfAbsent(target, k -> new TreeMap<>())
+                        .computeIfAbsent(packed, k -> new ArrayList<>(1))
+                        .add(javaInstaller);
+                }
+            }
+        }
+    }
+
+    /**
+     * Every target with at least one installer (with a null java major version).
+     */
+    public Set<JavaInstallerTarget> getTargets() {
+        return Collections.unmodifiableSet(this.versions.keySet());
+    }
+
+    /**
+     * The newest installer of the target in the range, or null if there isn't one.  A java major version of the target
+     * further limits the range to it.
+     */
+    public JavaInstaller resolve(JavaInstallerTarget target, JavaVersionRange range) {
+        final NavigableMap<Long, List<JavaInstaller>> targetVersions = this.versionsOf(target);
+        final JavaVersionRange targetRange = rangeOf(target, range);
+        if (targetVersions == null || targetRange.isEmpty()) {
+            return null;
+        }
+
+        Map.Entry<Long, List<JavaInstaller>> entry = targetVersions.floorEntry(targetRange.getUpper());
+        while (entry != null && entry.getKey() >= targetRange.getLower()) {
+            final long excludedFrom = targetRange.excludedFrom(entry.getKey());
+            if (excludedFrom < 0) {
+                return entry.getValue().get(0);
+            }
+            // skip every version of the exclusion at once
+            entry = targetVersions.lowerEntry(excludedFrom);
+        }
+        return null;
+    }
+
+    /**
+     * Every installer of the target in the range, newest first.
+     */
+    public List<JavaInstaller> resolveAll(JavaInstallerTarget target, JavaVersionRange range) {
+        final NavigableMap<Long, List<JavaInstaller>> targetVersions = this.versionsOf(target);
+        final JavaVersionRange targetRange = rangeOf(target, range);
+        if (targetVersions == null || targetRange.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        final List<JavaInstaller> resolved = new ArrayList<>();
+        for (Map.Entry<Long, List<JavaInstaller>> entry : targetVersions
+                .subMap(targetRange.getLower(), true, targetRange.getUpper(), true).descendingMap().entrySet()) {
+            if (targetRange.excludedFrom(entry.getKey()) < 0) {
+                resolved.addAll(entry.getValue());
+            }
+        }
+        return resolved;
+    }
+
+    /**
+     * The installer of the target with the newest version at or before the version, or null if there isn't one.
+     */
+    public JavaInstaller floor(JavaInstallerTarget target, JavaVersion version) {
+        final NavigableMap<Long, List<JavaInstaller>> targetVersions = this.versionsOf(target);
+        final long packed = PackedJavaVersion.pack(version);
+        if (targetVersions == null || !PackedJavaVersion.isPacked(packed)) {
+            return null;
+        }
+        return first(targetVersions.floorEntry(packed));
+    }
+
+    /**
+     * The installer of the target with the oldest version at or after the version, or null if there isn't one.
+     */
+    public JavaInstaller ceiling(JavaInstallerTarget target, JavaVersion version) {
+        final NavigableMap<Long, List<JavaInstaller>> targetVersions = this.versionsOf(target);
+        final long packed = PackedJavaVersion.pack(version);
+        if (targetVersions == null || !PackedJavaVersion.isPacked(packed)) {
+            return null;
+        }
+        return first(targetVersions.ceilingEntry(packed));
+    }
+
+    private NavigableMap<Long, List<JavaInstaller>> versionsOf(JavaInstallerTarget target) {
+        if (target.getDistro() == null || target.getOs() == null || target.getArch() == null
+                || target.getImageType() == null || target.getInstallerType() == null) {
+            throw new IllegalArgumentException("Target " + target + " must have a distro, os, arch, image type and installer type");
+        }
+        final ABI abi = target.getAbi() != null ? target.getAbi() : ABI.DEFAULT;
+        return this.versions.get(new JavaInstallerTarget(target.getDistro(), null, target.getOs(), target.getArch(), abi,
+            target.getImageType(), target.getInstallerType()));
+    }
+
+    static private JavaVersionRange rangeOf(JavaInstallerTarget target, JavaVersionRange range) {
+        return target.getJavaMajorVersion() != null ? range.and(JavaVersionRange.major(target.getJavaMajorVersion())) : range;
+    }
+
+    static private JavaInstallerTarget withoutMajorVersion(JavaInstallerTarget target) {
+        return new JavaInstallerTarget(target.getDistro(), null, target.getOs(), target.getArch(), target.getAbi(),
+            target.getImageType(), target.getInstallerType());
+    }
+
+    static private JavaInstaller first(Map.Entry<Long, List<JavaInstaller>> entry) {
+        return entry != null ? entry.getValue().get(0) : null;
+    }
+
+}
@@ -0,0 +1,89 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+
+/**
+ * The distro, os, arch, abi, image type and installer type of an installer packed into a long, a byte per field (the
+ * ordinal + 1, so 0 is null) with the distro highest, leaving the top two bytes free for the caller.  Ordinals are of
+ * the enums as compiled, so anything persisting packed targets must keep the names of its ordinals too.
+ */
+final class PackedJavaTarget {
+
+    static final int DISTRO_FIELD = 0;
+    static final int OS_FIELD = 1;
+    static final int ARCH_FIELD = 2;
+    static final int ABI_FIELD = 3;
+    static final int IMAGE_TYPE_FIELD = 4;
+    static final int INSTALLER_TYPE_FIELD = 5;
+    static final int FIELDS = 6;
+
+    // the values of each field, by ordinal
+    static final Enum<?>[][] VALUES = {
+        JavaDistro.values(),
+        OperatingSystem.values(),
+        HardwareArchitecture.values(),
+        ABI.values(),
+        ImageType.values(),
+        InstallerType.values()
+    };
+
+    private PackedJavaTarget() {
+    }
+
+    static long pack(JavaInstaller javaInstaller) {
+        return pack(DISTRO_FIELD, javaInstaller.getDistro())
+            | pack(OS_FIELD, javaInstaller.getOs())
+            | pack(ARCH_FIELD, javaInstaller.getArch())
+            | pack(ABI_FIELD, javaInstaller.getAbi())
+            | pack(IMAGE_TYPE_FIELD, javaInstaller.getImageType())
+            | pack(INSTALLER_TYPE_FIELD, javaInstaller.getInstallerType());
+    }
+
+    /**
+     * The ordinal of a field, or -1 if it's null.
+     */
+    static int ordinal(long packed, int field) {
+        return ((int)(packed >>> shiftOf(field)) & 0xFF) - 1;
+    }
+
+    static JavaDistro distro(long packed) {
+        return unpack(packed, DISTRO_FIELD);
+    }
+
+    static OperatingSystem os(long packed) {
+        return unpack(packed, OS_FIELD);
+    }
+
+    static HardwareArchitecture arch(long packed) {
+        return unpack(packed, ARCH_FIELD);
+    }
+
+    static ABI abi(long packed) {
+        return unpack(packed, ABI_FIELD);
+    }
+
+    static ImageType imageType(long packed) {
+        return unpack(packed, IMAGE_TYPE_FIELD);
+    }
+
+    static InstallerType installerType(long packed) {
+        return unpack(packed, INSTALLER_TYPE_FIELD);
+    }
+
+    static private long pack(int field, Enum<?> value) {
+        return value != null ? (long)(value.ordinal() + 1) << shiftOf(field) : 0L;
+    }
+
+    @SuppressWarnings("unchecked")
+    static private <E extends Enum<E>> E unpack(long packed, int field) {
+        final int ordinal = ordinal(packed, field);
+        return ordinal >= 0 ? (E)VALUES[field][ordinal] : null;
+    }
+
+    static private int shiftOf(int field) {
+        return 8 * (FIELDS - 1 - field);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.fizzed.provisioning.java;
+
+import com.fizzed.jne.JavaVersion;
+
+/**
+ * A java version packed into a long, 16 bits per component (major, minor, security then build), so packed versions
+ * order the same as their components do with a plain long comparison.  The major is one bit short, so a packed version
+ * is never negative, leaving negative values as markers for no version and a version with a component that doesn't fit
+ * (which callers must keep as a JavaVersion).
+ */
+public final class PackedJavaVersion {
+
+    static public final long NONE = -1L;
+    static public final long UNPACKABLE = -2L;
+
+    static private final int COMPONENT_BITS = 16;
+    static private final int COMPONENT_MASK = (1 << COMPONENT_BITS) - 1;
+
+    /**
+     * The largest minor, security or build that packs (the major is one bit short of it).
+     */
+    static public final int MAX_COMPONENT = COMPONENT_MASK;
+
+    private PackedJavaVersion() {
+    }
+
+    static public long pack(JavaVersion version) {
+        if (version == null) {
+            return NONE;
+        }
+        return pack(version.getMajor(), version.getMinor(), version.getSecurity(), version.getBuild());
+    }
+
+    static public long pack(int major, int minor, int security, int build) {
+        if (major < 0 || major > COMPONENT_MASK >>> 1 || minor < 0 || minor > COMPONENT_MASK
+                || security < 0 || security > COMPONENT_MASK || build < 0 || build > COMPONENT_MASK) {
+            return UNPACKABLE;
+        }
+        return ((long)major << 48) | ((long)minor << 32) | ((long)security << 16) | build;
+    }
+
+    static public boolean isPacked(long packed) {
+        return packed >= 0;
+    }
+
+    static public int major(long packed) {
+        return (int)(packed >>> 48);
+    }
+
+    static public int minor(long packed) {
+        return (int)(packed >>> 32) & COMPONENT_MASK;
+    }
+
+    static public int security(long packed) {
+        return (int)(packed >>> 16) & COMPONENT_MASK;
+    }
+
+    static public int build(long packed) {
+        return (int)packed & COMPONENT_MASK;
+    }
+
+    static public JavaVersion unpack(long packed, String source) {
+        if (!isPacked(packed)) {
+            throw new IllegalArgumentException("Not a packed version (" + packed + ")");
+        }
+        return new JavaVersion(source, major(packed), minor(packed), security(packed), build(packed));
+    }
+
+}
@@ -1,110 +1,188 @@
 package com.fizzed.provisioning.liberica;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
 import com.fizzed.jne.JavaVersion;
-import com.fizzed.jne.NativeTarget;
-import com.fizzed.provisioning.ProvisioningHelper;
+import com.fizzed.jne.OperatingSystem;
 import com.fizzed.provisioning.java.ImageType;
-import com.fizzed.provisioning.java.InstallerType;
 import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.http.UriBuilder;
 import com.fizzed.provisioning.java.JavaInstaller;
-import com.fizzed.provisioning.zulu.ZuluJavaRelease;
+import com.fizzed.provisioning.java.JavaInstallerConversion;
+import com.fizzed.provisioning.java.JavaInstallerConverter;
+import com.fizzed.provisioning.java.JavaInstallerGrammar;
+import com.fizzed.provisioning.java.JavaInstallerGrammar.Field;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import com.fizzed.provisioning.java.JavaInstallerParseException;
+import com.fizzed.provisioning.java.JavaReleaseProvider;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-import static com.fizzed.provisioning.ProvisioningHelper.prettyPrintJson;
 import static java.util.Optional.ofNullable;
 
-public class LibericaClient {
+public class LibericaClient implements JavaReleaseProvider {
     static private final Logger log = LoggerFactory.getLogger(LibericaClient.class);
 
-    private final ObjectMapper objectMapper;
+    static public final Predicate<LibericaJavaRelease> JDK_ONLY = javaRelease ->
+        "jdk".equalsIgnoreCase(javaRelease.getBundleType());
+
+    // e.g. bellsoft-jdk21.0.8+12-linux-x64-musl.apk, bellsoft-jre8u462+11-linux-arm32-vfp-hflt.tar.gz or
+    // bellsoft-jdk21.0.8+12-macos-aarch64-full.dmg (the full/lite/crac flavors are what bellsoft calls bundle types)
+    static final JavaInstallerGrammar NAME_GRAMMAR = JavaInstallerGrammar.builder(JavaDistro.LIBERICA)
+        .literal("bellsoft-")
+        .token(Field.IMAGE_TYPE, Map.of("jdk", ImageType.JDK, "jre", ImageType.JRE))
+        .capture(Field.JAVA_VERSION, "\\d[\\d.u]*\\+\\d+")
+        .literal("-")
+        .token(Field.OS, Map.of("linux", OperatingSystem.LINUX, "macos", OperatingSystem.MACOS, "windows", OperatingSystem.WINDOWS,
+            "solaris", OperatingSystem.SOLARIS))
+        .literal("-")
+        .token(Field.ARCH, Map.of("amd64", HardwareArchitecture.X64, "x64", HardwareArchitecture.X64, "i586", HardwareArchitecture.X32,
+            "aarch64", HardwareArchitecture.ARM64, "arm32-vfp-hflt", HardwareArchitecture.ARMHF, "ppc64le", HardwareArchitecture.PPC64LE,
+            "riscv64", HardwareArchitecture.RISCV64))
+        .optional("-", Field.ABI, Map.of("musl", ABI.MUSL), "")
+        .optional("-", Field.FLAVOR, "full|lite|crac", "")
+        .installerType()
+        .build();
+
+    private final HttpTransport transport;
+    private final ObjectReader releaseReader;
 
     public LibericaClient() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
+        this(HttpTransport.getDefault());
+    }
+
+    public LibericaClient(HttpTransport transport) {
+        this.transport = transport;
+        this.releaseReader = transport.getObjectMapper().readerFor(LibericaJavaRelease.class);
+    }
+
+    @Override
+    public JavaDistro getDistro() {
+        return JavaDistro.LIBERICA;
+    }
+
+    @Override
+    public LibericaClient withTransport(HttpTransport transport) {
+        return new LibericaClient(transport);
+    }
+
+    @Override
+    public CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query) {
+        return this.transport.supplyAsync(() -> HttpTransport.collectList(this.streamInstallers(query)));
+    }
+
+    @Override
+    public Stream<JavaInstaller> streamInstallers(JavaReleaseQuery query) {
+        return JavaReleaseProvider.matchingInstallers(query,
+            this.streamReleases(query, query.getImageType() == ImageType.JDK ? JDK_ONLY : javaRelease -> true), this::toInstaller);
     }
 
     public List<LibericaJavaRelease> getReleases(int javaMajorVersion) throws IOException, InterruptedException {
-        final HttpClient httpClient = HttpClient.newHttpClient();
-        final HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create("https://api.bell-sw.com/v1/liberica/releases?version-feature=" + javaMajorVersion))
-            .build();
+        return this.getReleases(javaMajorVersion, javaRelease -> true);
+    }
 
-        final String responseJson = httpClient.send(request, HttpResponse.BodyHandlers.ofString())
-            .body();
+    public List<LibericaJavaRelease> getReleases(int javaMajorVersion, Predicate<? super LibericaJavaRelease> filter) throws IOException, InterruptedException {
+        return this.getReleases(new JavaReleaseQuery(javaMajorVersion), filter);
+    }
 
-        log.debug("{}", prettyPrintJson(this.objectMapper, responseJson));
+    public List<LibericaJavaRelease> getReleases(JavaReleaseQuery query) throws IOException, InterruptedException {
+        return this.getReleases(query, javaRelease -> true);
+    }
 
-        return this.objectMapper.readValue(responseJson, new TypeReference<>() {});
+    public List<LibericaJavaRelease> getReleases(JavaReleaseQuery query, Predicate<? super LibericaJavaRelease> filter) throws IOException, InterruptedException {
+        return HttpTransport.collectList(this.streamReleases(query, filter));
     }
 
-    public JavaInstaller toInstaller(LibericaJavaRelease javaRelease) {
-        NativeTarget nativeTarget = ProvisioningHelper.detectFromText(javaRelease.getFilename());
-        if (nativeTarget.getOperatingSystem() == null || nativeTarget.getHardwareArchitecture() == null) {
-            if (javaRelease.getFilename().contains("-src")) {
-                return null;
-            }
-            if (javaRelease.getFilename().contains("sparcv9")) {
-                return null;
-            }
-            /*if (javaRelease.getName().contains("x86lx64")) {
-                return null;
-            }
-            if (javaRelease.getName().contains("solaris")) {
-                return null;
+    /**
+     * The bellsoft api does not paginate, so the page size of the query is ignored.
+     */
+    public Stream<LibericaJavaRelease> streamReleases(JavaReleaseQuery query, Predicate<? super LibericaJavaRelease> filter) {
+        return this.transport.<LibericaJavaRelease>streamJsonArray(this.buildReleasesUri(query), this.releaseReader)
+            .filter(filter);
+    }
+
+    URI buildReleasesUri(JavaReleaseQuery query) {
+        final UriBuilder uriBuilder = new UriBuilder("https://api.bell-sw.com/v1/liberica/releases")
+            .param("version-feature", query.getJavaMajorVersion())
+            .param("os", toOsParam(query))
+            .param("package-type", ofNullable(query.getInstallerType()).map(v -> v.getFileExtension().substring(1)).orElse(null))
+            .param("version-modifier", query.isLatestOnly() ? "latest" : null);
+
+        if (query.getImageType() == ImageType.JDK || query.getImageType() == ImageType.JRE) {
+            uriBuilder.param("bundle-type", query.getImageType().name().toLowerCase());
+        }
+
+        // bellsoft splits the architecture into a family and bitness
+        if (query.getArch() != null) {
+            switch (query.getArch()) {
+                case X64:
+                    uriBuilder.param("arch", "x86").param("bitness", 64);
+                    break;
+                case X32:
+                    uriBuilder.param("arch", "x86").param("bitness", 32);
+                    break;
+                case ARM64:
+                    uriBuilder.param("arch", "arm").param("bitness", 64);
+                    break;
+                case ARMHF:
+                case ARMEL:
+                    uriBuilder.param("arch", "arm").param("bitness", 32);
+                    break;
+                case RISCV64:
+                    uriBuilder.param("arch", "riscv").param("bitness", 64);
+                    break;
+                default:
+                    break;
             }
-            if (javaRelease.getName().contains("ppc64")) {
-                return null;
-            }*/
-            throw new RuntimeException("Failed to detect os / arch from " + javaRelease.getFilename());
         }
 
-        JavaInstaller installer = new JavaInstaller();
-        installer.setDistro(JavaDistro.LIBERICA);
-        installer.setName(javaRelease.getFilename());
-        installer.setInstallerType(InstallerType.fromFileName(javaRelease.getFilename()));
-        installer.setOs(nativeTarget.getOperatingSystem());
-        installer.setArch(nativeTarget.getHardwareArchitecture());
-        installer.setAbi(nativeTarget.getAbi());
-        installer.setDownloadUrl(javaRelease.getDownloadUrl());
-        installer.setVersion(new JavaVersion(
-            javaRelease.getVersion(), javaRelease.getFeatureVersion(), javaRelease.getInterimVersion(), javaRelease.getUpdateVersion(), javaRelease.getBuildVersion()));
-
-        // image types represent
-        /*Full version of Liberica includes LibericaFX, which is based on OpenJFX and Minimal VM, where suitable.
-        Standard version is best suited for server and desktop deployments that do not require any additional components.
-        Lite version of Liberica works best for cloud deployments and is optimized for size.
-        Liberica JDK with CRaC is the build of Liberica JDK that supports the CRaC API. It allows making and utilizing the snapshots of app. This flavor is not TCK verified.*/
-        switch (ofNullable(javaRelease.getBundleType()).map(String::toLowerCase).orElse("")) {
-            case "jdk":
-                installer.setImageType(ImageType.JDK);
-                break;
-            case "jre":
-                installer.setImageType(ImageType.JRE);
-                break;
-            case "jdk-full":
-            case "jdk-lite":
-            case "jre-full":
-            case "jre-lite":
-            case "jdk-crac":
-                // these are images we really don't want to bother with
-                installer.setImageType(ImageType.OTHER);
-                break;
+        return uriBuilder.build();
+    }
+
+    static private String toOsParam(JavaReleaseQuery query) {
+        if (query.getOs() == null) {
+            return null;
+        }
+        switch (query.getOs()) {
+            case LINUX:
+                return query.getAbi() == ABI.MUSL ? "linux-musl" : "linux";
+            case MACOS:
+                return "macos";
+            case WINDOWS:
+                return "windows";
+            case SOLARIS:
+                return "solaris";
             default:
-                throw new RuntimeException("Unsupported bundle type " + javaRelease.getBundleType());
+                return null;
         }
+    }
+
+    /**
+     * Converts a whole release list at once (in parallel), reporting the releases that couldn't be converted rather than
+     * failing on the first one.
+     */
+    public JavaInstallerConversion toInstallers(List<? extends LibericaJavaRelease> javaReleases) {
+        return JavaInstallerConverter.getDefault().convert(this.getDistro(), javaReleases, this::toInstaller);
+    }
+
+    public JavaInstaller toInstaller(LibericaJavaRelease javaRelease) throws JavaInstallerParseException {
+        final JavaInstallerName name = NAME_GRAMMAR.parse(javaRelease.getFilename());
 
-        return installer;
+        return name.toInstaller()
+            .setDownloadUrl(javaRelease.getDownloadUrl())
+            .setVersion(new JavaVersion(
+                javaRelease.getVersion(), javaRelease.getFeatureVersion(), javaRelease.getInterimVersion(), javaRelease.getUpdateVersion(), javaRelease.getBuildVersion()));
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,108 @@
+package com.fizzed.provisioning.sapmachine;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.github.GitHubAsset;
+import com.fizzed.provisioning.github.GitHubJavaReleaseProvider;
+import com.fizzed.provisioning.github.GitHubRelease;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerGrammar;
+import com.fizzed.provisioning.java.JavaInstallerGrammar.Field;
+import com.fizzed.provisioning.java.JavaInstallerName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * SapMachine publishes every major version as github releases of SAP/SapMachine, with its installers as assets (so the
+ * queries of each major share one listing of the repo).
+ */
+public class SapMachineClient extends GitHubJavaReleaseProvider {
+
+    // e.g. sapmachine-jdk-21.0.5_linux-x64-musl_bin.tar.gz
+    static final JavaInstallerGrammar NAME_GRAMMAR = JavaInstallerGrammar.builder(JavaDistro.SAPMACHINE)
+        .literal("sapmachine-")
+        .token(Field.IMAGE_TYPE, Map.of("jdk", ImageType.JDK, "jre", ImageType.JRE))
+        .literal("-")
+        .capture(Field.JAVA_VERSION, "[0-9.]+")
+        .literal("_")
+        .token(Field.OS, Map.of("linux", OperatingSystem.LINUX, "macos", OperatingSystem.MACOS, "windows", OperatingSystem.WINDOWS,
+            "aix", OperatingSystem.AIX))
+        .literal("-")
+        .token(Field.ARCH, Map.of("x64", HardwareArchitecture.X64, "aarch64", HardwareArchitecture.ARM64, "ppc64le", HardwareArchitecture.PPC64LE,
+            "ppc64", HardwareArchitecture.PPC64))
+        .optional("-", Field.ABI, Map.of("musl", ABI.MUSL), "")
+        .literal("_bin")
+        .installerType()
+        .build();
+    // e.g. sapmachine-21.0.5 or sapmachine-17.0.13+11
+    static private final Pattern TAG_PATTERN = Pattern.compile("sapmachine-(\\d+)(?:\\.(\\d+))?(?:\\.(\\d+))?(?:\\.\\d+)*(?:\\+(\\d+))?");
+
+    public SapMachineClient() {
+        this(HttpTransport.getDefault());
+    }
+
+    public SapMachineClient(HttpTransport transport) {
+        super(transport);
+    }
+
+    @Override
+    public JavaDistro getDistro() {
+        return JavaDistro.SAPMACHINE;
+    }
+
+    @Override
+    public SapMachineClient withTransport(HttpTransport transport) {
+        return new SapMachineClient(transport);
+    }
+
+    @Override
+    protected List<String> getRepos(int javaMajorVersion) {
+        return Collections.singletonList("SAP/SapMachine");
+    }
+
+    @Override
+    protected JavaVersion getVersion(GitHubRelease release, int javaMajorVersion) {
+        final Matcher matcher = TAG_PATTERN.matcher(release.getTagName() != null ? release.getTagName() : "");
+        if (!matcher.matches() || Integer.parseInt(matcher.group(1)) != javaMajorVersion) {
+            return null;
+        }
+        return new JavaVersion(null, javaMajorVersion, parseInt(matcher.group(2)), parseInt(matcher.group(3)), parseInt(matcher.group(4)));
+    }
+
+    @Override
+    protected List<JavaInstaller> toInstallers(GitHubRelease release, JavaVersion version) {
+        final List<JavaInstaller> javaInstallers = new ArrayList<>();
+        if (release.getAssets() == null) {
+            return javaInstallers;
+        }
+
+        for (GitHubAsset asset : release.getAssets()) {
+            final JavaInstallerName installerName = NAME_GRAMMAR.tryParse(asset.getName());
+            // e.g. the checksums and symbols
+            if (installerName == null) {
+                continue;
+            }
+
+            javaInstallers.add(installerName.toInstaller()
+                .setDownloadUrl(asset.getBrowserDownloadUrl())
+                .setVersion(version));
+        }
+
+        return javaInstallers;
+    }
+
+    static private int parseInt(String value) {
+        return value != null ? Integer.parseInt(value) : 0;
+    }
+
+}
@@ -0,0 +1,111 @@
+package com.fizzed.provisioning.semeru;
+
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.github.GitHubAsset;
+import com.fizzed.provisioning.github.GitHubJavaReleaseProvider;
+import com.fizzed.provisioning.github.GitHubRelease;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerGrammar;
+import com.fizzed.provisioning.java.JavaInstallerGrammar.Field;
+import com.fizzed.provisioning.java.JavaInstallerName;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * IBM Semeru (openj9) publishes a github repo per major version (e.g. ibmruntimes/semeru21-binaries), with its
+ * installers as assets.
+ */
+public class SemeruClient extends GitHubJavaReleaseProvider {
+
+    // e.g. ibm-semeru-open-jdk_x64_linux_21.0.5_11_openj9-0.48.0.tar.gz or ibm-semeru-open-jre_x64_linux_8u432b06_openj9-0.48.0.tar.gz
+    static final JavaInstallerGrammar NAME_GRAMMAR = JavaInstallerGrammar.builder(JavaDistro.SEMERU)
+        .literal("ibm-semeru-open-")
+        .token(Field.IMAGE_TYPE, Map.of("jdk", ImageType.JDK, "jre", ImageType.JRE))
+        .literal("_")
+        .token(Field.ARCH, Map.of("x64", HardwareArchitecture.X64, "x86-32", HardwareArchitecture.X32, "aarch64", HardwareArchitecture.ARM64,
+            "ppc64le", HardwareArchitecture.PPC64LE, "ppc64", HardwareArchitecture.PPC64, "s390x", HardwareArchitecture.S390X))
+        .literal("_")
+        .token(Field.OS, Map.of("linux", OperatingSystem.LINUX, "mac", OperatingSystem.MACOS, "windows", OperatingSystem.WINDOWS,
+            "aix", OperatingSystem.AIX))
+        .literal("_")
+        .capture(Field.JAVA_VERSION, "[^/]+?")
+        .installerType()
+        .build();
+    // e.g. jdk-21.0.5+11_openj9-0.48.0 or jdk8u432-b06_openj9-0.48.0
+    static private final Pattern TAG_PATTERN = Pattern.compile("jdk-(\\d+)(?:\\.(\\d+))?(?:\\.(\\d+))?(?:\\.\\d+)*\\+(\\d+)_openj9-.+");
+    static private final Pattern TAG8_PATTERN = Pattern.compile("jdk8u(\\d+)-b(\\d+)_openj9-.+");
+
+    public SemeruClient() {
+        this(HttpTransport.getDefault());
+    }
+
+    public SemeruClient(HttpTransport transport) {
+        super(transport);
+    }
+
+    @Override
+    public JavaDistro getDistro() {
+        return JavaDistro.SEMERU;
+    }
+
+    @Override
+    public SemeruClient withTransport(HttpTransport transport) {
+        return new SemeruClient(transport);
+    }
+
+    @Override
+    protected List<String> getRepos(int javaMajorVersion) {
+        return Collections.singletonList("ibmruntimes/semeru" + javaMajorVersion + "-binaries");
+    }
+
+    @Override
+    protected JavaVersion getVersion(GitHubRelease release, int javaMajorVersion) {
+        final String tagName = release.getTagName() != null ? release.getTagName() : "";
+        if (javaMajorVersion == 8) {
+            final Matcher matcher = TAG8_PATTERN.matcher(tagName);
+            return matcher.matches() ? new JavaVersion(null, 8, 0, Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))) : null;
+        }
+        final Matcher matcher = TAG_PATTERN.matcher(tagName);
+        if (!matcher.matches() || Integer.parseInt(matcher.group(1)) != javaMajorVersion) {
+            return null;
+        }
+        return new JavaVersion(null, javaMajorVersion, parseInt(matcher.group(2)), parseInt(matcher.group(3)), Integer.parseInt(matcher.group(4)));
+    }
+
+    @Override
+    protected List<JavaInstaller> toInstallers(GitHubRelease release, JavaVersion version) {
+        final List<JavaInstaller> javaInstallers = new ArrayList<>();
+        if (release.getAssets() == null) {
+            return javaInstallers;
+        }
+
+        for (GitHubAsset asset : release.getAssets()) {
+            final JavaInstallerName installerName = NAME_GRAMMAR.tryParse(asset.getName());
+            // e.g. the checksums, signatures and debug images
+            if (installerName == null) {
+                continue;
+            }
+
+            javaInstallers.add(installerName.toInstaller()
+                .setDownloadUrl(asset.getBrowserDownloadUrl())
+                .setVersion(version));
+        }
+
+        return javaInstallers;
+    }
+
+    static private int parseInt(String value) {
+        return value != null ? Integer.parseInt(value) : 0;
+    }
+
+}
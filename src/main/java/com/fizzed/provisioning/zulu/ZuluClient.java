@@ -1,106 +1,213 @@
 package com.fizzed.provisioning.zulu;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.PropertyNamingStrategies;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
 import com.fizzed.jne.JavaVersion;
-import com.fizzed.jne.NativeTarget;
-import com.fizzed.provisioning.ProvisioningHelper;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.http.UriBuilder;
 import com.fizzed.provisioning.java.ImageType;
-import com.fizzed.provisioning.java.InstallerType;
 import com.fizzed.provisioning.java.JavaDistro;
 import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerConversion;
+import com.fizzed.provisioning.java.JavaInstallerConverter;
+import com.fizzed.provisioning.java.JavaInstallerGrammar;
+import com.fizzed.provisioning.java.JavaInstallerGrammar.Field;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import com.fizzed.provisioning.java.JavaInstallerParseException;
+import com.fizzed.provisioning.java.JavaReleaseProvider;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
-import static com.fizzed.provisioning.ProvisioningHelper.prettyPrintJson;
 import static java.util.Optional.ofNullable;
 
-public class ZuluClient {
+public class ZuluClient implements JavaReleaseProvider {
     static private final Logger log = LoggerFactory.getLogger(ZuluClient.class);
 
-    private final ObjectMapper objectMapper;
+    // zulu names its plain jdks "-ca-jdk", while crac/fx/hl/etc. flavors are named like "-ca-crac-jdk"
+    static public final Predicate<ZuluJavaRelease> JDK_ONLY = javaRelease ->
+        javaRelease.getName() != null && javaRelease.getName().contains("-ca-jdk");
+
+    // e.g. zulu21.44.17-ca-jdk21.0.8-linux_x64.tar.gz, zulu21.44.17-ca-crac-jdk21.0.8-linux_musl_aarch64.tar.gz,
+    // zulu17.60.17-ca-jdk17.0.16-c2-linux_aarch32hf.tar.gz or zulu8.88.0.19-ca-jdk8.0.462-linux.x86_64.rpm
+    // (a release it doesn't fit, e.g. if zulu changes its naming, is skipped and counted in a warning, see JavaInstallerSkips)
+    static final JavaInstallerGrammar NAME_GRAMMAR = JavaInstallerGrammar.builder(JavaDistro.ZULU)
+        .literal("zulu")
+        .capture(Field.DISTRO_VERSION, "\\d+(?:\\.\\d+)*")
+        .literal("-ca-")
+        // crac/fx/etc. flavors of the jdk/jre are named like "-ca-crac-jdk"
+        .optional("", Field.FLAVOR, "crac|fx|hl|cp[1-3]", "-")
+        .token(Field.IMAGE_TYPE, Map.of("jdk", ImageType.JDK, "jre", ImageType.JRE))
+        .capture(Field.JAVA_VERSION, "\\d+(?:\\.\\d+)*")
+        .skip("(?:-c2)?", "optional '-c2'")
+        .literal("-")
+        .token(Field.OS, Map.of("linux", OperatingSystem.LINUX, "macosx", OperatingSystem.MACOS, "win", OperatingSystem.WINDOWS,
+            "solaris", OperatingSystem.SOLARIS))
+        .optional("_", Field.ABI, Map.of("musl", ABI.MUSL), "")
+        .skip("[_.]", "'_' or '.'")
+        .token(Field.ARCH, Map.of("x64", HardwareArchitecture.X64, "amd64", HardwareArchitecture.X64, "x86_64", HardwareArchitecture.X64,
+            "i686", HardwareArchitecture.X32, "i386", HardwareArchitecture.X32, "aarch64", HardwareArchitecture.ARM64, "arm64", HardwareArchitecture.ARM64,
+            "aarch32hf", HardwareArchitecture.ARMHF, "aarch32sf", HardwareArchitecture.ARMEL, "ppc64", HardwareArchitecture.PPC64))
+        .installerType()
+        .build();
+
+    static private final int MAX_PAGE_SIZE = 1000;
+
+    private final HttpTransport transport;
+    private final ObjectReader releaseReader;
 
     public ZuluClient() {
-        this.objectMapper = new ObjectMapper();
-        this.objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-        this.objectMapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        this(HttpTransport.getDefault());
+    }
+
+    public ZuluClient(HttpTransport transport) {
+        this.transport = transport;
+        this.releaseReader = transport.getObjectMapper().readerFor(ZuluJavaRelease.class);
+    }
+
+    @Override
+    public JavaDistro getDistro() {
+        return JavaDistro.ZULU;
+    }
+
+    @Override
+    public ZuluClient withTransport(HttpTransport transport) {
+        return new ZuluClient(transport);
+    }
+
+    @Override
+    public CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query) {
+        return this.transport.supplyAsync(() -> HttpTransport.collectList(this.streamInstallers(query)));
+    }
+
+    @Override
+    public Stream<JavaInstaller> streamInstallers(JavaReleaseQuery query) {
+        // zulu considers its crac/fx/etc. flavors to be jdks too
+        return JavaReleaseProvider.matchingInstallers(query,
+            this.streamReleases(query, query.getImageType() == ImageType.JDK ? JDK_ONLY : javaRelease -> true), this::toInstaller);
     }
 
     public List<ZuluJavaRelease> getReleases(int javaMajorVersion) throws IOException, InterruptedException {
-        final HttpClient httpClient = HttpClient.newHttpClient();
-        final HttpRequest request = HttpRequest.newBuilder()
-            .uri(URI.create("https://api.azul.com/metadata/v1/zulu/packages?java_version=" + javaMajorVersion))
-            .build();
+        return this.getReleases(javaMajorVersion, javaRelease -> true);
+    }
 
-        final String responseJson = httpClient.send(request, HttpResponse.BodyHandlers.ofString())
-            .body();
+    public List<ZuluJavaRelease> getReleases(int javaMajorVersion, Predicate<? super ZuluJavaRelease> filter) throws IOException, InterruptedException {
+        return this.getReleases(new JavaReleaseQuery(javaMajorVersion), filter);
+    }
 
-        log.debug("{}", prettyPrintJson(this.objectMapper, responseJson));
+    public List<ZuluJavaRelease> getReleases(JavaReleaseQuery query) throws IOException, InterruptedException {
+        return this.getReleases(query, javaRelease -> true);
+    }
 
-        return this.objectMapper.readValue(responseJson, new TypeReference<List<ZuluJavaRelease>>() {});
+    public List<ZuluJavaRelease> getReleases(JavaReleaseQuery query, Predicate<? super ZuluJavaRelease> filter) throws IOException, InterruptedException {
+        return HttpTransport.collectList(this.streamReleases(query, filter));
     }
 
-    public JavaInstaller toInstaller(ZuluJavaRelease javaRelease) {
-        NativeTarget nativeTarget = ProvisioningHelper.detectFromText(javaRelease.getName());
-        if (nativeTarget.getOperatingSystem() == null || nativeTarget.getHardwareArchitecture() == null) {
-            if (javaRelease.getName().contains("x86lx64")) {
+    /**
+     * Lazily streams the releases, only requesting the next page once the previous one has been consumed.
+     */
+    public Stream<ZuluJavaRelease> streamReleases(JavaReleaseQuery query, Predicate<? super ZuluJavaRelease> filter) {
+        final int pageSize = ofNullable(query.getPageSize()).orElse(MAX_PAGE_SIZE);
+        final AtomicInteger page = new AtomicInteger();
+
+        // pages start at 1, and a short page means there are no more
+        return this.transport.<ZuluJavaRelease>streamJsonArray(this.releaseReader, (previous, previousRows) -> {
+            if (previous != null && previousRows < pageSize) {
                 return null;
             }
-            if (javaRelease.getName().contains("solaris")) {
+            return HttpTransport.requireSuccess(this.transport.get(this.buildPackagesUri(query, page.incrementAndGet(), pageSize)));
+        }).filter(filter);
+    }
+
+    URI buildPackagesUri(JavaReleaseQuery query, int page, int pageSize) {
+        final boolean imageTypeParams = query.getImageType() == ImageType.JDK || query.getImageType() == ImageType.JRE;
+
+        return new UriBuilder("https://api.azul.com/metadata/v1/zulu/packages")
+            .param("java_version", query.getJavaMajorVersion())
+            .param("os", toOsParam(query))
+            .param("arch", toArchParam(query))
+            .param("archive_type", ofNullable(query.getInstallerType()).map(v -> v.getFileExtension().substring(1)).orElse(null))
+            .param("java_package_type", imageTypeParams ? query.getImageType().name().toLowerCase() : null)
+            // the plain jdk/jre images are the ones without javafx or crac bundled
+            .param("javafx_bundled", imageTypeParams ? false : null)
+            .param("crac_supported", imageTypeParams ? false : null)
+            .param("latest", query.isLatestOnly() ? true : null)
+            .param("page", page)
+            .param("page_size", pageSize)
+            .build();
+    }
+
+    static private String toOsParam(JavaReleaseQuery query) {
+        if (query.getOs() == null) {
+            return null;
+        }
+        switch (query.getOs()) {
+            case LINUX:
+                if (query.getAbi() == ABI.MUSL) {
+                    return "linux_musl";
+                } else if (query.getAbi() != null) {
+                    return "linux_glibc";
+                }
+                return "linux";
+            case MACOS:
+                return "macos";
+            case WINDOWS:
+                return "windows";
+            case SOLARIS:
+                return "solaris";
+            default:
                 return null;
-            }
-            if (javaRelease.getName().contains("ppc64")) {
+        }
+    }
+
+    static private String toArchParam(JavaReleaseQuery query) {
+        if (query.getArch() == null) {
+            return null;
+        }
+        switch (query.getArch()) {
+            case X64:
+                return "x64";
+            case X32:
+                return "i686";
+            case ARM64:
+                return "aarch64";
+            case ARMHF:
+                return "aarch32hf";
+            case ARMEL:
+                return "aarch32sf";
+            default:
                 return null;
-            }
-            if (javaRelease.getName().contains("-win64")) {
-                nativeTarget = ProvisioningHelper.detectFromText("windows x64");
-            } else if (javaRelease.getName().contains("-macosx")) {
-                nativeTarget = ProvisioningHelper.detectFromText("macos x64");
-            } else {
-                throw new RuntimeException("Failed to detect os / arch from " + javaRelease.getName());
-            }
         }
+    }
 
-        JavaInstaller installer = new JavaInstaller();
-        installer.setDistro(JavaDistro.ZULU);
-        installer.setName(javaRelease.getName());
-        installer.setInstallerType(InstallerType.fromFileName(javaRelease.getName()));
-        installer.setOs(nativeTarget.getOperatingSystem());
-        installer.setArch(nativeTarget.getHardwareArchitecture());
-        installer.setAbi(nativeTarget.getAbi());
-        installer.setDownloadUrl(javaRelease.getDownloadUrl());
+    /**
+     * Converts a whole release list at once (in parallel), reporting the releases that couldn't be converted rather than
+     * failing on the first one.
+     */
+    public JavaInstallerConversion toInstallers(List<? extends ZuluJavaRelease> javaReleases) {
+        return JavaInstallerConverter.getDefault().convert(this.getDistro(), javaReleases, this::toInstaller);
+    }
+
+    public JavaInstaller toInstaller(ZuluJavaRelease javaRelease) throws JavaInstallerParseException {
+        final JavaInstallerName name = NAME_GRAMMAR.parse(javaRelease.getName());
 
         // distroVersion={25,28,85,0}
         // downloadUrl=https://cdn.azul.com/zulu/bin/zulu25.28.85-ca-jdk25.0.0-linux_x64.zip
-        installer.setVersion(new JavaVersion(null, javaRelease.getJavaVersion()[0], javaRelease.getJavaVersion()[1], javaRelease.getJavaVersion()[2], javaRelease.getOpenjdkBuildNumber()));
-
-        // image types represent
-        // -ca-crac-jdk
-        if (javaRelease.getName().contains("-ca-crac-jdk") || javaRelease.getName().contains("-ca-crac-jre") || javaRelease.getName().contains("-ca-fx-jre")
-                || javaRelease.getName().contains("-ca-fx-jdk") || javaRelease.getName().contains("-ca-hl-jdk") || javaRelease.getName().contains("-ca-hl-jre")
-                || javaRelease.getName().contains("-ca-cp1-jre") || javaRelease.getName().contains("-ca-cp2-jre") || javaRelease.getName().contains("-ca-cp3-jre")) {
-            installer.setImageType(ImageType.OTHER);
-        } else if (javaRelease.getName().contains("-ca-jdk")) {
-            installer.setImageType(ImageType.JDK);
-        } else if (javaRelease.getName().contains("-ca-jre")) {
-            installer.setImageType(ImageType.JRE);
-        } else if (javaRelease.getName().contains("-win64") || javaRelease.getName().contains("-macosx")) {
-            // odd example https://cdn.azul.com/zulu/bin/zulu1.7.0_79-7.9.0.2-win64.msi
-            installer.setImageType(ImageType.OTHER);
-        } else {
-            throw new RuntimeException("Undetected image type from name " + javaRelease.getName());
-        }
-
-        return installer;
+        // the name doesn't have the build number, so the version is from the release
+        return name.toInstaller()
+            .setDownloadUrl(javaRelease.getDownloadUrl())
+            .setVersion(new JavaVersion(null, javaRelease.getJavaVersion()[0], javaRelease.getJavaVersion()[1], javaRelease.getJavaVersion()[2], javaRelease.getOpenjdkBuildNumber()));
     }
 
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.fizzed.provisioning.zulu;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
 
 /**
  * {
@@ -16,6 +18,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
  * }
  */
 @JsonIgnoreProperties(ignoreUnknown = true)
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
 public class ZuluJavaRelease {
 
     private String availabilityType;
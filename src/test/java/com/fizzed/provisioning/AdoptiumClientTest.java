@@ -0,0 +1,121 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.provisioning.adoptium.AdoptiumClient;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class AdoptiumClientTest {
+
+    private HttpServer server;
+    private AdoptiumClient client;
+    private final List<String> releases = new ArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    @BeforeEach
+    void before() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // the releases (newest first) paged like the real api does
+        this.server.createContext("/", exchange -> {
+            this.requests.incrementAndGet();
+            int page = 0;
+            int pageSize = 20;
+            for (String param : exchange.getRequestURI().getQuery().split("&")) {
+                if (param.startsWith("page=")) {
+                    page = Integer.parseInt(param.substring(5));
+                } else if (param.startsWith("page_size=")) {
+                    pageSize = Integer.parseInt(param.substring(10));
+                }
+            }
+            final List<String> pageReleases = this.releases.subList(Math.min(page * pageSize, this.releases.size()),
+                Math.min((page + 1) * pageSize, this.releases.size()));
+            final byte[] bytes = ("[" + String.join(",", pageReleases) + "]").getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        });
+        this.server.start();
+
+        final int port = this.server.getAddress().getPort();
+        this.client = new AdoptiumClient(HttpTransport.builder()
+            .setUriRewriter(uri -> URI.create("http://127.0.0.1:" + port + uri.getRawPath() + "?" + uri.getRawQuery()))
+            .build());
+    }
+
+    @AfterEach
+    void after() {
+        this.server.stop(0);
+    }
+
+    static private String release(String version, String... archs) {
+        final String scmRef = "jdk-" + version.replace('_', '+');
+        final List<String> binaries = new ArrayList<>();
+        for (String arch : archs) {
+            final String name = "OpenJDK21U-jdk_" + arch + "_linux_hotspot_" + version + ".tar.gz";
+            binaries.add("{\"architecture\":\"" + arch + "\",\"heap_size\":\"normal\",\"image_type\":\"jdk\",\"jvm_impl\":\"hotspot\","
+                + "\"os\":\"linux\",\"project\":\"jdk\",\"scm_ref\":\"" + scmRef + "_adopt\","
+                + "\"package\":{\"name\":\"" + name + "\",\"link\":\"https://example.com/" + name + "\"}}");
+        }
+        return "{\"binaries\":[" + String.join(",", binaries) + "]}";
+    }
+
+    private List<String> latestNames(Integer pageSize) {
+        return this.client.streamInstallers(new JavaReleaseQuery(21)
+                .setImageType(ImageType.JDK)
+                .setLatestOnly(true)
+                .setPageSize(pageSize))
+            .map(JavaInstaller::getName)
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void latestOnlyKeepsTargetsTheNewestReleaseLacks() {
+        // the newest release has no riscv64 build (yet)
+        this.releases.add(release("21.0.6_7", "x64"));
+        this.releases.add(release("21.0.5_11", "x64", "riscv64"));
+
+        final List<String> names = this.latestNames(null);
+
+        assertThat(names, hasItem("OpenJDK21U-jdk_x64_linux_hotspot_21.0.6_7.tar.gz"));
+        assertThat(names, hasItem("OpenJDK21U-jdk_riscv64_linux_hotspot_21.0.5_11.tar.gz"));
+        assertThat(this.client.streamInstallers(new JavaReleaseQuery(21).setLatestOnly(true))
+            .filter(javaInstaller -> javaInstaller.getArch() == HardwareArchitecture.RISCV64)
+            .count(), is(1L));
+    }
+
+    @Test
+    void latestOnlyStopsPagingOnceNoNewTargetsAppear() {
+        this.releases.add(release("21.0.6_7", "x64"));
+        this.releases.add(release("21.0.5_11", "x64", "riscv64"));
+        this.releases.add(release("21.0.4_7", "x64", "riscv64"));
+        this.releases.add(release("21.0.3_9", "x64", "riscv64"));
+
+        final List<String> names = this.latestNames(1);
+
+        // the third page added no target, so the fourth was never requested
+        assertThat(this.requests.get(), is(3));
+        assertThat(names, hasItem("OpenJDK21U-jdk_riscv64_linux_hotspot_21.0.5_11.tar.gz"));
+        assertThat(names, not(hasItem("OpenJDK21U-jdk_x64_linux_hotspot_21.0.3_9.tar.gz")));
+    }
+
+}
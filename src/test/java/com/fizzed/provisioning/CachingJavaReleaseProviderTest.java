@@ -0,0 +1,169 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.CachingJavaReleaseProvider;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaReleaseProvider;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CachingJavaReleaseProviderTest {
+
+    static private class StubProvider implements JavaReleaseProvider {
+
+        private final List<CompletableFuture<List<JavaInstaller>>> loads = new ArrayList<>();
+
+        @Override
+        public JavaDistro getDistro() {
+            return JavaDistro.ZULU;
+        }
+
+        @Override
+        public JavaReleaseProvider withTransport(HttpTransport transport) {
+            return this;
+        }
+
+        @Override
+        public CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query) {
+            final CompletableFuture<List<JavaInstaller>> future = new CompletableFuture<>();
+            this.loads.add(future);
+            return future;
+        }
+
+        public void completeLast(String name) {
+            this.loads.get(this.loads.size() - 1).complete(singletonList(new JavaInstaller().setName(name)));
+        }
+
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() throws Exception {
+        final StubProvider delegate = new StubProvider();
+        final CachingJavaReleaseProvider provider = new CachingJavaReleaseProvider(delegate);
+
+        final CompletableFuture<List<JavaInstaller>> first = provider.getInstallers(new JavaReleaseQuery(21));
+        final CompletableFuture<List<JavaInstaller>> second = provider.getInstallers(new JavaReleaseQuery(21));
+
+        assertThat(delegate.loads, hasSize(1));
+        assertThat(first.isDone(), is(false));
+
+        delegate.completeLast("a");
+
+        assertThat(first.get().get(0).getName(), is("a"));
+        assertThat(second.get().get(0).getName(), is("a"));
+        assertThat(provider.getMisses(), is(1L));
+        assertThat(provider.getHits(), is(1L));
+        assertThat(provider.getLoads(), is(1L));
+
+        // a different query is a different entry
+        provider.getInstallers(new JavaReleaseQuery(17));
+        assertThat(delegate.loads, hasSize(2));
+    }
+
+    @Test
+    void staleWhileRevalidate() throws Exception {
+        final AtomicLong now = new AtomicLong();
+        final StubProvider delegate = new StubProvider();
+        final CachingJavaReleaseProvider provider = new CachingJavaReleaseProvider(delegate)
+            .setTtl(Duration.ofMinutes(1))
+            .setStaleWindow(Duration.ofMinutes(10))
+            .setTicker(now::get);
+
+        provider.getInstallers(new JavaReleaseQuery(21));
+        delegate.completeLast("a");
+
+        // fresh
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertThat(provider.getInstallers(new JavaReleaseQuery(21)).get().get(0).getName(), is("a"));
+        assertThat(delegate.loads, hasSize(1));
+
+        // stale, served right away while a single refresh runs
+        now.addAndGet(Duration.ofMinutes(1).toNanos());
+        assertThat(provider.getInstallers(new JavaReleaseQuery(21)).get().get(0).getName(), is("a"));
+        assertThat(provider.getInstallers(new JavaReleaseQuery(21)).get().get(0).getName(), is("a"));
+        assertThat(delegate.loads, hasSize(2));
+        assertThat(provider.getStaleHits(), is(2L));
+
+        delegate.completeLast("b");
+        assertThat(provider.getInstallers(new JavaReleaseQuery(21)).get().get(0).getName(), is("b"));
+
+        // expired for good, so callers wait on a fresh load
+        now.addAndGet(Duration.ofMinutes(20).toNanos());
+        final CompletableFuture<List<JavaInstaller>> expired = provider.getInstallers(new JavaReleaseQuery(21));
+        assertThat(expired.isDone(), is(false));
+        assertThat(delegate.loads, hasSize(3));
+    }
+
+    @Test
+    void failuresAreNotCached() {
+        final StubProvider delegate = new StubProvider();
+        final CachingJavaReleaseProvider provider = new CachingJavaReleaseProvider(delegate);
+
+        final CompletableFuture<List<JavaInstaller>> failed = provider.getInstallers(new JavaReleaseQuery(21));
+        delegate.loads.get(0).completeExceptionally(new IOException("boom"));
+
+        final ExecutionException e = assertThrows(ExecutionException.class, failed::get);
+        assertThat(e.getCause(), instanceOf(IOException.class));
+        assertThat(provider.getLoadFailures(), is(1L));
+
+        provider.getInstallers(new JavaReleaseQuery(21));
+        assertThat(delegate.loads, hasSize(2));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() throws Exception {
+        final StubProvider delegate = new StubProvider();
+        final CachingJavaReleaseProvider provider = new CachingJavaReleaseProvider(delegate)
+            .setMaxSize(2);
+
+        provider.getInstallers(new JavaReleaseQuery(21));
+        delegate.completeLast("21");
+        provider.getInstallers(new JavaReleaseQuery(17));
+        delegate.completeLast("17");
+        provider.getInstallers(new JavaReleaseQuery(21));
+        provider.getInstallers(new JavaReleaseQuery(11));
+        delegate.completeLast("11");
+
+        assertThat(provider.size(), is(2));
+        assertThat(provider.getEvictions(), is(1L));
+
+        // 17 was the least recently used
+        provider.getInstallers(new JavaReleaseQuery(21));
+        assertThat(delegate.loads, hasSize(3));
+        provider.getInstallers(new JavaReleaseQuery(17));
+        assertThat(delegate.loads, hasSize(4));
+    }
+
+    @Test
+    void queriesModifiedAfterwardsDontAffectTheCache() throws Exception {
+        final StubProvider delegate = new StubProvider();
+        final CachingJavaReleaseProvider provider = new CachingJavaReleaseProvider(delegate);
+
+        final JavaReleaseQuery query = new JavaReleaseQuery(21);
+        provider.getInstallers(query);
+        delegate.completeLast("any");
+        query.setOs(OperatingSystem.LINUX);
+
+        // the entry is still found by an equal query, and a modified one is a miss
+        assertThat(provider.getInstallers(new JavaReleaseQuery(21)).get().get(0).getName(), is("any"));
+        provider.getInstallers(query);
+        assertThat(delegate.loads, hasSize(2));
+        assertThat(provider.size(), is(2));
+    }
+
+}
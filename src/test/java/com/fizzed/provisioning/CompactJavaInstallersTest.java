@@ -0,0 +1,58 @@
+package com.fizzed.provisioning;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.CompactJavaInstallers;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CompactJavaInstallersTest {
+
+    @Test
+    void roundTripsTheCatalog() throws Exception {
+        final List<JavaInstaller> javaInstallers = ProvisioningHelper.getObjectMapper()
+            .readValue(Files.readAllBytes(Paths.get("data/java-installers.json")), new TypeReference<List<JavaInstaller>>() {});
+
+        final CompactJavaInstallers compactJavaInstallers = CompactJavaInstallers.of(javaInstallers);
+
+        assertThat(compactJavaInstallers, hasSize(javaInstallers.size()));
+        assertThat(compactJavaInstallers, is(javaInstallers));
+        // far fewer cdn directories and version sources than installers
+        assertThat(compactJavaInstallers.getStringCount(), lessThan(javaInstallers.size() / 2));
+    }
+
+    @Test
+    void roundTripsTheUnusual() {
+        final List<JavaInstaller> javaInstallers = new ArrayList<>();
+        // nothing at all
+        javaInstallers.add(new JavaInstaller());
+        // a name that isn't the end of the url, and a version too big to pack
+        javaInstallers.add(new JavaInstaller()
+            .setDistro(JavaDistro.TEMURIN)
+            .setDownloadUrl("https://example.com/downloads/jdk.tar.gz")
+            .setName("OpenJDK21U-jdk_x64_linux_hotspot_21.0.5_11.tar.gz")
+            .setVersion(new JavaVersion("21.0.5+100000", 21, 0, 5, 100000))
+            .setOs(OperatingSystem.LINUX));
+        // no url, but a name
+        javaInstallers.add(new JavaInstaller()
+            .setName("zulu21.38.21-ca-jdk21.0.5-linux_x64.tar.gz")
+            .setVersion(new JavaVersion(null, 21, 0, 5, 11)));
+
+        final CompactJavaInstallers compactJavaInstallers = CompactJavaInstallers.of(javaInstallers);
+
+        assertThat(compactJavaInstallers, is(javaInstallers));
+        assertThat(compactJavaInstallers.getOs(1), is(OperatingSystem.LINUX));
+        assertThat(compactJavaInstallers.getDownloadUrl(2), is(nullValue()));
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.provisioning.github.GitHubRelease;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
+import com.fizzed.provisioning.sapmachine.SapMachineClient;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class GitHubJavaReleaseProviderTest {
+
+    private HttpServer server;
+    private SapMachineClient client;
+    private final List<String> releases = new ArrayList<>();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger conversions = new AtomicInteger();
+
+    @BeforeEach
+    void before() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // one release per page (newest first), linked to the next like the real api does
+        this.server.createContext("/", exchange -> {
+            this.requests.incrementAndGet();
+            int page = 1;
+            for (String param : exchange.getRequestURI().getQuery().split("&")) {
+                if (param.startsWith("page=")) {
+                    page = Integer.parseInt(param.substring(5));
+                }
+            }
+            final String body = page <= this.releases.size() ? "[" + this.releases.get(page - 1) + "]" : "[]";
+            if (page < this.releases.size()) {
+                exchange.getResponseHeaders().add("Link", "<https://api.github.com/repos/SAP/SapMachine/releases?per_page=100&page="
+                    + (page + 1) + ">; rel=\"next\"");
+            }
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        });
+        this.server.start();
+
+        final int port = this.server.getAddress().getPort();
+        this.client = new SapMachineClient(HttpTransport.builder()
+            .setUriRewriter(uri -> URI.create("http://127.0.0.1:" + port + uri.getRawPath() + "?" + uri.getRawQuery()))
+            .build()) {
+            @Override
+            protected List<JavaInstaller> toInstallers(GitHubRelease release, JavaVersion version) {
+                conversions.incrementAndGet();
+                return super.toInstallers(release, version);
+            }
+        };
+    }
+
+    @AfterEach
+    void after() {
+        this.server.stop(0);
+    }
+
+    static private String release(String version, String... archs) {
+        final List<String> assets = new ArrayList<>();
+        for (String arch : archs) {
+            final String name = "sapmachine-jdk-" + version + "_linux-" + arch + "_bin.tar.gz";
+            assets.add("{\"name\":\"" + name + "\",\"browser_download_url\":\"https://example.com/" + name + "\"}");
+        }
+        return "{\"tag_name\":\"sapmachine-" + version + "\",\"draft\":false,\"prerelease\":false,"
+            + "\"assets\":[" + String.join(",", assets) + "]}";
+    }
+
+    private List<String> latestNames() {
+        return this.latestNames(21);
+    }
+
+    private List<String> latestNames(int javaMajorVersion) {
+        return this.client.streamInstallers(new JavaReleaseQuery(javaMajorVersion).setLatestOnly(true))
+            .map(JavaInstaller::getName)
+            .collect(Collectors.toList());
+    }
+
+    @Test
+    void latestOnlyKeepsTargetsTheNewestReleaseLacks() {
+        // the newest release has no ppc64le build (yet)
+        this.releases.add(release("21.0.6", "x64"));
+        this.releases.add(release("21.0.5", "x64", "ppc64le"));
+
+        final List<String> names = this.latestNames();
+
+        assertThat(names, containsInAnyOrder("sapmachine-jdk-21.0.6_linux-x64_bin.tar.gz",
+            "sapmachine-jdk-21.0.5_linux-ppc64le_bin.tar.gz"));
+    }
+
+    @Test
+    void latestOnlyStopsPagingOnceAnOlderReleaseAddsNoTargets() {
+        this.releases.add(release("21.0.6", "x64"));
+        this.releases.add(release("21.0.5", "x64", "ppc64le"));
+        this.releases.add(release("21.0.4", "x64", "ppc64le"));
+        this.releases.add(release("21.0.3", "x64", "ppc64le", "aarch64"));
+
+        final List<String> names = this.latestNames();
+
+        // the third page added no target, so the fourth was never requested
+        assertThat(this.requests.get(), is(3));
+        // and each release listed was only converted once, however many pages were looked at
+        assertThat(this.conversions.get(), is(3));
+        assertThat(names, containsInAnyOrder("sapmachine-jdk-21.0.6_linux-x64_bin.tar.gz",
+            "sapmachine-jdk-21.0.5_linux-ppc64le_bin.tar.gz"));
+    }
+
+    @Test
+    void majorsOfTheSameRepoShareItsListing() {
+        // sapmachine publishes every major to the same repo
+        this.releases.add(release("21.0.6", "x64"));
+        this.releases.add(release("17.0.14", "x64"));
+        this.releases.add(release("21.0.5", "x64"));
+        this.releases.add(release("17.0.13", "x64"));
+        this.releases.add(release("17.0.12", "x64"));
+
+        assertThat(this.latestNames(21), contains("sapmachine-jdk-21.0.6_linux-x64_bin.tar.gz"));
+        assertThat(this.requests.get(), is(3));
+
+        // the first three pages are already listed, so only the fourth is fetched (rather than all four again)
+        assertThat(this.latestNames(17), contains("sapmachine-jdk-17.0.14_linux-x64_bin.tar.gz"));
+        assertThat(this.requests.get(), is(4));
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.http.HttpReplayServer;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstallerShard;
+import com.fizzed.provisioning.java.JavaInstallerShardResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Refreshes shards offline from the vendor responses blaze recorded (e.g. --http.record target/fixtures), over a shaped
+ * network (e.g. to profile the pipeline).
+ */
+class HttpReplayDemo {
+    static private final Logger log = LoggerFactory.getLogger(HttpReplayDemo.class);
+
+    static public void main(String[] args) throws Exception {
+        final List<JavaInstallerShard> shards = new ArrayList<>();
+        for (JavaDistro distro : List.of(JavaDistro.ZULU, JavaDistro.TEMURIN, JavaDistro.LIBERICA)) {
+            for (int javaMajorVersion : List.of(25, 21, 17, 11)) {
+                shards.add(new JavaInstallerShard(distro, javaMajorVersion));
+            }
+        }
+
+        try (HttpReplayServer replayServer = new HttpReplayServer(Paths.get(args.length > 0 ? args[0] : "target/fixtures"))
+                .setLatency(Duration.ofMillis(200))
+                .setBandwidth(1_000_000L)
+                .start()) {
+
+            final JavaInstallerPipeline pipeline = new JavaInstallerPipeline(HttpTransport.builder()
+                .setUriRewriter(replayServer::rewrite)
+                .build());
+
+            for (JavaInstallerShardResult result : pipeline.fetchResults(shards)) {
+                if (result.isSuccess()) {
+                    log.info("Shard {} has {} installers", result.getShard(), result.getJavaInstallers().size());
+                } else {
+                    log.warn("Shard {} failed: {}", result.getShard(), result.getError().toString());
+                }
+            }
+
+            log.info("Replayed {} requests ({} without a fixture)", replayServer.getRequests(), replayServer.getMisses());
+        }
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.http.HttpTransportResponse;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+class HttpTransportHedgeTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpTransport transport;
+    private final AtomicBoolean stallNext = new AtomicBoolean();
+    private final CountDownLatch unstall = new CountDownLatch(1);
+
+    @BeforeEach
+    void before() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // concurrently, so a stalled request doesn't hold up its hedge
+        this.serverExecutor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.serverExecutor);
+        this.server.createContext("/", exchange -> {
+            String body = "fast";
+            if (this.stallNext.getAndSet(false)) {
+                try {
+                    this.unstall.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    // the test is over
+                }
+                body = "slow";
+            }
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            } catch (IOException e) {
+                // the client closed the loser
+            }
+        });
+        this.server.start();
+        this.transport = HttpTransport.builder()
+            .setHedgePercentile(50.0)
+            .setHedgeMinSamples(3)
+            .build();
+        // latencies on localhost are too small (and noisy) for spikes to mean anything, and a halved limit leaves no
+        // permit to hedge with
+        this.transport.getLimiter("127.0.0.1").setLatencyTolerance(1000d);
+    }
+
+    @AfterEach
+    void after() {
+        this.unstall.countDown();
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    private String get() throws IOException, InterruptedException {
+        final HttpTransportResponse response = this.transport.get(URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + "/"));
+        try (InputStream input = response.getBody()) {
+            return new String(input.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void loserHoldsItsPermitUntilItCompletes() throws Exception {
+        // enough samples for the host's requests to be hedged
+        for (int i = 0; i < 3; i++) {
+            assertThat(this.get(), is("fast"));
+        }
+
+        this.stallNext.set(true);
+        assertThat(this.get(), is("fast"));
+        assertThat(this.transport.getHedgedRequests(), is(1L));
+
+        // the stalled request is still going, so it still has its permit
+        assertThat(this.transport.getLimiter("127.0.0.1").getInFlight(), is(1));
+
+        this.unstall.countDown();
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (this.transport.getLimiter("127.0.0.1").getInFlight() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(this.transport.getLimiter("127.0.0.1").getInFlight(), is(0));
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.fizzed.provisioning;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+class HttpTransportStreamTest {
+
+    private HttpServer server;
+    private HttpTransport transport;
+    private ObjectReader reader;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final CountDownLatch finish = new CountDownLatch(1);
+
+    @BeforeEach
+    void before() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        // 3 full pages of 2 elements, then a short one
+        this.server.createContext("/paged", exchange -> {
+            this.requests.incrementAndGet();
+            final int page = Integer.parseInt(exchange.getRequestURI().getQuery().replace("page=", ""));
+            final String body = page < 3 ? "[{\"id\":" + (page * 2) + "},{\"id\":" + (page * 2 + 1) + "}]" : "[{\"id\":" + (page * 2) + "}]";
+            final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        });
+        // the first element right away, then the rest only once the test is over
+        this.server.createContext("/slow", exchange -> {
+            this.requests.incrementAndGet();
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write("[{\"id\":0},".getBytes(StandardCharsets.UTF_8));
+                output.flush();
+                this.finish.await(10, TimeUnit.SECONDS);
+                output.write("{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+            } catch (InterruptedException | IOException e) {
+                // client went away
+            }
+        });
+        this.server.start();
+        this.transport = HttpTransport.builder().build();
+        this.reader = this.transport.getObjectMapper().readerFor(JsonNode.class);
+    }
+
+    @AfterEach
+    void after() {
+        this.finish.countDown();
+        this.server.stop(0);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + path);
+    }
+
+    private Stream<JsonNode> streamPages() {
+        final AtomicInteger page = new AtomicInteger();
+        return this.transport.streamJsonArray(this.reader, (previous, previousRows) -> {
+            if (previous != null && previousRows < 2) {
+                return null;
+            }
+            return HttpTransport.requireSuccess(this.transport.get(this.uri("/paged?page=" + page.getAndIncrement())));
+        });
+    }
+
+    @Test
+    void pagesAreOnlyRequestedOnceConsumed() throws Exception {
+        try (Stream<JsonNode> stream = this.streamPages()) {
+            assertThat(this.requests.get(), is(0));
+            assertThat(stream.limit(3).count(), is(3L));
+        }
+        assertThat(this.requests.get(), is(2));
+
+        final List<Integer> ids = HttpTransport.collectList(this.streamPages()).stream()
+            .map(node -> node.get("id").asInt())
+            .collect(Collectors.toList());
+
+        assertThat(ids, is(List.of(0, 1, 2, 3, 4, 5, 6)));
+        assertThat(this.requests.get(), is(6));
+    }
+
+    @Test
+    void firstElementArrivesBeforeTheRestOfTheBody() throws Exception {
+        final long start = System.nanoTime();
+        try (Stream<JsonNode> stream = this.transport.streamJsonArray(this.uri("/slow"), this.reader)) {
+            final Optional<JsonNode> first = stream.findFirst();
+            assertThat(first.get().get("id").asInt(), is(0));
+        }
+        // the server holds the rest of the body for 10 secs
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), lessThan(5000L));
+    }
+
+}
@@ -0,0 +1,331 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.http.HttpReplayServer;
+import com.fizzed.provisioning.http.HttpStatusException;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.http.HttpTransportResponse;
+import com.fizzed.provisioning.http.RetryPolicy;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPOutputStream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class HttpTransportTest {
+
+    // quick retries, so the tests don't wait on the default backoff
+    static private final RetryPolicy FAST_RETRIES = new RetryPolicy()
+        .setBaseDelay(Duration.ofMillis(1));
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpTransport transport;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private volatile String etag = "\"v1\"";
+    private final List<String> ifNoneMatches = new ArrayList<>();
+
+    @BeforeEach
+    void before() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.serverExecutor = Executors.newCachedThreadPool();
+        this.server.setExecutor(this.serverExecutor);
+        this.server.createContext("/gzip", exchange -> {
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (OutputStream gzip = new GZIPOutputStream(bytes)) {
+                gzip.write("hello gzip".getBytes(StandardCharsets.UTF_8));
+            }
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(200, bytes.size());
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes.toByteArray());
+            }
+        });
+        // an error that claims to be gzipped, but has no body at all
+        this.server.createContext("/gzip-error", exchange -> {
+            exchange.getResponseHeaders().add("Content-Encoding", "gzip");
+            exchange.sendResponseHeaders(404, -1);
+            exchange.close();
+        });
+        // rate limited twice, then answered
+        this.server.createContext("/rate-limited", exchange -> {
+            if (this.requests.incrementAndGet() <= 2) {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                respond(exchange, 429, "slow down");
+            } else {
+                respond(exchange, 200, "ok");
+            }
+        });
+        this.server.createContext("/unavailable", exchange -> {
+            this.requests.incrementAndGet();
+            respond(exchange, 503, "unavailable");
+        });
+        this.server.createContext("/ok", exchange -> {
+            this.requests.incrementAndGet();
+            respond(exchange, 200, "ok");
+        });
+        this.server.createContext("/missing", exchange -> {
+            this.requests.incrementAndGet();
+            respond(exchange, 404, "missing");
+        });
+        // the connection is dropped without a response the first time
+        this.server.createContext("/dropped", exchange -> {
+            if (this.requests.incrementAndGet() == 1) {
+                exchange.getResponseBody().close();
+                exchange.close();
+            } else {
+                respond(exchange, 200, "ok");
+            }
+        });
+        this.server.createContext("/slow", exchange -> {
+            this.requests.incrementAndGet();
+            this.maxActive.accumulateAndGet(this.active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(100L);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                this.active.decrementAndGet();
+            }
+            respond(exchange, 200, "ok");
+        });
+        this.server.createContext("/etag", exchange -> {
+            this.requests.incrementAndGet();
+            final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            synchronized (this.ifNoneMatches) {
+                this.ifNoneMatches.add(ifNoneMatch);
+            }
+            exchange.getResponseHeaders().add("ETag", this.etag);
+            if (this.etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                exchange.close();
+            } else {
+                respond(exchange, 200, "body " + this.etag);
+            }
+        });
+        this.server.start();
+        this.transport = HttpTransport.builder().build();
+    }
+
+    @AfterEach
+    void after() {
+        this.server.stop(0);
+        this.serverExecutor.shutdownNow();
+    }
+
+    static private void respond(HttpExchange exchange, int statusCode, String body) throws IOException {
+        final byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    static private String read(HttpTransportResponse response) throws IOException {
+        try (response; InputStream body = response.getBody()) {
+            return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://127.0.0.1:" + this.server.getAddress().getPort() + path);
+    }
+
+    @Test
+    void gzipIsDecoded() throws Exception {
+        try (HttpTransportResponse response = HttpTransport.requireSuccess(this.transport.get(this.uri("/gzip")));
+                InputStream body = response.getBody()) {
+            assertThat(new String(body.readAllBytes(), StandardCharsets.UTF_8), is("hello gzip"));
+        }
+        assertThat(this.transport.getDecodedBytes(), is(10L));
+    }
+
+    @Test
+    void gzipErrorWithoutABodyIsAStatusError() {
+        final HttpStatusException e = assertThrows(HttpStatusException.class,
+            () -> HttpTransport.requireSuccess(this.transport.get(this.uri("/gzip-error"))));
+        assertThat(e.getStatusCode(), is(404));
+    }
+
+    @Test
+    void retriesRateLimitedResponsesAndBacksOff() throws Exception {
+        final HttpTransport transport = HttpTransport.builder()
+            .setRetryPolicy(FAST_RETRIES)
+            .build();
+        // latencies on localhost are too small (and noisy) for spikes to mean anything, only the 429s should count
+        transport.getLimiter("127.0.0.1").setLatencyTolerance(1000d);
+
+        try (HttpTransportResponse response = transport.get(this.uri("/rate-limited"))) {
+            assertThat(response.getStatusCode(), is(200));
+            assertThat(read(response), is("ok"));
+        }
+
+        assertThat(this.requests.get(), is(3));
+        // each 429 halved the limit (from 4 to 1), the success grew it by one, and every permit was given back
+        assertThat(transport.getLimiter("127.0.0.1").getLimit(), is(2));
+        assertThat(transport.getLimiter("127.0.0.1").getInFlight(), is(0));
+    }
+
+    @Test
+    void givesUpAfterTheLastAttempt() throws Exception {
+        final HttpTransport transport = HttpTransport.builder()
+            .setRetryPolicy(new RetryPolicy().setBaseDelay(Duration.ofMillis(1)).setMaxAttempts(2))
+            .build();
+
+        final HttpStatusException e = assertThrows(HttpStatusException.class,
+            () -> HttpTransport.requireSuccess(transport.get(this.uri("/unavailable"))));
+
+        assertThat(e.getStatusCode(), is(503));
+        assertThat(this.requests.get(), is(2));
+    }
+
+    @Test
+    void clientErrorsAreNotRetried() throws Exception {
+        final HttpTransport transport = HttpTransport.builder()
+            .setRetryPolicy(FAST_RETRIES)
+            .build();
+
+        try (HttpTransportResponse response = transport.get(this.uri("/missing"))) {
+            assertThat(response.getStatusCode(), is(404));
+        }
+        assertThat(this.requests.get(), is(1));
+    }
+
+    @Test
+    void retriesDroppedConnections() throws Exception {
+        final HttpTransport transport = HttpTransport.builder()
+            .setRetryPolicy(FAST_RETRIES)
+            .build();
+
+        assertThat(read(HttpTransport.requireSuccess(transport.get(this.uri("/dropped")))), is("ok"));
+        assertThat(this.requests.get(), is(2));
+        assertThat(transport.getLimiter("127.0.0.1").getInFlight(), is(0));
+    }
+
+    @Test
+    void limiterCapsRequestsInFlightToAHost() throws Exception {
+        final HttpTransport transport = HttpTransport.builder()
+            .setConcurrencyLimits(2, 2)
+            .build();
+
+        final ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                futures.add(executor.submit(() -> read(transport.get(this.uri("/slow")))));
+            }
+            for (Future<String> future : futures) {
+                assertThat(future.get(), is("ok"));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(this.requests.get(), is(6));
+        assertThat(this.maxActive.get(), lessThanOrEqualTo(2));
+        assertThat(transport.getLimiter("127.0.0.1").getInFlight(), is(0));
+    }
+
+    @Test
+    void permitIsHeldUntilTheBodyIsDone() throws Exception {
+        final HttpTransport transport = HttpTransport.builder()
+            .setConcurrencyLimits(1, 1)
+            .build();
+
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<String> second;
+            try (HttpTransportResponse first = transport.get(this.uri("/ok"))) {
+                second = executor.submit(() -> read(transport.get(this.uri("/ok"))));
+
+                // the first body is still open, so the second request waits for its permit
+                Thread.sleep(200L);
+                assertThat(second.isDone(), is(false));
+                assertThat(this.requests.get(), is(1));
+                assertThat(transport.getLimiter("127.0.0.1").getInFlight(), is(1));
+            }
+            assertThat(second.get(), is("ok"));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(this.requests.get(), is(2));
+        assertThat(transport.getLimiter("127.0.0.1").getInFlight(), is(0));
+    }
+
+    @Test
+    void unchangedResponsesAreServedFromTheCache(@TempDir Path cacheDir) throws Exception {
+        final HttpTransport transport = HttpTransport.builder()
+            .setCacheDir(cacheDir)
+            .build();
+
+        try (HttpTransportResponse response = transport.get(this.uri("/etag"))) {
+            assertThat(response.isCached(), is(false));
+            assertThat(read(response), is("body \"v1\""));
+        }
+        // revalidated with the etag, and the 304 answered from the cache
+        try (HttpTransportResponse response = transport.get(this.uri("/etag"))) {
+            assertThat(response.getStatusCode(), is(200));
+            assertThat(response.isCached(), is(true));
+            assertThat(read(response), is("body \"v1\""));
+        }
+        // a changed response replaces what was cached
+        this.etag = "\"v2\"";
+        try (HttpTransportResponse response = transport.get(this.uri("/etag"))) {
+            assertThat(response.isCached(), is(false));
+            assertThat(read(response), is("body \"v2\""));
+        }
+
+        assertThat(this.ifNoneMatches, contains(null, "\"v1\"", "\"v1\""));
+        assertThat(read(transport.get(this.uri("/etag"))), is("body \"v2\""));
+        assertThat(this.ifNoneMatches.get(3), is("\"v2\""));
+    }
+
+    @Test
+    void recordedResponsesAreReplayedOffline(@TempDir Path fixturesDir) throws Exception {
+        final HttpTransport recording = HttpTransport.builder()
+            .setRecordDir(fixturesDir)
+            .build();
+        assertThat(read(recording.get(this.uri("/gzip"))), is("hello gzip"));
+
+        // the vendor is gone, but its response is still there
+        this.server.stop(0);
+        try (HttpReplayServer replayServer = new HttpReplayServer(fixturesDir).start()) {
+            final HttpTransport replaying = HttpTransport.builder()
+                .setUriRewriter(replayServer::rewrite)
+                .build();
+
+            try (HttpTransportResponse response = HttpTransport.requireSuccess(replaying.get(this.uri("/gzip")))) {
+                assertThat(response.getUri(), is(this.uri("/gzip")));
+                assertThat(response.getHeader("Content-Encoding"), is("gzip"));
+                assertThat(read(response), is("hello gzip"));
+            }
+            assertThat(replayServer.getRequests(), is(1L));
+            assertThat(replayServer.getMisses(), is(0L));
+        }
+    }
+
+}
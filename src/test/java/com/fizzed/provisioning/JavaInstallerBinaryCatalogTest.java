@@ -0,0 +1,107 @@
+package com.fizzed.provisioning;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerBinaryCatalog;
+import com.fizzed.provisioning.java.JavaInstallerCatalog;
+import com.fizzed.provisioning.java.JavaInstallerTarget;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.installer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JavaInstallerBinaryCatalogTest {
+
+    @Test
+    void encodeAndOpen() throws Exception {
+        final List<JavaInstaller> javaInstallers = ProvisioningHelper.getObjectMapper()
+            .readValue(Files.readAllBytes(Paths.get("data/java-installers.json")), new TypeReference<List<JavaInstaller>>() {});
+        final JavaInstallerCatalog catalog = new JavaInstallerCatalog(javaInstallers);
+
+        final byte[] bytes = JavaInstallerBinaryCatalog.encode(javaInstallers);
+        assertThat(JavaInstallerBinaryCatalog.encode(javaInstallers), is(bytes));
+
+        final Path file = Files.createTempFile("java-installers", ".bin");
+        try {
+            Files.write(file, bytes);
+            final JavaInstallerBinaryCatalog binaryCatalog = JavaInstallerBinaryCatalog.open(file);
+
+            assertThat(binaryCatalog.size(), is(catalog.size()));
+            for (int i = 0; i < catalog.size(); i++) {
+                assertThat(binaryCatalog.get(i), is(catalog.getJavaInstallers().get(i)));
+            }
+
+            for (JavaInstallerTarget query : List.of(
+                    new JavaInstallerTarget(JavaDistro.ZULU, 21, OperatingSystem.LINUX, HardwareArchitecture.X64, ABI.DEFAULT, ImageType.JDK, InstallerType.TAR_GZ),
+                    new JavaInstallerTarget(null, 17, OperatingSystem.LINUX, null, ABI.MUSL, null, null),
+                    new JavaInstallerTarget(null, null, OperatingSystem.MACOS, HardwareArchitecture.ARM64, null, null, null),
+                    new JavaInstallerTarget(null, null, null, null, null, null, null))) {
+                assertThat(binaryCatalog.find(query), is(catalog.find(query)));
+                assertThat(binaryCatalog.findLatest(query), is(catalog.findLatest(query)));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    // the offset of the string id of the name of an ordinal of the table of a field (in the order they are written)
+    static private int nameOffset(ByteBuffer buffer, int field, int ordinal) {
+        int offset = buffer.getInt(32);
+        for (int f = 0; f < field; f++) {
+            offset += 4 + 4 * buffer.getInt(offset);
+        }
+        return offset + 4 + 4 * ordinal;
+    }
+
+    @Test
+    void ordinalsAreMappedByName() {
+        final ByteBuffer buffer = ByteBuffer.wrap(JavaInstallerBinaryCatalog.encode(List.of(installer(JavaDistro.ZULU, null, OperatingSystem.LINUX, HardwareArchitecture.X64),
+            installer(JavaDistro.ZULU, null, OperatingSystem.MACOS, HardwareArchitecture.X64))));
+
+        // as if the catalog was encoded with linux and macos the other way around
+        final int linux = nameOffset(buffer, 1, OperatingSystem.LINUX.ordinal());
+        final int macos = nameOffset(buffer, 1, OperatingSystem.MACOS.ordinal());
+        final int linuxName = buffer.getInt(linux);
+        buffer.putInt(linux, buffer.getInt(macos));
+        buffer.putInt(macos, linuxName);
+
+        final JavaInstallerBinaryCatalog catalog = JavaInstallerBinaryCatalog.of(buffer);
+        final JavaInstallerTarget macosQuery = new JavaInstallerTarget(null, null, OperatingSystem.MACOS, null, null, null, null);
+        assertThat(catalog.findLatest(macosQuery).getName(), is("zulu-null-linux-x64.tar.gz"));
+        assertThat(catalog.findLatest(macosQuery).getOs(), is(OperatingSystem.MACOS));
+    }
+
+    @Test
+    void valuesUnknownToTheEnumsAreNeverFound() {
+        final ByteBuffer buffer = ByteBuffer.wrap(JavaInstallerBinaryCatalog.encode(List.of(installer(JavaDistro.ZULU, null, OperatingSystem.LINUX, HardwareArchitecture.X64),
+            installer(JavaDistro.ZULU, null, OperatingSystem.MACOS, HardwareArchitecture.X64))));
+
+        // as if the catalog was encoded with an os named ZULU instead of linux
+        buffer.putInt(nameOffset(buffer, 1, OperatingSystem.LINUX.ordinal()), buffer.getInt(nameOffset(buffer, 0, JavaDistro.ZULU.ordinal())));
+
+        final JavaInstallerBinaryCatalog catalog = JavaInstallerBinaryCatalog.of(buffer);
+        assertThat(catalog.size(), is(2));
+        assertThat(catalog.find(new JavaInstallerTarget(null, null, null, null, null, null, null)), contains(installer(JavaDistro.ZULU, null, OperatingSystem.MACOS, HardwareArchitecture.X64)));
+        assertThat(catalog.find(new JavaInstallerTarget(null, null, OperatingSystem.LINUX, null, null, null, null)), is(empty()));
+    }
+
+    @Test
+    void rejectsOtherFiles() {
+        assertThrows(IllegalArgumentException.class, () -> JavaInstallerBinaryCatalog.of(ByteBuffer.wrap("[ { } ]".getBytes())));
+    }
+
+}
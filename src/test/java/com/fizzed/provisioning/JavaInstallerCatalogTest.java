@@ -0,0 +1,57 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerCatalog;
+import com.fizzed.provisioning.java.JavaInstallerTarget;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.installer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JavaInstallerCatalogTest {
+
+    private final JavaInstaller zulu21x64 = installer(JavaDistro.ZULU, "21.0.5+1", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    private final JavaInstaller zulu21x64Old = installer(JavaDistro.ZULU, "21.0.4+1", OperatingSystem.LINUX, HardwareArchitecture.X64).setAbi(ABI.DEFAULT);
+    private final JavaInstaller zulu21arm64 = installer(JavaDistro.ZULU, "21.0.3+1", OperatingSystem.LINUX, HardwareArchitecture.ARM64);
+    private final JavaInstaller zulu17x64Musl = installer(JavaDistro.ZULU, "17.0.13+1", OperatingSystem.LINUX, HardwareArchitecture.X64).setAbi(ABI.MUSL);
+    private final JavaInstaller temurin21x64 = installer(JavaDistro.TEMURIN, "21.0.6+1", OperatingSystem.LINUX, HardwareArchitecture.X64);
+
+    private final JavaInstallerCatalog catalog = new JavaInstallerCatalog(List.of(
+        zulu17x64Musl, zulu21x64Old, temurin21x64, zulu21arm64, zulu21x64));
+
+    @Test
+    void findExact() {
+        assertThat(catalog.find(new JavaInstallerTarget(JavaDistro.ZULU, 21, OperatingSystem.LINUX, HardwareArchitecture.X64,
+            ABI.DEFAULT, ImageType.JDK, InstallerType.TAR_GZ)), contains(zulu21x64, zulu21x64Old));
+        assertThat(catalog.findLatest(new JavaInstallerTarget(JavaDistro.ZULU, 17, OperatingSystem.LINUX, HardwareArchitecture.X64,
+            ABI.MUSL, ImageType.JDK, InstallerType.TAR_GZ)), is(zulu17x64Musl));
+        assertThat(catalog.findLatest(new JavaInstallerTarget(JavaDistro.ZULU, 11, OperatingSystem.LINUX, HardwareArchitecture.X64,
+            ABI.DEFAULT, ImageType.JDK, InstallerType.TAR_GZ)), is(nullValue()));
+    }
+
+    @Test
+    void findWithWildcards() {
+        // any distro, newest first
+        assertThat(catalog.find(new JavaInstallerTarget(null, 21, OperatingSystem.LINUX, HardwareArchitecture.X64, null, null, null)),
+            contains(temurin21x64, zulu21x64, zulu21x64Old));
+        assertThat(catalog.find(new JavaInstallerTarget(JavaDistro.ZULU, null, null, null, null, null, null)),
+            contains(zulu21x64, zulu21x64Old, zulu21arm64, zulu17x64Musl));
+        assertThat(catalog.findLatest(new JavaInstallerTarget(null, null, null, HardwareArchitecture.ARM64, null, null, null)), is(zulu21arm64));
+
+        // twice, the second from the cached miss
+        for (int i = 0; i < 2; i++) {
+            assertThat(catalog.find(new JavaInstallerTarget(null, 21, OperatingSystem.WINDOWS, null, null, null, null)), hasSize(0));
+            assertThat(catalog.findLatest(new JavaInstallerTarget(null, 21, OperatingSystem.WINDOWS, null, null, null, null)), is(nullValue()));
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerConversion;
+import com.fizzed.provisioning.java.JavaInstallerConverter;
+import com.fizzed.provisioning.java.JavaInstallerParseException;
+import com.fizzed.provisioning.java.JavaInstallerSkips;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JavaInstallerConverterTest {
+
+    @Test
+    void convertKeepsOrderAndCollectsFailures() {
+        final List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            names.add(i % 100 == 7 ? "bad-" + i : "installer-" + i);
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            final JavaInstallerConversion conversion = JavaInstallerConverter.builder()
+                .setPool(pool)
+                .setThreshold(16)
+                .build()
+                .convert(JavaDistro.ZULU, names, name -> {
+                    if (name.startsWith("bad-")) {
+                        throw new JavaInstallerParseException(JavaDistro.ZULU, name, 0, "'installer-'");
+                    }
+                    return new JavaInstaller().setName(name);
+                });
+
+            assertThat(conversion.getDistro(), is(JavaDistro.ZULU));
+            assertThat(conversion.getRows(), is(1000));
+            assertThat(conversion.getJavaInstallers(), hasSize(990));
+            assertThat(conversion.getJavaInstallers().get(0).getName(), is("installer-0"));
+            assertThat(conversion.getJavaInstallers().get(7).getName(), is("installer-8"));
+            assertThat(conversion.getJavaInstallers().get(989).getName(), is("installer-999"));
+
+            assertThat(conversion.getFailures(), hasSize(10));
+            assertThat(conversion.getFailures().get(0).getIndex(), is(7));
+            assertThat(conversion.getFailures().get(9).getIndex(), is(907));
+            assertThat(conversion.getFailures().get(0).getError(), instanceOf(JavaInstallerParseException.class));
+            // the same problem with every one of them, so it's one reason with every name as an example
+            assertThat(conversion.getFailuresByReason().keySet(), contains("expected 'installer-'"));
+            assertThat(conversion.getFailuresByReason().get("expected 'installer-'").get(1).getName(), is("bad-107"));
+
+            // every row was timed on some thread
+            assertThat(conversion.getThreadTimings().stream().mapToLong(JavaInstallerConversion.ThreadTiming::getRows).sum(), is(1000L));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void convertEmptyAndSequentialLists() {
+        final JavaInstallerConversion empty = JavaInstallerConverter.getDefault()
+            .convert(JavaDistro.LIBERICA, new ArrayList<String>(), name -> new JavaInstaller().setName(name));
+
+        assertThat(empty.getRows(), is(0));
+        assertThat(empty.getJavaInstallers(), hasSize(0));
+        assertThat(empty.getThreadTimings(), hasSize(0));
+
+        // not random access, so it's copied before being split
+        final List<String> names = new LinkedList<>(List.of("a", "b", "c"));
+        final JavaInstallerConversion conversion = JavaInstallerConverter.builder()
+            .setThreshold(1)
+            .build()
+            .convert(JavaDistro.LIBERICA, names, name -> new JavaInstaller().setName(name));
+
+        assertThat(conversion.getJavaInstallers().stream().map(JavaInstaller::getName).collect(Collectors.toList()), contains("a", "b", "c"));
+        assertThat(conversion.hasFailures(), is(false));
+    }
+
+    @Test
+    void skippingTalliesWhatCouldNotBeConverted() {
+        final JavaInstallerSkips skips = new JavaInstallerSkips();
+
+        final List<String> names = Stream.of("installer-1", "bad-2", "installer-3", "worse-4", "bad-5")
+            .flatMap(JavaInstallerConverter.skipping(name -> {
+                if (name.startsWith("bad-")) {
+                    throw new JavaInstallerParseException(JavaDistro.ZULU, name, 0, "'installer-'");
+                } else if (name.startsWith("worse-")) {
+                    throw new JavaInstallerParseException(JavaDistro.ZULU, name, 0, "a version");
+                }
+                return new JavaInstaller().setName(name);
+            }, skips))
+            .map(JavaInstaller::getName)
+            .collect(Collectors.toList());
+
+        assertThat(names, contains("installer-1", "installer-3"));
+        assertThat(skips.getCount(), is(3));
+        assertThat(skips.getCountsByDistro(), is(Map.of(JavaDistro.ZULU, 3)));
+
+        final List<JavaInstallerSkips.Reason> reasons = skips.getReasons(JavaDistro.ZULU);
+        assertThat(reasons, hasSize(2));
+        assertThat(reasons.get(0).getExpected(), is("'installer-'"));
+        assertThat(reasons.get(0).getCount(), is(2));
+        assertThat(reasons.get(0).getExamples(), contains("bad-2", "bad-5"));
+        assertThat(reasons.get(1).getExpected(), is("a version"));
+        assertThat(skips.getReasons(JavaDistro.LIBERICA), hasSize(0));
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.fizzed.provisioning;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Installers for tests, shared by the tests of every package.
+ */
+public final class JavaInstallerFixtures {
+
+    private JavaInstallerFixtures() {
+    }
+
+    /**
+     * The installers of data/java-installers.json (as the vendor apis described them).
+     */
+    static public List<JavaInstaller> catalog() throws IOException {
+        return ProvisioningHelper.getObjectMapper()
+            .readValue(Files.readAllBytes(Paths.get("data/java-installers.json")), new TypeReference<List<JavaInstaller>>() {});
+    }
+
+    static public List<JavaInstaller> catalog(JavaDistro distro) throws IOException {
+        return catalog().stream()
+            .filter(javaInstaller -> javaInstaller.getDistro() == distro)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * A jdk tar.gz of a distro, version (e.g. "21.0.5+11", or null), os and arch, named and linked after them.
+     */
+    static public JavaInstaller installer(JavaDistro distro, String version, OperatingSystem os, HardwareArchitecture arch) {
+        final String name = (distro + "-" + version + "-" + os + "-" + arch).toLowerCase() + ".tar.gz";
+        return new JavaInstaller()
+            .setDistro(distro)
+            .setName(name)
+            .setDownloadUrl("https://example.com/" + name)
+            .setVersion(version != null ? version(version) : null)
+            .setOs(os)
+            .setArch(arch)
+            .setImageType(ImageType.JDK)
+            .setInstallerType(InstallerType.TAR_GZ);
+    }
+
+    /**
+     * A version of its major, minor, security and build, e.g. "21.0.5+11".
+     */
+    static public JavaVersion version(String version) {
+        final String[] components = version.split("[.+]");
+        return new JavaVersion(null, Integer.parseInt(components[0]), Integer.parseInt(components[1]),
+            Integer.parseInt(components[2]), Integer.parseInt(components[3]));
+    }
+
+    /**
+     * The name and target of an installer, e.g. to compare how two installers were classified.
+     */
+    static public String describeTarget(JavaInstaller javaInstaller) {
+        return javaInstaller.getName() + " " + javaInstaller.getDistro() + "/" + javaInstaller.getOs() + "/" + javaInstaller.getArch()
+            + "/" + javaInstaller.getAbi() + "/" + javaInstaller.getImageType() + "/" + javaInstaller.getInstallerType();
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerHistoryEntry;
+import com.fizzed.provisioning.java.JavaInstallerTarget;
+import com.fizzed.provisioning.java.JavaVersionRange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.installer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JavaInstallerHistoryTest {
+
+    static private final JavaInstallerTarget LINUX_ARM64 = new JavaInstallerTarget(JavaDistro.TEMURIN, 17,
+        OperatingSystem.LINUX, HardwareArchitecture.ARM64, ABI.DEFAULT, ImageType.JDK, InstallerType.TAR_GZ);
+
+    static private final JavaInstaller V17_0_12 = installer(JavaDistro.TEMURIN, "17.0.12+1", OperatingSystem.LINUX, HardwareArchitecture.ARM64);
+    static private final JavaInstaller V17_0_13 = installer(JavaDistro.TEMURIN, "17.0.13+1", OperatingSystem.LINUX, HardwareArchitecture.ARM64);
+    static private final JavaInstaller V17_0_14 = installer(JavaDistro.TEMURIN, "17.0.14+1", OperatingSystem.LINUX, HardwareArchitecture.ARM64);
+
+    @Test
+    void asOfReplaysFromTheNearestSnapshot(@TempDir Path dir) throws Exception {
+        final JavaInstallerHistory history = new JavaInstallerHistory(dir)
+            .setSnapshotInterval(2)
+            .load();
+
+        final Instant jan = Instant.parse("2026-01-01T00:00:00Z");
+        final Instant feb = Instant.parse("2026-02-01T00:00:00Z");
+        final Instant mar = Instant.parse("2026-03-01T00:00:00Z");
+        final Instant apr = Instant.parse("2026-04-01T00:00:00Z");
+
+        history.record(List.of(V17_0_12), jan);
+        // 17.0.13 is released, and a snapshot is taken (every 2 entries)
+        final JavaInstallerHistoryEntry entry = history.record(List.of(V17_0_12, V17_0_13), feb);
+        assertThat(entry.getSequence(), is(2L));
+        assertThat(entry.getAdded(), contains(V17_0_13));
+        assertThat(history.record(List.of(V17_0_12, V17_0_13), feb.plusSeconds(60)), is(nullValue()));
+        history.record(List.of(V17_0_12, V17_0_14), apr);
+
+        assertThat(history.getSnapshots(), hasSize(1));
+        assertThrows(UnsupportedOperationException.class, () -> history.getSnapshots().clear());
+        assertThrows(IllegalArgumentException.class, () -> history.record(List.of(), mar));
+
+        // a fresh load sees the same history
+        final JavaInstallerHistory loaded = new JavaInstallerHistory(dir).load();
+        assertThat(loaded.getLastSequence(), is(3L));
+        assertThat(loaded.asOf(jan.minusSeconds(1)), is(empty()));
+        assertThat(loaded.asOf(jan), contains(V17_0_12));
+        assertThat(loaded.asOf(mar), contains(V17_0_12, V17_0_13));
+        assertThat(loaded.getLatest(), contains(V17_0_12, V17_0_14));
+
+        // what a fleet pinned to the first of march would have installed
+        assertThat(loaded.resolverAsOf(mar).resolve(LINUX_ARM64, JavaVersionRange.ANY), is(V17_0_13));
+        assertThat(loaded.resolverAsOf(apr).resolve(LINUX_ARM64, JavaVersionRange.parse("!17.0.14")), is(V17_0_12));
+    }
+
+    @Test
+    void aPartialEntryLeftByACrashIsIgnoredThenDropped(@TempDir Path dir) throws Exception {
+        final Instant jan = Instant.parse("2026-01-01T00:00:00Z");
+        final Instant feb = Instant.parse("2026-02-01T00:00:00Z");
+
+        new JavaInstallerHistory(dir).load().record(List.of(V17_0_12), jan);
+        // as if the process died part way through writing the next entry
+        Files.write(dir.resolve("history.ndjson"), "{\"sequence\":2,\"at\":\"2026-01-15T00:00:00Z\",\"added\":[{\"na".getBytes(StandardCharsets.UTF_8),
+            StandardOpenOption.APPEND);
+
+        final JavaInstallerHistory history = new JavaInstallerHistory(dir).load();
+        assertThat(history.getLastSequence(), is(1L));
+        assertThat(history.getLatest(), contains(V17_0_12));
+
+        assertThat(history.record(List.of(V17_0_12, V17_0_13), feb).getSequence(), is(2L));
+        final JavaInstallerHistory loaded = new JavaInstallerHistory(dir).load();
+        assertThat(loaded.getLastSequence(), is(2L));
+        assertThat(loaded.getLatest(), contains(V17_0_12, V17_0_13));
+        assertThat(Files.readAllLines(dir.resolve("history.ndjson")), hasSize(2));
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JavaInstallerJsonWriterTest {
+
+    @Test
+    void prettyArrayIsTheSameAsTheCatalog() throws Exception {
+        final Path file = Paths.get("data/java-installers.json");
+        final List<JavaInstaller> javaInstallers;
+        try (Stream<JavaInstaller> stream = JavaInstallerJsonReader.stream(file)) {
+            javaInstallers = stream.collect(Collectors.toList());
+        }
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JavaInstallerJsonWriter writer = new JavaInstallerJsonWriter(output, JavaInstallerJsonWriter.Layout.PRETTY_ARRAY)) {
+            writer.writeAll(javaInstallers);
+        }
+
+        assertThat(javaInstallers, not(empty()));
+        assertThat(output.toByteArray(), is(Files.readAllBytes(file)));
+        assertThat(output.toByteArray(), is(ProvisioningHelper.getPrettyObjectWriter().writeValueAsBytes(javaInstallers)));
+    }
+
+    @Test
+    void ndjsonIsAnInstallerPerLine() throws Exception {
+        final List<JavaInstaller> javaInstallers = javaInstallers();
+
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (JavaInstallerJsonWriter writer = new JavaInstallerJsonWriter(output, JavaInstallerJsonWriter.Layout.NDJSON)) {
+            writer.writeAll(javaInstallers);
+            assertThat(writer.getCount(), is(2L));
+        }
+
+        final String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines.length, is(2));
+        assertThat(lines[0], startsWith("{\"distro\":\"zulu\","));
+        assertThat(lines[1], startsWith("{\"distro\":\"temurin\","));
+
+        // any line on its own is an installer
+        assertThat(ProvisioningHelper.getObjectMapper().readValue(lines[1], JavaInstaller.class), is(javaInstallers.get(1)));
+        assertThat(read(output.toByteArray()), is(javaInstallers));
+    }
+
+    @Test
+    void readsEitherLayout() throws Exception {
+        final List<JavaInstaller> javaInstallers = javaInstallers();
+
+        for (JavaInstallerJsonWriter.Layout layout : JavaInstallerJsonWriter.Layout.values()) {
+            final ByteArrayOutputStream output = new ByteArrayOutputStream();
+            try (JavaInstallerJsonWriter writer = new JavaInstallerJsonWriter(output, layout)) {
+                writer.writeAll(javaInstallers);
+            }
+            assertThat(read(output.toByteArray()), is(javaInstallers));
+        }
+
+        assertThat(read("[]".getBytes(StandardCharsets.UTF_8)), is(empty()));
+        assertThat(read(new byte[0]), is(empty()));
+    }
+
+    @Test
+    void appendsToNdjson() throws Exception {
+        final List<JavaInstaller> javaInstallers = javaInstallers();
+        final Path file = Files.createTempFile("java-installers", ".ndjson");
+        try {
+            Files.delete(file);
+            for (JavaInstaller javaInstaller : javaInstallers) {
+                try (JavaInstallerJsonWriter writer = JavaInstallerJsonWriter.append(file)) {
+                    writer.write(javaInstaller);
+                }
+            }
+
+            try (Stream<JavaInstaller> stream = JavaInstallerJsonReader.stream(file)) {
+                assertThat(stream.collect(Collectors.toList()), is(javaInstallers));
+            }
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    static private List<JavaInstaller> read(byte[] json) throws Exception {
+        final List<JavaInstaller> javaInstallers = new ArrayList<>();
+        try (JavaInstallerJsonReader reader = new JavaInstallerJsonReader(new ByteArrayInputStream(json))) {
+            reader.forEachRemaining(javaInstallers::add);
+        }
+        return javaInstallers;
+    }
+
+    static private List<JavaInstaller> javaInstallers() {
+        return asList(
+            new JavaInstaller()
+                .setDistro(JavaDistro.ZULU)
+                .setDownloadUrl("https://cdn.azul.com/zulu/bin/zulu21.38.21-ca-jdk21.0.5-linux_x64.tar.gz")
+                .setName("zulu21.38.21-ca-jdk21.0.5-linux_x64.tar.gz")
+                .setVersion(new JavaVersion(null, 21, 0, 5, 11))
+                .setOs(OperatingSystem.LINUX),
+            new JavaInstaller()
+                .setDistro(JavaDistro.TEMURIN)
+                .setName("OpenJDK17U-jdk_x64_linux_hotspot_17.0.13_11.tar.gz"));
+    }
+
+}
@@ -0,0 +1,143 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerShard;
+import com.fizzed.provisioning.java.JavaInstallerShardResult;
+import com.fizzed.provisioning.java.JavaReleaseEngine;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static com.fizzed.jne.HardwareArchitecture.X64;
+import static com.fizzed.jne.OperatingSystem.LINUX;
+import static com.fizzed.provisioning.JavaInstallerFixtures.installer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JavaInstallerPipelineTest {
+
+    static private final List<JavaInstallerShard> SHARDS = List.of(new JavaInstallerShard(JavaDistro.ZULU, 21),
+        new JavaInstallerShard(JavaDistro.ZULU, 17), new JavaInstallerShard(JavaDistro.ZULU, 11), new JavaInstallerShard(JavaDistro.ZULU, 8));
+
+    // the answer to the query of each major, completed whenever (and however) the test decides
+    private final Map<Integer, CompletableFuture<List<JavaInstaller>>> answers = new ConcurrentHashMap<>();
+    private final Semaphore requested = new Semaphore(0);
+    private final AtomicInteger outstanding = new AtomicInteger();
+    private final AtomicInteger maxOutstanding = new AtomicInteger();
+    private JavaInstallerPipeline pipeline;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void before() {
+        final StubJavaReleaseProvider zulu = new StubJavaReleaseProvider(JavaDistro.ZULU, query -> {
+            this.maxOutstanding.accumulateAndGet(this.outstanding.incrementAndGet(), Math::max);
+            final CompletableFuture<List<JavaInstaller>> answer = this.answer(query.getJavaMajorVersion());
+            this.requested.release();
+            return answer.whenComplete((javaInstallers, error) -> this.outstanding.decrementAndGet());
+        });
+        this.pipeline = new JavaInstallerPipeline(new JavaReleaseEngine(List.of(zulu)));
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void after() {
+        this.executor.shutdownNow();
+    }
+
+    private CompletableFuture<List<JavaInstaller>> answer(int javaMajorVersion) {
+        return this.answers.computeIfAbsent(javaMajorVersion, k -> new CompletableFuture<>());
+    }
+
+    private void succeed(int javaMajorVersion) {
+        this.answer(javaMajorVersion).complete(List.of(installer(JavaDistro.ZULU, javaMajorVersion + ".0.1+1", LINUX, X64)));
+    }
+
+    static private List<String> names(List<JavaInstaller> javaInstallers) {
+        return javaInstallers.stream().map(JavaInstaller::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void resultsAreInTheOrderRequestedWhateverOrderTheyComplete() throws Exception {
+        final Future<List<JavaInstallerShardResult>> future = this.executor.submit(() -> this.pipeline.fetchResults(SHARDS));
+
+        // every shard is fetched at once
+        assertThat(this.requested.tryAcquire(SHARDS.size(), 10, TimeUnit.SECONDS), is(true));
+
+        // answered in reverse, with one vendor failing partway
+        this.succeed(8);
+        this.answer(11).completeExceptionally(new IOException("zulu 11 is down"));
+        this.succeed(17);
+        this.succeed(21);
+
+        final List<JavaInstallerShardResult> results = future.get(10, TimeUnit.SECONDS);
+
+        assertThat(results.stream().map(JavaInstallerShardResult::getShard).collect(Collectors.toList()), is(SHARDS));
+        assertThat(names(results.get(0).getJavaInstallers()), contains("zulu-21.0.1+1-linux-x64.tar.gz"));
+        assertThat(names(results.get(1).getJavaInstallers()), contains("zulu-17.0.1+1-linux-x64.tar.gz"));
+        assertThat(names(results.get(3).getJavaInstallers()), contains("zulu-8.0.1+1-linux-x64.tar.gz"));
+
+        // the failure is captured in its own result, without failing the others
+        assertThat(results.get(2).isSuccess(), is(false));
+        assertThat(results.get(2).getJavaInstallers(), is(nullValue()));
+        assertThat(results.get(2).getError(), instanceOf(IOException.class));
+        assertThat(results.get(2).getError().getMessage(), is("zulu 11 is down"));
+        assertThat(results.stream().filter(JavaInstallerShardResult::isSuccess).count(), is(3L));
+    }
+
+    @Test
+    void fetchFailsWithTheFirstFailedShard() {
+        this.succeed(21);
+        this.succeed(17);
+        this.answer(11).completeExceptionally(new IOException("zulu 11 is down"));
+        this.succeed(8);
+
+        final IOException e = assertThrows(IOException.class, () -> this.pipeline.fetch(SHARDS));
+
+        assertThat(e.getMessage(), is("zulu 11 is down"));
+    }
+
+    @Test
+    void concurrencyLimitsShardsInFlight() throws Exception {
+        this.pipeline.setConcurrency(2);
+        final Future<List<JavaInstallerShardResult>> future = this.executor.submit(() -> this.pipeline.fetchResults(SHARDS));
+
+        // only two at a time, so the third waits for one of them to be answered
+        assertThat(this.requested.tryAcquire(2, 10, TimeUnit.SECONDS), is(true));
+        assertThat(this.requested.tryAcquire(1, 200, TimeUnit.MILLISECONDS), is(false));
+
+        // answer each shard as it's requested, in whatever order that is
+        for (int answered = 0; answered < SHARDS.size(); answered++) {
+            final int javaMajorVersion = this.answers.entrySet().stream()
+                .filter(entry -> !entry.getValue().isDone())
+                .map(Map.Entry::getKey)
+                .findFirst()
+                .orElseThrow();
+            this.succeed(javaMajorVersion);
+            if (answered + 2 < SHARDS.size()) {
+                assertThat(this.requested.tryAcquire(1, 10, TimeUnit.SECONDS), is(true));
+            }
+        }
+
+        final List<JavaInstallerShardResult> results = future.get(10, TimeUnit.SECONDS);
+
+        assertThat(results.stream().map(JavaInstallerShardResult::getShard).collect(Collectors.toList()), is(SHARDS));
+        assertThat(results.stream().allMatch(JavaInstallerShardResult::isSuccess), is(true));
+        assertThat(this.maxOutstanding.get(), is(2));
+    }
+
+}
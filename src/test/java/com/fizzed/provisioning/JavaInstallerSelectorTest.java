@@ -0,0 +1,57 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerSelector;
+import com.fizzed.provisioning.java.JavaInstallerTarget;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.installer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JavaInstallerSelectorTest {
+
+    @Test
+    void selectLatestPerTarget() {
+        final JavaInstaller x64Old = installer(JavaDistro.ZULU, "21.0.4+1", OperatingSystem.LINUX, HardwareArchitecture.X64);
+        final JavaInstaller x64New = installer(JavaDistro.ZULU, "21.0.5+1", OperatingSystem.LINUX, HardwareArchitecture.X64).setAbi(ABI.DEFAULT);
+        final JavaInstaller arm64 = installer(JavaDistro.ZULU, "21.0.3+1", OperatingSystem.LINUX, HardwareArchitecture.ARM64);
+        final JavaInstaller x64Musl = installer(JavaDistro.ZULU, "21.0.2+1", OperatingSystem.LINUX, HardwareArchitecture.X64).setAbi(ABI.MUSL);
+        final JavaInstaller noArch = installer(JavaDistro.ZULU, "21.0.9+1", OperatingSystem.LINUX, null);
+
+        final List<JavaInstaller> selected = new JavaInstallerSelector()
+            .select(List.of(x64Old, arm64, x64New, x64Musl, noArch));
+
+        // a missing abi is the default one, and an installer without an arch is never selected
+        assertThat(selected, contains(x64New, arm64, x64Musl));
+    }
+
+    @Test
+    void selectTopPerTargetAndMajorVersion() {
+        final JavaInstaller v17a = installer(JavaDistro.ZULU, "17.0.12+1", OperatingSystem.LINUX, HardwareArchitecture.X64);
+        final JavaInstaller v17b = installer(JavaDistro.ZULU, "17.0.13+1", OperatingSystem.LINUX, HardwareArchitecture.X64);
+        final JavaInstaller v17c = installer(JavaDistro.ZULU, "17.0.11+1", OperatingSystem.LINUX, HardwareArchitecture.X64);
+        final JavaInstaller v21 = installer(JavaDistro.ZULU, "21.0.5+1", OperatingSystem.LINUX, HardwareArchitecture.X64);
+
+        final Map<JavaInstallerTarget, List<JavaInstaller>> selected = new JavaInstallerSelector()
+            .setLimit(2)
+            .setByDistro(true)
+            .setByJavaMajorVersion(true)
+            .selectByTarget(List.of(v17a, v17b, v17c, v21));
+
+        assertThat(selected.get(new JavaInstallerTarget(JavaDistro.ZULU, 17, OperatingSystem.LINUX, HardwareArchitecture.X64,
+            ABI.DEFAULT, ImageType.JDK, InstallerType.TAR_GZ)), contains(v17b, v17a));
+        assertThat(selected.get(new JavaInstallerTarget(JavaDistro.ZULU, 21, OperatingSystem.LINUX, HardwareArchitecture.X64,
+            ABI.DEFAULT, ImageType.JDK, InstallerType.TAR_GZ)), contains(v21));
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerShard;
+import com.fizzed.provisioning.java.JavaInstallerShardResult;
+import com.fizzed.provisioning.java.JavaReleaseEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static com.fizzed.jne.HardwareArchitecture.ARM64;
+import static com.fizzed.jne.HardwareArchitecture.X64;
+import static com.fizzed.jne.OperatingSystem.LINUX;
+import static com.fizzed.jne.OperatingSystem.MACOS;
+import static com.fizzed.provisioning.JavaInstallerFixtures.installer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JavaInstallerShardStoreTest {
+
+    static private final JavaInstallerShard ZULU_21 = new JavaInstallerShard(JavaDistro.ZULU, 21);
+    static private final JavaInstallerShard ZULU_17 = new JavaInstallerShard(JavaDistro.ZULU, 17);
+    static private final JavaInstallerShard LIBERICA_21 = new JavaInstallerShard(JavaDistro.LIBERICA, 21);
+    static private final List<JavaInstallerShard> SHARDS = List.of(ZULU_21, ZULU_17, LIBERICA_21);
+
+    static private final List<JavaInstaller> INSTALLERS = List.of(
+        installer(JavaDistro.ZULU, "21.0.5+11", LINUX, X64),
+        installer(JavaDistro.ZULU, "21.0.5+11", MACOS, ARM64),
+        installer(JavaDistro.ZULU, "17.0.13+11", LINUX, X64),
+        installer(JavaDistro.LIBERICA, "21.0.5+11", LINUX, X64));
+
+    @TempDir
+    Path dir;
+
+    private StubJavaReleaseProvider zulu;
+    private StubJavaReleaseProvider liberica;
+    private JavaInstallerPipeline pipeline;
+
+    @BeforeEach
+    void before() {
+        this.zulu = StubJavaReleaseProvider.of(JavaDistro.ZULU, INSTALLERS);
+        this.liberica = StubJavaReleaseProvider.of(JavaDistro.LIBERICA, INSTALLERS);
+        this.pipeline = new JavaInstallerPipeline(new JavaReleaseEngine(List.of(this.zulu, this.liberica)));
+    }
+
+    static private List<String> names(List<JavaInstaller> javaInstallers) {
+        return javaInstallers.stream().map(JavaInstaller::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void unchangedShardsStayByteForByte() throws Exception {
+        final JavaInstallerShardStore store = new JavaInstallerShardStore(this.dir);
+        store.refresh(this.pipeline, SHARDS, shard -> true);
+
+        final Path file = store.getShardFile(ZULU_21);
+        final byte[] content = Files.readAllBytes(file);
+        final String changedAt = store.getState(ZULU_21).getChangedAt();
+        final FileTime modified = FileTime.fromMillis(1_000_000_000_000L);
+        Files.setLastModifiedTime(file, modified);
+
+        // same answer again, so nothing is rewritten, only the fetch time moves
+        Thread.sleep(5L);
+        final JavaInstallerShardStore reloaded = new JavaInstallerShardStore(this.dir).load();
+        reloaded.refresh(this.pipeline, SHARDS, shard -> true);
+
+        assertThat(Files.readAllBytes(file), is(content));
+        assertThat(Files.getLastModifiedTime(file), is(modified));
+        assertThat(reloaded.getState(ZULU_21).getChangedAt(), is(changedAt));
+        assertThat(reloaded.getState(ZULU_21).getFetchedAt(), not(equalTo(changedAt)));
+        assertThat(reloaded.getState(ZULU_21).getCount(), is(2));
+    }
+
+    @Test
+    void failedVendorKeepsItsPreviousShard() throws Exception {
+        final JavaInstallerShardStore store = new JavaInstallerShardStore(this.dir);
+        store.refresh(this.pipeline, SHARDS, shard -> true);
+        final byte[] content = Files.readAllBytes(store.getShardFile(ZULU_21));
+        final String fetchedAt = store.getState(ZULU_21).getFetchedAt();
+
+        this.zulu.setAnswer(query -> CompletableFuture.failedFuture(new IOException("zulu is down")));
+        final List<JavaInstallerShardResult> results = store.refresh(this.pipeline, SHARDS, shard -> true);
+
+        assertThat(results.get(0).isSuccess(), is(false));
+        assertThat(results.get(0).getError().getMessage(), is("zulu is down"));
+        assertThat(results.get(2).isSuccess(), is(true));
+        assertThat(Files.readAllBytes(store.getShardFile(ZULU_21)), is(content));
+        assertThat(store.getState(ZULU_21).getFetchedAt(), is(fetchedAt));
+        assertThat(names(store.merge(SHARDS)), hasSize(4));
+    }
+
+    @Test
+    void emptyVendorKeepsItsPreviousShard() throws Exception {
+        final JavaInstallerShardStore store = new JavaInstallerShardStore(this.dir);
+        store.refresh(this.pipeline, SHARDS, shard -> true);
+        final byte[] content = Files.readAllBytes(store.getShardFile(ZULU_21));
+
+        this.zulu.setAnswer(query -> CompletableFuture.completedFuture(Collections.emptyList()));
+        final List<JavaInstallerShardResult> results = store.refresh(this.pipeline, SHARDS, shard -> true);
+
+        assertThat(results.get(0).isSuccess(), is(false));
+        assertThat(results.get(0).getError().getMessage(), containsString("fetched no installers"));
+        assertThat(Files.readAllBytes(store.getShardFile(ZULU_21)), is(content));
+        assertThat(store.getState(ZULU_21).getCount(), is(2));
+    }
+
+    @Test
+    void seedFromTheMergedCatalog() throws Exception {
+        final JavaInstallerShardStore store = new JavaInstallerShardStore(this.dir);
+        store.seed(SHARDS, INSTALLERS);
+
+        assertThat(names(store.read(ZULU_21)), contains(INSTALLERS.get(0).getName(), INSTALLERS.get(1).getName()));
+        assertThat(names(store.read(LIBERICA_21)), contains(INSTALLERS.get(3).getName()));
+        assertThat(store.getState(ZULU_17).getCount(), is(1));
+        // seeded, but never actually fetched
+        assertThat(store.isStale(ZULU_21, Duration.ofDays(365), Instant.now()), is(true));
+
+        // a shard already stored isn't seeded over
+        final byte[] content = Files.readAllBytes(store.getShardFile(ZULU_17));
+        store.seed(SHARDS, List.of(installer(JavaDistro.ZULU, "17.0.14+7", LINUX, X64)));
+        assertThat(Files.readAllBytes(store.getShardFile(ZULU_17)), is(content));
+    }
+
+    @Test
+    void isStaleHonoursMaxAge() throws Exception {
+        final JavaInstallerShardStore store = new JavaInstallerShardStore(this.dir);
+        final Instant fetchedAt = Instant.parse("2026-10-01T00:00:00Z");
+        store.write(ZULU_21, INSTALLERS.subList(0, 2), fetchedAt);
+
+        assertThat(store.isStale(ZULU_21, Duration.ofHours(1), fetchedAt.plus(Duration.ofMinutes(30))), is(false));
+        assertThat(store.isStale(ZULU_21, Duration.ofHours(1), fetchedAt.plus(Duration.ofHours(1))), is(true));
+        assertThat(store.isStale(ZULU_21, Duration.ofHours(1), fetchedAt.plus(Duration.ofHours(2))), is(true));
+        assertThat(store.isStale(ZULU_21, null, fetchedAt), is(true));
+        assertThat(store.isStale(ZULU_17, Duration.ofHours(1), fetchedAt), is(true));
+    }
+
+    @Test
+    void mergeOrderIsDeterministic() throws Exception {
+        final JavaInstallerShardStore store = new JavaInstallerShardStore(this.dir);
+        final Instant now = Instant.now();
+        // stored in a different order than merged
+        store.write(LIBERICA_21, INSTALLERS.subList(3, 4), now);
+        store.write(ZULU_17, INSTALLERS.subList(2, 3), now);
+        store.write(ZULU_21, INSTALLERS.subList(0, 2), now);
+        store.save();
+
+        assertThat(names(store.merge(SHARDS)), contains(INSTALLERS.get(0).getName(), INSTALLERS.get(1).getName(),
+            INSTALLERS.get(2).getName(), INSTALLERS.get(3).getName()));
+        assertThat(names(store.merge(List.of(LIBERICA_21, ZULU_21))), contains(INSTALLERS.get(3).getName(),
+            INSTALLERS.get(0).getName(), INSTALLERS.get(1).getName()));
+
+        // the manifest is in a stable order too, whatever order the shards were written in
+        final byte[] manifest = Files.readAllBytes(this.dir.resolve("shards.json"));
+        final JavaInstallerShardStore rewritten = new JavaInstallerShardStore(this.dir).load();
+        rewritten.write(ZULU_21, INSTALLERS.subList(0, 2), now);
+        rewritten.write(LIBERICA_21, INSTALLERS.subList(3, 4), now);
+        rewritten.save();
+        assertThat(Files.readAllBytes(this.dir.resolve("shards.json")), is(manifest));
+    }
+
+}
@@ -0,0 +1,46 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.installer;
+import static com.fizzed.provisioning.JavaInstallerFixtures.version;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class JavaInstallerTest {
+
+    @Test
+    void sortNewestFirstThenByLowerCasedTarget() {
+        final JavaInstaller a = installer(JavaDistro.ZULU, "21.0.5+11", OperatingSystem.WINDOWS, HardwareArchitecture.X64);
+        final JavaInstaller b = installer(JavaDistro.ZULU, "21.0.5+11", OperatingSystem.LINUX, HardwareArchitecture.X64);
+        final JavaInstaller c = installer(JavaDistro.ZULU, "21.0.6+7", OperatingSystem.WINDOWS, HardwareArchitecture.X64);
+        final JavaInstaller d = installer(JavaDistro.ZULU, null, OperatingSystem.LINUX, HardwareArchitecture.X64);
+        final JavaInstaller e = installer(JavaDistro.ZULU, "21.0.5+11", null, HardwareArchitecture.X64);
+
+        final List<JavaInstaller> javaInstallers = new ArrayList<>(List.of(d, a, b, c, e));
+        javaInstallers.sort(JavaInstaller.COMPARATOR);
+
+        assertThat(javaInstallers, contains(c, e, b, a, d));
+    }
+
+    @Test
+    void sortKeyIsRecomputedWhenAFieldChanges() {
+        final JavaInstaller a = installer(JavaDistro.ZULU, "17.0.13+11", OperatingSystem.LINUX, HardwareArchitecture.X64);
+        final JavaInstaller b = installer(JavaDistro.ZULU, "17.0.12+7", OperatingSystem.LINUX, HardwareArchitecture.X64);
+
+        assertThat(a.compareTo(b), lessThan(0));
+        assertThat(a.getSortKey(), sameInstance(a.getSortKey()));
+
+        b.setVersion(version("17.0.14+1"));
+
+        assertThat(a.compareTo(b), greaterThan(0));
+    }
+
+}
@@ -0,0 +1,63 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaReleaseEngine;
+import com.fizzed.provisioning.java.JavaReleaseProvider;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static java.util.Collections.singletonList;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JavaReleaseEngineTest {
+
+    static private class StubProvider implements JavaReleaseProvider {
+
+        private final JavaDistro distro;
+
+        public StubProvider(JavaDistro distro) {
+            this.distro = distro;
+        }
+
+        @Override
+        public JavaDistro getDistro() {
+            return this.distro;
+        }
+
+        @Override
+        public JavaReleaseProvider withTransport(HttpTransport transport) {
+            return this;
+        }
+
+        @Override
+        public CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query) {
+            return CompletableFuture.completedFuture(singletonList(new JavaInstaller().setDistro(this.distro)));
+        }
+
+    }
+
+    @Test
+    void getInstallersOfEveryDistro() throws Exception {
+        final JavaReleaseEngine engine = new JavaReleaseEngine(List.of(new StubProvider(JavaDistro.ZULU), new StubProvider(JavaDistro.TEMURIN)));
+
+        assertThat(engine.getInstallers(new JavaReleaseQuery(21)).get().keySet(), containsInAnyOrder(JavaDistro.ZULU, JavaDistro.TEMURIN));
+        assertThat(engine.getInstallers(JavaDistro.ZULU, new JavaReleaseQuery(21)).get().get(0).getDistro(), is(JavaDistro.ZULU));
+    }
+
+    @Test
+    void unknownAndDuplicateDistros() {
+        final JavaReleaseEngine engine = new JavaReleaseEngine(List.of(new StubProvider(JavaDistro.ZULU)));
+
+        assertThrows(IllegalArgumentException.class, () -> engine.getProvider(JavaDistro.LIBERICA));
+        assertThrows(IllegalArgumentException.class, () -> new JavaReleaseEngine(List.of(new StubProvider(JavaDistro.ZULU),
+            new StubProvider(JavaDistro.ZULU))));
+    }
+
+}
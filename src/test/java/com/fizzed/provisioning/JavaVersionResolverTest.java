@@ -0,0 +1,96 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.JavaVersion;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerTarget;
+import com.fizzed.provisioning.java.JavaVersionRange;
+import com.fizzed.provisioning.java.JavaVersionResolver;
+import com.fizzed.provisioning.java.PackedJavaVersion;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.installer;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JavaVersionResolverTest {
+
+    static private final JavaInstallerTarget LINUX_X64 = new JavaInstallerTarget(JavaDistro.TEMURIN, null,
+        OperatingSystem.LINUX, HardwareArchitecture.X64, ABI.DEFAULT, ImageType.JDK, InstallerType.TAR_GZ);
+
+    static private final JavaInstaller V11_0_25_9 = installer(JavaDistro.TEMURIN, "11.0.25+9", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    static private final JavaInstaller V11_0_25_10 = installer(JavaDistro.TEMURIN, "11.0.25+10", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    static private final JavaInstaller V17_0_12 = installer(JavaDistro.TEMURIN, "17.0.12+7", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    static private final JavaInstaller V17_0_13 = installer(JavaDistro.TEMURIN, "17.0.13+11", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    static private final JavaInstaller V21_0_4 = installer(JavaDistro.TEMURIN, "21.0.4+7", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    static private final JavaInstaller V21_0_5 = installer(JavaDistro.TEMURIN, "21.0.5+11", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    static private final JavaInstaller V21_0_6 = installer(JavaDistro.TEMURIN, "21.0.6+7", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    static private final JavaInstaller V21_1_0 = installer(JavaDistro.TEMURIN, "21.1.0+1", OperatingSystem.LINUX, HardwareArchitecture.X64);
+    static private final JavaInstaller V21_ARM64 = installer(JavaDistro.TEMURIN, "21.0.9+1", OperatingSystem.LINUX, HardwareArchitecture.ARM64);
+
+    static private final JavaVersionResolver RESOLVER = new JavaVersionResolver(List.of(V21_0_5, V11_0_25_9, V17_0_13,
+        V21_1_0, V21_0_4, V17_0_12, V11_0_25_10, V21_0_6, V21_ARM64));
+
+    static private JavaInstaller resolve(String range) {
+        return RESOLVER.resolve(LINUX_X64, JavaVersionRange.parse(range));
+    }
+
+    @Test
+    void resolveRanges() {
+        assertThat(resolve("*"), is(V21_1_0));
+        assertThat(resolve("21"), is(V21_1_0));
+        assertThat(resolve("21.0.x"), is(V21_0_6));
+        assertThat(resolve("21.0.x,>=21.0.5"), is(V21_0_6));
+        assertThat(resolve("21.0.x,<21.0.6"), is(V21_0_5));
+        assertThat(resolve(">21.0.4,<=21.0.5"), is(V21_0_5));
+        assertThat(resolve("17,!17.0.13"), is(V17_0_12));
+        assertThat(resolve("=11.0.25+9"), is(V11_0_25_9));
+        assertThat(resolve("11.0.25"), is(V11_0_25_10));
+        assertThat(resolve("21.0.x,>=21.0.7"), is(nullValue()));
+        assertThat(resolve("17,!17"), is(nullValue()));
+    }
+
+    @Test
+    void resolveAllNewestFirst() {
+        assertThat(RESOLVER.resolveAll(LINUX_X64, JavaVersionRange.parse("21,!21.0.5")), contains(V21_1_0, V21_0_6, V21_0_4));
+        // a major version of the target limits the range too
+        assertThat(RESOLVER.resolveAll(new JavaInstallerTarget(JavaDistro.TEMURIN, 17, OperatingSystem.LINUX,
+            HardwareArchitecture.X64, null, ImageType.JDK, InstallerType.TAR_GZ), JavaVersionRange.ANY), contains(V17_0_13, V17_0_12));
+    }
+
+    @Test
+    void floorAndCeiling() {
+        assertThat(RESOLVER.floor(LINUX_X64, new JavaVersion(null, 21, 0, 5, 0)), is(V21_0_4));
+        assertThat(RESOLVER.ceiling(LINUX_X64, new JavaVersion(null, 21, 0, 5, 0)), is(V21_0_5));
+        assertThat(RESOLVER.floor(LINUX_X64, new JavaVersion(null, 11, 0, 0, 0)), is(nullValue()));
+        assertThat(RESOLVER.ceiling(LINUX_X64, new JavaVersion(null, 22, 0, 0, 0)), is(nullValue()));
+    }
+
+    @Test
+    void rangeSources() {
+        assertThat(JavaVersionRange.ANY.and(JavaVersionRange.major(21)).toString(), is("21"));
+        assertThat(JavaVersionRange.major(21).and(JavaVersionRange.ANY).toString(), is("21"));
+        assertThat(JavaVersionRange.major(21).and(JavaVersionRange.parse("!21.0.5")).toString(), is("21,!21.0.5"));
+        assertThat(JavaVersionRange.parse("21.0.x").getUpper(), is(PackedJavaVersion.pack(21, 0, 65535, 65535)));
+    }
+
+    @Test
+    void invalidRanges() {
+        assertThrows(IllegalArgumentException.class, () -> JavaVersionRange.parse("21,,17"));
+        assertThrows(IllegalArgumentException.class, () -> JavaVersionRange.parse(">="));
+        assertThrows(IllegalArgumentException.class, () -> JavaVersionRange.parse("21.x.5"));
+        assertThrows(IllegalArgumentException.class, () -> JavaVersionRange.parse("21.0.5.1"));
+        assertThrows(IllegalArgumentException.class, () -> JavaVersionRange.parse("twenty-one"));
+        assertThrows(IllegalArgumentException.class, () -> RESOLVER.resolve(new JavaInstallerTarget(OperatingSystem.LINUX,
+            HardwareArchitecture.X64, null, ImageType.JDK, InstallerType.TAR_GZ), JavaVersionRange.ANY));
+    }
+
+}
@@ -85,6 +85,29 @@ class ProvisioningHelperTest {
 
     }
 
+    @Test
+    void detectFromTextIgnoresCaseAndPrefersNames() {
+        NativeTarget nativeTarget;
+
+        nativeTarget = ProvisioningHelper.detectFromText("OpenJDK21U-JDK_AARCH64_LINUX_MUSL.TAR.GZ");
+        assertThat(nativeTarget.getOperatingSystem(), is(OperatingSystem.LINUX));
+        assertThat(nativeTarget.getHardwareArchitecture(), is(HardwareArchitecture.ARM64));
+        assertThat(nativeTarget.getAbi(), is(ABI.MUSL));
+
+        // an enum name beats an alias of an earlier enum, and vendor tokens are only a fallback
+        nativeTarget = ProvisioningHelper.detectFromText("jdk-win32-to-macos-aarch32hf-arm64.zip");
+        assertThat(nativeTarget.getOperatingSystem(), is(OperatingSystem.MACOS));
+        assertThat(nativeTarget.getHardwareArchitecture(), is(HardwareArchitecture.ARM64));
+
+        nativeTarget = ProvisioningHelper.detectFromText("no-target-here.txt");
+        assertThat(nativeTarget.getOperatingSystem(), is(nullValue()));
+        assertThat(nativeTarget.getHardwareArchitecture(), is(nullValue()));
+        assertThat(nativeTarget.getAbi(), is(nullValue()));
+
+        // cached by text
+        assertThat(ProvisioningHelper.detectFromText("linux-x64.tar.gz"), is(sameInstance(ProvisioningHelper.detectFromText("linux-x64.tar.gz"))));
+    }
+
     @Test
     public void deserializeJavaInstallers() throws Exception {
         final String json = "{\n" +
@@ -0,0 +1,62 @@
+package com.fizzed.provisioning;
+
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaReleaseProvider;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * A provider for tests, answering each query however the test says to (e.g. with fixtures, a failure, or a future it
+ * completes later).
+ */
+class StubJavaReleaseProvider implements JavaReleaseProvider {
+
+    private final JavaDistro distro;
+    private volatile Function<JavaReleaseQuery, CompletableFuture<List<JavaInstaller>>> answer;
+
+    StubJavaReleaseProvider(JavaDistro distro, Function<JavaReleaseQuery, CompletableFuture<List<JavaInstaller>>> answer) {
+        this.distro = distro;
+        this.answer = answer;
+    }
+
+    /**
+     * Answers every query with the installers of its major version (of this distro).
+     */
+    static StubJavaReleaseProvider of(JavaDistro distro, List<JavaInstaller> javaInstallers) {
+        return new StubJavaReleaseProvider(distro, query -> CompletableFuture.completedFuture(matching(distro, javaInstallers, query)));
+    }
+
+    static List<JavaInstaller> matching(JavaDistro distro, List<JavaInstaller> javaInstallers, JavaReleaseQuery query) {
+        return javaInstallers.stream()
+            .filter(javaInstaller -> javaInstaller.getDistro() == distro)
+            .filter(javaInstaller -> javaInstaller.getVersion().getMajor() == query.getJavaMajorVersion())
+            .collect(Collectors.toList());
+    }
+
+    StubJavaReleaseProvider setAnswer(Function<JavaReleaseQuery, CompletableFuture<List<JavaInstaller>>> answer) {
+        this.answer = answer;
+        return this;
+    }
+
+    @Override
+    public JavaDistro getDistro() {
+        return this.distro;
+    }
+
+    @Override
+    public JavaReleaseProvider withTransport(HttpTransport transport) {
+        return this;
+    }
+
+    @Override
+    public CompletableFuture<List<JavaInstaller>> getInstallers(JavaReleaseQuery query) {
+        return this.answer.apply(query);
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.fizzed.provisioning.adoptium;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.JavaInstallerFixtures;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import org.junit.jupiter.api.Test;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.describeTarget;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class AdoptiumNameGrammarTest {
+
+    @Test
+    void parse() throws Exception {
+        final JavaInstallerName name = AdoptiumClient.NAME_GRAMMAR.parse("OpenJDK21U-jdk_x64_alpine-linux_hotspot_21.0.8_9.tar.gz");
+
+        assertThat(name.getJavaVersion(), is("21.0.8_9"));
+        assertThat(name.getImageType(), is(ImageType.JDK));
+        assertThat(name.getOs(), is(OperatingSystem.LINUX));
+        assertThat(name.getArch(), is(HardwareArchitecture.X64));
+        assertThat(name.getAbi(), is(ABI.MUSL));
+        assertThat(name.getInstallerType(), is(InstallerType.TAR_GZ));
+        // the openj9 builds moved to semeru
+        assertThat(AdoptiumClient.NAME_GRAMMAR.tryParse("OpenJDK21U-jdk_x64_linux_openj9_21.0.1_12.tar.gz"), is(nullValue()));
+    }
+
+    @Test
+    void classifiesTheCatalogLikeTheApi() throws Exception {
+        for (JavaInstaller javaInstaller : JavaInstallerFixtures.catalog(JavaDistro.TEMURIN)) {
+            assertThat(describeTarget(AdoptiumClient.NAME_GRAMMAR.parse(javaInstaller.getName()).toInstaller()), is(describeTarget(javaInstaller)));
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.fizzed.provisioning.corretto;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class CorrettoNameGrammarTest {
+
+    @Test
+    void parse() throws Exception {
+        final JavaInstallerName name = CorrettoClient.NAME_GRAMMAR.parse("amazon-corretto-21.0.5.11.1-alpine-linux-x64.tar.gz");
+
+        assertThat(name.getDistroVersion(), is("21.0.5.11.1"));
+        assertThat(name.getOs(), is(OperatingSystem.LINUX));
+        assertThat(name.getArch(), is(HardwareArchitecture.X64));
+        assertThat(name.getAbi(), is(ABI.MUSL));
+        assertThat(name.getInstallerType(), is(InstallerType.TAR_GZ));
+        // an installer without an image type in its name is a jdk
+        assertThat(name.getImageType(), is(ImageType.JDK));
+        assertThat(CorrettoClient.NAME_GRAMMAR.parse("amazon-corretto-8.432.06.1-windows-x86-jre.zip").getImageType(), is(ImageType.JRE));
+    }
+
+}
@@ -0,0 +1,273 @@
+package com.fizzed.provisioning.http;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * An in-process http server that serves back the fixtures recorded by an HttpRecorder, so the vendor clients (and the
+ * whole catalog refresh) can run offline and repeatably.  A request for "https://{host}/{path}" is rewritten by the
+ * transport to "http://127.0.0.1:{port}/{host}/{path}" (see {@link #rewrite(URI)}), and answered with the recorded
+ * status, headers and raw body.  Latency and bandwidth can optionally be shaped to mimic (or stress) a real network.
+ */
+public class HttpReplayServer implements Closeable {
+    static private final Logger log = LoggerFactory.getLogger(HttpReplayServer.class);
+
+    // hop-by-hop or recomputed by the server, so never replayed
+    static private final Set<String> SKIPPED_HEADERS = Set.of("content-length", "transfer-encoding", "connection", "keep-alive");
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final Map<String, HttpFixture> fixtures;
+    private final LongAdder requests;
+    private final LongAdder misses;
+    private Duration latency;
+    private boolean recordedLatency;
+    private long bandwidth;
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public HttpReplayServer(Path directory) {
+        this.directory = directory;
+        this.objectMapper = new ObjectMapper();
+        this.objectMapper.setPropertyNamingStrategy(PropertyNamingStrategies.SNAKE_CASE);
+        this.fixtures = new ConcurrentHashMap<>();
+        this.requests = new LongAdder();
+        this.misses = new LongAdder();
+        this.latency = Duration.ZERO;
+        this.recordedLatency = false;
+        this.bandwidth = 0L;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public Duration getLatency() {
+        return latency;
+    }
+
+    /**
+     * A fixed delay before each response starts returning (on top of the recorded latency, if that's replayed too).
+     */
+    public HttpReplayServer setLatency(Duration latency) {
+        this.latency = latency != null ? latency : Duration.ZERO;
+        return this;
+    }
+
+    public boolean isRecordedLatency() {
+        return recordedLatency;
+    }
+
+    /**
+     * Delays each response by however long it took to start returning when it was recorded.
+     */
+    public HttpReplayServer setRecordedLatency(boolean recordedLatency) {
+        this.recordedLatency = recordedLatency;
+        return this;
+    }
+
+    public long getBandwidth() {
+        return bandwidth;
+    }
+
+    /**
+     * Limits each response body to this many bytes per second (0 for unlimited, the default).
+     */
+    public HttpReplayServer setBandwidth(long bandwidth) {
+        if (bandwidth < 0) {
+            throw new IllegalArgumentException("bandwidth must be >= 0");
+        }
+        this.bandwidth = bandwidth;
+        return this;
+    }
+
+    public int getFixtureCount() {
+        return this.fixtures.size();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    /**
+     * How many requests had no fixture recorded for them (and were answered 404).
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public HttpReplayServer start() throws IOException {
+        this.load();
+
+        final AtomicInteger threadCounter = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(r -> {
+            final Thread thread = new Thread(r, "http-replay-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(this.executor);
+        this.server.createContext("/", this::handle);
+        this.server.start();
+
+        log.info("Replaying {} fixtures from {} on port {}", this.fixtures.size(), this.directory, this.getPort());
+
+        return this;
+    }
+
+    public int getPort() {
+        if (this.server == null) {
+            throw new IllegalStateException("Server not started");
+        }
+        return this.server.getAddress().getPort();
+    }
+
+    /**
+     * Rewrites a vendor uri to its address on this server, for use as the transport's uri rewriter.
+     */
+    public URI rewrite(URI uri) {
+        return URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + this.getPort() + "/"
+            + uri.getRawAuthority() + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : ""));
+    }
+
+    @Override
+    public void close() {
+        if (this.server != null) {
+            this.server.stop(0);
+            this.server = null;
+        }
+        if (this.executor != null) {
+            this.executor.shutdownNow();
+            this.executor = null;
+        }
+    }
+
+    private void load() throws IOException {
+        this.fixtures.clear();
+        final List<Path> fixtureFiles;
+        try (Stream<Path> files = Files.walk(this.directory)) {
+            fixtureFiles = files.filter(f -> f.getFileName().toString().endsWith(".json")).collect(Collectors.toList());
+        }
+        for (Path fixtureFile : fixtureFiles) {
+            final HttpFixture fixture = this.objectMapper.readValue(fixtureFile.toFile(), HttpFixture.class);
+            if (fixture.getVersion() != HttpFixture.VERSION) {
+                throw new IOException("Fixture " + fixtureFile + " is version " + fixture.getVersion() + " (only version "
+                    + HttpFixture.VERSION + " is supported, so it must be re-recorded)");
+            }
+            final String name = fixtureFile.getFileName().toString();
+            fixture.setBodyFile(fixtureFile.resolveSibling(name.substring(0, name.length() - 5) + ".body"));
+            this.fixtures.put(fixtureKey(fixture.getMethod(), URI.create(fixture.getUri())), fixture);
+        }
+    }
+
+    static private String fixtureKey(String method, URI uri) {
+        // the scheme is lost in the rewrite, so fixtures are matched without it
+        return method + " " + uri.getRawAuthority() + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "");
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        this.requests.increment();
+        try {
+            // the first path segment is the host of the original uri
+            final String path = exchange.getRequestURI().getRawPath();
+            final String query = exchange.getRequestURI().getRawQuery();
+            final String key = exchange.getRequestMethod() + " " + path.substring(1) + (query != null ? "?" + query : "");
+
+            final HttpFixture fixture = this.fixtures.get(key);
+            if (fixture == null) {
+                this.misses.increment();
+                log.warn("No fixture recorded for {}", key);
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            this.delay(fixture);
+
+            fixture.getResponseHeaders().forEach((name, values) -> {
+                if (!SKIPPED_HEADERS.contains(name.toLowerCase())) {
+                    exchange.getResponseHeaders().put(name, values);
+                }
+            });
+
+            // let the client's conditional requests (e.g. via its response cache) be answered like the vendor would
+            final String etag = exchange.getResponseHeaders().getFirst("ETag");
+            final String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+            if (fixture.getStatusCode() == 200 && etag != null && etag.equals(ifNoneMatch)) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            final long bodySize = Files.size(fixture.getBodyFile());
+            exchange.sendResponseHeaders(fixture.getStatusCode(), bodySize > 0 ? bodySize : -1);
+            if (bodySize > 0) {
+                try (InputStream input = Files.newInputStream(fixture.getBodyFile());
+                     OutputStream output = exchange.getResponseBody()) {
+                    this.copy(input, output);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void delay(HttpFixture fixture) throws InterruptedException {
+        long delayMillis = this.latency.toMillis();
+        if (this.recordedLatency) {
+            delayMillis += fixture.getLatencyMillis();
+        }
+        if (delayMillis > 0) {
+            Thread.sleep(delayMillis);
+        }
+    }
+
+    private void copy(InputStream input, OutputStream output) throws IOException, InterruptedException {
+        if (this.bandwidth <= 0) {
+            input.transferTo(output);
+            return;
+        }
+
+        // write in ~10 chunks per second, sleeping whenever we're ahead of where the bandwidth says we should be
+        final byte[] buffer = new byte[(int)Math.max(1024, Math.min(64 * 1024, this.bandwidth / 10))];
+        final long start = System.nanoTime();
+        long written = 0;
+        int n;
+        while ((n = input.read(buffer)) > 0) {
+            output.write(buffer, 0, n);
+            output.flush();
+            written += n;
+            final long aheadMillis = (written * 1000L / this.bandwidth) - (System.nanoTime() - start) / 1_000_000L;
+            if (aheadMillis > 0) {
+                Thread.sleep(aheadMillis);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,40 @@
+package com.fizzed.provisioning.liberica;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.JavaInstallerFixtures;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import org.junit.jupiter.api.Test;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.describeTarget;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class LibericaNameGrammarTest {
+
+    @Test
+    void parse() throws Exception {
+        final JavaInstallerName name = LibericaClient.NAME_GRAMMAR.parse("bellsoft-jre8u462+11-linux-arm32-vfp-hflt-musl-lite.tar.gz");
+
+        assertThat(name.getJavaVersion(), is("8u462+11"));
+        assertThat(name.getFlavor(), is("lite"));
+        assertThat(name.getImageType(), is(ImageType.OTHER));
+        assertThat(name.getOs(), is(OperatingSystem.LINUX));
+        assertThat(name.getArch(), is(HardwareArchitecture.ARMHF));
+        assertThat(name.getAbi(), is(ABI.MUSL));
+        assertThat(name.getInstallerType(), is(InstallerType.TAR_GZ));
+    }
+
+    @Test
+    void classifiesTheCatalogLikeTheApi() throws Exception {
+        for (JavaInstaller javaInstaller : JavaInstallerFixtures.catalog(JavaDistro.LIBERICA)) {
+            assertThat(describeTarget(LibericaClient.NAME_GRAMMAR.parse(javaInstaller.getName()).toInstaller()), is(describeTarget(javaInstaller)));
+        }
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.fizzed.provisioning.sapmachine;
+
+import com.fizzed.jne.ABI;
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class SapMachineNameGrammarTest {
+
+    @Test
+    void parse() throws Exception {
+        final JavaInstallerName name = SapMachineClient.NAME_GRAMMAR.parse("sapmachine-jdk-21.0.5_linux-x64-musl_bin.tar.gz");
+
+        assertThat(name.getJavaVersion(), is("21.0.5"));
+        assertThat(name.getImageType(), is(ImageType.JDK));
+        assertThat(name.getOs(), is(OperatingSystem.LINUX));
+        assertThat(name.getArch(), is(HardwareArchitecture.X64));
+        assertThat(name.getAbi(), is(ABI.MUSL));
+        assertThat(name.getInstallerType(), is(InstallerType.TAR_GZ));
+        // e.g. the symbols next to every installer
+        assertThat(SapMachineClient.NAME_GRAMMAR.tryParse("sapmachine-jdk-21.0.5_linux-x64_bin.symbols.tar.gz"), is(nullValue()));
+    }
+
+}
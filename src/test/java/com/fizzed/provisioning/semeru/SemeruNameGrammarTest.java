@@ -0,0 +1,28 @@
+package com.fizzed.provisioning.semeru;
+
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class SemeruNameGrammarTest {
+
+    @Test
+    void parse() throws Exception {
+        final JavaInstallerName name = SemeruClient.NAME_GRAMMAR.parse("ibm-semeru-open-jre_ppc64le_linux_8u432b06_openj9-0.48.0.tar.gz");
+
+        assertThat(name.getJavaVersion(), is("8u432b06_openj9-0.48.0"));
+        assertThat(name.getImageType(), is(ImageType.JRE));
+        assertThat(name.getOs(), is(OperatingSystem.LINUX));
+        assertThat(name.getArch(), is(HardwareArchitecture.PPC64LE));
+        assertThat(name.getInstallerType(), is(InstallerType.TAR_GZ));
+        // e.g. the checksums next to every installer
+        assertThat(SemeruClient.NAME_GRAMMAR.tryParse("ibm-semeru-open-jdk_x64_linux_21.0.5_11_openj9-0.48.0.tar.gz.sha256.txt"), is(nullValue()));
+    }
+
+}
@@ -0,0 +1,88 @@
+package com.fizzed.provisioning.zulu;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.fizzed.provisioning.http.HttpTransport;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerSkips;
+import com.fizzed.provisioning.java.JavaReleaseQuery;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+class ZuluClientTest {
+
+    // one release named like zulu always has, and one named in a scheme the grammar doesn't know (yet)
+    static private final String PAGE = "["
+        + "{\"name\":\"zulu21.38.21-ca-jdk21.0.5-linux_x64.tar.gz\",\"download_url\":\"https://cdn.azul.com/zulu/bin/zulu21.38.21-ca-jdk21.0.5-linux_x64.tar.gz\","
+        + "\"java_version\":[21,0,5],\"distro_version\":[21,38,21,0],\"openjdk_build_number\":11,\"latest\":true},"
+        + "{\"name\":\"zulu21.38.21-ca-jdk21.0.5-linux-x64.tar.gz\",\"download_url\":\"https://cdn.azul.com/zulu/bin/zulu21.38.21-ca-jdk21.0.5-linux-x64.tar.gz\","
+        + "\"java_version\":[21,0,5],\"distro_version\":[21,38,21,0],\"openjdk_build_number\":11,\"latest\":true}"
+        + "]";
+
+    private HttpServer server;
+    private ZuluClient zuluClient;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void before() throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.createContext("/", exchange -> {
+            final byte[] bytes = PAGE.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, bytes.length);
+            try (OutputStream output = exchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        });
+        this.server.start();
+
+        // every request goes to the server instead of azul
+        final String local = "http://127.0.0.1:" + this.server.getAddress().getPort();
+        this.zuluClient = new ZuluClient(HttpTransport.builder()
+            .setUriRewriter(uri -> URI.create(local + uri.getRawPath() + (uri.getRawQuery() != null ? "?" + uri.getRawQuery() : "")))
+            .build());
+
+        this.appender = new ListAppender<>();
+        this.appender.start();
+        ((Logger)LoggerFactory.getLogger(JavaInstallerSkips.class)).addAppender(this.appender);
+    }
+
+    @AfterEach
+    void after() {
+        ((Logger)LoggerFactory.getLogger(JavaInstallerSkips.class)).detachAppender(this.appender);
+        this.server.stop(0);
+    }
+
+    @Test
+    void newNamingSchemeIsSkippedWithAWarning() throws Exception {
+        final List<JavaInstaller> javaInstallers = this.zuluClient.getInstallers(new JavaReleaseQuery(21)).get();
+
+        assertThat(javaInstallers.stream().map(JavaInstaller::getName).collect(Collectors.toList()),
+            contains("zulu21.38.21-ca-jdk21.0.5-linux_x64.tar.gz"));
+
+        // rather than the catalog just quietly shrinking
+        final List<ILoggingEvent> warnings = this.appender.list.stream()
+            .filter(event -> event.getLevel() == Level.WARN)
+            .collect(Collectors.toList());
+        assertThat(warnings, hasSize(1));
+        assertThat(warnings.get(0).getFormattedMessage(), startsWith("Skipped 1 zulu releases"));
+        assertThat(warnings.get(0).getFormattedMessage(), containsString("zulu21.38.21-ca-jdk21.0.5-linux-x64.tar.gz"));
+    }
+
+}
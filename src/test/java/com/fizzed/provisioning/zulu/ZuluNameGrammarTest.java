@@ -0,0 +1,61 @@
+package com.fizzed.provisioning.zulu;
+
+import com.fizzed.jne.HardwareArchitecture;
+import com.fizzed.jne.OperatingSystem;
+import com.fizzed.provisioning.JavaInstallerFixtures;
+import com.fizzed.provisioning.java.ImageType;
+import com.fizzed.provisioning.java.InstallerType;
+import com.fizzed.provisioning.java.JavaDistro;
+import com.fizzed.provisioning.java.JavaInstaller;
+import com.fizzed.provisioning.java.JavaInstallerName;
+import com.fizzed.provisioning.java.JavaInstallerParseException;
+import org.junit.jupiter.api.Test;
+
+import static com.fizzed.provisioning.JavaInstallerFixtures.describeTarget;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ZuluNameGrammarTest {
+
+    @Test
+    void parse() throws Exception {
+        final JavaInstallerName name = ZuluClient.NAME_GRAMMAR.parse("zulu21.38.21-ca-jdk21.0.5-linux_aarch64.tar.gz");
+
+        assertThat(name.getDistroVersion(), is("21.38.21"));
+        assertThat(name.getJavaVersion(), is("21.0.5"));
+        assertThat(name.getFlavor(), is(nullValue()));
+        assertThat(name.getImageType(), is(ImageType.JDK));
+        assertThat(name.getOs(), is(OperatingSystem.LINUX));
+        assertThat(name.getArch(), is(HardwareArchitecture.ARM64));
+        assertThat(name.getAbi(), is(nullValue()));
+        assertThat(name.getInstallerType(), is(InstallerType.TAR_GZ));
+    }
+
+    @Test
+    void parseFlavorIsOtherImageType() throws Exception {
+        final JavaInstallerName name = ZuluClient.NAME_GRAMMAR.parse("zulu21.38.21-ca-crac-jdk21.0.5-linux_x64.tar.gz");
+
+        assertThat(name.getFlavor(), is("crac"));
+        assertThat(name.getImageType(), is(ImageType.OTHER));
+        assertThat(name.toInstaller().getImageType(), is(ImageType.OTHER));
+    }
+
+    @Test
+    void parseFailureReportsWhereAndWhat() {
+        final JavaInstallerParseException e = assertThrows(JavaInstallerParseException.class,
+            () -> ZuluClient.NAME_GRAMMAR.parse("zulu11.76.21-ca-jre11.0.25-solaris_sparcv9.zip"));
+
+        assertThat(e.getIndex(), is(35));
+        assertThat(e.getExpected(), containsString("arch"));
+        assertThat(ZuluClient.NAME_GRAMMAR.tryParse("zulu11.76.21-ca-jre11.0.25-solaris_sparcv9.zip"), is(nullValue()));
+    }
+
+    @Test
+    void classifiesTheCatalogLikeTheApi() throws Exception {
+        for (JavaInstaller javaInstaller : JavaInstallerFixtures.catalog(JavaDistro.ZULU)) {
+            assertThat(describeTarget(ZuluClient.NAME_GRAMMAR.parse(javaInstaller.getName()).toInstaller()), is(describeTarget(javaInstaller)));
+        }
+    }
+
+}